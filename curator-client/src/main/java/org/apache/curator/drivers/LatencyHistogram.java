@@ -0,0 +1,175 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.curator.drivers;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>
+ *     A lock-free latency histogram with nanosecond resolution. Values are counted in log-linear buckets
+ *     (as in HdrHistogram): each power of two range is split into {@value #SUB_BUCKET_COUNT} equal sub-buckets,
+ *     so recorded values are accurate to within about 6%. Recording does not allocate.
+ * </p>
+ *
+ * <p>
+ *     Use {@link #snapshot()} to get a consistent-enough copy for reporting.
+ * </p>
+ */
+public class LatencyHistogram
+{
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKET_QTY = (64 - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_QTY);
+    private final LongAdder totalCount = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Record a latency
+     *
+     * @param nanos latency in nanoseconds - negative values are recorded as 0
+     */
+    public void record(long nanos)
+    {
+        nanos = Math.max(0, nanos);
+        counts.incrementAndGet(bucketIndex(nanos));
+        totalCount.increment();
+        totalNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+    }
+
+    /**
+     * Return a copy of the current state
+     *
+     * @return snapshot
+     */
+    public Snapshot snapshot()
+    {
+        long[] localCounts = new long[BUCKET_QTY];
+        long count = 0;
+        for ( int i = 0; i < BUCKET_QTY; ++i )
+        {
+            localCounts[i] = counts.get(i);
+            count += localCounts[i];
+        }
+        return new Snapshot(localCounts, count, totalNanos.sum(), maxNanos.get());
+    }
+
+    /**
+     * An immutable copy of a histogram
+     */
+    public static class Snapshot
+    {
+        private final long[] counts;
+        private final long count;
+        private final long totalNanos;
+        private final long maxNanos;
+
+        private Snapshot(long[] counts, long count, long totalNanos, long maxNanos)
+        {
+            this.counts = counts;
+            this.count = count;
+            this.totalNanos = totalNanos;
+            this.maxNanos = maxNanos;
+        }
+
+        public long getCount()
+        {
+            return count;
+        }
+
+        public long getMaxNanos()
+        {
+            return maxNanos;
+        }
+
+        public double getMeanNanos()
+        {
+            return (count > 0) ? ((double)totalNanos / count) : 0;
+        }
+
+        /**
+         * Return the latency at the given percentile. The value returned is the lower bound
+         * of the bucket that contains the percentile.
+         *
+         * @param percentile percentile (0 - 100)
+         * @return latency in nanoseconds or 0 if there are no values
+         */
+        public long getValueAtPercentile(double percentile)
+        {
+            if ( count == 0 )
+            {
+                return 0;
+            }
+
+            long target = Math.max(1, (long)Math.ceil((Math.min(100, Math.max(0, percentile)) / 100.0) * count));
+            long running = 0;
+            for ( int i = 0; i < counts.length; ++i )
+            {
+                running += counts[i];
+                if ( running >= target )
+                {
+                    return Math.min(bucketLowerBound(i), maxNanos);
+                }
+            }
+            return maxNanos;
+        }
+
+        /**
+         * Convenience - return the latency at the given percentile in the given unit
+         *
+         * @param percentile percentile (0 - 100)
+         * @param unit desired unit
+         * @return latency
+         */
+        public long getValueAtPercentile(double percentile, TimeUnit unit)
+        {
+            return unit.convert(getValueAtPercentile(percentile), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public String toString()
+        {
+            return "Snapshot{" + "count=" + count + ", meanNanos=" + getMeanNanos() + ", p50Nanos=" + getValueAtPercentile(50) + ", p99Nanos=" + getValueAtPercentile(99) + ", maxNanos=" + maxNanos + '}';
+        }
+    }
+
+    static int bucketIndex(long value)
+    {
+        if ( value < SUB_BUCKET_COUNT )
+        {
+            return (int)value;
+        }
+        int shift = (63 - Long.numberOfLeadingZeros(value)) - SUB_BUCKET_BITS;
+        int subBucket = (int)(value >>> shift) - SUB_BUCKET_COUNT;
+        return ((shift + 1) * SUB_BUCKET_COUNT) + subBucket;
+    }
+
+    static long bucketLowerBound(int index)
+    {
+        int group = index / SUB_BUCKET_COUNT;
+        int subBucket = index % SUB_BUCKET_COUNT;
+        return (group == 0) ? subBucket : ((long)(SUB_BUCKET_COUNT + subBucket) << (group - 1));
+    }
+}
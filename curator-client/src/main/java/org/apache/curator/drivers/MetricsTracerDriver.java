@@ -0,0 +1,284 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.curator.drivers;
+
+import com.google.common.collect.ImmutableMap;
+import org.apache.curator.utils.PathUtils;
+import org.apache.zookeeper.KeeperException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>
+ *     A tracer driver that aggregates metrics in memory so that they can be exported (e.g. via JMX or
+ *     a metrics endpoint). Set it via {@link org.apache.curator.CuratorZookeeperClient#setTracerDriver(TracerDriver)}
+ *     (<code>client.getZookeeperClient().setTracerDriver(driver)</code>).
+ * </p>
+ *
+ * <p>
+ *     For each operation name and for each of the given path prefixes, the driver keeps a
+ *     {@link LatencyHistogram}, request/response byte counts and counts of the error codes returned.
+ *     Events are counted by name - retries are counted via the <code>retries-allowed</code> event.
+ *     Once an operation name has been seen, recording does not allocate.
+ * </p>
+ */
+public class MetricsTracerDriver extends AdvancedTracerDriver
+{
+    public static final String RETRIES_EVENT_NAME = "retries-allowed";
+
+    private final String[] pathPrefixes;
+    private final Map<String, OperationMetrics> pathPrefixMetrics;
+    private final ConcurrentMap<String, OperationMetrics> operationMetrics = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, LongAdder> eventCounts = new ConcurrentHashMap<>();
+
+    /**
+     * @param pathPrefixes path prefixes to also aggregate by. Each operation is added to the most specific
+     *                     prefix that contains its path (if any). Note: the paths are full paths - i.e. they
+     *                     include any namespace.
+     */
+    public MetricsTracerDriver(String... pathPrefixes)
+    {
+        this.pathPrefixes = Arrays.stream(pathPrefixes).map(PathUtils::validatePath).distinct().toArray(String[]::new);
+        ImmutableMap.Builder<String, OperationMetrics> builder = ImmutableMap.builder();
+        for ( String pathPrefix : this.pathPrefixes )
+        {
+            builder.put(pathPrefix, new OperationMetrics());
+        }
+        pathPrefixMetrics = builder.build();
+    }
+
+    @Override
+    public void addTrace(OperationTrace trace)
+    {
+        getOperationMetrics(trace.getName()).record(trace);
+
+        String pathPrefix = findPathPrefix(trace.getPath());
+        if ( pathPrefix != null )
+        {
+            pathPrefixMetrics.get(pathPrefix).record(trace);
+        }
+    }
+
+    @Override
+    public void addEvent(EventTrace trace)
+    {
+        LongAdder count = eventCounts.get(trace.getName());
+        if ( count == null )
+        {
+            count = eventCounts.computeIfAbsent(trace.getName(), __ -> new LongAdder());
+        }
+        count.increment();
+    }
+
+    /**
+     * Return snapshots of the metrics for each operation name seen so far
+     *
+     * @return operation name to snapshot
+     */
+    public Map<String, OperationSnapshot> getOperationSnapshots()
+    {
+        return snapshot(operationMetrics);
+    }
+
+    /**
+     * Return snapshots of the metrics for each path prefix
+     *
+     * @return path prefix to snapshot
+     */
+    public Map<String, OperationSnapshot> getPathPrefixSnapshots()
+    {
+        return snapshot(pathPrefixMetrics);
+    }
+
+    /**
+     * Return the counts of each event name seen so far
+     *
+     * @return event name to count
+     */
+    public Map<String, Long> getEventCounts()
+    {
+        ImmutableMap.Builder<String, Long> builder = ImmutableMap.builder();
+        eventCounts.forEach((name, count) -> builder.put(name, count.sum()));
+        return builder.build();
+    }
+
+    /**
+     * Return the number of retries
+     *
+     * @return retry count
+     */
+    public long getRetryCount()
+    {
+        LongAdder count = eventCounts.get(RETRIES_EVENT_NAME);
+        return (count != null) ? count.sum() : 0;
+    }
+
+    /**
+     * A copy of the metrics for an operation name or path prefix
+     */
+    public static class OperationSnapshot
+    {
+        private final LatencyHistogram.Snapshot latency;
+        private final long requestBytes;
+        private final long responseBytes;
+        private final Map<KeeperException.Code, Long> errorCounts;
+
+        private OperationSnapshot(LatencyHistogram.Snapshot latency, long requestBytes, long responseBytes, Map<KeeperException.Code, Long> errorCounts)
+        {
+            this.latency = latency;
+            this.requestBytes = requestBytes;
+            this.responseBytes = responseBytes;
+            this.errorCounts = errorCounts;
+        }
+
+        public LatencyHistogram.Snapshot getLatency()
+        {
+            return latency;
+        }
+
+        public long getRequestBytes()
+        {
+            return requestBytes;
+        }
+
+        public long getResponseBytes()
+        {
+            return responseBytes;
+        }
+
+        /**
+         * Return the count of each non-OK code returned
+         *
+         * @return code to count
+         */
+        public Map<KeeperException.Code, Long> getErrorCounts()
+        {
+            return errorCounts;
+        }
+
+        /**
+         * Return the total of all non-OK codes returned
+         *
+         * @return count
+         */
+        public long getErrorCount()
+        {
+            return errorCounts.values().stream().mapToLong(Long::longValue).sum();
+        }
+
+        @Override
+        public String toString()
+        {
+            return "OperationSnapshot{" + "latency=" + latency + ", requestBytes=" + requestBytes + ", responseBytes=" + responseBytes + ", errorCounts=" + errorCounts + '}';
+        }
+    }
+
+    private static class OperationMetrics
+    {
+        // return codes are 0 or small negative numbers - index by the negated code
+        private static final int MAX_CODE_INDEX = 256;
+
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LongAdder requestBytes = new LongAdder();
+        private final LongAdder responseBytes = new LongAdder();
+        private final AtomicLongArray codeCounts = new AtomicLongArray(MAX_CODE_INDEX);
+
+        void record(OperationTrace trace)
+        {
+            latency.record(trace.getLatencyNanos());
+            requestBytes.add(trace.getRequestBytesLength());
+            responseBytes.add(trace.getResponseBytesLength());
+
+            int codeIndex = -trace.getReturnCode();
+            if ( (codeIndex > 0) && (codeIndex < MAX_CODE_INDEX) )
+            {
+                codeCounts.incrementAndGet(codeIndex);
+            }
+            else if ( codeIndex != 0 )
+            {
+                codeCounts.incrementAndGet(-KeeperException.Code.SYSTEMERROR.intValue());
+            }
+        }
+
+        OperationSnapshot snapshot()
+        {
+            Map<KeeperException.Code, Long> errorCounts = new EnumMap<>(KeeperException.Code.class);
+            for ( int i = 1; i < MAX_CODE_INDEX; ++i )
+            {
+                long count = codeCounts.get(i);
+                if ( count > 0 )
+                {
+                    KeeperException.Code code = KeeperException.Code.get(-i);
+                    errorCounts.merge((code != null) ? code : KeeperException.Code.SYSTEMERROR, count, Long::sum);
+                }
+            }
+            return new OperationSnapshot(latency.snapshot(), requestBytes.sum(), responseBytes.sum(), Collections.unmodifiableMap(errorCounts));
+        }
+    }
+
+    private OperationMetrics getOperationMetrics(String name)
+    {
+        OperationMetrics metrics = operationMetrics.get(name);
+        if ( metrics == null )
+        {
+            metrics = operationMetrics.computeIfAbsent(name, __ -> new OperationMetrics());
+        }
+        return metrics;
+    }
+
+    private String findPathPrefix(String path)
+    {
+        if ( path == null )
+        {
+            return null;
+        }
+
+        String bestPrefix = null;
+        for ( String prefix : pathPrefixes )
+        {
+            if ( ((bestPrefix == null) || (prefix.length() > bestPrefix.length())) && isPrefix(prefix, path) )
+            {
+                bestPrefix = prefix;
+            }
+        }
+        return bestPrefix;
+    }
+
+    private static boolean isPrefix(String prefix, String path)
+    {
+        if ( !path.startsWith(prefix) )
+        {
+            return false;
+        }
+        return (path.length() == prefix.length()) || prefix.equals("/") || (path.charAt(prefix.length()) == '/');
+    }
+
+    private static Map<String, OperationSnapshot> snapshot(Map<String, OperationMetrics> metrics)
+    {
+        ImmutableMap.Builder<String, OperationSnapshot> builder = ImmutableMap.builder();
+        metrics.forEach((name, operationMetrics) -> builder.put(name, operationMetrics.snapshot()));
+        return builder.build();
+    }
+}
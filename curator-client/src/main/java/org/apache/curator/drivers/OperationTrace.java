@@ -35,6 +35,7 @@ public class OperationTrace
 
     private int returnCode = KeeperException.Code.OK.intValue();
     private long latencyMs;
+    private long latencyNanos;
     private long requestBytesLength;
     private long responseBytesLength;
     private String path;
@@ -126,6 +127,10 @@ public class OperationTrace
       return this.latencyMs;
     }
 
+    public long getLatencyNanos() {
+      return this.latencyNanos;
+    }
+
     public long getRequestBytesLength() {
       return this.requestBytesLength;
     }
@@ -152,6 +157,7 @@ public class OperationTrace
 
     public void commit() {
       long elapsed = System.nanoTime() - startTimeNanos;
+      this.latencyNanos = elapsed;
       this.latencyMs = TimeUnit.MILLISECONDS.convert(elapsed, TimeUnit.NANOSECONDS);
       if (this.driver instanceof AdvancedTracerDriver) {
         ((AdvancedTracerDriver) this.driver).addTrace(this);
@@ -0,0 +1,89 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.curator.drivers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.apache.zookeeper.KeeperException;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+public class TestMetricsTracerDriver
+{
+    @Test
+    public void testHistogramBuckets()
+    {
+        for ( long value : new long[]{0, 1, 15, 16, 17, 31, 32, 33, 1000, 123456789, Long.MAX_VALUE} )
+        {
+            int index = LatencyHistogram.bucketIndex(value);
+            long lowerBound = LatencyHistogram.bucketLowerBound(index);
+            assertTrue(lowerBound <= value);
+            assertTrue((value - lowerBound) <= (value / 16), "value: " + value);
+            if ( index > 0 )
+            {
+                assertTrue(LatencyHistogram.bucketLowerBound(index - 1) < lowerBound);
+            }
+        }
+
+        LatencyHistogram histogram = new LatencyHistogram();
+        for ( int i = 1; i <= 100; ++i )
+        {
+            histogram.record(i * 1000L);
+        }
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(snapshot.getCount(), 100);
+        assertEquals(snapshot.getMaxNanos(), 100000);
+        assertEquals(snapshot.getMeanNanos(), 50500.0);
+        long p50 = snapshot.getValueAtPercentile(50);
+        assertTrue((p50 > 45000) && (p50 <= 50000), "p50: " + p50);
+        assertTrue(snapshot.getValueAtPercentile(100) > 95000);
+    }
+
+    @Test
+    public void testOperationsAndEvents()
+    {
+        MetricsTracerDriver driver = new MetricsTracerDriver("/a", "/a/b");
+
+        new OperationTrace("op1", driver).setPath("/a/b/c").setRequestBytesLength(10).setResponseBytesLength(20).commit();
+        new OperationTrace("op1", driver).setPath("/a/bc").setReturnCode(KeeperException.Code.NONODE.intValue()).commit();
+        new OperationTrace("op2", driver).setPath("/x").setReturnCode(KeeperException.Code.NONODE.intValue()).commit();
+        new EventTrace(MetricsTracerDriver.RETRIES_EVENT_NAME, driver).commit();
+        new EventTrace(MetricsTracerDriver.RETRIES_EVENT_NAME, driver).commit();
+
+        Map<String, MetricsTracerDriver.OperationSnapshot> operations = driver.getOperationSnapshots();
+        assertEquals(operations.size(), 2);
+        MetricsTracerDriver.OperationSnapshot op1 = operations.get("op1");
+        assertEquals(op1.getLatency().getCount(), 2);
+        assertEquals(op1.getRequestBytes(), 10);
+        assertEquals(op1.getResponseBytes(), 20);
+        assertEquals(op1.getErrorCount(), 1);
+        assertEquals(op1.getErrorCounts().get(KeeperException.Code.NONODE).longValue(), 1);
+
+        Map<String, MetricsTracerDriver.OperationSnapshot> prefixes = driver.getPathPrefixSnapshots();
+        assertEquals(prefixes.get("/a/b").getLatency().getCount(), 1);
+        assertEquals(prefixes.get("/a").getLatency().getCount(), 1);
+        assertFalse(prefixes.containsKey("/x"));
+
+        assertEquals(driver.getRetryCount(), 2);
+        assertEquals(driver.getEventCounts().get(MetricsTracerDriver.RETRIES_EVENT_NAME).longValue(), 2);
+    }
+}
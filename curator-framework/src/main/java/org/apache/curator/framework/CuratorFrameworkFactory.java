@@ -36,6 +36,7 @@ import org.apache.curator.framework.schema.SchemaSet;
 import org.apache.curator.framework.state.ConnectionStateErrorPolicy;
 import org.apache.curator.framework.state.ConnectionStateListenerManagerFactory;
 import org.apache.curator.framework.state.StandardConnectionStateErrorPolicy;
+import org.apache.curator.framework.throttle.RequestGovernor;
 import org.apache.curator.utils.DefaultZookeeperFactory;
 import org.apache.curator.utils.ZookeeperFactory;
 import org.apache.zookeeper.CreateMode;
@@ -150,6 +151,7 @@ public class CuratorFrameworkFactory
         private Executor runSafeService = null;
         private ConnectionStateListenerManagerFactory connectionStateListenerManagerFactory = ConnectionStateListenerManagerFactory.standard;
         private int simulatedSessionExpirationPercent = 100;
+        private RequestGovernor requestGovernor = null;
 
         /**
          * Apply the current values and build a new CuratorFramework
@@ -511,6 +513,25 @@ public class CuratorFrameworkFactory
             return this;
         }
 
+        /**
+         * By default, the client does not limit how fast requests are sent. Set a governor to
+         * rate limit/prioritize outgoing create, delete, setData, getData, getChildren, exists
+         * and transaction requests. E.g. {@link org.apache.curator.framework.throttle.TokenBucketRequestGovernor}
+         *
+         * @param requestGovernor the governor or <code>null</code> for no limits
+         * @return this
+         */
+        public Builder requestGovernor(RequestGovernor requestGovernor)
+        {
+            this.requestGovernor = requestGovernor;
+            return this;
+        }
+
+        public RequestGovernor getRequestGovernor()
+        {
+            return requestGovernor;
+        }
+
         public Executor getRunSafeService()
         {
             return runSafeService;
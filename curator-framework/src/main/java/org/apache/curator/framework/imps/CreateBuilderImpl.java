@@ -28,6 +28,7 @@ import org.apache.curator.framework.api.*;
 import org.apache.curator.framework.api.transaction.OperationType;
 import org.apache.curator.framework.api.transaction.TransactionCreateBuilder;
 import org.apache.curator.framework.api.transaction.TransactionCreateBuilder2;
+import org.apache.curator.framework.throttle.RequestType;
 import org.apache.curator.utils.InternalACLProvider;
 import org.apache.curator.utils.ThreadUtils;
 import org.apache.curator.utils.ZKPaths;
@@ -572,14 +573,16 @@ public class CreateBuilderImpl implements CreateBuilder, CreateBuilder2, Backgro
         final String adjustedPath = adjustPath(client.fixForNamespace(givenPath, createMode.isSequential()));
         List<ACL> aclList = acling.getAclList(adjustedPath);
         client.getSchemaSet().getSchema(givenPath).validateCreate(createMode, givenPath, data, aclList);
+        RequestType requestType = createMode.isEphemeral() ? RequestType.CREATE_EPHEMERAL : RequestType.CREATE;
 
         String returnPath = null;
         if ( backgrounding.inBackground() )
         {
-            pathInBackground(adjustedPath, data, givenPath);
+            pathInBackground(adjustedPath, data, givenPath, requestType);
         }
         else
         {
+            client.governRequest(requestType, adjustedPath);
             String path = protectedPathInForeground(adjustedPath, data, aclList);
             returnPath = client.unfixForNamespace(path);
         }
@@ -1030,7 +1033,7 @@ public class CreateBuilderImpl implements CreateBuilder, CreateBuilder2, Backgro
     @VisibleForTesting
     volatile boolean debugForceFindProtectedNode = false;
 
-    private void pathInBackground(final String path, final byte[] data, final String givenPath)
+    private void pathInBackground(final String path, final byte[] data, final String givenPath, RequestType requestType)
     {
         final AtomicBoolean firstTime = new AtomicBoolean(true);
         OperationAndData<PathAndBytes> operationAndData = new OperationAndData<PathAndBytes>(this, new PathAndBytes(path, data), backgrounding.getCallback(),
@@ -1098,7 +1101,7 @@ public class CreateBuilderImpl implements CreateBuilder, CreateBuilder2, Backgro
                 }
             }
         };
-        client.processBackgroundOperation(operationAndData, null);
+        client.processBackgroundOperation(operationAndData.governedAs(requestType, path, 1), null);
     }
 
     private String pathInForeground(final String path, final byte[] data, final List<ACL> aclList) throws Exception
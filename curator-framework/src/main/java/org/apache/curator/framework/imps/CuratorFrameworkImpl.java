@@ -41,6 +41,8 @@ import org.apache.curator.framework.state.ConnectionState;
 import org.apache.curator.framework.state.ConnectionStateErrorPolicy;
 import org.apache.curator.framework.state.ConnectionStateListener;
 import org.apache.curator.framework.state.ConnectionStateManager;
+import org.apache.curator.framework.throttle.RequestGovernor;
+import org.apache.curator.framework.throttle.RequestType;
 import org.apache.curator.utils.Compatibility;
 import org.apache.curator.utils.DebugUtils;
 import org.apache.curator.utils.EnsurePath;
@@ -89,6 +91,7 @@ public class CuratorFrameworkImpl implements CuratorFramework
     private final EnsembleTracker ensembleTracker;
     private final SchemaSet schemaSet;
     private final Executor runSafeService;
+    private final RequestGovernor requestGovernor;
 
     private volatile ExecutorService executorService;
     private final AtomicBoolean logAsErrorConnectionErrors = new AtomicBoolean(false);
@@ -156,6 +159,7 @@ public class CuratorFrameworkImpl implements CuratorFramework
         ensembleTracker = builder.withEnsembleTracker() ? new EnsembleTracker(this, builder.getEnsembleProvider()) : null;
 
         runSafeService = makeRunSafeService(builder);
+        requestGovernor = builder.getRequestGovernor();
     }
 
     private Executor makeRunSafeService(CuratorFrameworkFactory.Builder builder)
@@ -253,6 +257,7 @@ public class CuratorFrameworkImpl implements CuratorFramework
         schemaSet = parent.schemaSet;
         ensembleTracker = null;
         runSafeService = parent.runSafeService;
+        requestGovernor = parent.requestGovernor;
     }
 
     @Override
@@ -615,6 +620,80 @@ public class CuratorFrameworkImpl implements CuratorFramework
         return client.getZooKeeper();
     }
 
+    /**
+     * Wait in the calling thread until the request governor (if any) admits the request. Only for
+     * foreground requests - background operations are governed via {@link OperationAndData#governedAs(RequestType, String, int)}
+     */
+    void governRequest(RequestType type, String path, int permits) throws InterruptedException
+    {
+        if ( requestGovernor != null )
+        {
+            long startNanos = System.nanoTime();
+            long waitedNanos = 0;
+            long sleepNanos;
+            OperationTrace trace = null;
+            while ( (sleepNanos = requestGovernor.tryAcquire(type, path, permits, waitedNanos)) > 0 )
+            {
+                if ( trace == null )
+                {
+                    trace = startThrottleTrace(type);
+                }
+                TimeUnit.NANOSECONDS.sleep(sleepNanos);
+                waitedNanos = System.nanoTime() - startNanos;
+            }
+            if ( trace != null )
+            {
+                trace.setPath(path).commit();
+            }
+        }
+    }
+
+    void governRequest(RequestType type, String path) throws InterruptedException
+    {
+        governRequest(type, path, 1);
+    }
+
+    // never blocks - returns false if the operation was re-queued to wait for the request governor
+    private boolean admitBackgroundOperation(OperationAndData<?> operationAndData)
+    {
+        RequestType type = operationAndData.getRequestType();
+        if ( (requestGovernor == null) || (type == null) )
+        {
+            return true;
+        }
+
+        long waitedNanos = operationAndData.getThrottledNanos();
+        long sleepNanos = requestGovernor.tryAcquire(type, operationAndData.getRequestPath(), operationAndData.getRequestPermits(), waitedNanos);
+        if ( sleepNanos > 0 )
+        {
+            if ( operationAndData.getThrottleTrace() == null )
+            {
+                operationAndData.setThrottleTrace(startThrottleTrace(type));
+            }
+            operationAndData.throttleFor(sleepNanos);
+            if ( queueOperation(operationAndData) )
+            {
+                return false;
+            }
+            // client is no longer started - let the operation run (and fail) normally rather than silently dropping it
+            operationAndData.clearSleep();
+        }
+        operationAndData.admitted();
+        OperationTrace trace = operationAndData.getThrottleTrace();
+        if ( trace != null )
+        {
+            trace.setPath(operationAndData.getRequestPath()).commit();
+        }
+        return true;
+    }
+
+    // the trace's latency is the time the request was held back. OperationTrace.commit() reports it to both
+    // simple and advanced tracer drivers
+    private OperationTrace startThrottleTrace(RequestType type)
+    {
+        return client.startAdvancedTracer("request-throttled-" + type.name().toLowerCase());
+    }
+
     CompressionProvider getCompressionProvider()
     {
         return compressionProvider;
@@ -969,6 +1048,11 @@ public class CuratorFrameworkImpl implements CuratorFramework
     {
         try
         {
+            if ( !admitBackgroundOperation(operationAndData) )
+            {
+                return;
+            }
+
             if ( !operationAndData.isConnectionRequired() || client.isConnected() )
             {
                 operationAndData.callPerformBackgroundOperation();
@@ -33,6 +33,7 @@ import org.apache.curator.framework.api.transaction.CuratorMultiTransactionMain;
 import org.apache.curator.framework.api.transaction.CuratorOp;
 import org.apache.curator.framework.api.transaction.CuratorTransactionResult;
 import org.apache.curator.framework.schema.Schema;
+import org.apache.curator.framework.throttle.RequestType;
 import org.apache.zookeeper.AsyncCallback;
 import org.apache.zookeeper.CreateMode;
 import org.apache.zookeeper.OpResult;
@@ -150,13 +151,16 @@ public class CuratorMultiTransactionImpl implements
             }
         }
 
+        // one permit per operation - a transaction costs the ensemble about as much as its operations sent singly
+        String governedPath = operations.get(0).get().getPath();
         if ( backgrounding.inBackground() )
         {
-            client.processBackgroundOperation(new OperationAndData<>(this, record, backgrounding.getCallback(), null, backgrounding.getContext(), null), null);
+            client.processBackgroundOperation(new OperationAndData<>(this, record, backgrounding.getCallback(), null, backgrounding.getContext(), null).governedAs(RequestType.TRANSACTION, governedPath, operations.size()), null);
             return null;
         }
         else
         {
+            client.governRequest(RequestType.TRANSACTION, governedPath, operations.size());
             return forOperationsInForeground(record);
         }
     }
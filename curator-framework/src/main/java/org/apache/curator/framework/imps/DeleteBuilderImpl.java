@@ -23,6 +23,7 @@ import org.apache.curator.drivers.OperationTrace;
 import org.apache.curator.framework.api.*;
 import org.apache.curator.framework.api.transaction.OperationType;
 import org.apache.curator.framework.api.transaction.TransactionDeleteBuilder;
+import org.apache.curator.framework.throttle.RequestType;
 import org.apache.curator.utils.ThreadUtils;
 import org.apache.curator.utils.ZKPaths;
 import org.apache.zookeeper.AsyncCallback;
@@ -242,10 +243,11 @@ public class DeleteBuilderImpl implements DeleteBuilder, BackgroundOperation<Str
                     }
                 };
             }
-            client.processBackgroundOperation(new OperationAndData<String>(this, path, backgrounding.getCallback(), errorCallback, backgrounding.getContext(), null), null);
+            client.processBackgroundOperation(new OperationAndData<String>(this, path, backgrounding.getCallback(), errorCallback, backgrounding.getContext(), null).governedAs(RequestType.DELETE, path, 1), null);
         }
         else
         {
+            client.governRequest(RequestType.DELETE, path);
             pathInForeground(path, unfixedPath);
         }
         return null;
@@ -21,6 +21,7 @@ package org.apache.curator.framework.imps;
 import org.apache.curator.RetryLoop;
 import org.apache.curator.drivers.OperationTrace;
 import org.apache.curator.framework.api.*;
+import org.apache.curator.framework.throttle.RequestType;
 import org.apache.curator.utils.ZKPaths;
 import org.apache.zookeeper.AsyncCallback;
 import org.apache.zookeeper.KeeperException;
@@ -191,7 +192,7 @@ public class ExistsBuilderImpl implements ExistsBuilder, BackgroundOperation<Str
         Stat        returnStat = null;
         if ( backgrounding.inBackground() )
         {
-            OperationAndData<String> operationAndData = new OperationAndData<String>(this, path, backgrounding.getCallback(), null, backgrounding.getContext(), watching);
+            OperationAndData<String> operationAndData = new OperationAndData<String>(this, path, backgrounding.getCallback(), null, backgrounding.getContext(), watching).governedAs(RequestType.EXISTS, path, 1);
             if ( createParentContainersIfNeeded || createParentsIfNeeded )
             {
                 CreateBuilderImpl.backgroundCreateParentsThenNode(client, operationAndData, operationAndData.getData(), backgrounding, acling.getACLProviderForParents(), createParentContainersIfNeeded);
@@ -203,6 +204,7 @@ public class ExistsBuilderImpl implements ExistsBuilder, BackgroundOperation<Str
         }
         else
         {
+            client.governRequest(RequestType.EXISTS, path);
             returnStat = pathInForeground(path);
         }
 
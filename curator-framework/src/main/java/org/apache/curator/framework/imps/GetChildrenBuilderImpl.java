@@ -30,6 +30,7 @@ import org.apache.curator.framework.api.GetChildrenBuilder;
 import org.apache.curator.framework.api.Pathable;
 import org.apache.curator.framework.api.UnhandledErrorListener;
 import org.apache.curator.framework.api.WatchPathable;
+import org.apache.curator.framework.throttle.RequestType;
 import org.apache.zookeeper.AsyncCallback;
 import org.apache.zookeeper.KeeperException;
 import org.apache.zookeeper.Watcher;
@@ -212,10 +213,11 @@ public class GetChildrenBuilderImpl implements GetChildrenBuilder, BackgroundOpe
         List<String>        children = null;
         if ( backgrounding.inBackground() )
         {
-            client.processBackgroundOperation(new OperationAndData<String>(this, path, backgrounding.getCallback(), null, backgrounding.getContext(), watching), null);
+            client.processBackgroundOperation(new OperationAndData<String>(this, path, backgrounding.getCallback(), null, backgrounding.getContext(), watching).governedAs(RequestType.GET_CHILDREN, path, 1), null);
         }
         else
         {
+            client.governRequest(RequestType.GET_CHILDREN, path);
             children = pathInForeground(path);
         }
         return children;
@@ -21,6 +21,7 @@ package org.apache.curator.framework.imps;
 import org.apache.curator.RetryLoop;
 import org.apache.curator.drivers.OperationTrace;
 import org.apache.curator.framework.api.*;
+import org.apache.curator.framework.throttle.RequestType;
 import org.apache.curator.utils.ThreadUtils;
 import org.apache.zookeeper.AsyncCallback;
 import org.apache.zookeeper.KeeperException;
@@ -297,10 +298,11 @@ public class GetDataBuilderImpl implements GetDataBuilder, BackgroundOperation<S
         byte[]      responseData = null;
         if ( backgrounding.inBackground() )
         {
-            client.processBackgroundOperation(new OperationAndData<String>(this, path, backgrounding.getCallback(), null, backgrounding.getContext(), watching), null);
+            client.processBackgroundOperation(new OperationAndData<String>(this, path, backgrounding.getCallback(), null, backgrounding.getContext(), watching).governedAs(RequestType.GET_DATA, path, 1), null);
         }
         else
         {
+            client.governRequest(RequestType.GET_DATA, path);
             responseData = pathInForeground(path);
         }
         return responseData;
@@ -21,7 +21,9 @@ package org.apache.curator.framework.imps;
 
 import com.google.common.annotations.VisibleForTesting;
 import org.apache.curator.RetrySleeper;
+import org.apache.curator.drivers.OperationTrace;
 import org.apache.curator.framework.api.BackgroundCallback;
+import org.apache.curator.framework.throttle.RequestType;
 import java.util.concurrent.Delayed;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -41,6 +43,11 @@ class OperationAndData<T> implements Delayed, RetrySleeper
     private final AtomicLong ordinal = new AtomicLong();
     private final Object context;
     private final boolean connectionRequired;
+    private volatile RequestType requestType;     // non-null until admitted by the request governor
+    private volatile String requestPath;
+    private volatile int requestPermits;
+    private volatile long throttleStartNanos;
+    private volatile OperationTrace throttleTrace;
 
     interface ErrorCallback<T>
     {
@@ -69,6 +76,66 @@ class OperationAndData<T> implements Delayed, RetrySleeper
         this(operation, data, callback, errorCallback, context, true);
     }
 
+    /**
+     * Mark this operation as subject to the client's request governor before its first execution
+     *
+     * @param type request type
+     * @param path full path
+     * @param permits permits the request costs
+     * @return this
+     */
+    OperationAndData<T> governedAs(RequestType type, String path, int permits)
+    {
+        requestType = type;
+        requestPath = path;
+        requestPermits = permits;
+        return this;
+    }
+
+    RequestType getRequestType()
+    {
+        return requestType;
+    }
+
+    String getRequestPath()
+    {
+        return requestPath;
+    }
+
+    int getRequestPermits()
+    {
+        return requestPermits;
+    }
+
+    long getThrottledNanos()
+    {
+        return (throttleStartNanos != 0) ? (System.nanoTime() - throttleStartNanos) : 0;
+    }
+
+    void throttleFor(long nanos)
+    {
+        if ( throttleStartNanos == 0 )
+        {
+            throttleStartNanos = System.nanoTime();
+        }
+        sleepUntilTimeMs.set(System.currentTimeMillis() + Math.max(1, TimeUnit.NANOSECONDS.toMillis(nanos)));
+    }
+
+    OperationTrace getThrottleTrace()
+    {
+        return throttleTrace;
+    }
+
+    void setThrottleTrace(OperationTrace throttleTrace)
+    {
+        this.throttleTrace = throttleTrace;
+    }
+
+    void admitted()
+    {
+        requestType = null;
+    }
+
     Object getContext()
     {
         return context;
@@ -23,6 +23,7 @@ import org.apache.curator.drivers.OperationTrace;
 import org.apache.curator.framework.api.*;
 import org.apache.curator.framework.api.transaction.OperationType;
 import org.apache.curator.framework.api.transaction.TransactionSetDataBuilder;
+import org.apache.curator.framework.throttle.RequestType;
 import org.apache.zookeeper.AsyncCallback;
 import org.apache.zookeeper.Op;
 import org.apache.zookeeper.ZooDefs;
@@ -263,10 +264,11 @@ public class SetDataBuilderImpl implements SetDataBuilder, BackgroundOperation<P
         Stat        resultStat = null;
         if ( backgrounding.inBackground()  )
         {
-            client.processBackgroundOperation(new OperationAndData<>(this, new PathAndBytes(path, data), backgrounding.getCallback(), null, backgrounding.getContext(), null), null);
+            client.processBackgroundOperation(new OperationAndData<>(this, new PathAndBytes(path, data), backgrounding.getCallback(), null, backgrounding.getContext(), null).governedAs(RequestType.SET_DATA, path, 1), null);
         }
         else
         {
+            client.governRequest(RequestType.SET_DATA, path);
             resultStat = pathInForeground(path, data);
         }
         return resultStat;
@@ -0,0 +1,95 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.curator.framework.state;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Dispatch metrics for a single {@link ConnectionStateListener}. "Lag" is the time from when a state
+ * change was posted until the listener was called. "Dispatch time" is the time the listener took to
+ * process the state change.
+ */
+public class ConnectionStateListenerMetrics
+{
+    private final AtomicLong dispatchCount = new AtomicLong();
+    private final AtomicLong totalLagNanos = new AtomicLong();
+    private final AtomicLong maxLagNanos = new AtomicLong();
+    private final AtomicLong totalDispatchNanos = new AtomicLong();
+    private final AtomicLong maxDispatchNanos = new AtomicLong();
+
+    void record(long lagNanos, long dispatchNanos)
+    {
+        dispatchCount.incrementAndGet();
+        totalLagNanos.addAndGet(lagNanos);
+        maxLagNanos.accumulateAndGet(lagNanos, Math::max);
+        totalDispatchNanos.addAndGet(dispatchNanos);
+        maxDispatchNanos.accumulateAndGet(dispatchNanos, Math::max);
+    }
+
+    /**
+     * @return number of state changes sent to the listener
+     */
+    public long getDispatchCount()
+    {
+        return dispatchCount.get();
+    }
+
+    /**
+     * @param unit desired unit
+     * @return total lag of all state changes sent to the listener
+     */
+    public long getTotalLag(TimeUnit unit)
+    {
+        return unit.convert(totalLagNanos.get(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @param unit desired unit
+     * @return maximum lag of any state change sent to the listener
+     */
+    public long getMaxLag(TimeUnit unit)
+    {
+        return unit.convert(maxLagNanos.get(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @param unit desired unit
+     * @return total time the listener has spent processing state changes
+     */
+    public long getTotalDispatchTime(TimeUnit unit)
+    {
+        return unit.convert(totalDispatchNanos.get(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @param unit desired unit
+     * @return maximum time the listener has spent processing a single state change
+     */
+    public long getMaxDispatchTime(TimeUnit unit)
+    {
+        return unit.convert(maxDispatchNanos.get(), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public String toString()
+    {
+        return "ConnectionStateListenerMetrics{" + "dispatchCount=" + dispatchCount + ", totalLagNanos=" + totalLagNanos + ", maxLagNanos=" + maxLagNanos + ", totalDispatchNanos=" + totalDispatchNanos + ", maxDispatchNanos=" + maxDispatchNanos + '}';
+    }
+}
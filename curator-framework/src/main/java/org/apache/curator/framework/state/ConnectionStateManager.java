@@ -20,6 +20,8 @@
 package org.apache.curator.framework.state;
 
 import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.MapMaker;
 import org.apache.curator.framework.CuratorFramework;
 import org.apache.curator.framework.listen.Listenable;
 import org.apache.curator.framework.listen.UnaryListenerManager;
@@ -27,22 +29,34 @@ import org.apache.curator.utils.ThreadUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import java.io.Closeable;
-import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.BlockingQueue;
+import java.util.Map;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 
 /**
+ * <p>
  * Used internally to manage connection state
+ * </p>
+ *
+ * <p>
+ * State changes are posted to a fixed size ring buffer and dispatched to listeners on a
+ * dedicated thread. Redundant transitions that have not yet been dispatched are coalesced: a pending
+ * SUSPENDED followed by RECONNECTED is collapsed into a single RECONNECTED (which is itself dropped if
+ * the previous pending state is already CONNECTED/RECONNECTED). Coalescing can be disabled by setting
+ * the system property <code>ConnectionStateManagerCoalesce</code> to <code>false</code>. If the buffer is
+ * full, the oldest pending state is dropped - the latest state is never dropped.
+ * </p>
  */
 public class ConnectionStateManager implements Closeable
 {
     private static final int QUEUE_SIZE;
+    private static final boolean COALESCE = Boolean.parseBoolean(System.getProperty("ConnectionStateManagerCoalesce", "true"));
 
     static
     {
@@ -63,7 +77,15 @@ public class ConnectionStateManager implements Closeable
     }
 
     private final Logger log = LoggerFactory.getLogger(getClass());
-    private final BlockingQueue<ConnectionState> eventQueue = new ArrayBlockingQueue<ConnectionState>(QUEUE_SIZE);
+    private final Object eventLock = new Object();
+    private final ConnectionState[] eventRing = new ConnectionState[QUEUE_SIZE];    // guarded by eventLock
+    private final long[] eventPostNanos = new long[QUEUE_SIZE];   // guarded by eventLock
+    private int eventHead = 0;  // guarded by eventLock
+    private int eventCount = 0; // guarded by eventLock
+    private long dispatchPostNanos = 0; // only accessed by the event thread
+    private final AtomicLong droppedEventCount = new AtomicLong();
+    private final AtomicLong coalescedEventCount = new AtomicLong();
+    private final Map<ConnectionStateListener, ConnectionStateListenerMetrics> listenerMetrics = new MapMaker().weakKeys().makeMap();
     private final CuratorFramework client;
     private final int sessionTimeoutMs;
     private final int sessionExpirationPercent;
@@ -157,6 +179,36 @@ public class ConnectionStateManager implements Closeable
         return listeners;
     }
 
+    /**
+     * Return dispatch metrics for each listener that has been sent a state change
+     *
+     * @return listener to metrics
+     */
+    public Map<ConnectionStateListener, ConnectionStateListenerMetrics> getListenerMetrics()
+    {
+        return ImmutableMap.copyOf(listenerMetrics);
+    }
+
+    /**
+     * Return the number of state changes that were dropped because the event buffer was full
+     *
+     * @return count
+     */
+    public long getDroppedEventCount()
+    {
+        return droppedEventCount.get();
+    }
+
+    /**
+     * Return the number of redundant state changes that were coalesced before being dispatched
+     *
+     * @return count
+     */
+    public long getCoalescedEventCount()
+    {
+        return coalescedEventCount.get();
+    }
+
     /**
      * Change to {@link ConnectionState#SUSPENDED} only if not already suspended and not lost
      *
@@ -251,13 +303,85 @@ public class ConnectionStateManager implements Closeable
 
         notifyAll();
 
-        while ( !eventQueue.offer(state) )
+        synchronized(eventLock)
         {
-            eventQueue.poll();
-            log.warn("ConnectionStateManager queue full - dropping events to make room");
+            if ( COALESCE && (state == ConnectionState.RECONNECTED) && (eventCount > 0) && (eventAt(eventCount - 1) == ConnectionState.SUSPENDED) )
+            {
+                --eventCount;
+                coalescedEventCount.incrementAndGet();
+                if ( eventCount > 0 )
+                {
+                    ConnectionState previous = eventAt(eventCount - 1);
+                    if ( (previous == ConnectionState.CONNECTED) || (previous == ConnectionState.RECONNECTED) )
+                    {
+                        coalescedEventCount.incrementAndGet();
+                        return;
+                    }
+                }
+            }
+
+            if ( eventCount == eventRing.length )
+            {
+                eventHead = (eventHead + 1) % eventRing.length;
+                --eventCount;
+                droppedEventCount.incrementAndGet();
+                log.warn("ConnectionStateManager queue full - dropping events to make room");
+            }
+            int index = (eventHead + eventCount) % eventRing.length;
+            eventRing[index] = state;
+            eventPostNanos[index] = System.nanoTime();
+            ++eventCount;
+            eventLock.notifyAll();
+        }
+    }
+
+    // must be called while holding eventLock
+    private ConnectionState eventAt(int offset)
+    {
+        return eventRing[(eventHead + offset) % eventRing.length];
+    }
+
+    private ConnectionState pollEvent(long maxWaitMs) throws InterruptedException
+    {
+        synchronized(eventLock)
+        {
+            long deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+            while ( eventCount == 0 )
+            {
+                long waitMs = TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime());
+                if ( waitMs <= 0 )
+                {
+                    return null;
+                }
+                eventLock.wait(waitMs);
+            }
+
+            ConnectionState newState = eventRing[eventHead];
+            dispatchPostNanos = eventPostNanos[eventHead];
+            eventRing[eventHead] = null;
+            eventHead = (eventHead + 1) % eventRing.length;
+            --eventCount;
+            return newState;
         }
     }
 
+    private void dispatch(ConnectionState newState)
+    {
+        final long postNanos = dispatchPostNanos;
+        listeners.forEach(listener -> {
+            long startNanos = System.nanoTime();
+            try
+            {
+                listener.stateChanged(client, newState);
+            }
+            finally
+            {
+                // NOTE: listeners added with an executor are called on that executor, so lag includes the executor's queueing time
+                listenerMetrics.computeIfAbsent(listener, dummy -> new ConnectionStateListenerMetrics()).record(startNanos - postNanos, System.nanoTime() - startNanos);
+            }
+        });
+    }
+
     private void processEvents()
     {
         while ( state.get() == State.STARTED )
@@ -268,7 +392,7 @@ public class ConnectionStateManager implements Closeable
                 long elapsedMs = startOfSuspendedEpoch == 0 ? useSessionTimeoutMs / 2 : System.currentTimeMillis() - startOfSuspendedEpoch;
                 long pollMaxMs = useSessionTimeoutMs - elapsedMs;
 
-                final ConnectionState newState = eventQueue.poll(pollMaxMs, TimeUnit.MILLISECONDS);
+                final ConnectionState newState = pollEvent(pollMaxMs);
                 if ( newState != null )
                 {
                     if ( listeners.isEmpty() )
@@ -276,7 +400,7 @@ public class ConnectionStateManager implements Closeable
                         log.warn("There are no ConnectionStateListeners registered.");
                     }
 
-                    listeners.forEach(listener -> listener.stateChanged(client, newState));
+                    dispatch(newState);
                 }
                 else if ( sessionExpirationPercent > 0 )
                 {
@@ -0,0 +1,239 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.curator.framework.state;
+
+import com.google.common.base.Preconditions;
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.utils.ThreadUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.io.Closeable;
+import java.util.Objects;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * <p>
+ * Spreads out the resync work that recipes do after a {@link ConnectionState#RECONNECTED}. When a
+ * ZooKeeper server restarts, every client connected to it reconnects at about the same moment and, without
+ * a governor, every cache, lock, latch, etc. re-reads its state at once. Recipes that are given a governor
+ * pass their resync work to {@link #execute(Runnable)} which runs it after a random delay within the current
+ * window. Because each client picks its own random delay, resync load is spread across the fleet.
+ * </p>
+ *
+ * <p>
+ * The window is sized from the observed ensemble latency: <code>latency * latencyMultiplier</code> bounded
+ * by <code>[minWindowMs, maxWindowMs]</code>. The latency estimate is an exponentially weighted moving
+ * average of round trips measured by the governor (a <code>checkExists()</code> when started and on
+ * each reconnect) plus any latencies reported via {@link #recordLatency(long, TimeUnit)}. A slow
+ * ensemble thus gets a wider window.
+ * </p>
+ *
+ * <p>
+ * A single governor is meant to be shared by all recipes that use the same client.
+ * </p>
+ */
+public class ReconnectGovernor implements Closeable
+{
+    public static final long DEFAULT_MIN_WINDOW_MS = 100;
+    public static final long DEFAULT_MAX_WINDOW_MS = 30000;
+    public static final double DEFAULT_LATENCY_MULTIPLIER = 100;
+
+    private static final double EWMA_ALPHA = 0.3;
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
+    private final CuratorFramework client;
+    private final long minWindowMs;
+    private final long maxWindowMs;
+    private final double latencyMultiplier;
+    private final AtomicReference<State> state = new AtomicReference<>(State.LATENT);
+    private final ConnectionStateListener connectionStateListener = new ConnectionStateListener()
+    {
+        @Override
+        public void stateChanged(CuratorFramework client, ConnectionState newState)
+        {
+            if ( newState == ConnectionState.RECONNECTED )
+            {
+                probe();
+            }
+        }
+    };
+    private volatile double latencyEstimateMs = -1;
+    private volatile ScheduledExecutorService executorService;
+
+    private enum State
+    {
+        LATENT,
+        STARTED,
+        CLOSED
+    }
+
+    /**
+     * Uses {@link #DEFAULT_MIN_WINDOW_MS}, {@link #DEFAULT_MAX_WINDOW_MS} and {@link #DEFAULT_LATENCY_MULTIPLIER}
+     *
+     * @param client the client
+     */
+    public ReconnectGovernor(CuratorFramework client)
+    {
+        this(client, DEFAULT_MIN_WINDOW_MS, DEFAULT_MAX_WINDOW_MS, DEFAULT_LATENCY_MULTIPLIER);
+    }
+
+    /**
+     * @param client the client
+     * @param minWindowMs minimum window for resync delays
+     * @param maxWindowMs maximum window for resync delays
+     * @param latencyMultiplier the window is the latency estimate multiplied by this value
+     */
+    public ReconnectGovernor(CuratorFramework client, long minWindowMs, long maxWindowMs, double latencyMultiplier)
+    {
+        Preconditions.checkArgument(minWindowMs >= 0, "minWindowMs cannot be negative");
+        Preconditions.checkArgument(maxWindowMs >= minWindowMs, "maxWindowMs must be >= minWindowMs");
+        Preconditions.checkArgument(latencyMultiplier >= 0, "latencyMultiplier cannot be negative");
+        this.client = Objects.requireNonNull(client, "client cannot be null");
+        this.minWindowMs = minWindowMs;
+        this.maxWindowMs = maxWindowMs;
+        this.latencyMultiplier = latencyMultiplier;
+    }
+
+    /**
+     * Start the governor. Until started, {@link #execute(Runnable)} runs work immediately.
+     */
+    public void start()
+    {
+        Preconditions.checkState(state.compareAndSet(State.LATENT, State.STARTED), "Cannot be started more than once");
+        executorService = ThreadUtils.newSingleThreadScheduledExecutor("ReconnectGovernor");
+        client.getConnectionStateListenable().addListener(connectionStateListener);
+        if ( client.getZookeeperClient().isConnected() )
+        {
+            probe();
+        }
+    }
+
+    /**
+     * Stop the governor. Pending delayed work is discarded.
+     */
+    @Override
+    public void close()
+    {
+        if ( state.compareAndSet(State.STARTED, State.CLOSED) )
+        {
+            client.getConnectionStateListenable().removeListener(connectionStateListener);
+            executorService.shutdownNow();
+        }
+    }
+
+    /**
+     * Run the given resync work after a random delay within the current window. If the governor
+     * is not started, the work is run immediately in the calling thread.
+     *
+     * @param resync resync work
+     */
+    public void execute(Runnable resync)
+    {
+        if ( state.get() == State.STARTED )
+        {
+            try
+            {
+                executorService.schedule(() -> runSafely(resync), nextDelayMs(), TimeUnit.MILLISECONDS);
+                return;
+            }
+            catch ( RejectedExecutionException ignore )
+            {
+                // closed - run now
+            }
+        }
+        runSafely(resync);
+    }
+
+    /**
+     * Return a random delay within the current window
+     *
+     * @return delay in milliseconds
+     */
+    public long nextDelayMs()
+    {
+        long windowMs = getWindowMs();
+        return (windowMs > 0) ? ThreadLocalRandom.current().nextLong(windowMs) : 0;
+    }
+
+    /**
+     * Return the current window based on the latency estimate
+     *
+     * @return window in milliseconds
+     */
+    public long getWindowMs()
+    {
+        double localLatencyEstimateMs = latencyEstimateMs;
+        long windowMs = (localLatencyEstimateMs >= 0) ? (long)(localLatencyEstimateMs * latencyMultiplier) : minWindowMs;
+        return Math.min(maxWindowMs, Math.max(minWindowMs, windowMs));
+    }
+
+    /**
+     * Add an observed ensemble latency sample to the estimate
+     *
+     * @param latency the latency
+     * @param unit latency unit
+     */
+    public synchronized void recordLatency(long latency, TimeUnit unit)
+    {
+        double sampleMs = unit.toNanos(latency) / 1_000_000.0;
+        double localLatencyEstimateMs = latencyEstimateMs;
+        latencyEstimateMs = (localLatencyEstimateMs < 0) ? sampleMs : ((EWMA_ALPHA * sampleMs) + ((1 - EWMA_ALPHA) * localLatencyEstimateMs));
+    }
+
+    /**
+     * Return the current latency estimate or -1 if there have been no samples yet
+     *
+     * @return estimate in milliseconds
+     */
+    public double getLatencyEstimateMs()
+    {
+        return latencyEstimateMs;
+    }
+
+    private void probe()
+    {
+        final long startNanos = System.nanoTime();
+        try
+        {
+            client.checkExists().inBackground((dummy, event) -> recordLatency(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS)).forPath("/");
+        }
+        catch ( Exception e )
+        {
+            ThreadUtils.checkInterrupted(e);
+            log.debug("Could not probe ensemble latency", e);
+        }
+    }
+
+    private void runSafely(Runnable resync)
+    {
+        try
+        {
+            resync.run();
+        }
+        catch ( Exception e )
+        {
+            ThreadUtils.checkInterrupted(e);
+            log.error("Resync work threw an exception", e);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.curator.framework.throttle;
+
+/**
+ * Client-side admission control for outgoing ZooKeeper requests. Set via
+ * {@link org.apache.curator.framework.CuratorFrameworkFactory.Builder#requestGovernor(RequestGovernor)}.
+ * {@link #tryAcquire(RequestType, String, int, long)} is called before a request is first sent (retries
+ * are not governed). It must never block: it either admits the request or says how long to wait. The
+ * framework does the waiting - foreground requests wait in the calling thread while background
+ * requests are put back on the framework's background queue with a delay, so ZooKeeper's event thread
+ * (from which recipes issue most of their background requests) is never blocked.
+ */
+public interface RequestGovernor
+{
+    /**
+     * Admit the request or return how long to wait before asking again. If the request is not
+     * admitted, nothing is consumed.
+     *
+     * @param type the request type
+     * @param path the full ZooKeeper path of the request (i.e. including any namespace). For transactions, the
+     *             path of the first operation.
+     * @param permits number of permits the request costs (the number of operations for transactions, otherwise 1)
+     * @param waitedNanos how long this request has been held back so far (0 on the first call)
+     * @return 0 if the request is admitted, otherwise the nanoseconds to wait before calling again
+     */
+    long tryAcquire(RequestType type, String path, int permits, long waitedNanos);
+}
@@ -0,0 +1,43 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.curator.framework.throttle;
+
+/**
+ * Priority classes used by {@link TokenBucketRequestGovernor}
+ */
+public enum RequestPriority
+{
+    /**
+     * Never throttled. Tokens are still consumed (buckets can go into debt) so that
+     * lower priority requests make room for these. Meant for latency-critical requests
+     * such as lock, leader and heartbeat traffic.
+     */
+    HIGH,
+
+    /**
+     * Throttled when the buckets are empty
+     */
+    NORMAL,
+
+    /**
+     * Throttled unless the buckets hold more than the reserve that is kept for
+     * {@link #NORMAL} requests. Meant for bulk reads such as cache rebuilds.
+     */
+    BULK
+}
@@ -0,0 +1,72 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.curator.framework.throttle;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Throttle counters for one {@link RequestPriority} of a {@link TokenBucketRequestGovernor}
+ */
+public class ThrottleMetrics
+{
+    private final LongAdder admittedCount = new LongAdder();
+    private final LongAdder throttledCount = new LongAdder();
+    private final LongAdder throttledNanos = new LongAdder();
+
+    void record(long waitNanos)
+    {
+        admittedCount.increment();
+        if ( waitNanos > 0 )
+        {
+            throttledCount.increment();
+            throttledNanos.add(waitNanos);
+        }
+    }
+
+    /**
+     * @return number of requests admitted
+     */
+    public long getAdmittedCount()
+    {
+        return admittedCount.sum();
+    }
+
+    /**
+     * @return number of admitted requests that had to wait
+     */
+    public long getThrottledCount()
+    {
+        return throttledCount.sum();
+    }
+
+    /**
+     * @return total time requests spent waiting in milliseconds
+     */
+    public long getThrottledTimeMs()
+    {
+        return TimeUnit.NANOSECONDS.toMillis(throttledNanos.sum());
+    }
+
+    @Override
+    public String toString()
+    {
+        return "ThrottleMetrics{" + "admittedCount=" + getAdmittedCount() + ", throttledCount=" + getThrottledCount() + ", throttledTimeMs=" + getThrottledTimeMs() + '}';
+    }
+}
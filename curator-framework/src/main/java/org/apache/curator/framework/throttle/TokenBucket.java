@@ -0,0 +1,81 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.curator.framework.throttle;
+
+import java.util.concurrent.TimeUnit;
+
+class TokenBucket
+{
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final double permitsPerSecond;
+    private final double burst;
+    private double tokens;              // guarded by this
+    private long lastRefillNanos;       // guarded by this
+
+    TokenBucket(double permitsPerSecond, int burst)
+    {
+        this.permitsPerSecond = permitsPerSecond;
+        this.burst = burst;
+        tokens = burst;
+        lastRefillNanos = System.nanoTime();
+    }
+
+    double getBurst()
+    {
+        return burst;
+    }
+
+    /**
+     * Return how long until the given number of permits are available above the given reserve. Nothing
+     * is taken. Requests for more than a burst only need a full bucket.
+     *
+     * @param reserve tokens that must remain in the bucket
+     * @param permits number of permits
+     * @return 0 if the permits are available, otherwise the nanoseconds to wait
+     */
+    synchronized long nanosUntilAvailable(double reserve, int permits)
+    {
+        refill();
+        double needed = Math.min(reserve + permits, burst);
+        if ( tokens >= needed )
+        {
+            return 0;
+        }
+        return Math.max(1, (long)(((needed - tokens) * NANOS_PER_SECOND) / permitsPerSecond));
+    }
+
+    /**
+     * Take the given number of permits unconditionally - the bucket can go into debt of at most one burst
+     *
+     * @param permits number of permits
+     */
+    synchronized void take(int permits)
+    {
+        refill();
+        tokens = Math.max(-burst, tokens - permits);
+    }
+
+    private void refill()
+    {
+        long now = System.nanoTime();
+        tokens = Math.min(burst, tokens + (((now - lastRefillNanos) * permitsPerSecond) / NANOS_PER_SECOND));
+        lastRefillNanos = now;
+    }
+}
@@ -0,0 +1,283 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.curator.framework.throttle;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+import org.apache.curator.utils.PathUtils;
+import org.apache.curator.utils.ZKPaths;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * <p>
+ *     A {@link RequestGovernor} that uses token buckets. Limits can be set for all requests, per {@link RequestType}
+ *     and per path prefix (the most specific prefix wins). A request must get a token from each bucket that applies to it.
+ * </p>
+ *
+ * <p>
+ *     Each request is given a {@link RequestPriority}, by path prefix (the most specific prefix wins) or else
+ *     by request type. By default, {@link RequestType#CREATE_EPHEMERAL} (locks, leader latches, etc.) is
+ *     {@link RequestPriority#HIGH}, {@link RequestType#GET_DATA} and {@link RequestType#GET_CHILDREN} are
+ *     {@link RequestPriority#BULK} and everything else is {@link RequestPriority#NORMAL}. High priority requests
+ *     are never throttled but they consume tokens, so they preempt lower priority requests.
+ * </p>
+ *
+ * <p>
+ *     A request is only admitted when every bucket that applies to it can supply its permits (one per
+ *     operation for transactions), and then takes from all of them at once. Tokens are never held while
+ *     waiting for another bucket.
+ * </p>
+ */
+public class TokenBucketRequestGovernor implements RequestGovernor
+{
+    public static final double DEFAULT_BULK_RESERVE = 0.5;
+
+    private final TokenBucket globalBucket;
+    private final Map<RequestType, TokenBucket> typeBuckets;
+    private final Map<String, TokenBucket> pathBuckets;
+    private final Map<RequestType, RequestPriority> typePriorities;
+    private final Map<String, RequestPriority> pathPriorities;
+    private final double bulkReserve;
+    private final Map<RequestPriority, ThrottleMetrics> metrics;
+
+    public static Builder builder()
+    {
+        return new Builder();
+    }
+
+    public static class Builder
+    {
+        private TokenBucket globalBucket = null;
+        private final Map<RequestType, TokenBucket> typeBuckets = new EnumMap<>(RequestType.class);
+        private final Map<String, TokenBucket> pathBuckets = Maps.newHashMap();
+        private final Map<RequestType, RequestPriority> typePriorities = new EnumMap<>(RequestType.class);
+        private final Map<String, RequestPriority> pathPriorities = Maps.newHashMap();
+        private double bulkReserve = DEFAULT_BULK_RESERVE;
+
+        private Builder()
+        {
+            typePriorities.put(RequestType.CREATE_EPHEMERAL, RequestPriority.HIGH);
+            typePriorities.put(RequestType.GET_DATA, RequestPriority.BULK);
+            typePriorities.put(RequestType.GET_CHILDREN, RequestPriority.BULK);
+        }
+
+        /**
+         * Limit all requests
+         *
+         * @param permitsPerSecond sustained rate
+         * @param burst maximum burst
+         * @return this
+         */
+        public Builder withGlobalLimit(double permitsPerSecond, int burst)
+        {
+            globalBucket = newBucket(permitsPerSecond, burst);
+            return this;
+        }
+
+        /**
+         * Limit requests of the given type
+         *
+         * @param type request type
+         * @param permitsPerSecond sustained rate
+         * @param burst maximum burst
+         * @return this
+         */
+        public Builder withTypeLimit(RequestType type, double permitsPerSecond, int burst)
+        {
+            typeBuckets.put(Objects.requireNonNull(type, "type cannot be null"), newBucket(permitsPerSecond, burst));
+            return this;
+        }
+
+        /**
+         * Limit requests for the given path and its descendants
+         *
+         * @param pathPrefix full path (i.e. including any namespace)
+         * @param permitsPerSecond sustained rate
+         * @param burst maximum burst
+         * @return this
+         */
+        public Builder withPathLimit(String pathPrefix, double permitsPerSecond, int burst)
+        {
+            pathBuckets.put(PathUtils.validatePath(pathPrefix), newBucket(permitsPerSecond, burst));
+            return this;
+        }
+
+        /**
+         * Set the priority of requests of the given type
+         *
+         * @param type request type
+         * @param priority priority
+         * @return this
+         */
+        public Builder withTypePriority(RequestType type, RequestPriority priority)
+        {
+            typePriorities.put(Objects.requireNonNull(type, "type cannot be null"), Objects.requireNonNull(priority, "priority cannot be null"));
+            return this;
+        }
+
+        /**
+         * Set the priority of requests for the given path and its descendants. Takes precedence over
+         * type priorities.
+         *
+         * @param pathPrefix full path (i.e. including any namespace)
+         * @param priority priority
+         * @return this
+         */
+        public Builder withPathPriority(String pathPrefix, RequestPriority priority)
+        {
+            pathPriorities.put(PathUtils.validatePath(pathPrefix), Objects.requireNonNull(priority, "priority cannot be null"));
+            return this;
+        }
+
+        /**
+         * Change the fraction of each bucket that is kept in reserve for {@link RequestPriority#NORMAL}
+         * requests. The default is {@link #DEFAULT_BULK_RESERVE}.
+         *
+         * @param bulkReserve fraction (0 - 1)
+         * @return this
+         */
+        public Builder withBulkReserve(double bulkReserve)
+        {
+            Preconditions.checkArgument((bulkReserve >= 0) && (bulkReserve < 1), "bulkReserve must be >= 0 and < 1");
+            this.bulkReserve = bulkReserve;
+            return this;
+        }
+
+        public TokenBucketRequestGovernor build()
+        {
+            return new TokenBucketRequestGovernor(this);
+        }
+
+        private static TokenBucket newBucket(double permitsPerSecond, int burst)
+        {
+            Preconditions.checkArgument(permitsPerSecond > 0, "permitsPerSecond must be greater than 0");
+            Preconditions.checkArgument(burst > 0, "burst must be greater than 0");
+            return new TokenBucket(permitsPerSecond, burst);
+        }
+    }
+
+    private TokenBucketRequestGovernor(Builder builder)
+    {
+        globalBucket = builder.globalBucket;
+        typeBuckets = new EnumMap<>(builder.typeBuckets);
+        pathBuckets = ImmutableMap.copyOf(builder.pathBuckets);
+        typePriorities = new EnumMap<>(builder.typePriorities);
+        pathPriorities = ImmutableMap.copyOf(builder.pathPriorities);
+        bulkReserve = builder.bulkReserve;
+
+        EnumMap<RequestPriority, ThrottleMetrics> localMetrics = new EnumMap<>(RequestPriority.class);
+        for ( RequestPriority priority : RequestPriority.values() )
+        {
+            localMetrics.put(priority, new ThrottleMetrics());
+        }
+        metrics = localMetrics;
+    }
+
+    @Override
+    public long tryAcquire(RequestType type, String path, int permits, long waitedNanos)
+    {
+        RequestPriority priority = getPriority(type, path);
+        long waitNanos = tryTake(priority, permits, globalBucket, typeBuckets.get(type), findByPrefix(pathBuckets, path));
+        if ( waitNanos == 0 )
+        {
+            metrics.get(priority).record(waitedNanos);
+        }
+        return waitNanos;
+    }
+
+    /**
+     * Return the throttle metrics for the given priority
+     *
+     * @param priority priority
+     * @return metrics
+     */
+    public ThrottleMetrics getMetrics(RequestPriority priority)
+    {
+        return metrics.get(priority);
+    }
+
+    /**
+     * Return the priority that applies to the given request
+     *
+     * @param type request type
+     * @param path full path
+     * @return priority
+     */
+    public RequestPriority getPriority(RequestType type, String path)
+    {
+        RequestPriority priority = findByPrefix(pathPriorities, path);
+        if ( priority == null )
+        {
+            priority = typePriorities.getOrDefault(type, RequestPriority.NORMAL);
+        }
+        return priority;
+    }
+
+    // check every bucket first and take from all of them or none. Synchronized so that concurrent requests
+    // can't each see enough tokens in one bucket and then overdraw it
+    private synchronized long tryTake(RequestPriority priority, int permits, TokenBucket... buckets)
+    {
+        if ( priority != RequestPriority.HIGH )
+        {
+            long waitNanos = 0;
+            for ( TokenBucket bucket : buckets )
+            {
+                if ( bucket != null )
+                {
+                    double reserve = (priority == RequestPriority.BULK) ? (bucket.getBurst() * bulkReserve) : 0;
+                    waitNanos = Math.max(waitNanos, bucket.nanosUntilAvailable(reserve, permits));
+                }
+            }
+            if ( waitNanos > 0 )
+            {
+                return waitNanos;
+            }
+        }
+
+        for ( TokenBucket bucket : buckets )
+        {
+            if ( bucket != null )
+            {
+                bucket.take(permits);
+            }
+        }
+        return 0;
+    }
+
+    private static <T> T findByPrefix(Map<String, T> map, String path)
+    {
+        if ( map.isEmpty() || (path == null) )
+        {
+            return null;
+        }
+
+        for(;;)
+        {
+            T value = map.get(path);
+            if ( (value != null) || path.equals(ZKPaths.PATH_SEPARATOR) )
+            {
+                return value;
+            }
+            path = ZKPaths.getPathAndNode(path).getPath();
+        }
+    }
+}
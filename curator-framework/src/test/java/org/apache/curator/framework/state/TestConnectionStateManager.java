@@ -18,6 +18,8 @@
  */
 package org.apache.curator.framework.state;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import org.apache.curator.framework.CuratorFramework;
@@ -30,7 +32,9 @@ import org.apache.curator.utils.CloseableUtils;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
 
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 
 @Tag(CuratorTestBase.zk35TestCompatibilityGroup)
@@ -83,4 +87,60 @@ public class TestConnectionStateManager extends BaseClassForTests {
             CloseableUtils.closeQuietly(client);
         }
     }
+
+    @Test
+    public void testCoalescingAndListenerMetrics() throws Exception
+    {
+        Timing2 timing = new Timing2();
+        try ( CuratorFramework client = CuratorFrameworkFactory.newClient(server.getConnectString(), timing.session(), timing.connection(), new RetryOneTime(1)) )
+        {
+            ConnectionStateManager manager = new ConnectionStateManager(client, null, timing.session(), 0);
+            try
+            {
+                BlockingQueue<ConnectionState> states = new LinkedBlockingQueue<>();
+                CountDownLatch blockLatch = new CountDownLatch(1);
+                ConnectionStateListener listener = new ConnectionStateListener()
+                {
+                    @Override
+                    public void stateChanged(CuratorFramework client, ConnectionState newState)
+                    {
+                        states.add(newState);
+                        try
+                        {
+                            blockLatch.await();
+                        }
+                        catch ( InterruptedException e )
+                        {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                };
+                manager.getListenable().addListener(listener);
+                manager.start();
+
+                manager.addStateChange(ConnectionState.CONNECTED);
+                assertEquals(timing.takeFromQueue(states), ConnectionState.CONNECTED);
+
+                // listener is blocked - SUSPENDED/RECONNECTED should be coalesced into RECONNECTED
+                manager.addStateChange(ConnectionState.SUSPENDED);
+                manager.addStateChange(ConnectionState.RECONNECTED);
+                blockLatch.countDown();
+                assertEquals(timing.takeFromQueue(states), ConnectionState.RECONNECTED);
+                timing.sleepABit();
+                assertTrue(states.isEmpty());
+                assertEquals(manager.getCoalescedEventCount(), 1);
+                assertEquals(manager.getDroppedEventCount(), 0);
+
+                ConnectionStateListenerMetrics metrics = manager.getListenerMetrics().get(listener);
+                assertNotNull(metrics);
+                assertEquals(metrics.getDispatchCount(), 2);
+                assertTrue(metrics.getMaxDispatchTime(TimeUnit.NANOSECONDS) > 0);
+                assertTrue(metrics.getMaxLag(TimeUnit.NANOSECONDS) >= 0);
+            }
+            finally
+            {
+                manager.close();
+            }
+        }
+    }
 }
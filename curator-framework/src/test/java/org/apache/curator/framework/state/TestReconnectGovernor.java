@@ -0,0 +1,90 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.curator.framework.state;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.CuratorFrameworkFactory;
+import org.apache.curator.retry.RetryOneTime;
+import org.apache.curator.test.BaseClassForTests;
+import org.apache.curator.test.compatibility.CuratorTestBase;
+import org.apache.curator.test.compatibility.Timing2;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+@Tag(CuratorTestBase.zk35TestCompatibilityGroup)
+public class TestReconnectGovernor extends BaseClassForTests
+{
+    @Test
+    public void testWindow() throws Exception
+    {
+        try ( CuratorFramework client = CuratorFrameworkFactory.newClient(server.getConnectString(), new RetryOneTime(1)) )
+        {
+            ReconnectGovernor governor = new ReconnectGovernor(client, 10, 1000, 10);
+            assertEquals(governor.getWindowMs(), 10);   // no samples yet
+
+            governor.recordLatency(20, TimeUnit.MILLISECONDS);
+            assertEquals(governor.getWindowMs(), 200);
+
+            governor.recordLatency(10, TimeUnit.SECONDS);
+            assertEquals(governor.getWindowMs(), 1000);
+
+            for ( int i = 0; i < 100; ++i )
+            {
+                long delayMs = governor.nextDelayMs();
+                assertTrue((delayMs >= 0) && (delayMs < 1000));
+            }
+        }
+    }
+
+    @Test
+    public void testExecute() throws Exception
+    {
+        Timing2 timing = new Timing2();
+        try ( CuratorFramework client = CuratorFrameworkFactory.newClient(server.getConnectString(), timing.session(), timing.connection(), new RetryOneTime(1)) )
+        {
+            client.start();
+            BlockingQueue<Thread> threads = new LinkedBlockingQueue<>();
+
+            ReconnectGovernor governor = new ReconnectGovernor(client, 100, 200, 1);
+            governor.execute(() -> threads.add(Thread.currentThread()));
+            assertEquals(threads.poll(), Thread.currentThread());  // not started - run inline
+
+            governor.start();
+            try
+            {
+                governor.execute(() -> threads.add(Thread.currentThread()));
+                Thread thread = timing.takeFromQueue(threads);
+                assertNotNull(thread);
+                assertTrue(thread != Thread.currentThread());
+            }
+            finally
+            {
+                governor.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,176 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.curator.framework.throttle;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.CuratorFrameworkFactory;
+import org.apache.curator.retry.RetryOneTime;
+import org.apache.curator.test.BaseClassForTests;
+import org.apache.curator.test.Timing;
+import org.apache.curator.test.compatibility.CuratorTestBase;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+@Tag(CuratorTestBase.zk35TestCompatibilityGroup)
+public class TestTokenBucketRequestGovernor extends BaseClassForTests
+{
+    private final Timing timing = new Timing();
+
+    @Test
+    public void testPriorities()
+    {
+        TokenBucketRequestGovernor governor = TokenBucketRequestGovernor.builder()
+            .withPathPriority("/locks", RequestPriority.HIGH)
+            .withPathPriority("/locks/bulk", RequestPriority.BULK)
+            .withTypePriority(RequestType.DELETE, RequestPriority.HIGH)
+            .build();
+
+        assertEquals(governor.getPriority(RequestType.CREATE_EPHEMERAL, "/a"), RequestPriority.HIGH);
+        assertEquals(governor.getPriority(RequestType.GET_DATA, "/a"), RequestPriority.BULK);
+        assertEquals(governor.getPriority(RequestType.SET_DATA, "/a"), RequestPriority.NORMAL);
+        assertEquals(governor.getPriority(RequestType.DELETE, "/a"), RequestPriority.HIGH);
+        assertEquals(governor.getPriority(RequestType.GET_DATA, "/locks/one/two"), RequestPriority.HIGH);
+        assertEquals(governor.getPriority(RequestType.GET_DATA, "/locksmith"), RequestPriority.BULK);
+        assertEquals(governor.getPriority(RequestType.CREATE_EPHEMERAL, "/locks/bulk/x"), RequestPriority.BULK);
+    }
+
+    @Test
+    public void testBucket()
+    {
+        TokenBucket bucket = new TokenBucket(0.001, 10);
+        assertEquals(bucket.nanosUntilAvailable(0, 20), 0);    // more than a burst only needs a full bucket
+        for ( int i = 0; i < 5; ++i )
+        {
+            assertEquals(bucket.nanosUntilAvailable(0, 1), 0);
+            bucket.take(1);
+        }
+        assertTrue(bucket.nanosUntilAvailable(5, 1) > 0);  // bulk must leave the reserve
+        assertEquals(bucket.nanosUntilAvailable(0, 1), 0);  // normal can use the reserve
+        assertTrue(bucket.nanosUntilAvailable(0, 6) > 0);   // not enough for 6 permits
+        bucket.take(5);
+        assertTrue(bucket.nanosUntilAvailable(0, 1) > 0);   // empty
+
+        bucket.take(100);   // high priority is never throttled - but debt is limited to one burst
+        long debtWait = bucket.nanosUntilAvailable(0, 1);
+        assertTrue(debtWait > 0);
+        assertTrue(debtWait <= TimeUnit.SECONDS.toNanos(11000));
+    }
+
+    @Test
+    public void testThrottling() throws Exception
+    {
+        TokenBucketRequestGovernor governor = TokenBucketRequestGovernor.builder()
+            .withTypeLimit(RequestType.SET_DATA, 20, 1)
+            .build();
+        try ( CuratorFramework client = CuratorFrameworkFactory.builder()
+            .connectString(server.getConnectString())
+            .retryPolicy(new RetryOneTime(1))
+            .requestGovernor(governor)
+            .build() )
+        {
+            client.start();
+            client.create().forPath("/test");
+
+            long startMs = System.currentTimeMillis();
+            for ( int i = 0; i < 5; ++i )
+            {
+                client.setData().forPath("/test", new byte[]{(byte)i});
+            }
+            assertTrue((System.currentTimeMillis() - startMs) >= 150);
+
+            client.getData().forPath("/test");
+            assertEquals(governor.getMetrics(RequestPriority.NORMAL).getAdmittedCount(), 6);
+            assertTrue(governor.getMetrics(RequestPriority.NORMAL).getThrottledCount() >= 3);
+            assertEquals(governor.getMetrics(RequestPriority.BULK).getAdmittedCount(), 1);
+            assertEquals(governor.getMetrics(RequestPriority.BULK).getThrottledCount(), 0);
+        }
+    }
+
+    @Test
+    public void testAllOrNothing()
+    {
+        TokenBucketRequestGovernor governor = TokenBucketRequestGovernor.builder()
+            .withGlobalLimit(0.001, 10)
+            .withPathLimit("/limited", 0.001, 1)
+            .build();
+
+        assertEquals(governor.tryAcquire(RequestType.SET_DATA, "/limited/a", 1, 0), 0);
+        for ( int i = 0; i < 5; ++i )
+        {
+            assertTrue(governor.tryAcquire(RequestType.SET_DATA, "/limited/a", 1, 0) > 0);   // path bucket is empty
+        }
+
+        // the refused requests above must not have consumed global tokens
+        for ( int i = 0; i < 9; ++i )
+        {
+            assertEquals(governor.tryAcquire(RequestType.SET_DATA, "/other", 1, 0), 0);
+        }
+        assertTrue(governor.tryAcquire(RequestType.SET_DATA, "/other", 1, 0) > 0);
+    }
+
+    @Test
+    public void testTransactionPermits()
+    {
+        TokenBucketRequestGovernor governor = TokenBucketRequestGovernor.builder()
+            .withTypeLimit(RequestType.TRANSACTION, 0.001, 5)
+            .build();
+
+        assertEquals(governor.tryAcquire(RequestType.TRANSACTION, "/a", 3, 0), 0);
+        assertTrue(governor.tryAcquire(RequestType.TRANSACTION, "/a", 3, 0) > 0);   // only 2 ops worth left
+        assertEquals(governor.tryAcquire(RequestType.TRANSACTION, "/a", 2, 0), 0);
+    }
+
+    @Test
+    public void testBackgroundNotBlocked() throws Exception
+    {
+        TokenBucketRequestGovernor governor = TokenBucketRequestGovernor.builder()
+            .withTypeLimit(RequestType.SET_DATA, 20, 1)
+            .build();
+        try ( CuratorFramework client = CuratorFrameworkFactory.builder()
+            .connectString(server.getConnectString())
+            .retryPolicy(new RetryOneTime(1))
+            .requestGovernor(governor)
+            .build() )
+        {
+            client.start();
+            client.create().forPath("/test");
+
+            final int qty = 5;
+            CountDownLatch latch = new CountDownLatch(qty);
+            long startMs = System.currentTimeMillis();
+            for ( int i = 0; i < qty; ++i )
+            {
+                client.setData().inBackground((c, event) -> latch.countDown()).forPath("/test", new byte[]{(byte)i});
+            }
+            long issueMs = System.currentTimeMillis() - startMs;
+            assertTrue(latch.await(timing.milliseconds(), TimeUnit.MILLISECONDS));
+            long totalMs = System.currentTimeMillis() - startMs;
+
+            assertTrue(issueMs < 150, "Background requests blocked the caller: " + issueMs);
+            assertTrue(totalMs >= 150, "Background requests were not throttled: " + totalMs);
+            assertEquals(governor.getMetrics(RequestPriority.NORMAL).getAdmittedCount(), 1 + qty);
+            assertTrue(governor.getMetrics(RequestPriority.NORMAL).getThrottledCount() >= 3);
+        }
+    }
+}
@@ -0,0 +1,262 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.curator.framework.recipes.atomic;
+
+import com.google.common.base.Preconditions;
+import org.apache.curator.utils.ThreadUtils;
+import java.io.Closeable;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * <p>Like {@link CachedAtomicLong}, uses a {@link DistributedAtomicLong} and allocates values in chunks. However,
+ * once the number of values remaining in the current chunk falls to the low-water mark, the next chunk is
+ * allocated in the background so that callers rarely have to wait for ZooKeeper. Unlike {@link CachedAtomicLong},
+ * this class is safe for use by concurrent callers and does not block other callers while a chunk is allocated.</p>
+ *
+ * <p>NOTE: values are never returned more than once but, when the instance is discarded, the unused values
+ * of the current and prefetched chunks are never returned (i.e. there can be gaps). Under concurrency,
+ * values are not necessarily returned in increasing order.</p>
+ */
+public class PrefetchingCachedAtomicLong implements Closeable
+{
+    private final DistributedAtomicLong number;
+    private final long cacheFactor;
+    private final long lowWaterMark;
+    private final Executor executor;
+    private final ExecutorService ownedExecutor;
+    private final AtomicReference<Range> current = new AtomicReference<>();
+    private final AtomicReference<CompletableFuture<Range>> prefetch = new AtomicReference<>();
+    private final Queue<Range> spareRanges = new ConcurrentLinkedQueue<>();
+
+    private static class Range
+    {
+        private final long end;
+        private final AtomicLong next;
+
+        private Range(long start, long end)
+        {
+            this.end = end;
+            next = new AtomicLong(start);
+        }
+    }
+
+    /**
+     * Prefetches when half of the current chunk has been used, allocating on an internal thread
+     *
+     * @param number the number to use
+     * @param cacheFactor the number of values to allocate at a time
+     */
+    public PrefetchingCachedAtomicLong(DistributedAtomicLong number, int cacheFactor)
+    {
+        this(number, cacheFactor, cacheFactor / 2, null);
+    }
+
+    /**
+     * @param number the number to use
+     * @param cacheFactor the number of values to allocate at a time
+     * @param lowWaterMark when this number of values (or fewer) remain in the current chunk, the next chunk is allocated
+     * @param executor executor used to allocate chunks or <code>null</code> to use an internal thread
+     */
+    public PrefetchingCachedAtomicLong(DistributedAtomicLong number, int cacheFactor, int lowWaterMark, Executor executor)
+    {
+        Preconditions.checkArgument(cacheFactor > 0, "cacheFactor must be greater than 0");
+        Preconditions.checkArgument((lowWaterMark >= 0) && (lowWaterMark < cacheFactor), "lowWaterMark must be >= 0 and < cacheFactor");
+        this.number = Objects.requireNonNull(number, "number cannot be null");
+        this.cacheFactor = cacheFactor;
+        this.lowWaterMark = lowWaterMark;
+        ownedExecutor = (executor == null) ? ThreadUtils.newSingleThreadExecutor("PrefetchingCachedAtomicLong") : null;
+        this.executor = (executor == null) ? ownedExecutor : executor;
+    }
+
+    /**
+     * Returns the next value (incrementing by 1). If the current chunk is exhausted and the next chunk
+     * is not yet available, this method waits for it.
+     *
+     * @return next increment
+     * @throws Exception errors
+     */
+    public AtomicValue<Long> next() throws Exception
+    {
+        while ( true )
+        {
+            Range range = current.get();
+            AtomicValue<Long> value = tryNext(range);
+            if ( value != null )
+            {
+                return value;
+            }
+
+            CompletableFuture<Range> future = startPrefetch();
+            Range newRange;
+            try
+            {
+                newRange = future.get();
+            }
+            catch ( ExecutionException e )
+            {
+                prefetch.compareAndSet(future, null);
+                Throwable cause = e.getCause();
+                if ( cause instanceof Exception )
+                {
+                    throw (Exception)cause;
+                }
+                throw e;
+            }
+            if ( !install(range, future, newRange) )
+            {
+                return failed();
+            }
+        }
+    }
+
+    /**
+     * Returns the next value (incrementing by 1). If a value is available in the current chunk the
+     * returned stage is already complete, otherwise it completes once the next chunk has been allocated.
+     *
+     * @return stage with the next increment
+     */
+    public CompletionStage<AtomicValue<Long>> nextAsync()
+    {
+        Range range = current.get();
+        AtomicValue<Long> value = tryNext(range);
+        if ( value != null )
+        {
+            return CompletableFuture.completedFuture(value);
+        }
+
+        CompletableFuture<Range> future = startPrefetch();
+        return future.<CompletionStage<AtomicValue<Long>>>handle((newRange, e) -> {
+            if ( e != null )
+            {
+                prefetch.compareAndSet(future, null);
+                CompletableFuture<AtomicValue<Long>> errorStage = new CompletableFuture<>();
+                errorStage.completeExceptionally(e);
+                return errorStage;
+            }
+            return install(range, future, newRange) ? nextAsync() : CompletableFuture.completedFuture(failed());
+        }).thenCompose(stage -> stage);
+    }
+
+    /**
+     * Shuts down the internal allocation thread (if one is being used)
+     */
+    @Override
+    public void close()
+    {
+        if ( ownedExecutor != null )
+        {
+            ownedExecutor.shutdownNow();
+        }
+    }
+
+    private AtomicValue<Long> tryNext(Range range)
+    {
+        if ( range == null )
+        {
+            return null;
+        }
+
+        long value = range.next.getAndIncrement();
+        if ( value >= range.end )
+        {
+            return null;
+        }
+        if ( (range.end - value - 1) <= lowWaterMark )
+        {
+            startPrefetch();
+        }
+        return new MutableAtomicValue<>(value, value + 1, true);
+    }
+
+    private boolean install(Range exhausted, CompletableFuture<Range> future, Range newRange)
+    {
+        if ( prefetch.compareAndSet(future, null) && (newRange != null) )
+        {
+            if ( !current.compareAndSet(exhausted, newRange) )
+            {
+                // a stale caller consumed the prefetch after another caller had already installed a newer range - keep this
+                // range for the next prefetch rather than dropping it
+                spareRanges.add(newRange);
+            }
+        }
+        return newRange != null;
+    }
+
+    private CompletableFuture<Range> startPrefetch()
+    {
+        while ( true )
+        {
+            CompletableFuture<Range> future = prefetch.get();
+            if ( future != null )
+            {
+                return future;
+            }
+
+            CompletableFuture<Range> newFuture = new CompletableFuture<>();
+            if ( prefetch.compareAndSet(null, newFuture) )
+            {
+                Range spareRange = spareRanges.poll();
+                if ( spareRange != null )
+                {
+                    newFuture.complete(spareRange);
+                    return newFuture;
+                }
+
+                try
+                {
+                    executor.execute(() -> allocate(newFuture));
+                }
+                catch ( RejectedExecutionException e )
+                {
+                    newFuture.completeExceptionally(e);
+                }
+                return newFuture;
+            }
+        }
+    }
+
+    private void allocate(CompletableFuture<Range> future)
+    {
+        try
+        {
+            AtomicValue<Long> value = number.add(cacheFactor);
+            future.complete(value.succeeded() ? new Range(value.preValue(), value.preValue() + cacheFactor) : null);
+        }
+        catch ( Throwable e )
+        {
+            ThreadUtils.checkInterrupted(e);
+            future.completeExceptionally(e);
+        }
+    }
+
+    private static AtomicValue<Long> failed()
+    {
+        return new MutableAtomicValue<>(0L, 0L, false);
+    }
+}
@@ -0,0 +1,294 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.curator.framework.recipes.atomic;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import org.apache.curator.RetryPolicy;
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.utils.PathUtils;
+import org.apache.curator.utils.ThreadUtils;
+import org.apache.curator.utils.ZKPaths;
+import org.apache.zookeeper.KeeperException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.io.Closeable;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * <p>A high throughput counter for use cases where many clients increment the same value (e.g. metrics).
+ * Instead of a single node, the count is spread over a number of "stripe" nodes below the counter path. Each
+ * increment is applied to only one stripe (chosen by hashing this instance and the calling thread) using the
+ * same optimistic mechanism as {@link DistributedAtomicLong}, so contention is reduced by roughly the
+ * number of stripes. If the chosen stripe can't be updated the remaining stripes are tried in turn.
+ * The value of the counter is the sum of all stripes.</p>
+ *
+ * <p>Optionally, deltas can be batched locally via {@link #addBatched(long)} and flushed to ZooKeeper as
+ * a single increment either explicitly via {@link #flush()} or periodically if a flush interval is
+ * given (in which case {@link #start()} must be called).</p>
+ *
+ * <p>IMPORTANT: {@link #get()} reads the stripes one at a time and is therefore not an atomic
+ * snapshot of the counter. Also, there is no compare-and-set for a striped counter.</p>
+ */
+public class StripedDistributedAtomicLong implements Closeable
+{
+    private static final String STRIPE_PREFIX = "stripe-";
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
+    private final CuratorFramework client;
+    private final String counterPath;
+    private final DistributedAtomicLong[] stripes;
+    private final int instanceHash = UUID.randomUUID().hashCode();
+    private final AtomicLong pending = new AtomicLong();  // not a LongAdder - sumThenReset() can lose concurrent adds
+    private final long flushIntervalMs;
+    private final AtomicReference<State> state = new AtomicReference<>(State.LATENT);
+    private volatile ScheduledExecutorService flushExecutor;
+
+    private enum State
+    {
+        LATENT,
+        STARTED,
+        CLOSED
+    }
+
+    /**
+     * Creates without periodic flushing of batched deltas
+     *
+     * @param client the client
+     * @param counterPath parent path of the stripe nodes
+     * @param stripeQty number of stripes to spread increments over
+     * @param retryPolicy the retry policy to use for each stripe
+     */
+    public StripedDistributedAtomicLong(CuratorFramework client, String counterPath, int stripeQty, RetryPolicy retryPolicy)
+    {
+        this(client, counterPath, stripeQty, retryPolicy, 0, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @param client the client
+     * @param counterPath parent path of the stripe nodes
+     * @param stripeQty number of stripes to spread increments over
+     * @param retryPolicy the retry policy to use for each stripe
+     * @param flushInterval how often to flush deltas added via {@link #addBatched(long)}. 0 means no periodic flushing
+     * @param unit flush interval unit
+     */
+    public StripedDistributedAtomicLong(CuratorFramework client, String counterPath, int stripeQty, RetryPolicy retryPolicy, long flushInterval, TimeUnit unit)
+    {
+        Preconditions.checkArgument(stripeQty > 0, "stripeQty must be greater than 0");
+        this.client = Objects.requireNonNull(client, "client cannot be null");
+        this.counterPath = PathUtils.validatePath(counterPath);
+        this.flushIntervalMs = unit.toMillis(flushInterval);
+        stripes = new DistributedAtomicLong[stripeQty];
+        for ( int i = 0; i < stripeQty; ++i )
+        {
+            stripes[i] = new DistributedAtomicLong(client, ZKPaths.makePath(counterPath, STRIPE_PREFIX + i), retryPolicy);
+        }
+    }
+
+    /**
+     * Start periodic flushing if a flush interval was specified
+     */
+    public void start()
+    {
+        Preconditions.checkState(state.compareAndSet(State.LATENT, State.STARTED), "Cannot be started more than once");
+        if ( flushIntervalMs > 0 )
+        {
+            flushExecutor = ThreadUtils.newSingleThreadScheduledExecutor("StripedDistributedAtomicLong");
+            flushExecutor.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Stop periodic flushing and flush any remaining batched deltas
+     */
+    @Override
+    public void close()
+    {
+        if ( state.getAndSet(State.CLOSED) == State.STARTED )
+        {
+            if ( flushExecutor != null )
+            {
+                flushExecutor.shutdownNow();
+            }
+        }
+        flushQuietly();
+    }
+
+    /**
+     * Returns the current value of the counter - i.e. the sum of all stripes. NOTE: the
+     * stripes are read individually so the result is not an atomic snapshot.
+     *
+     * @return value
+     * @throws Exception ZooKeeper errors
+     */
+    public long get() throws Exception
+    {
+        List<String> children;
+        try
+        {
+            children = client.getChildren().forPath(counterPath);
+        }
+        catch ( KeeperException.NoNodeException dummy )
+        {
+            children = Collections.emptyList();
+        }
+
+        long sum = 0;
+        for ( String child : children )
+        {
+            if ( child.startsWith(STRIPE_PREFIX) )
+            {
+                try
+                {
+                    sum += stripes[0].bytesToValue(client.getData().forPath(ZKPaths.makePath(counterPath, child)));
+                }
+                catch ( KeeperException.NoNodeException ignore )
+                {
+                    // ignore - stripe was deleted
+                }
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Add delta to one of the stripes. Remember to always check the return value.
+     *
+     * @param delta amount to add
+     * @return true if the delta was applied
+     * @throws Exception ZooKeeper errors
+     */
+    public boolean add(long delta) throws Exception
+    {
+        int startIndex = stripeIndex();
+        for ( int i = 0; i < stripes.length; ++i )
+        {
+            AtomicValue<Long> result = stripes[(startIndex + i) % stripes.length].add(delta);
+            if ( result.succeeded() )
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Add 1 to one of the stripes. Remember to always check the return value.
+     *
+     * @return true if the increment was applied
+     * @throws Exception ZooKeeper errors
+     */
+    public boolean increment() throws Exception
+    {
+        return add(1);
+    }
+
+    /**
+     * Subtract 1 from one of the stripes. Remember to always check the return value.
+     *
+     * @return true if the decrement was applied
+     * @throws Exception ZooKeeper errors
+     */
+    public boolean decrement() throws Exception
+    {
+        return add(-1);
+    }
+
+    /**
+     * Add delta locally. Locally batched deltas are written to ZooKeeper as a single increment
+     * when {@link #flush()} is called, periodically if a flush interval was specified and when this
+     * instance is closed. Batched deltas are not reflected in {@link #get()} until they are flushed.
+     *
+     * @param delta amount to add
+     */
+    public void addBatched(long delta)
+    {
+        pending.addAndGet(delta);
+    }
+
+    /**
+     * Write all locally batched deltas to ZooKeeper. If the write does not succeed, the deltas
+     * remain batched and will be retried on the next flush.
+     *
+     * @return true if there was nothing to flush or the flush succeeded
+     * @throws Exception ZooKeeper errors
+     */
+    public boolean flush() throws Exception
+    {
+        long delta = pending.getAndSet(0);
+        if ( delta == 0 )
+        {
+            return true;
+        }
+
+        boolean success = false;
+        try
+        {
+            success = add(delta);
+        }
+        finally
+        {
+            if ( !success )
+            {
+                pending.addAndGet(delta);
+            }
+        }
+        return success;
+    }
+
+    /**
+     * Return the locally batched deltas that have not been flushed yet
+     *
+     * @return unflushed amount
+     */
+    public long getPending()
+    {
+        return pending.get();
+    }
+
+    @VisibleForTesting
+    int stripeIndex()
+    {
+        int hash = Objects.hash(instanceHash, Thread.currentThread().getId());
+        return Math.floorMod(hash, stripes.length);
+    }
+
+    private void flushQuietly()
+    {
+        try
+        {
+            if ( !flush() )
+            {
+                log.warn("Could not flush batched deltas for: " + counterPath);
+            }
+        }
+        catch ( Exception e )
+        {
+            ThreadUtils.checkInterrupted(e);
+            log.error("Could not flush batched deltas for: " + counterPath, e);
+        }
+    }
+}
@@ -0,0 +1,241 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.curator.framework.recipes.barriers;
+
+import com.google.common.base.Preconditions;
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.utils.PathUtils;
+import org.apache.curator.utils.ZKPaths;
+import org.apache.zookeeper.CreateMode;
+import org.apache.zookeeper.KeeperException;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ *     A double barrier with the same semantics as {@link DistributedDoubleBarrier} that
+ *     is driven by watch events instead of re-reading the barrier's children. All participants in a JVM
+ *     that use the same client and barrier path share a single persistent recursive watch on the
+ *     barrier path. Participant arrivals/departures are tracked from the watch events so entering or
+ *     leaving only requires creating/deleting the participant's node - the number of ZooKeeper operations
+ *     per barrier cycle is O(participants) instead of O(participants<sup>2</sup>).
+ * </p>
+ *
+ * <p>
+ *     Requires ZooKeeper 3.6 or later (persistent recursive watches).
+ * </p>
+ */
+public class DistributedSharedWatchDoubleBarrier
+{
+    private static final String READY_NODE = "ready";
+
+    private final CuratorFramework client;
+    private final String barrierPath;
+    private final int memberQty;
+    private final String ourPath;
+    private final String readyPath;
+    private SharedBarrierWatch watch;
+    private boolean entered = false;
+
+    /**
+     * Creates the barrier abstraction. <code>memberQty</code> is the number of members in the
+     * barrier. When {@link #enter()} is called, it blocks until all members have entered. When
+     * {@link #leave()} is called, it blocks until all members have left.
+     *
+     * @param client the client
+     * @param barrierPath path to use
+     * @param memberQty the number of members in the barrier. NOTE: more than <code>memberQty</code>
+     *                  can enter the barrier. <code>memberQty</code> is a threshold, not a limit
+     */
+    public DistributedSharedWatchDoubleBarrier(CuratorFramework client, String barrierPath, int memberQty)
+    {
+        Preconditions.checkState(memberQty > 0, "memberQty cannot be 0");
+
+        this.client = client;
+        this.barrierPath = PathUtils.validatePath(barrierPath);
+        this.memberQty = memberQty;
+        ourPath = ZKPaths.makePath(barrierPath, UUID.randomUUID().toString());
+        readyPath = ZKPaths.makePath(barrierPath, READY_NODE);
+    }
+
+    /**
+     * Enter the barrier and block until all members have entered
+     *
+     * @throws Exception interruptions, errors, etc.
+     */
+    public void enter() throws Exception
+    {
+        enter(-1, null);
+    }
+
+    /**
+     * Enter the barrier and block until all members have entered or the timeout has
+     * elapsed. If the timeout elapses, this member remains in the barrier (as with
+     * {@link DistributedDoubleBarrier}) and can call {@link #enter(long, TimeUnit)} again or {@link #leave()}.
+     *
+     * @param maxWait max time to block
+     * @param unit time unit
+     * @return true if the entry was successful, false if the timeout elapsed first
+     * @throws Exception interruptions, errors, etc.
+     */
+    public synchronized boolean enter(long maxWait, TimeUnit unit) throws Exception
+    {
+        long startMs = System.currentTimeMillis();
+        boolean hasMaxWait = (unit != null);
+        long deadlineMs = hasMaxWait ? (startMs + TimeUnit.MILLISECONDS.convert(maxWait, unit)) : Long.MAX_VALUE;
+
+        SharedBarrierWatch localWatch = acquireWatch();
+        boolean success = false;
+        try
+        {
+            if ( !localWatch.waitFor(localWatch::isSynced, hasMaxWait, deadlineMs) )
+            {
+                return false;
+            }
+
+            long readyCreatedCount = localWatch.readyCreatedCount();
+            boolean readyExists = localWatch.readyExists();
+            try
+            {
+                client.create().creatingParentContainersIfNeeded().withMode(CreateMode.EPHEMERAL).forPath(ourPath);
+            }
+            catch ( KeeperException.NodeExistsException ignore )
+            {
+                // left over from a previous enter() that timed out
+            }
+            entered = true;
+            if ( readyExists )
+            {
+                success = true;
+                return true;
+            }
+
+            boolean result = localWatch.waitFor(() -> (localWatch.readyCreatedCount() != readyCreatedCount) || (localWatch.participantCount() >= memberQty), hasMaxWait, deadlineMs);
+            if ( result && (localWatch.readyCreatedCount() == readyCreatedCount) )
+            {
+                try
+                {
+                    client.create().forPath(readyPath);
+                }
+                catch ( KeeperException.NodeExistsException ignore )
+                {
+                    // ignore
+                }
+            }
+            success = result;
+            return result;
+        }
+        finally
+        {
+            if ( !success )
+            {
+                releaseWatch();
+            }
+        }
+    }
+
+    /**
+     * Leave the barrier and block until all members have left
+     *
+     * @throws Exception interruptions, errors, etc.
+     */
+    public void leave() throws Exception
+    {
+        leave(-1, null);
+    }
+
+    /**
+     * Leave the barrier and block until all members have left or the timeout has
+     * elapsed
+     *
+     * @param maxWait max time to block
+     * @param unit time unit
+     * @return true if leaving was successful, false if the timeout elapsed first
+     * @throws Exception interruptions, errors, etc.
+     */
+    public synchronized boolean leave(long maxWait, TimeUnit unit) throws Exception
+    {
+        Preconditions.checkState(entered, "Barrier has not been entered");
+
+        long startMs = System.currentTimeMillis();
+        boolean hasMaxWait = (unit != null);
+        long deadlineMs = hasMaxWait ? (startMs + TimeUnit.MILLISECONDS.convert(maxWait, unit)) : Long.MAX_VALUE;
+
+        SharedBarrierWatch localWatch = acquireWatch();
+        try
+        {
+            if ( !localWatch.waitFor(localWatch::isSynced, hasMaxWait, deadlineMs) )
+            {
+                return false;
+            }
+
+            long readyDeletedCount = localWatch.readyDeletedCount();
+            try
+            {
+                client.delete().forPath(ourPath);
+            }
+            catch ( KeeperException.NoNodeException ignore )
+            {
+                // ignore - already deleted or our session was lost
+            }
+
+            boolean result = localWatch.waitFor(() -> (localWatch.readyDeletedCount() != readyDeletedCount) || (localWatch.isSynced() && (localWatch.participantCount() == 0)), hasMaxWait, deadlineMs);
+            if ( result )
+            {
+                if ( localWatch.readyDeletedCount() == readyDeletedCount )
+                {
+                    try
+                    {
+                        client.delete().forPath(readyPath);
+                    }
+                    catch ( KeeperException.NoNodeException ignore )
+                    {
+                        // ignore
+                    }
+                }
+                entered = false;
+            }
+            return result;
+        }
+        finally
+        {
+            releaseWatch();
+        }
+    }
+
+    private SharedBarrierWatch acquireWatch()
+    {
+        if ( watch == null )
+        {
+            watch = SharedBarrierWatch.acquire(client, barrierPath, READY_NODE);
+        }
+        return watch;
+    }
+
+    private void releaseWatch()
+    {
+        // every acquire() must be balanced or the shared watch is never torn down
+        if ( watch != null )
+        {
+            SharedBarrierWatch localWatch = watch;
+            watch = null;
+            localWatch.release();
+        }
+    }
+}
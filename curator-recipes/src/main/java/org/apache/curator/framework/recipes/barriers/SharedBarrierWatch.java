@@ -0,0 +1,329 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.curator.framework.recipes.barriers;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.api.BackgroundCallback;
+import org.apache.curator.framework.recipes.watch.PersistentWatcher;
+import org.apache.curator.framework.state.ConnectionStateListener;
+import org.apache.curator.utils.ZKPaths;
+import org.apache.zookeeper.KeeperException;
+import org.apache.zookeeper.WatchedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+
+/**
+ * A single persistent recursive watch on a barrier path that is shared by all barrier participants
+ * in the JVM that use the same client and path. The set of participant nodes and the state of the ready
+ * node are maintained from watch events, so participants can wait without reading from ZooKeeper. The
+ * children are only read when the watch is (re)registered.
+ */
+class SharedBarrierWatch
+{
+    private static final Map<Key, SharedBarrierWatch> watches = Maps.newHashMap();
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
+    private final Key key;
+    private final String readyNode;
+    private final PersistentWatcher persistentWatcher;
+    private final ConnectionStateListener connectionStateListener = (__, newState) -> {
+        if ( !newState.isConnected() )
+        {
+            unsync();   // events may be missed while disconnected - wait for the re-read after reconnecting
+        }
+    };
+    private final Set<String> participants = Sets.newHashSet();
+    private boolean synced = false;
+    private boolean readyExists = false;
+    private long readyCreatedCount = 0;
+    private long readyDeletedCount = 0;
+    private int refCount = 0;
+
+    private static class Key
+    {
+        private final CuratorFramework client;
+        private final String path;
+
+        private Key(CuratorFramework client, String path)
+        {
+            this.client = client;
+            this.path = path;
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if ( this == o )
+            {
+                return true;
+            }
+            if ( o == null || getClass() != o.getClass() )
+            {
+                return false;
+            }
+            Key key = (Key)o;
+            return (client == key.client) && path.equals(key.path);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return (31 * System.identityHashCode(client)) + path.hashCode();
+        }
+    }
+
+    /**
+     * Return the shared watch for the given client/path, creating and starting it if needed. Each call
+     * must be balanced by a call to {@link #release()}
+     *
+     * @param client client
+     * @param barrierPath barrier path
+     * @param readyNode name of the ready node
+     * @return shared watch
+     */
+    static SharedBarrierWatch acquire(CuratorFramework client, String barrierPath, String readyNode)
+    {
+        Key key = new Key(client, barrierPath);
+        SharedBarrierWatch watch;
+        boolean isNew = false;
+        synchronized(watches)
+        {
+            watch = watches.get(key);
+            if ( watch == null )
+            {
+                watch = new SharedBarrierWatch(key, readyNode);
+                watches.put(key, watch);
+                isNew = true;
+            }
+            ++watch.refCount;
+        }
+        if ( isNew )
+        {
+            client.getConnectionStateListenable().addListener(watch.connectionStateListener);
+            watch.persistentWatcher.start();
+        }
+        return watch;
+    }
+
+    private SharedBarrierWatch(Key key, String readyNode)
+    {
+        this.key = key;
+        this.readyNode = Objects.requireNonNull(readyNode, "readyNode cannot be null");
+        persistentWatcher = new PersistentWatcher(key.client, key.path, true);
+        persistentWatcher.getListenable().addListener(this::processEvent);
+        persistentWatcher.getResetListenable().addListener(this::sync);
+    }
+
+    /**
+     * Release a reference to this watch. The watch is removed once there are no more references
+     */
+    void release()
+    {
+        boolean close = false;
+        synchronized(watches)
+        {
+            if ( --refCount == 0 )
+            {
+                watches.remove(key);
+                close = true;
+            }
+        }
+        if ( close )
+        {
+            key.client.getConnectionStateListenable().removeListener(connectionStateListener);
+            persistentWatcher.close();
+        }
+    }
+
+    /**
+     * Block until the given condition (evaluated while holding this instance's monitor) is true
+     *
+     * @param condition condition
+     * @param hasMaxWait true if there is a maximum wait
+     * @param deadlineMs if there is a maximum wait, the time at which to give up
+     * @return true if the condition became true, false if the wait timed out
+     * @throws InterruptedException if interrupted
+     */
+    synchronized boolean waitFor(BooleanSupplier condition, boolean hasMaxWait, long deadlineMs) throws InterruptedException
+    {
+        while ( !condition.getAsBoolean() )
+        {
+            if ( hasMaxWait )
+            {
+                long thisWaitMs = deadlineMs - System.currentTimeMillis();
+                if ( thisWaitMs <= 0 )
+                {
+                    return false;
+                }
+                wait(thisWaitMs);
+            }
+            else
+            {
+                wait();
+            }
+        }
+        return true;
+    }
+
+    @VisibleForTesting
+    static int activeWatchCount()
+    {
+        synchronized(watches)
+        {
+            return watches.size();
+        }
+    }
+
+    synchronized boolean isSynced()
+    {
+        return synced;
+    }
+
+    synchronized int participantCount()
+    {
+        return participants.size();
+    }
+
+    synchronized boolean readyExists()
+    {
+        return readyExists;
+    }
+
+    synchronized long readyCreatedCount()
+    {
+        return readyCreatedCount;
+    }
+
+    synchronized long readyDeletedCount()
+    {
+        return readyDeletedCount;
+    }
+
+    private synchronized void unsync()
+    {
+        synced = false;
+        notifyAll();
+    }
+
+    private void sync()
+    {
+        unsync();
+        try
+        {
+            BackgroundCallback callback = (__, event) -> {
+                if ( event.getResultCode() == KeeperException.Code.OK.intValue() )
+                {
+                    reset(Sets.newHashSet(event.getChildren()));
+                }
+                else if ( event.getResultCode() == KeeperException.Code.NONODE.intValue() )
+                {
+                    reset(Sets.newHashSet());
+                }
+                else
+                {
+                    log.error("Could not read barrier children for: " + key.path + " - " + KeeperException.Code.get(event.getResultCode()));
+                }
+            };
+            key.client.getChildren().inBackground(callback).forPath(key.path);
+        }
+        catch ( Exception e )
+        {
+            log.error("Could not read barrier children for: " + key.path, e);
+        }
+    }
+
+    private synchronized void reset(Set<String> children)
+    {
+        boolean ready = children.remove(readyNode);
+        setReady(ready);
+        participants.clear();
+        participants.addAll(children);
+        synced = true;
+        notifyAll();
+    }
+
+    private synchronized void processEvent(WatchedEvent event)
+    {
+        if ( event.getPath() == null )
+        {
+            return;
+        }
+        ZKPaths.PathAndNode pathAndNode = ZKPaths.getPathAndNode(event.getPath());
+        if ( !pathAndNode.getPath().equals(key.path) )
+        {
+            return; // not a direct child
+        }
+
+        String node = pathAndNode.getNode();
+        switch ( event.getType() )
+        {
+        case NodeCreated:
+        {
+            if ( node.equals(readyNode) )
+            {
+                setReady(true);
+            }
+            else
+            {
+                participants.add(node);
+            }
+            break;
+        }
+
+        case NodeDeleted:
+        {
+            if ( node.equals(readyNode) )
+            {
+                setReady(false);
+            }
+            else
+            {
+                participants.remove(node);
+            }
+            break;
+        }
+
+        default:
+        {
+            return;
+        }
+        }
+        notifyAll();
+    }
+
+    private void setReady(boolean ready)
+    {
+        if ( ready && !readyExists )
+        {
+            ++readyCreatedCount;
+        }
+        else if ( !ready && readyExists )
+        {
+            ++readyDeletedCount;
+        }
+        readyExists = ready;
+    }
+}
@@ -19,6 +19,9 @@
 
 package org.apache.curator.framework.recipes.cache;
 
+import org.apache.curator.framework.state.ReconnectGovernor;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 
 public interface CuratorCacheBuilder
@@ -45,6 +48,30 @@ public interface CuratorCacheBuilder
      */
     CuratorCacheBuilder withExceptionHandler(Consumer<Exception> exceptionHandler);
 
+    /**
+     * Periodically write the cache storage (paths, stats and data) to a local snapshot file.
+     * When the cache is started, the snapshot (if any) is loaded into storage so that reads can be served
+     * immediately. The cache then reconciles with ZooKeeper by comparing each node's mzxid/cversion, only
+     * fetching the data of nodes that have changed. {@link CuratorCacheListener#initialized()} is still called once
+     * the reconciliation is complete. The snapshot is also written when the cache is closed.
+     *
+     * @param snapshotFile file to write/read the snapshot to/from
+     * @param period how often to write the snapshot
+     * @param unit period unit
+     * @return this
+     */
+    CuratorCacheBuilder withSnapshot(Path snapshotFile, long period, TimeUnit unit);
+
+    /**
+     * By default, the cache is rebuilt immediately after the connection is re-established. Use
+     * this method to have rebuilds after a reconnection delayed by the given governor so that
+     * resync load from many clients is spread out. The initial build is never delayed.
+     *
+     * @param reconnectGovernor governor to use (the governor's lifecycle is managed by the caller)
+     * @return this
+     */
+    CuratorCacheBuilder withReconnectGovernor(ReconnectGovernor reconnectGovernor);
+
     /**
      * Return a new Curator Cache based on the builder methods that have been called
      *
@@ -20,6 +20,10 @@
 package org.apache.curator.framework.recipes.cache;
 
 import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.state.ReconnectGovernor;
+import java.nio.file.Path;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 
 class CuratorCacheBuilderImpl implements CuratorCacheBuilder
@@ -29,6 +33,9 @@ class CuratorCacheBuilderImpl implements CuratorCacheBuilder
     private CuratorCacheStorage storage;
     private Consumer<Exception> exceptionHandler;
     private CuratorCache.Options[] options;
+    private Path snapshotFile;
+    private long snapshotPeriodMs;
+    private ReconnectGovernor reconnectGovernor;
 
     CuratorCacheBuilderImpl(CuratorFramework client, String path)
     {
@@ -57,9 +64,24 @@ class CuratorCacheBuilderImpl implements CuratorCacheBuilder
         return this;
     }
 
+    @Override
+    public CuratorCacheBuilder withSnapshot(Path snapshotFile, long period, TimeUnit unit)
+    {
+        this.snapshotFile = Objects.requireNonNull(snapshotFile, "snapshotFile cannot be null");
+        this.snapshotPeriodMs = unit.toMillis(period);
+        return this;
+    }
+
+    @Override
+    public CuratorCacheBuilder withReconnectGovernor(ReconnectGovernor reconnectGovernor)
+    {
+        this.reconnectGovernor = Objects.requireNonNull(reconnectGovernor, "reconnectGovernor cannot be null");
+        return this;
+    }
+
     @Override
     public CuratorCache build()
     {
-        return new CuratorCacheImpl(client, storage, path, options, exceptionHandler);
+        return new CuratorCacheImpl(client, storage, path, options, exceptionHandler, snapshotFile, snapshotPeriodMs, reconnectGovernor);
     }
 }
\ No newline at end of file
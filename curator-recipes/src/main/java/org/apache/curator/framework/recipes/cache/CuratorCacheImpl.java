@@ -27,6 +27,7 @@ import org.apache.curator.framework.api.CuratorEvent;
 import org.apache.curator.framework.listen.Listenable;
 import org.apache.curator.framework.listen.StandardListenerManager;
 import org.apache.curator.framework.recipes.watch.PersistentWatcher;
+import org.apache.curator.framework.state.ReconnectGovernor;
 import org.apache.curator.utils.ThreadUtils;
 import org.apache.curator.utils.ZKPaths;
 import org.apache.zookeeper.KeeperException;
@@ -34,11 +35,17 @@ import org.apache.zookeeper.WatchedEvent;
 import org.apache.zookeeper.data.Stat;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import java.nio.file.Path;
 import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static org.apache.curator.framework.recipes.cache.CuratorCacheListener.Type.*;
@@ -47,6 +54,8 @@ import static org.apache.zookeeper.KeeperException.Code.OK;
 
 class CuratorCacheImpl implements CuratorCache, CuratorCacheBridge
 {
+    private static final long SNAPSHOT_CLOSE_WAIT_MS = 10000;
+
     private final Logger log = LoggerFactory.getLogger(getClass());
     private final AtomicReference<State> state = new AtomicReference<>(State.LATENT);
     private final PersistentWatcher persistentWatcher;
@@ -59,6 +68,11 @@ class CuratorCacheImpl implements CuratorCache, CuratorCacheBridge
     private final StandardListenerManager<CuratorCacheListener> listenerManager = StandardListenerManager.standard();
     private final Consumer<Exception> exceptionHandler;
     private final OutstandingOps outstandingOps = new OutstandingOps(() -> callListeners(CuratorCacheListener::initialized));
+    private final CuratorCacheSnapshot snapshot;
+    private final long snapshotPeriodMs;
+    private volatile ScheduledExecutorService snapshotExecutor;
+    private final ReconnectGovernor reconnectGovernor;
+    private final AtomicBoolean initialBuildDone = new AtomicBoolean(false);
 
     private enum State
     {
@@ -68,6 +82,11 @@ class CuratorCacheImpl implements CuratorCache, CuratorCacheBridge
     }
 
     CuratorCacheImpl(CuratorFramework client, CuratorCacheStorage storage, String path, Options[] optionsArg, Consumer<Exception> exceptionHandler)
+    {
+        this(client, storage, path, optionsArg, exceptionHandler, null, 0, null);
+    }
+
+    CuratorCacheImpl(CuratorFramework client, CuratorCacheStorage storage, String path, Options[] optionsArg, Consumer<Exception> exceptionHandler, Path snapshotFile, long snapshotPeriodMs, ReconnectGovernor reconnectGovernor)
     {
         Set<Options> options = (optionsArg != null) ? Sets.newHashSet(optionsArg) : Collections.emptySet();
         this.client = client;
@@ -78,14 +97,26 @@ class CuratorCacheImpl implements CuratorCache, CuratorCacheBridge
         clearOnClose = !options.contains(Options.DO_NOT_CLEAR_ON_CLOSE);
         persistentWatcher = new PersistentWatcher(client, path, recursive);
         persistentWatcher.getListenable().addListener(this::processEvent);
-        persistentWatcher.getResetListenable().addListener(this::rebuild);
+        persistentWatcher.getResetListenable().addListener(this::reset);
         this.exceptionHandler = (exceptionHandler != null) ? exceptionHandler : e -> log.error("CuratorCache error", e);
+        snapshot = (snapshotFile != null) ? new CuratorCacheSnapshot(snapshotFile, path) : null;
+        this.snapshotPeriodMs = snapshotPeriodMs;
+        this.reconnectGovernor = reconnectGovernor;
     }
 
     @Override
     public void start()
     {
         Preconditions.checkState(state.compareAndSet(State.LATENT, State.STARTED), "Already started");
+        if ( snapshot != null )
+        {
+            loadSnapshot();
+            if ( snapshotPeriodMs > 0 )
+            {
+                snapshotExecutor = ThreadUtils.newSingleThreadScheduledExecutor("CuratorCacheSnapshot");
+                snapshotExecutor.scheduleWithFixedDelay(this::writeSnapshot, snapshotPeriodMs, snapshotPeriodMs, TimeUnit.MILLISECONDS);
+            }
+        }
         persistentWatcher.start();
     }
 
@@ -95,6 +126,13 @@ class CuratorCacheImpl implements CuratorCache, CuratorCacheBridge
         if ( state.compareAndSet(State.STARTED, State.CLOSED) )
         {
             persistentWatcher.close();
+            if ( snapshot != null )
+            {
+                if ( awaitSnapshotExecutor() )
+                {
+                    writeSnapshot();
+                }
+            }
             if ( clearOnClose )
             {
                 storage.clear();
@@ -138,6 +176,19 @@ class CuratorCacheImpl implements CuratorCache, CuratorCacheBridge
         return storage;
     }
 
+    private void reset()
+    {
+        // the initial build is immediate - rebuilds after reconnections can be spread out by the governor
+        if ( initialBuildDone.getAndSet(true) && (reconnectGovernor != null) )
+        {
+            reconnectGovernor.execute(this::rebuild);
+        }
+        else
+        {
+            rebuild();
+        }
+    }
+
     private void rebuild()
     {
         if ( state.get() != State.STARTED )
@@ -146,7 +197,7 @@ class CuratorCacheImpl implements CuratorCache, CuratorCacheBridge
         }
 
         // rebuild from the root first
-        nodeChanged(path);
+        refreshNode(path);
 
         // rebuild remaining nodes - note: this may cause some nodes to be queried twice
         // (though versions checks will minimize that). If someone can think of a better
@@ -154,7 +205,118 @@ class CuratorCacheImpl implements CuratorCache, CuratorCacheBridge
         storage.stream()
             .map(ChildData::getPath)
             .filter(p -> !p.equals(path))
-            .forEach(this::nodeChanged);
+            .forEach(this::refreshNode);
+    }
+
+    private boolean awaitSnapshotExecutor()
+    {
+        if ( snapshotExecutor == null )
+        {
+            return true;
+        }
+
+        // let a periodic write that is already running finish so that it can't race the final write for the temp file
+        snapshotExecutor.shutdown();
+        try
+        {
+            if ( snapshotExecutor.awaitTermination(SNAPSHOT_CLOSE_WAIT_MS, TimeUnit.MILLISECONDS) )
+            {
+                return true;
+            }
+            log.warn("Timed out waiting for a CuratorCache snapshot write. Skipping the final write: " + snapshot.getSnapshotFile());
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            log.warn("Interrupted waiting for a CuratorCache snapshot write. Skipping the final write: " + snapshot.getSnapshotFile());
+        }
+        return false;
+    }
+
+    @VisibleForTesting
+    void writeSnapshot()
+    {
+        try
+        {
+            snapshot.write(storage.stream().collect(Collectors.toList()));
+        }
+        catch ( Exception e )
+        {
+            log.warn("Could not write CuratorCache snapshot: " + snapshot.getSnapshotFile(), e);
+        }
+    }
+
+    private void loadSnapshot()
+    {
+        List<ChildData> entries;
+        try
+        {
+            entries = snapshot.read();
+        }
+        catch ( Exception e )
+        {
+            log.warn("Could not read CuratorCache snapshot: " + snapshot.getSnapshotFile(), e);
+            return;
+        }
+        entries.forEach(this::putStorage);
+    }
+
+    private void refreshNode(String fromPath)
+    {
+        // when warm started from a snapshot, storage may already hold nodes from a previous
+        // run. Compare stats first so that the data is only fetched for nodes that changed
+        Optional<ChildData> currentData = (snapshot != null) ? storage.get(fromPath) : Optional.empty();
+        if ( currentData.isPresent() )
+        {
+            nodeChangedIfModified(currentData.get());
+        }
+        else
+        {
+            nodeChanged(fromPath);
+        }
+    }
+
+    private void nodeChangedIfModified(ChildData currentData)
+    {
+        if ( state.get() != State.STARTED )
+        {
+            return;
+        }
+
+        try
+        {
+            BackgroundCallback callback = (__, event) -> {
+                if ( event.getResultCode() == OK.intValue() )
+                {
+                    Stat newStat = event.getStat();
+                    if ( newStat.getMzxid() == currentData.getStat().getMzxid() )
+                    {
+                        storage.put(new ChildData(event.getPath(), newStat, currentData.getData()));
+                        checkChildrenChanged(event.getPath(), currentData.getStat(), newStat);
+                    }
+                    else
+                    {
+                        nodeChanged(event.getPath());
+                    }
+                }
+                else if ( event.getResultCode() == NONODE.intValue() )
+                {
+                    removeStorage(event.getPath());
+                }
+                else
+                {
+                    handleException(event);
+                }
+                outstandingOps.decrement();
+            };
+
+            outstandingOps.increment();
+            client.checkExists().inBackground(callback).forPath(currentData.getPath());
+        }
+        catch ( Exception e )
+        {
+            handleException(e);
+        }
     }
 
     private void processEvent(WatchedEvent event)
@@ -200,7 +362,7 @@ class CuratorCacheImpl implements CuratorCache, CuratorCacheBridge
             BackgroundCallback callback = (__, event) -> {
                 if ( event.getResultCode() == OK.intValue() )
                 {
-                    event.getChildren().forEach(child -> nodeChanged(ZKPaths.makePath(fromPath, child)));
+                    event.getChildren().forEach(child -> refreshNode(ZKPaths.makePath(fromPath, child)));
                 }
                 else if ( event.getResultCode() == NONODE.intValue() )
                 {
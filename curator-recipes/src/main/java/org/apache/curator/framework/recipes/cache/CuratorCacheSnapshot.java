@@ -0,0 +1,251 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.curator.framework.recipes.cache;
+
+import org.apache.zookeeper.data.Stat;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32;
+
+/**
+ * Reads/writes the contents of a {@link CuratorCacheStorage} to a local file
+ * so that a {@link CuratorCache} can be warm started.
+ *
+ * <p>
+ *     Format: magic, format version, cache root path, entry count, entries
+ *     (path, stat fields, data length/data), CRC32 of everything preceding it.
+ *     A snapshot is written to a temporary file which is then atomically moved into place.
+ * </p>
+ */
+class CuratorCacheSnapshot
+{
+    private static final int MAGIC = 0x43434e53;    // "CCNS"
+    private static final int FORMAT_VERSION = 1;
+    private static final int NULL_DATA = -1;
+    private static final int STAT_BYTES = (7 * Long.BYTES) + (4 * Integer.BYTES);
+
+    private final Path snapshotFile;
+    private final String rootPath;
+
+    CuratorCacheSnapshot(Path snapshotFile, String rootPath)
+    {
+        this.snapshotFile = snapshotFile;
+        this.rootPath = rootPath;
+    }
+
+    Path getSnapshotFile()
+    {
+        return snapshotFile;
+    }
+
+    /**
+     * Write the given entries to the snapshot file
+     *
+     * @param entries entries to write
+     * @throws IOException errors
+     */
+    void write(List<ChildData> entries) throws IOException
+    {
+        byte[] rootBytes = rootPath.getBytes(StandardCharsets.UTF_8);
+        List<byte[]> pathBytes = entries.stream().map(d -> d.getPath().getBytes(StandardCharsets.UTF_8)).collect(Collectors.toList());
+
+        long size = (3 * Integer.BYTES) + rootBytes.length + Integer.BYTES + Long.BYTES;
+        for ( int i = 0; i < entries.size(); ++i )
+        {
+            byte[] data = entries.get(i).getData();
+            size += Integer.BYTES + pathBytes.get(i).length + STAT_BYTES + Integer.BYTES + ((data != null) ? data.length : 0);
+        }
+        if ( size > Integer.MAX_VALUE )
+        {
+            throw new IOException("Snapshot too large: " + size);
+        }
+
+        Path parent = snapshotFile.toAbsolutePath().getParent();
+        if ( parent != null )
+        {
+            Files.createDirectories(parent);
+        }
+        Path tempFile = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+        ByteBuffer buffer = ByteBuffer.allocate((int)size);
+        buffer.putInt(MAGIC);
+        buffer.putInt(FORMAT_VERSION);
+        buffer.putInt(rootBytes.length);
+        buffer.put(rootBytes);
+        buffer.putInt(entries.size());
+        for ( int i = 0; i < entries.size(); ++i )
+        {
+            ChildData entry = entries.get(i);
+            byte[] path = pathBytes.get(i);
+            buffer.putInt(path.length);
+            buffer.put(path);
+            writeStat(buffer, entry.getStat());
+            byte[] data = entry.getData();
+            if ( data != null )
+            {
+                buffer.putInt(data.length);
+                buffer.put(data);
+            }
+            else
+            {
+                buffer.putInt(NULL_DATA);
+            }
+        }
+
+        int crcPosition = buffer.position();
+        buffer.position(0);
+        buffer.limit(crcPosition);
+        CRC32 crc = new CRC32();
+        crc.update(buffer);
+        buffer.limit(buffer.capacity());
+        buffer.position(crcPosition);
+        buffer.putLong(crc.getValue());
+        buffer.flip();
+
+        try ( FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE) )
+        {
+            while ( buffer.hasRemaining() )
+            {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(tempFile, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Read the snapshot file. If the file does not exist, is corrupt or was written for
+     * a different cache root, an empty list is returned.
+     *
+     * @return entries or empty list
+     * @throws IOException errors
+     */
+    List<ChildData> read() throws IOException
+    {
+        if ( !Files.isRegularFile(snapshotFile) )
+        {
+            return Collections.emptyList();
+        }
+
+        try ( FileChannel channel = FileChannel.open(snapshotFile, StandardOpenOption.READ) )
+        {
+            long size = channel.size();
+            if ( size < ((3 * Integer.BYTES) + Long.BYTES) )
+            {
+                return Collections.emptyList();
+            }
+            if ( size > Integer.MAX_VALUE )
+            {
+                return Collections.emptyList();
+            }
+            ByteBuffer buffer = ByteBuffer.allocate((int)size);
+            while ( buffer.hasRemaining() )
+            {
+                if ( channel.read(buffer) < 0 )
+                {
+                    return Collections.emptyList();
+                }
+            }
+            buffer.flip();
+
+            buffer.limit((int)size - Long.BYTES);
+            CRC32 crc = new CRC32();
+            crc.update(buffer);
+            buffer.limit((int)size);
+            if ( crc.getValue() != buffer.getLong() )
+            {
+                return Collections.emptyList();
+            }
+
+            buffer.position(0);
+            if ( (buffer.getInt() != MAGIC) || (buffer.getInt() != FORMAT_VERSION) )
+            {
+                return Collections.emptyList();
+            }
+            if ( !rootPath.equals(readString(buffer)) )
+            {
+                return Collections.emptyList();
+            }
+
+            int count = buffer.getInt();
+            List<ChildData> entries = new ArrayList<>(count);
+            for ( int i = 0; i < count; ++i )
+            {
+                String path = readString(buffer);
+                Stat stat = readStat(buffer);
+                int dataLength = buffer.getInt();
+                byte[] data = null;
+                if ( dataLength != NULL_DATA )
+                {
+                    data = new byte[dataLength];
+                    buffer.get(data);
+                }
+                entries.add(new ChildData(path, stat, data));
+            }
+            return entries;
+        }
+    }
+
+    private static String readString(ByteBuffer buffer)
+    {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeStat(ByteBuffer buffer, Stat stat)
+    {
+        buffer.putLong(stat.getCzxid());
+        buffer.putLong(stat.getMzxid());
+        buffer.putLong(stat.getCtime());
+        buffer.putLong(stat.getMtime());
+        buffer.putInt(stat.getVersion());
+        buffer.putInt(stat.getCversion());
+        buffer.putInt(stat.getAversion());
+        buffer.putLong(stat.getEphemeralOwner());
+        buffer.putInt(stat.getDataLength());
+        buffer.putInt(stat.getNumChildren());
+        buffer.putLong(stat.getPzxid());
+    }
+
+    private static Stat readStat(ByteBuffer buffer)
+    {
+        long czxid = buffer.getLong();
+        long mzxid = buffer.getLong();
+        long ctime = buffer.getLong();
+        long mtime = buffer.getLong();
+        int version = buffer.getInt();
+        int cversion = buffer.getInt();
+        int aversion = buffer.getInt();
+        long ephemeralOwner = buffer.getLong();
+        int dataLength = buffer.getInt();
+        int numChildren = buffer.getInt();
+        long pzxid = buffer.getLong();
+        return new Stat(czxid, mzxid, ctime, mtime, version, cversion, aversion, ephemeralOwner, dataLength, numChildren, pzxid);
+    }
+}
@@ -35,6 +35,7 @@ import org.apache.curator.framework.listen.Listenable;
 import org.apache.curator.framework.listen.StandardListenerManager;
 import org.apache.curator.framework.state.ConnectionState;
 import org.apache.curator.framework.state.ConnectionStateListener;
+import org.apache.curator.framework.state.ReconnectGovernor;
 import org.apache.curator.utils.PathUtils;
 import org.apache.curator.utils.ThreadUtils;
 import org.apache.curator.utils.ZKPaths;
@@ -81,6 +82,7 @@ public class TreeCache implements Closeable
     private final boolean createParentNodes;
     private final boolean disableZkWatches;
     private final TreeCacheSelector selector;
+    private final ReconnectGovernor reconnectGovernor;
 
     public static final class Builder
     {
@@ -93,6 +95,7 @@ public class TreeCache implements Closeable
         private boolean createParentNodes = false;
         private boolean disableZkWatches = false;
         private TreeCacheSelector selector = new DefaultTreeCacheSelector();
+        private ReconnectGovernor reconnectGovernor = null;
 
         private Builder(CuratorFramework client, String path)
         {
@@ -110,7 +113,7 @@ public class TreeCache implements Closeable
             {
                 executor = Executors.newSingleThreadExecutor(defaultThreadFactory);
             }
-            return new TreeCache(client, path, cacheData, dataIsCompressed, maxDepth, executor, createParentNodes, disableZkWatches, selector);
+            return new TreeCache(client, path, cacheData, dataIsCompressed, maxDepth, executor, createParentNodes, disableZkWatches, selector, reconnectGovernor);
         }
 
         /**
@@ -196,6 +199,20 @@ public class TreeCache implements Closeable
             this.selector = selector;
             return this;
         }
+
+        /**
+         * By default, the tree is refreshed immediately after the connection is re-established. Set a
+         * governor here to have the refresh delayed so that resync load from many clients is spread out.
+         * The governor's lifecycle is managed by the caller.
+         *
+         * @param reconnectGovernor governor to use
+         * @return this for chaining
+         */
+        public Builder setReconnectGovernor(ReconnectGovernor reconnectGovernor)
+        {
+            this.reconnectGovernor = reconnectGovernor;
+            return this;
+        }
     }
 
     /**
@@ -571,7 +588,7 @@ public class TreeCache implements Closeable
      */
     public TreeCache(CuratorFramework client, String path)
     {
-        this(client, path, true, false, Integer.MAX_VALUE, Executors.newSingleThreadExecutor(defaultThreadFactory), false, false, new DefaultTreeCacheSelector());
+        this(client, path, true, false, Integer.MAX_VALUE, Executors.newSingleThreadExecutor(defaultThreadFactory), false, false, new DefaultTreeCacheSelector(), null);
     }
 
     /**
@@ -583,8 +600,9 @@ public class TreeCache implements Closeable
      * @param createParentNodes true to create parent nodes as containers
      * @param disableZkWatches true to disable Zookeeper watches
      * @param selector         the selector to use
+     * @param reconnectGovernor if not null, governor used to delay the refresh after a reconnection
      */
-    TreeCache(CuratorFramework client, String path, boolean cacheData, boolean dataIsCompressed, int maxDepth, final ExecutorService executorService, boolean createParentNodes, boolean disableZkWatches, TreeCacheSelector selector)
+    TreeCache(CuratorFramework client, String path, boolean cacheData, boolean dataIsCompressed, int maxDepth, final ExecutorService executorService, boolean createParentNodes, boolean disableZkWatches, TreeCacheSelector selector, ReconnectGovernor reconnectGovernor)
     {
         this.createParentNodes = createParentNodes;
         this.selector = Preconditions.checkNotNull(selector, "selector cannot be null");
@@ -596,6 +614,7 @@ public class TreeCache implements Closeable
         this.maxDepth = maxDepth;
         this.disableZkWatches = disableZkWatches;
         this.executorService = Preconditions.checkNotNull(executorService, "executorService cannot be null");
+        this.reconnectGovernor = reconnectGovernor;
     }
 
     /**
@@ -869,6 +888,12 @@ public class TreeCache implements Closeable
             break;
 
         case RECONNECTED:
+            if ( reconnectGovernor != null )
+            {
+                publishEvent(TreeCacheEvent.Type.CONNECTION_RECONNECTED);
+                reconnectGovernor.execute(this::refreshAfterReconnect);
+                break;
+            }
             try
             {
                 root.wasReconnected();
@@ -883,6 +908,23 @@ public class TreeCache implements Closeable
         }
     }
 
+    private void refreshAfterReconnect()
+    {
+        if ( treeState.get() != TreeState.STARTED )
+        {
+            return;
+        }
+        try
+        {
+            root.wasReconnected();
+        }
+        catch ( Exception e )
+        {
+            ThreadUtils.checkInterrupted(e);
+            handleException(e);
+        }
+    }
+
     private void publishEvent(TreeCacheEvent.Type type)
     {
         publishEvent(new TreeCacheEvent(type, null));
@@ -0,0 +1,560 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.curator.framework.recipes.leader;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.MoreExecutors;
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.api.BackgroundCallback;
+import org.apache.curator.framework.recipes.locks.StandardLockInternalsDriver;
+import org.apache.curator.framework.recipes.watch.PersistentWatcher;
+import org.apache.curator.framework.state.ConnectionState;
+import org.apache.curator.framework.state.ConnectionStateListener;
+import org.apache.curator.utils.PathUtils;
+import org.apache.curator.utils.ThreadUtils;
+import org.apache.curator.utils.ZKPaths;
+import org.apache.zookeeper.CreateMode;
+import org.apache.zookeeper.KeeperException;
+import org.apache.zookeeper.WatchedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * <p>
+ * Participates in many leader elections at once. Each election is a child of a common parent
+ * path and uses the same node layout as {@link LeaderLatch} (i.e. <code>parentPath/electionName/latch-NNNN</code>).
+ * Instead of a thread, connection state listener and watch per election, a single recursive
+ * {@link PersistentWatcher} on the parent path maintains one in-memory index of the participants of
+ * every joined election, and leadership changes are dispatched on a single shared executor. Listener
+ * calls for any one election are made in order, but listeners for different elections may be called
+ * concurrently.
+ * </p>
+ *
+ * <p>
+ * As with {@link LeaderLatch}, leadership is relinquished (and {@link LeaderLatchListener#notLeader()}
+ * called) when the connection is SUSPENDED or LOST according to the client's
+ * {@link org.apache.curator.framework.state.ConnectionStateErrorPolicy}. After reconnecting, leadership
+ * is only regained once each election's children have been read again (and, if the session was lost,
+ * once a new election node has been created).
+ * </p>
+ *
+ * <p>
+ * While connected, the index is maintained from watch events alone and no reads are needed. Events
+ * that occur while disconnected are not replayed, so each joined election's children are read again
+ * when the connection is re-established and when the watch is re-registered (the two are not ordered, so
+ * a reconnect can cost up to two <code>getChildren()</code> per joined election). Elections are grandchildren
+ * of the parent path and ZooKeeper cannot list grandchildren in a single read.
+ * </p>
+ *
+ * <p>
+ * <B>NOTE</B> - requires ZooKeeper 3.6 or later (persistent recursive watches).
+ * </p>
+ */
+public class LeaderElectionGroup implements Closeable
+{
+    private static final String LOCK_NAME = "latch-";
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
+    private final CuratorFramework client;
+    private final String parentPath;
+    private final String id;
+    private final Executor executor;
+    private final ExecutorService ownedExecutor;
+    private final PersistentWatcher watcher;
+    private final Map<String, Election> elections = new ConcurrentHashMap<>();
+    private final AtomicReference<State> state = new AtomicReference<>(State.LATENT);
+    private final ConnectionStateListener connectionStateListener = new ConnectionStateListener()
+    {
+        @Override
+        public void stateChanged(CuratorFramework client, ConnectionState newState)
+        {
+            handleStateChange(newState);
+        }
+    };
+    private volatile boolean connected = true;
+
+    private enum State
+    {
+        LATENT,
+        STARTED,
+        CLOSED
+    }
+
+    private static class Election
+    {
+        private final String name;
+        private final String path;
+        private final LeaderLatchListener listener;
+        private final Executor sequentialExecutor;
+        private final TreeMap<String, String> nodes = new TreeMap<>();  // sort key -> node name. Guarded by the group
+        private String ourNode;  // guarded by the group
+        private boolean creatingNode;  // guarded by the group
+        private boolean synced;  // guarded by the group - nodes has been read since the last connection problem
+        private boolean isLeader;  // guarded by the group
+        private volatile boolean hasLeadership;
+
+        private Election(String name, String path, LeaderLatchListener listener, Executor sequentialExecutor)
+        {
+            this.name = name;
+            this.path = path;
+            this.listener = listener;
+            this.sequentialExecutor = sequentialExecutor;
+        }
+    }
+
+    /**
+     * Leadership changes are dispatched on an internal thread pool of the given size
+     *
+     * @param client the client
+     * @param parentPath the parent path of all elections in the group
+     * @param id participant id stored in each of this instance's election nodes
+     * @param threadQty number of threads used to call listeners
+     */
+    public LeaderElectionGroup(CuratorFramework client, String parentPath, String id, int threadQty)
+    {
+        this(client, parentPath, id, ThreadUtils.newFixedThreadPool(threadQty, "LeaderElectionGroup"), true);
+    }
+
+    /**
+     * @param client the client
+     * @param parentPath the parent path of all elections in the group
+     * @param id participant id stored in each of this instance's election nodes
+     * @param executor executor used to call listeners. Note: this executor is not shut down when the group is closed
+     */
+    public LeaderElectionGroup(CuratorFramework client, String parentPath, String id, Executor executor)
+    {
+        this(client, parentPath, id, executor, false);
+    }
+
+    private LeaderElectionGroup(CuratorFramework client, String parentPath, String id, Executor executor, boolean ownExecutor)
+    {
+        this.client = Objects.requireNonNull(client, "client cannot be null");
+        this.parentPath = PathUtils.validatePath(parentPath);
+        this.id = Objects.requireNonNull(id, "id cannot be null");
+        this.executor = Objects.requireNonNull(executor, "executor cannot be null");
+        ownedExecutor = ownExecutor ? (ExecutorService)executor : null;
+        watcher = new PersistentWatcher(client, parentPath, true);
+    }
+
+    /**
+     * Start the group. Elections can be joined before or after the group is started
+     */
+    public void start()
+    {
+        Preconditions.checkState(state.compareAndSet(State.LATENT, State.STARTED), "Cannot be started more than once");
+
+        client.getConnectionStateListenable().addListener(connectionStateListener);
+        watcher.getListenable().addListener(this::processEvent);
+        watcher.getResetListenable().addListener(this::resync);
+        watcher.start();
+    }
+
+    /**
+     * Leave all elections and stop watching the parent path
+     */
+    @Override
+    public void close()
+    {
+        if ( state.getAndSet(State.CLOSED) == State.CLOSED )
+        {
+            return;
+        }
+
+        client.getConnectionStateListenable().removeListener(connectionStateListener);
+        watcher.close();
+        for ( String electionName : elections.keySet() )
+        {
+            leave(electionName);
+        }
+        if ( ownedExecutor != null )
+        {
+            ownedExecutor.shutdown();
+        }
+    }
+
+    /**
+     * Join the given election. If the group has been started, this instance's node is created
+     * in the background and the listener is called once leadership is acquired.
+     *
+     * @param electionName name of the election (a direct child of the parent path)
+     * @param listener listener notified of leadership changes for this election
+     */
+    public void join(String electionName, LeaderLatchListener listener)
+    {
+        Preconditions.checkState(state.get() != State.CLOSED, "Group is closed");
+        Objects.requireNonNull(listener, "listener cannot be null");
+        String path = ZKPaths.makePath(parentPath, electionName);
+        Preconditions.checkArgument(ZKPaths.getPathAndNode(path).getPath().equals(parentPath), "electionName must be a single path element: " + electionName);
+
+        Election election = new Election(electionName, path, listener, MoreExecutors.newSequentialExecutor(executor));
+        Preconditions.checkArgument(elections.putIfAbsent(electionName, election) == null, "Already joined: " + electionName);
+        if ( state.get() == State.STARTED )
+        {
+            createNode(election);
+        }
+    }
+
+    /**
+     * Leave the given election. If this instance is the leader, {@link LeaderLatchListener#notLeader()} is
+     * called and this instance's node is deleted.
+     *
+     * @param electionName name of the election
+     * @return true if the election had been joined
+     */
+    public boolean leave(String electionName)
+    {
+        Election election = elections.remove(electionName);
+        if ( election == null )
+        {
+            return false;
+        }
+
+        String ourNode;
+        synchronized(this)
+        {
+            setLeadership(election, false);
+            ourNode = election.ourNode;
+            election.ourNode = null;
+        }
+        if ( ourNode != null )
+        {
+            try
+            {
+                client.delete().guaranteed().inBackground().forPath(ZKPaths.makePath(election.path, ourNode));
+            }
+            catch ( Exception e )
+            {
+                ThreadUtils.checkInterrupted(e);
+                log.error("Could not delete election node for: " + election.path, e);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Return true if this instance is currently the leader of the given election
+     *
+     * @param electionName name of the election
+     * @return true/false
+     */
+    public boolean hasLeadership(String electionName)
+    {
+        Election election = elections.get(electionName);
+        return (state.get() == State.STARTED) && (election != null) && election.hasLeadership;
+    }
+
+    /**
+     * Return the names of the elections that have been joined
+     *
+     * @return election names
+     */
+    public Collection<String> getElectionNames()
+    {
+        return ImmutableSet.copyOf(elections.keySet());
+    }
+
+    private void createNode(Election election)
+    {
+        synchronized(this)
+        {
+            if ( election.creatingNode || (election.ourNode != null) )
+            {
+                return;
+            }
+            election.creatingNode = true;
+        }
+
+        BackgroundCallback callback = (client, event) -> {
+            synchronized(LeaderElectionGroup.this)
+            {
+                election.creatingNode = false;
+            }
+            if ( event.getResultCode() == KeeperException.Code.OK.intValue() )
+            {
+                boolean deleteNode;
+                synchronized(LeaderElectionGroup.this)
+                {
+                    deleteNode = (elections.get(election.name) != election) || (state.get() == State.CLOSED);
+                    if ( !deleteNode )
+                    {
+                        election.ourNode = ZKPaths.getNodeFromPath(event.getName());
+                    }
+                }
+                if ( deleteNode )
+                {
+                    client.delete().guaranteed().inBackground().forPath(event.getName());
+                }
+                else
+                {
+                    readChildren(election);
+                }
+            }
+            else
+            {
+                log.error("Creating election node failed for: " + election.path + " rc = " + event.getResultCode());
+            }
+        };
+        try
+        {
+            client.create().creatingParentContainersIfNeeded().withProtection().withMode(CreateMode.EPHEMERAL_SEQUENTIAL).inBackground(callback).forPath(ZKPaths.makePath(election.path, LOCK_NAME), LeaderSelector.getIdBytes(id));
+        }
+        catch ( Exception e )
+        {
+            ThreadUtils.checkInterrupted(e);
+            log.error("Could not create election node for: " + election.path, e);
+            synchronized(this)
+            {
+                election.creatingNode = false;
+            }
+        }
+    }
+
+    private void readChildren(Election election)
+    {
+        BackgroundCallback callback = (client, event) -> {
+            if ( event.getResultCode() == KeeperException.Code.OK.intValue() )
+            {
+                boolean recreate;
+                synchronized(LeaderElectionGroup.this)
+                {
+                    if ( elections.get(election.name) != election )
+                    {
+                        return;
+                    }
+                    List<String> children = event.getChildren();
+                    election.nodes.clear();
+                    children.forEach(child -> election.nodes.put(sortKey(child), child));
+                    election.synced = true;
+                    recreate = (election.ourNode != null) && !children.contains(election.ourNode);
+                    if ( recreate )
+                    {
+                        election.ourNode = null;
+                    }
+                    checkLeadership(election);
+                }
+                if ( recreate && (state.get() == State.STARTED) )
+                {
+                    createNode(election);
+                }
+            }
+            else
+            {
+                log.error("Reading election children failed for: " + election.path + " rc = " + event.getResultCode());
+            }
+        };
+        try
+        {
+            client.getChildren().inBackground(callback).forPath(election.path);
+        }
+        catch ( Exception e )
+        {
+            ThreadUtils.checkInterrupted(e);
+            log.error("Could not read election children for: " + election.path, e);
+        }
+    }
+
+    private void resync()
+    {
+        // events missed while disconnected can't be recovered from the watch - one read per election (see class doc)
+        for ( Election election : elections.values() )
+        {
+            boolean needsNode;
+            synchronized(this)
+            {
+                needsNode = (election.ourNode == null);
+            }
+            if ( needsNode )  // createNode() ignores the request if a create is already in flight
+            {
+                createNode(election);
+            }
+            else
+            {
+                readChildren(election);
+            }
+        }
+    }
+
+    private void processEvent(WatchedEvent event)
+    {
+        if ( event.getPath() == null )
+        {
+            return;
+        }
+
+        ZKPaths.PathAndNode pathAndNode = ZKPaths.getPathAndNode(event.getPath());
+        ZKPaths.PathAndNode electionPathAndNode = ZKPaths.getPathAndNode(pathAndNode.getPath());
+        if ( !electionPathAndNode.getPath().equals(parentPath) )
+        {
+            return;
+        }
+        Election election = elections.get(electionPathAndNode.getNode());
+        if ( election == null )
+        {
+            return;
+        }
+
+        switch ( event.getType() )
+        {
+        case NodeCreated:
+        {
+            synchronized(this)
+            {
+                election.nodes.put(sortKey(pathAndNode.getNode()), pathAndNode.getNode());
+                checkLeadership(election);
+            }
+            break;
+        }
+
+        case NodeDeleted:
+        {
+            boolean recreate;
+            synchronized(this)
+            {
+                election.nodes.remove(sortKey(pathAndNode.getNode()));
+                recreate = pathAndNode.getNode().equals(election.ourNode);
+                if ( recreate )
+                {
+                    election.ourNode = null;
+                }
+                checkLeadership(election);
+            }
+            if ( recreate && (state.get() == State.STARTED) && (elections.get(election.name) == election) )
+            {
+                log.warn("Our election node was deleted. Recreating for: " + election.path);
+                createNode(election);
+            }
+            break;
+        }
+
+        default:
+        {
+            // ignore
+            break;
+        }
+        }
+    }
+
+    private void handleStateChange(ConnectionState newState)
+    {
+        if ( client.getConnectionStateErrorPolicy().isErrorState(newState) )
+        {
+            connected = false;
+            List<String> staleNodePaths = new ArrayList<>();
+            synchronized(this)
+            {
+                for ( Election election : elections.values() )
+                {
+                    election.synced = false;
+                    if ( newState == ConnectionState.LOST )
+                    {
+                        // the session is gone - so is our node (ZooKeeper deletes it or it is deleted below)
+                        if ( election.ourNode != null )
+                        {
+                            staleNodePaths.add(ZKPaths.makePath(election.path, election.ourNode));
+                        }
+                        election.ourNode = null;
+                        election.nodes.clear();
+                    }
+                    setLeadership(election, false);
+                }
+            }
+            for ( String path : staleNodePaths )
+            {
+                deleteStaleNode(path);
+            }
+        }
+        else if ( newState.isConnected() )
+        {
+            // leadership is recomputed once the elections have been read again - the index could be stale
+            connected = true;
+            if ( state.get() == State.STARTED )
+            {
+                resync();
+            }
+        }
+    }
+
+    // same as LeaderLatch: make sure a node from a lost session doesn't linger
+    private void deleteStaleNode(String path)
+    {
+        try
+        {
+            client.delete().guaranteed().inBackground().forPath(path);
+        }
+        catch ( Exception e )
+        {
+            ThreadUtils.checkInterrupted(e);
+            log.error("Could not delete stale election node: " + path, e);
+        }
+    }
+
+    // must be called while synchronized on this instance
+    private void checkLeadership(Election election)
+    {
+        boolean isLeader = connected && election.synced && (election.ourNode != null) && !election.nodes.isEmpty() && election.ourNode.equals(election.nodes.firstEntry().getValue());
+        setLeadership(election, isLeader);
+    }
+
+    // must be called while synchronized on this instance
+    private void setLeadership(Election election, boolean isLeader)
+    {
+        if ( election.isLeader == isLeader )
+        {
+            return;
+        }
+
+        election.isLeader = isLeader;
+        election.hasLeadership = isLeader;
+        election.sequentialExecutor.execute(() -> {
+            try
+            {
+                if ( isLeader )
+                {
+                    election.listener.isLeader();
+                }
+                else
+                {
+                    election.listener.notLeader();
+                }
+            }
+            catch ( Exception e )
+            {
+                ThreadUtils.checkInterrupted(e);
+                log.error("Listener threw exception for: " + election.path, e);
+            }
+        });
+    }
+
+    private static String sortKey(String node)
+    {
+        return StandardLockInternalsDriver.standardFixForSorting(node, LOCK_NAME);
+    }
+}
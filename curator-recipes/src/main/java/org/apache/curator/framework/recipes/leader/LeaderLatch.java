@@ -73,6 +73,7 @@ public class LeaderLatch implements Closeable
     private final StandardListenerManager<LeaderLatchListener> listeners = StandardListenerManager.standard();
     private final CloseMode closeMode;
     private final AtomicReference<Future<?>> startTask = new AtomicReference<Future<?>>();
+    private final AtomicReference<ParticipantCache> participantCache = new AtomicReference<ParticipantCache>();
 
     private final ConnectionStateListener listener = new ConnectionStateListener()
     {
@@ -159,6 +160,12 @@ public class LeaderLatch implements Closeable
     {
         Preconditions.checkState(state.compareAndSet(State.LATENT, State.STARTED), "Cannot be started more than once");
 
+        ParticipantCache localParticipantCache = participantCache.get();
+        if ( localParticipantCache != null )
+        {
+            localParticipantCache.start();
+        }
+
         startTask.set(AfterConnectionEstablished.execute(client, new Runnable()
         {
             @Override
@@ -204,6 +211,12 @@ public class LeaderLatch implements Closeable
 
         cancelStartTask();
 
+        ParticipantCache localParticipantCache = participantCache.get();
+        if ( localParticipantCache != null )
+        {
+            localParticipantCache.close();
+        }
+
         try
         {
             setNode(null);
@@ -469,6 +482,46 @@ public class LeaderLatch implements Closeable
         return LeaderSelector.getLeader(client, participantNodes);
     }
 
+    /**
+     * Maintain a {@link ParticipantCache} for this latch's election so that
+     * {@link #currentParticipants()} and {@link #currentLeader()} can be used. IMPORTANT: must be called
+     * prior to {@link #start()}.
+     */
+    public void cacheParticipants()
+    {
+        Preconditions.checkState(state.get() == State.LATENT, "Cannot be called after start()");
+        participantCache.compareAndSet(null, ParticipantCache.forLeaderLatch(client, latchPath));
+    }
+
+    /**
+     * Returns the cached set of current participants in the leader selection. Unlike {@link #getParticipants()}
+     * this method does not access ZooKeeper. {@link #cacheParticipants()} must have been called prior to {@link #start()}.
+     *
+     * @return participants
+     */
+    public Collection<Participant> currentParticipants()
+    {
+        return getParticipantCache().currentParticipants();
+    }
+
+    /**
+     * Returns the cached leader. If there is no current leader, a dummy participant is returned. Unlike {@link #getLeader()}
+     * this method does not access ZooKeeper. {@link #cacheParticipants()} must have been called prior to {@link #start()}.
+     *
+     * @return leader
+     */
+    public Participant currentLeader()
+    {
+        return getParticipantCache().currentLeader();
+    }
+
+    private ParticipantCache getParticipantCache()
+    {
+        ParticipantCache localParticipantCache = participantCache.get();
+        Preconditions.checkState(localParticipantCache != null, "cacheParticipants() has not been called");
+        return localParticipantCache;
+    }
+
     /**
      * Return true if leadership is currently held by this instance
      *
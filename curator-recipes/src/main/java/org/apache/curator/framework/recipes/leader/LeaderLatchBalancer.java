@@ -0,0 +1,320 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.curator.framework.recipes.leader;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.utils.CloseableUtils;
+import org.apache.curator.utils.PathUtils;
+import org.apache.curator.utils.ThreadUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * <p>
+ * Manages a {@link LeaderLatch} for each of a set of latch paths and periodically rebalances leadership
+ * so that it is spread roughly evenly across the live participants. When many independent latches are used
+ * (e.g. one per shard), whichever process starts first otherwise tends to win most of them.
+ * </p>
+ *
+ * <p>
+ * On each rebalance the participants of every managed latch are read via {@link LeaderLatch#getParticipants()}.
+ * The fair share is the number of managed latches divided by the number of distinct live participants
+ * (rounded up). If this instance leads more than its fair share, it yields leadership of some of its latches
+ * by closing them via {@link LeaderLatch#close(LeaderLatch.CloseMode)} and starting a new latch for the same
+ * path, which places this instance at the end of the queue. A latch is only yielded if the participant
+ * next in line leads fewer latches than the fair share so that leadership is not moved between participants
+ * that are both over-loaded.
+ * </p>
+ *
+ * <p>
+ * <B>NOTE</B> - the distribution is computed from the latches managed by this instance only. For best
+ * results, all participants should manage the same set of latch paths.
+ * </p>
+ */
+public class LeaderLatchBalancer implements Closeable
+{
+    private final Logger log = LoggerFactory.getLogger(getClass());
+    private final CuratorFramework client;
+    private final String id;
+    private final long rebalancePeriodMs;
+    private final Map<String, Entry> latches = new ConcurrentHashMap<>();
+    private final AtomicReference<State> state = new AtomicReference<>(State.LATENT);
+    private volatile ScheduledExecutorService executorService;
+
+    private enum State
+    {
+        LATENT,
+        STARTED,
+        CLOSED
+    }
+
+    private static class Entry
+    {
+        private final LeaderLatchListener listener;
+        private volatile LeaderLatch latch;
+
+        private Entry(LeaderLatchListener listener)
+        {
+            this.listener = listener;
+        }
+    }
+
+    /**
+     * @param client the client
+     * @param id participant id used for each latch
+     * @param rebalancePeriod how often to rebalance
+     * @param unit rebalance period unit
+     */
+    public LeaderLatchBalancer(CuratorFramework client, String id, long rebalancePeriod, TimeUnit unit)
+    {
+        Preconditions.checkArgument(rebalancePeriod > 0, "rebalancePeriod must be greater than 0");
+        this.client = Objects.requireNonNull(client, "client cannot be null");
+        this.id = Objects.requireNonNull(id, "id cannot be null");
+        this.rebalancePeriodMs = unit.toMillis(rebalancePeriod);
+    }
+
+    /**
+     * Start all latches added so far and begin periodic rebalancing
+     *
+     * @throws Exception errors
+     */
+    public synchronized void start() throws Exception
+    {
+        Preconditions.checkState(state.compareAndSet(State.LATENT, State.STARTED), "Cannot be started more than once");
+
+        for ( Entry entry : latches.values() )
+        {
+            entry.latch.start();
+        }
+        executorService = ThreadUtils.newSingleThreadScheduledExecutor("LeaderLatchBalancer");
+        executorService.scheduleWithFixedDelay(this::rebalanceQuietly, rebalancePeriodMs, rebalancePeriodMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stop rebalancing and close all latches
+     */
+    @Override
+    public void close()
+    {
+        // same lock as start()/addLatch() - a latch added concurrently is either closed here or never started
+        synchronized(this)
+        {
+            if ( state.getAndSet(State.CLOSED) == State.STARTED )
+            {
+                executorService.shutdownNow();
+                for ( Entry entry : latches.values() )
+                {
+                    CloseableUtils.closeQuietly(entry.latch);
+                }
+            }
+        }
+    }
+
+    /**
+     * Add a latch for the given path. If this instance has been started, the latch is started immediately.
+     * The listener is added to the latch and to any latch that replaces it when leadership is yielded.
+     *
+     * @param latchPath the latch path
+     * @param listener listener for leadership changes
+     * @throws Exception errors
+     */
+    public synchronized void addLatch(String latchPath, LeaderLatchListener listener) throws Exception
+    {
+        Preconditions.checkState(state.get() != State.CLOSED, "Balancer is closed");
+        PathUtils.validatePath(latchPath);
+        Entry entry = new Entry(Objects.requireNonNull(listener, "listener cannot be null"));
+        entry.latch = newLatch(latchPath, listener);
+        Preconditions.checkArgument(latches.putIfAbsent(latchPath, entry) == null, "Latch already added: " + latchPath);
+        if ( state.get() == State.STARTED )
+        {
+            entry.latch.start();
+        }
+    }
+
+    /**
+     * Close and stop managing the latch for the given path
+     *
+     * @param latchPath the latch path
+     * @throws IOException errors
+     */
+    public synchronized void removeLatch(String latchPath) throws IOException
+    {
+        Entry entry = latches.remove(latchPath);
+        if ( (entry != null) && (entry.latch.getState() == LeaderLatch.State.STARTED) )
+        {
+            entry.latch.close(LeaderLatch.CloseMode.NOTIFY_LEADER);
+        }
+    }
+
+    /**
+     * Return true if this instance currently leads the given latch path
+     *
+     * @param latchPath the latch path
+     * @return true/false
+     */
+    public boolean hasLeadership(String latchPath)
+    {
+        Entry entry = latches.get(latchPath);
+        return (entry != null) && entry.latch.hasLeadership();
+    }
+
+    /**
+     * Return the latch paths currently led by this instance
+     *
+     * @return latch paths
+     */
+    public Set<String> getLeaderships()
+    {
+        return latches.entrySet().stream().filter(e -> e.getValue().latch.hasLeadership()).map(Map.Entry::getKey).collect(ImmutableSet.toImmutableSet());
+    }
+
+    /**
+     * Rebalance immediately instead of waiting for the next period
+     *
+     * @return the number of latches yielded
+     * @throws Exception errors
+     */
+    @VisibleForTesting
+    int rebalance() throws Exception
+    {
+        // the participant reads are blocking so they're done without holding the lock - otherwise addLatch(),
+        // removeLatch() and close() would have to wait for the whole pass
+        Map<String, LeaderLatch> snapshot = Maps.newHashMap();
+        synchronized(this)
+        {
+            if ( state.get() != State.STARTED )
+            {
+                return 0;
+            }
+            latches.forEach((latchPath, entry) -> snapshot.put(latchPath, entry.latch));
+        }
+
+        Map<String, List<Participant>> participantsByPath = Maps.newHashMap();
+        Map<String, Integer> leaderCounts = Maps.newHashMap();
+        Set<String> liveIds = Sets.newHashSet();
+        for ( Map.Entry<String, LeaderLatch> mapEntry : snapshot.entrySet() )
+        {
+            if ( state.get() != State.STARTED )
+            {
+                return 0;
+            }
+            List<Participant> participants = Lists.newArrayList(mapEntry.getValue().getParticipants());
+            participantsByPath.put(mapEntry.getKey(), participants);
+            participants.forEach(p -> liveIds.add(p.getId()));
+            if ( !participants.isEmpty() && participants.get(0).isLeader() )
+            {
+                leaderCounts.merge(participants.get(0).getId(), 1, Integer::sum);
+            }
+        }
+        if ( liveIds.isEmpty() )
+        {
+            return 0;
+        }
+
+        int fairShare = (participantsByPath.size() + liveIds.size() - 1) / liveIds.size();
+        int ourCount = leaderCounts.getOrDefault(id, 0);
+        int yieldedQty = 0;
+        for ( Map.Entry<String, List<Participant>> mapEntry : participantsByPath.entrySet() )
+        {
+            if ( ourCount <= fairShare )
+            {
+                break;
+            }
+
+            List<Participant> participants = mapEntry.getValue();
+            if ( participants.size() < 2 )
+            {
+                continue;
+            }
+            String nextId = participants.get(1).getId();
+            int nextCount = leaderCounts.getOrDefault(nextId, 0);
+            if ( nextId.equals(id) || (nextCount >= fairShare) )
+            {
+                continue;
+            }
+
+            synchronized(this)
+            {
+                if ( state.get() != State.STARTED )
+                {
+                    break;
+                }
+                // skip latches that were removed or replaced since they were read
+                Entry entry = latches.get(mapEntry.getKey());
+                if ( (entry == null) || (entry.latch != snapshot.get(mapEntry.getKey())) || !entry.latch.hasLeadership() )
+                {
+                    continue;
+                }
+
+                log.debug("Yielding leadership of {} to {}", mapEntry.getKey(), nextId);
+                requeue(mapEntry.getKey(), entry);
+            }
+            leaderCounts.put(nextId, nextCount + 1);
+            --ourCount;
+            ++yieldedQty;
+        }
+        return yieldedQty;
+    }
+
+    // must be called while synchronized on this instance
+    private void requeue(String latchPath, Entry entry) throws Exception
+    {
+        LeaderLatch oldLatch = entry.latch;
+        oldLatch.close(LeaderLatch.CloseMode.NOTIFY_LEADER);
+        LeaderLatch newLatch = newLatch(latchPath, entry.listener);
+        entry.latch = newLatch;
+        newLatch.start();
+    }
+
+    private LeaderLatch newLatch(String latchPath, LeaderLatchListener listener)
+    {
+        LeaderLatch latch = new LeaderLatch(client, latchPath, id, LeaderLatch.CloseMode.NOTIFY_LEADER);
+        latch.addListener(listener);
+        return latch;
+    }
+
+    private void rebalanceQuietly()
+    {
+        try
+        {
+            rebalance();
+        }
+        catch ( Exception e )
+        {
+            ThreadUtils.checkInterrupted(e);
+            log.error("Could not rebalance leadership", e);
+        }
+    }
+}
@@ -70,6 +70,8 @@ public class LeaderSelector implements Closeable
     private final LeaderSelectorListener listener;
     private final CloseableExecutorService executorService;
     private final InterProcessMutex mutex;
+    private final String leaderPath;
+    private final AtomicReference<ParticipantCache> participantCache = new AtomicReference<ParticipantCache>();
     private final AtomicReference<State> state = new AtomicReference<State>(State.LATENT);
     private final AtomicBoolean autoRequeue = new AtomicBoolean(false);
     private final AtomicReference<Future<?>> ourTask = new AtomicReference<Future<?>>(null);
@@ -142,6 +144,7 @@ public class LeaderSelector implements Closeable
         Preconditions.checkNotNull(listener, "listener cannot be null");
 
         this.client = client;
+        this.leaderPath = leaderPath;
         this.listener = new WrappedListener(this, listener);
         hasLeadership = false;
 
@@ -215,6 +218,12 @@ public class LeaderSelector implements Closeable
         Preconditions.checkState(!executorService.isShutdown(), "Already started");
         Preconditions.checkState(!hasLeadership, "Already has leadership");
 
+        ParticipantCache localParticipantCache = participantCache.get();
+        if ( localParticipantCache != null )
+        {
+            localParticipantCache.start();
+        }
+
         client.getConnectionStateListenable().addListener(listener);
         requeue();
     }
@@ -274,6 +283,12 @@ public class LeaderSelector implements Closeable
         client.getConnectionStateListenable().removeListener(listener);
         executorService.close();
         ourTask.set(null);
+
+        ParticipantCache localParticipantCache = participantCache.get();
+        if ( localParticipantCache != null )
+        {
+            localParticipantCache.close();
+        }
     }
 
     /**
@@ -364,6 +379,46 @@ public class LeaderSelector implements Closeable
         return result;
     }
 
+    /**
+     * Maintain a {@link ParticipantCache} for this selector's election so that
+     * {@link #currentParticipants()} and {@link #currentLeader()} can be used. IMPORTANT: must be called
+     * prior to {@link #start()}.
+     */
+    public void cacheParticipants()
+    {
+        Preconditions.checkState(state.get() == State.LATENT, "Cannot be called after start()");
+        participantCache.compareAndSet(null, ParticipantCache.forLeaderSelector(client, leaderPath));
+    }
+
+    /**
+     * Returns the cached set of current participants in the leader selection. Unlike {@link #getParticipants()}
+     * this method does not access ZooKeeper. {@link #cacheParticipants()} must have been called prior to {@link #start()}.
+     *
+     * @return participants
+     */
+    public Collection<Participant> currentParticipants()
+    {
+        return getParticipantCache().currentParticipants();
+    }
+
+    /**
+     * Returns the cached leader. If there is no current leader, a dummy participant is returned. Unlike {@link #getLeader()}
+     * this method does not access ZooKeeper. {@link #cacheParticipants()} must have been called prior to {@link #start()}.
+     *
+     * @return leader
+     */
+    public Participant currentLeader()
+    {
+        return getParticipantCache().currentLeader();
+    }
+
+    private ParticipantCache getParticipantCache()
+    {
+        ParticipantCache localParticipantCache = participantCache.get();
+        Preconditions.checkState(localParticipantCache != null, "cacheParticipants() has not been called");
+        return localParticipantCache;
+    }
+
     /**
      * Return true if leadership is currently held by this instance
      *
@@ -0,0 +1,190 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.curator.framework.recipes.leader;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.recipes.cache.ChildData;
+import org.apache.curator.framework.recipes.cache.CuratorCache;
+import org.apache.curator.framework.recipes.cache.CuratorCacheListener;
+import org.apache.curator.framework.recipes.locks.StandardLockInternalsDriver;
+import org.apache.curator.utils.PathUtils;
+import org.apache.curator.utils.ZKPaths;
+import java.io.Closeable;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * <p>
+ * Keeps the participants of a {@link LeaderLatch} or {@link LeaderSelector} election up to date
+ * via a {@link CuratorCache} on the election path. Unlike {@link LeaderLatch#getParticipants()} and
+ * {@link LeaderSelector#getParticipants()}, which read every participant node from ZooKeeper on
+ * each call, {@link #currentParticipants()} and {@link #currentLeader()} read from memory and don't block.
+ * </p>
+ *
+ * <p>
+ * <B>NOTE</B> - as with all caches, the values returned can lag behind the actual state of the election.
+ * </p>
+ */
+public class ParticipantCache implements Closeable
+{
+    private static final String LEADER_LATCH_LOCK_NAME = "latch-";
+    private static final String LEADER_SELECTOR_LOCK_NAME = "lock-";
+
+    private final CuratorCache cache;
+    private final String path;
+    private final String lockName;
+    private final Map<String, String> sortedIds = new ConcurrentSkipListMap<>();
+    private final AtomicReference<State> state = new AtomicReference<>(State.LATENT);
+    private volatile Collection<Participant> participants = ImmutableList.of();
+
+    private enum State
+    {
+        LATENT,
+        STARTED,
+        CLOSED
+    }
+
+    /**
+     * Return a participant cache for a {@link LeaderLatch} election
+     *
+     * @param client the client
+     * @param latchPath the path for the leadership group
+     * @return cache (note it must be started via {@link #start()})
+     */
+    public static ParticipantCache forLeaderLatch(CuratorFramework client, String latchPath)
+    {
+        return new ParticipantCache(client, latchPath, LEADER_LATCH_LOCK_NAME);
+    }
+
+    /**
+     * Return a participant cache for a {@link LeaderSelector} election
+     *
+     * @param client the client
+     * @param leaderPath the path for the leadership group
+     * @return cache (note it must be started via {@link #start()})
+     */
+    public static ParticipantCache forLeaderSelector(CuratorFramework client, String leaderPath)
+    {
+        return new ParticipantCache(client, leaderPath, LEADER_SELECTOR_LOCK_NAME);
+    }
+
+    ParticipantCache(CuratorFramework client, String path, String lockName)
+    {
+        this.path = PathUtils.validatePath(path);
+        this.lockName = lockName;
+        cache = CuratorCache.build(client, path);
+        CuratorCacheListener listener = CuratorCacheListener.builder()
+            .forCreatesAndChanges((__, node) -> nodeChanged(node))
+            .forDeletes(this::nodeDeleted)
+            .build();
+        cache.listenable().addListener(listener);
+    }
+
+    /**
+     * Start the cache
+     */
+    public void start()
+    {
+        Preconditions.checkState(state.compareAndSet(State.LATENT, State.STARTED), "Cannot be started more than once");
+        cache.start();
+    }
+
+    /**
+     * Close the cache
+     */
+    @Override
+    public void close()
+    {
+        if ( state.compareAndSet(State.STARTED, State.CLOSED) )
+        {
+            cache.close();
+            sortedIds.clear();
+            participants = ImmutableList.of();
+        }
+    }
+
+    /**
+     * Returns the cached participants in the election, ordered such that the leader is first
+     *
+     * @return participants
+     */
+    public Collection<Participant> currentParticipants()
+    {
+        return participants;
+    }
+
+    /**
+     * Return the cached leader. If there is no current leader, a dummy participant is returned.
+     *
+     * @return leader
+     */
+    public Participant currentLeader()
+    {
+        Collection<Participant> localParticipants = participants;
+        return localParticipants.isEmpty() ? new Participant() : localParticipants.iterator().next();
+    }
+
+    private void nodeChanged(ChildData node)
+    {
+        String sortKey = sortKey(node.getPath());
+        if ( sortKey != null )
+        {
+            byte[] data = node.getData();
+            sortedIds.put(sortKey, (data != null) ? new String(data, StandardCharsets.UTF_8) : "");
+            rebuild();
+        }
+    }
+
+    private void nodeDeleted(ChildData node)
+    {
+        String sortKey = sortKey(node.getPath());
+        if ( (sortKey != null) && (sortedIds.remove(sortKey) != null) )
+        {
+            rebuild();
+        }
+    }
+
+    private String sortKey(String nodePath)
+    {
+        ZKPaths.PathAndNode pathAndNode = ZKPaths.getPathAndNode(nodePath);
+        if ( !pathAndNode.getPath().equals(path) || !pathAndNode.getNode().contains(lockName) )
+        {
+            return null;
+        }
+        // sort by sequence number but keep the node name so that keys are unique
+        return StandardLockInternalsDriver.standardFixForSorting(pathAndNode.getNode(), lockName) + "/" + pathAndNode.getNode();
+    }
+
+    private synchronized void rebuild()
+    {
+        ImmutableList.Builder<Participant> builder = ImmutableList.builder();
+        boolean isLeader = true;
+        for ( String id : sortedIds.values() )
+        {
+            builder.add(new Participant(id, isLeader));
+            isLeader = false;   // by definition the first node is the leader
+        }
+        participants = builder.build();
+    }
+}
@@ -21,24 +21,30 @@ package org.apache.curator.framework.recipes.nodes;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
 import org.apache.curator.framework.CuratorFramework;
 import org.apache.curator.framework.CuratorFrameworkFactory;
+import org.apache.curator.framework.listen.Listenable;
+import org.apache.curator.framework.listen.StandardListenerManager;
 import org.apache.curator.framework.recipes.cache.ChildData;
 import org.apache.curator.framework.recipes.cache.CuratorCache;
 import org.apache.curator.framework.recipes.cache.CuratorCacheBridge;
+import org.apache.curator.framework.recipes.cache.CuratorCacheListener;
 import org.apache.curator.utils.CloseableUtils;
 import org.apache.curator.utils.ThreadUtils;
 import org.apache.curator.utils.ZKPaths;
 import org.apache.zookeeper.CreateMode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import java.io.Closeable;
-import java.util.Iterator;
 import java.util.Map;
-
-import static org.apache.curator.framework.recipes.cache.CuratorCacheAccessor.parentPathFilter;
+import java.util.function.Consumer;
 
 /**
  * Group membership management. Adds this instance into a group and
- * keeps a cache of members in the group
+ * keeps a cache of members in the group. The view of membership is maintained
+ * incrementally as the cache changes so that {@link #getCurrentMembers()} is
+ * cheap. Use {@link #getListenable()} to be notified of individual membership changes.
  */
 public class GroupMember implements Closeable
 {
@@ -46,6 +52,10 @@ public class GroupMember implements Closeable
     private final CuratorCacheBridge cache;
     private final String membershipPath;
     private final String thisId;
+    private final Logger log = LoggerFactory.getLogger(getClass());
+    private final StandardListenerManager<GroupMemberListener> listeners = StandardListenerManager.standard();
+    private ImmutableMap<String, byte[]> cachedMembers = ImmutableMap.of();    // guarded by this
+    private volatile ImmutableMap<String, byte[]> currentMembers;
 
     /**
      * @param client client
@@ -70,6 +80,14 @@ public class GroupMember implements Closeable
 
         cache = CuratorCache.bridgeBuilder(client, membershipPath).build();
         pen = new PersistentNode(client, CreateMode.EPHEMERAL, false, ZKPaths.makePath(membershipPath, thisId), payload);
+
+        CuratorCacheListener listener = CuratorCacheListener.builder()
+            .forCreates(this::memberCreated)
+            .forChanges(this::memberChanged)
+            .forDeletes(this::memberDeleted)
+            .build();
+        cache.listenable().addListener(listener);
+        updateCurrentMembers();
     }
 
     /**
@@ -106,6 +124,13 @@ public class GroupMember implements Closeable
             ThreadUtils.checkInterrupted(e);
             Throwables.propagate(e);
         }
+        synchronized(this)
+        {
+            if ( !cachedMembers.containsKey(thisId) )
+            {
+                updateCurrentMembers();
+            }
+        }
     }
 
     /**
@@ -126,22 +151,19 @@ public class GroupMember implements Closeable
      */
     public Map<String, byte[]> getCurrentMembers()
     {
-        ImmutableMap.Builder<String, byte[]> builder = ImmutableMap.builder();
-        boolean thisIdAdded = false;
+        return currentMembers;
+    }
 
-        Iterator<ChildData> iterator = cache.stream().filter(parentPathFilter(membershipPath)).iterator();
-        while ( iterator.hasNext() )
-        {
-            ChildData data = iterator.next();
-            String id = idFromPath(data.getPath());
-            thisIdAdded = thisIdAdded || id.equals(thisId);
-            builder.put(id, data.getData());
-        }
-        if ( !thisIdAdded )
-        {
-            builder.put(thisId, pen.getData());   // this instance is always a member
-        }
-        return builder.build();
+    /**
+     * Returns the listenable for membership changes. Listeners are called from the cache's thread
+     * after the view returned by {@link #getCurrentMembers()} has been updated. NOTE: this
+     * instance is not reported until its node is seen by the cache.
+     *
+     * @return listenable
+     */
+    public Listenable<GroupMemberListener> getListenable()
+    {
+        return listeners;
     }
 
     /**
@@ -154,4 +176,85 @@ public class GroupMember implements Closeable
     {
         return ZKPaths.getNodeFromPath(path);
     }
+
+    private boolean isMember(ChildData data)
+    {
+        return ZKPaths.getPathAndNode(data.getPath()).getPath().equals(membershipPath);
+    }
+
+    private void memberCreated(ChildData data)
+    {
+        if ( !isMember(data) )
+        {
+            return;
+        }
+
+        String id = idFromPath(data.getPath());
+        synchronized(this)
+        {
+            cachedMembers = ImmutableMap.<String, byte[]>builder().putAll(Maps.filterKeys(cachedMembers, k -> !k.equals(id))).put(id, data.getData()).build();
+            updateCurrentMembers();
+        }
+        notifyListeners(listener -> listener.memberJoined(id, data.getData()));
+    }
+
+    private void memberChanged(ChildData oldData, ChildData data)
+    {
+        if ( !isMember(data) )
+        {
+            return;
+        }
+
+        String id = idFromPath(data.getPath());
+        synchronized(this)
+        {
+            cachedMembers = ImmutableMap.<String, byte[]>builder().putAll(Maps.filterKeys(cachedMembers, k -> !k.equals(id))).put(id, data.getData()).build();
+            updateCurrentMembers();
+        }
+        notifyListeners(listener -> listener.memberChanged(id, oldData.getData(), data.getData()));
+    }
+
+    private void memberDeleted(ChildData data)
+    {
+        if ( !isMember(data) )
+        {
+            return;
+        }
+
+        String id = idFromPath(data.getPath());
+        synchronized(this)
+        {
+            cachedMembers = ImmutableMap.copyOf(Maps.filterKeys(cachedMembers, k -> !k.equals(id)));
+            updateCurrentMembers();
+        }
+        notifyListeners(listener -> listener.memberLeft(id, data.getData()));
+    }
+
+    // must be called while synchronized on this instance (or from the constructor)
+    private void updateCurrentMembers()
+    {
+        if ( cachedMembers.containsKey(thisId) )
+        {
+            currentMembers = cachedMembers;
+        }
+        else
+        {
+            currentMembers = ImmutableMap.<String, byte[]>builder().putAll(cachedMembers).put(thisId, pen.getData()).build();   // this instance is always a member
+        }
+    }
+
+    private void notifyListeners(Consumer<GroupMemberListener> proc)
+    {
+        listeners.forEach(listener -> {
+            try
+            {
+                proc.accept(listener);
+            }
+            catch ( Exception e )
+            {
+                ThreadUtils.checkInterrupted(e);
+                log.error("From GroupMember listener", e);
+            }
+        });
+    }
 }
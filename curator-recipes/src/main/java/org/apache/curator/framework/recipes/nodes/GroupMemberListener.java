@@ -0,0 +1,50 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.curator.framework.recipes.nodes;
+
+/**
+ * Receives membership changes from a {@link GroupMember}
+ */
+public interface GroupMemberListener
+{
+    /**
+     * Called when a member joins the group
+     *
+     * @param id the member's ID
+     * @param data the member's payload
+     */
+    void memberJoined(String id, byte[] data);
+
+    /**
+     * Called when a member leaves the group
+     *
+     * @param id the member's ID
+     * @param data the member's last known payload
+     */
+    void memberLeft(String id, byte[] data);
+
+    /**
+     * Called when a member's payload changes
+     *
+     * @param id the member's ID
+     * @param oldData the previous payload
+     * @param newData the new payload
+     */
+    void memberChanged(String id, byte[] oldData, byte[] newData);
+}
@@ -0,0 +1,553 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.curator.framework.recipes.nodes;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.api.transaction.CuratorOp;
+import org.apache.curator.framework.imps.ProtectedUtils;
+import org.apache.curator.framework.listen.Listenable;
+import org.apache.curator.framework.listen.StandardListenerManager;
+import org.apache.curator.framework.recipes.watch.PersistentWatcher;
+import org.apache.curator.utils.PathUtils;
+import org.apache.curator.utils.ThreadUtils;
+import org.apache.curator.utils.ZKPaths;
+import org.apache.zookeeper.CreateMode;
+import org.apache.zookeeper.KeeperException;
+import org.apache.zookeeper.WatchedEvent;
+import org.apache.zookeeper.Watcher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.io.Closeable;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * <p>
+ * Like {@link PersistentNode} but for many nodes at once. All nodes must be below a common parent path.
+ * Instead of a background create and a watch per node, missing nodes are created via <code>multi()</code>
+ * transactions of at most <code>maxBatchSize</code> creates, and all nodes are watched with a single
+ * recursive {@link PersistentWatcher} on the parent path. When a node is deleted or the connection is
+ * re-established, the parents of the nodes are read (one <code>getChildren()</code> per distinct parent)
+ * and any missing nodes are recreated in batches.
+ * </p>
+ *
+ * <p>
+ * If protection is used, each node's name is given a protected prefix (see
+ * {@link org.apache.curator.framework.api.CreateBuilderMain#withProtection()}) that is fixed for the
+ * life of the group. Thus, a create whose result was lost due to a connection problem is recognized
+ * and the node adopted when it is found on the next pass.
+ * </p>
+ *
+ * <p>
+ * Sequential modes are not supported. Requires ZooKeeper 3.6 or later (persistent recursive watches).
+ * </p>
+ */
+public class PersistentNodeGroup implements Closeable
+{
+    public static final int DEFAULT_MAX_BATCH_SIZE = 100;
+    private static final long CLOSE_WAIT_MS = 10000;
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
+    private final CuratorFramework client;
+    private final String parentPath;
+    private final CreateMode mode;
+    private final boolean useProtection;
+    private final long ttl;
+    private final int maxBatchSize;
+    private final PersistentWatcher watcher;
+    private final Map<String, Member> members = new ConcurrentHashMap<>();
+    private final Map<String, Member> membersByActualPath = new ConcurrentHashMap<>();
+    private final AtomicReference<State> state = new AtomicReference<>(State.LATENT);
+    private final AtomicReference<CountDownLatch> initialCreateLatch = new AtomicReference<>(new CountDownLatch(1));
+    private final AtomicBoolean ensurePending = new AtomicBoolean(false);
+    private final Queue<Member> pendingDeletes = new ConcurrentLinkedQueue<>();
+    private final StandardListenerManager<PersistentNodeListener> listeners = StandardListenerManager.standard();
+    private volatile ExecutorService executorService;
+
+    private enum State
+    {
+        LATENT,
+        STARTED,
+        CLOSED
+    }
+
+    private static class Member
+    {
+        private final String actualPath;
+        private final AtomicReference<byte[]> data;
+
+        private Member(String actualPath, byte[] data)
+        {
+            this.actualPath = actualPath;
+            this.data = new AtomicReference<>(data);
+        }
+    }
+
+    /**
+     * @param client client instance
+     * @param parentPath common parent of all nodes in the group
+     * @param mode creation mode for all nodes in the group (must not be sequential)
+     * @param useProtection if true, node names are given a protected prefix
+     */
+    public PersistentNodeGroup(CuratorFramework client, String parentPath, CreateMode mode, boolean useProtection)
+    {
+        this(client, parentPath, mode, useProtection, -1, DEFAULT_MAX_BATCH_SIZE);
+    }
+
+    /**
+     * @param client client instance
+     * @param parentPath common parent of all nodes in the group
+     * @param mode creation mode for all nodes in the group (must not be sequential)
+     * @param useProtection if true, node names are given a protected prefix
+     * @param ttl for ttl modes, the ttl to use
+     * @param maxBatchSize maximum number of creates per transaction
+     */
+    public PersistentNodeGroup(CuratorFramework client, String parentPath, CreateMode mode, boolean useProtection, long ttl, int maxBatchSize)
+    {
+        Preconditions.checkArgument(!Objects.requireNonNull(mode, "mode cannot be null").isSequential(), "Sequential modes are not supported");
+        Preconditions.checkArgument(maxBatchSize > 0, "maxBatchSize must be greater than 0");
+        this.client = Objects.requireNonNull(client, "client cannot be null");
+        this.parentPath = PathUtils.validatePath(parentPath);
+        this.mode = mode;
+        this.useProtection = useProtection;
+        this.ttl = ttl;
+        this.maxBatchSize = maxBatchSize;
+        watcher = new PersistentWatcher(client, parentPath, true);
+    }
+
+    /**
+     * Add a node to the group. If the group has been started, the node is created in the background.
+     *
+     * @param path path of the node - must be below the group's parent path
+     * @param initData data for the node
+     */
+    public void addNode(String path, byte[] initData)
+    {
+        Preconditions.checkState(state.get() != State.CLOSED, "Group is closed");
+        PathUtils.validatePath(path);
+        Preconditions.checkArgument(path.startsWith(parentPath.endsWith(ZKPaths.PATH_SEPARATOR) ? parentPath : (parentPath + ZKPaths.PATH_SEPARATOR)), "path must be below the group's parent path: " + path);
+        byte[] data = Objects.requireNonNull(initData, "data cannot be null");
+
+        String actualPath = path;
+        if ( useProtection )
+        {
+            ZKPaths.PathAndNode pathAndNode = ZKPaths.getPathAndNode(path);
+            actualPath = ZKPaths.makePath(pathAndNode.getPath(), ProtectedUtils.getProtectedPrefix(UUID.randomUUID().toString()) + pathAndNode.getNode());
+        }
+        Member member = new Member(actualPath, Arrays.copyOf(data, data.length));
+        Preconditions.checkArgument(members.putIfAbsent(path, member) == null, "Node already added: " + path);
+        membersByActualPath.put(actualPath, member);
+        scheduleEnsure();
+    }
+
+    /**
+     * Remove a node from the group and delete it
+     *
+     * @param path path of the node as passed to {@link #addNode(String, byte[])}
+     * @return true if the node was part of the group
+     */
+    public boolean removeNode(String path)
+    {
+        Member member = members.remove(path);
+        if ( member == null )
+        {
+            return false;
+        }
+        membersByActualPath.remove(member.actualPath);
+
+        // an ensure pass already running on the executor may still (re)create this node. Deleting from
+        // the same executor means the delete is issued after that pass
+        pendingDeletes.add(member);
+        if ( state.get() == State.STARTED )
+        {
+            try
+            {
+                executorService.execute(this::processPendingDeletes);
+                return true;
+            }
+            catch ( RejectedExecutionException ignore )
+            {
+                // group was closed
+            }
+        }
+        processPendingDeletes();
+        return true;
+    }
+
+    /**
+     * Start the group. Nodes added so far are created in the background.
+     */
+    public void start()
+    {
+        Preconditions.checkState(state.compareAndSet(State.LATENT, State.STARTED), "Already started");
+
+        executorService = ThreadUtils.newSingleThreadExecutor("PersistentNodeGroup");
+        watcher.getListenable().addListener(this::processEvent);
+        watcher.getResetListenable().addListener(this::scheduleEnsure);
+        watcher.start();
+    }
+
+    /**
+     * Block until either all of the group's nodes have been created at least once or the timeout elapses.
+     *
+     * @param timeout the maximum time to wait
+     * @param unit    time unit
+     * @return true if the nodes were created before timeout
+     * @throws InterruptedException if the thread is interrupted
+     */
+    public boolean waitForInitialCreate(long timeout, TimeUnit unit) throws InterruptedException
+    {
+        Preconditions.checkState(state.get() == State.STARTED, "Not started");
+
+        CountDownLatch localLatch = initialCreateLatch.get();
+        return (localLatch == null) || localLatch.await(timeout, unit);
+    }
+
+    /**
+     * Stop maintaining the nodes and delete them
+     */
+    @Override
+    public void close()
+    {
+        if ( !state.compareAndSet(State.STARTED, State.CLOSED) )
+        {
+            state.set(State.CLOSED);
+            return;
+        }
+
+        watcher.close();
+        awaitExecutor();
+        processPendingDeletes();    // deletes queued by removeNode() that the executor didn't get to
+
+        List<Member> localMembers = Lists.newArrayList(members.values());
+        members.clear();
+        membersByActualPath.clear();
+        for ( List<Member> batch : Lists.partition(localMembers, maxBatchSize) )
+        {
+            try
+            {
+                List<CuratorOp> operations = Lists.newArrayListWithCapacity(batch.size());
+                for ( Member member : batch )
+                {
+                    operations.add(client.transactionOp().delete().forPath(member.actualPath));
+                }
+                client.transaction().forOperations(operations);
+            }
+            catch ( Exception e )
+            {
+                ThreadUtils.checkInterrupted(e);
+                log.debug("Batched delete failed, deleting individually", e);
+                for ( Member member : batch )
+                {
+                    try
+                    {
+                        client.delete().guaranteed().inBackground().forPath(member.actualPath);
+                    }
+                    catch ( Exception e2 )
+                    {
+                        ThreadUtils.checkInterrupted(e2);
+                        log.error("Could not delete node: " + member.actualPath, e2);
+                    }
+                }
+            }
+        }
+    }
+
+    private void awaitExecutor()
+    {
+        // a create batch that is already running could otherwise recreate nodes after they're deleted below. The
+        // pass checks the state between batches so it stops after the current one
+        executorService.shutdown();
+        try
+        {
+            if ( executorService.awaitTermination(CLOSE_WAIT_MS, TimeUnit.MILLISECONDS) )
+            {
+                return;
+            }
+            log.warn("Timed out waiting for a create pass to finish. Nodes it creates may not be deleted: " + parentPath);
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            log.warn("Interrupted waiting for a create pass to finish. Nodes it creates may not be deleted: " + parentPath);
+        }
+        executorService.shutdownNow();
+    }
+
+    /**
+     * Returns the listenable. Listeners are called each time a node in the group is created.
+     *
+     * @return listenable
+     */
+    public Listenable<PersistentNodeListener> getListenable()
+    {
+        return listeners;
+    }
+
+    /**
+     * Returns the actual path of the given node (i.e. including the protected prefix if protection is used)
+     *
+     * @param path path of the node as passed to {@link #addNode(String, byte[])}
+     * @return actual path or null if the node isn't part of the group
+     */
+    public String getActualPath(String path)
+    {
+        Member member = members.get(path);
+        return (member != null) ? member.actualPath : null;
+    }
+
+    /**
+     * Return the current paths (as passed to {@link #addNode(String, byte[])}) of the nodes in the group
+     *
+     * @return paths
+     */
+    public Collection<String> getPaths()
+    {
+        return Sets.newHashSet(members.keySet());
+    }
+
+    /**
+     * Set the data of the given node. The data is also used if the node needs to be recreated.
+     *
+     * @param path path of the node as passed to {@link #addNode(String, byte[])}
+     * @param data new data value
+     * @throws Exception errors
+     */
+    public void setData(String path, byte[] data) throws Exception
+    {
+        data = Objects.requireNonNull(data, "data cannot be null");
+        Member member = members.get(path);
+        Preconditions.checkArgument(member != null, "Node is not part of the group: " + path);
+        member.data.set(Arrays.copyOf(data, data.length));
+        if ( state.get() == State.STARTED )
+        {
+            client.setData().inBackground().forPath(member.actualPath, member.data.get());
+        }
+    }
+
+    /**
+     * Return the current value of the given node's data
+     *
+     * @param path path of the node as passed to {@link #addNode(String, byte[])}
+     * @return data or null if the node isn't part of the group
+     */
+    public byte[] getData(String path)
+    {
+        Member member = members.get(path);
+        return (member != null) ? member.data.get() : null;
+    }
+
+    private void processEvent(WatchedEvent event)
+    {
+        if ( (event.getType() == Watcher.Event.EventType.NodeDeleted) && membersByActualPath.containsKey(event.getPath()) )
+        {
+            scheduleEnsure();
+        }
+    }
+
+    private void scheduleEnsure()
+    {
+        if ( (state.get() == State.STARTED) && ensurePending.compareAndSet(false, true) )
+        {
+            try
+            {
+                executorService.execute(() -> {
+                    ensurePending.set(false);
+                    if ( state.get() == State.STARTED )   // queued passes still run while close() waits for the executor
+                    {
+                        ensureNodes();
+                    }
+                });
+            }
+            catch ( RejectedExecutionException ignore )
+            {
+                // group was closed
+            }
+        }
+    }
+
+    private void ensureNodes()
+    {
+        Map<String, List<Member>> membersByParent = Maps.newHashMap();
+        for ( Member member : members.values() )
+        {
+            membersByParent.computeIfAbsent(ZKPaths.getPathAndNode(member.actualPath).getPath(), k -> Lists.newArrayList()).add(member);
+        }
+
+        boolean allCreated = true;
+        try
+        {
+            for ( Map.Entry<String, List<Member>> entry : membersByParent.entrySet() )
+            {
+                Set<String> children;
+                try
+                {
+                    children = Sets.newHashSet(client.getChildren().forPath(entry.getKey()));
+                }
+                catch ( KeeperException.NoNodeException e )
+                {
+                    client.createContainers(entry.getKey());
+                    children = Sets.newHashSet();
+                }
+
+                List<Member> missing = Lists.newArrayList();
+                for ( Member member : entry.getValue() )
+                {
+                    if ( (membersByActualPath.get(member.actualPath) == member) && !children.contains(ZKPaths.getNodeFromPath(member.actualPath)) )
+                    {
+                        missing.add(member);
+                    }
+                }
+                for ( List<Member> batch : Lists.partition(missing, maxBatchSize) )
+                {
+                    if ( state.get() != State.STARTED )
+                    {
+                        return;
+                    }
+                    allCreated = createBatch(batch) && allCreated;
+                }
+            }
+        }
+        catch ( Exception e )
+        {
+            if ( ThreadUtils.checkInterrupted(e) )
+            {
+                return;
+            }
+            log.error("Could not ensure nodes for: " + parentPath, e);
+            allCreated = false;
+        }
+
+        if ( allCreated )
+        {
+            CountDownLatch localLatch = initialCreateLatch.getAndSet(null);
+            if ( localLatch != null )
+            {
+                localLatch.countDown();
+            }
+        }
+    }
+
+    private void processPendingDeletes()
+    {
+        Member member;
+        while ( (member = pendingDeletes.poll()) != null )
+        {
+            try
+            {
+                client.delete().guaranteed().inBackground().forPath(member.actualPath);
+            }
+            catch ( Exception e )
+            {
+                ThreadUtils.checkInterrupted(e);
+                log.error("Could not delete node: " + member.actualPath, e);
+            }
+        }
+    }
+
+    private boolean createBatch(List<Member> batch) throws Exception
+    {
+        try
+        {
+            List<CuratorOp> operations = Lists.newArrayListWithCapacity(batch.size());
+            for ( Member member : batch )
+            {
+                operations.add(mode.isTTL() ? client.transactionOp().create().withTtl(ttl).withMode(mode).forPath(member.actualPath, member.data.get()) : client.transactionOp().create().withMode(mode).forPath(member.actualPath, member.data.get()));
+            }
+            client.transaction().forOperations(operations);
+            batch.forEach(member -> notifyListeners(member.actualPath));
+            return true;
+        }
+        catch ( KeeperException e )
+        {
+            log.debug("Batched create failed, creating individually", e);
+        }
+
+        boolean allCreated = true;
+        for ( Member member : batch )
+        {
+            if ( state.get() != State.STARTED )
+            {
+                return false;
+            }
+            allCreated = createOne(member) && allCreated;
+        }
+        return allCreated;
+    }
+
+    private boolean createOne(Member member) throws Exception
+    {
+        try
+        {
+            if ( mode.isTTL() )
+            {
+                client.create().withTtl(ttl).creatingParentContainersIfNeeded().withMode(mode).forPath(member.actualPath, member.data.get());
+            }
+            else
+            {
+                client.create().creatingParentContainersIfNeeded().withMode(mode).forPath(member.actualPath, member.data.get());
+            }
+            notifyListeners(member.actualPath);
+        }
+        catch ( KeeperException.NodeExistsException e )
+        {
+            // e.g. a previous create whose result was lost - take ownership of the node's data
+            client.setData().forPath(member.actualPath, member.data.get());
+        }
+        catch ( KeeperException.NoAuthException e )
+        {
+            log.warn("Client does not have authorisation to create node at path {}", member.actualPath);
+            return false;
+        }
+        return true;
+    }
+
+    private void notifyListeners(String path)
+    {
+        listeners.forEach(listener -> {
+            try
+            {
+                listener.nodeCreated(path);
+            }
+            catch ( Exception e )
+            {
+                ThreadUtils.checkInterrupted(e);
+                log.error("From PersistentNodeGroup listener", e);
+            }
+        });
+    }
+}
@@ -65,6 +65,8 @@ public class PersistentTtlNode implements Closeable
     private final long ttlMs;
     private final int touchScheduleFactor;
     private final ScheduledExecutorService executorService;
+    private final PersistentTtlTouchManager touchManager;
+    private final AtomicReference<PersistentTtlTouchManager.Touch> touchRef = new AtomicReference<>();
     private final AtomicReference<Future<?>> futureRef = new AtomicReference<>();
     private final String childPath;
 
@@ -90,6 +92,26 @@ public class PersistentTtlNode implements Closeable
      *                            the child is touched every <code>(ttlMs / touchScheduleFactor)</code>
      */
     public PersistentTtlNode(CuratorFramework client, ScheduledExecutorService executorService, String path, long ttlMs, byte[] initData, String childNodeName, int touchScheduleFactor)
+    {
+        this(client, Objects.requireNonNull(executorService, "executorService cannot be null"), null, path, ttlMs, initData, childNodeName, touchScheduleFactor);
+    }
+
+    /**
+     * @param client the client
+     * @param touchManager shared manager used to touch the child node. It must be started before this node
+     * @param path path for the parent ZNode
+     * @param ttlMs max ttl for the node in milliseconds
+     * @param initData data for the node
+     * @param childNodeName name to use for the child node of the node created at <code>path</code>
+     * @param touchScheduleFactor how ofter to set/create the child node as a factor of the ttlMs. i.e.
+     *                            the child is touched every <code>(ttlMs / touchScheduleFactor)</code>
+     */
+    public PersistentTtlNode(CuratorFramework client, PersistentTtlTouchManager touchManager, String path, long ttlMs, byte[] initData, String childNodeName, int touchScheduleFactor)
+    {
+        this(client, null, Objects.requireNonNull(touchManager, "touchManager cannot be null"), path, ttlMs, initData, childNodeName, touchScheduleFactor);
+    }
+
+    private PersistentTtlNode(CuratorFramework client, ScheduledExecutorService executorService, PersistentTtlTouchManager touchManager, String path, long ttlMs, byte[] initData, String childNodeName, int touchScheduleFactor)
     {
         this.client = Objects.requireNonNull(client, "client cannot be null");
         this.ttlMs = ttlMs;
@@ -102,7 +124,8 @@ public class PersistentTtlNode implements Closeable
                 // NOP
             }
         };
-        this.executorService = Objects.requireNonNull(executorService, "executorService cannot be null");
+        this.executorService = executorService;
+        this.touchManager = touchManager;
         childPath = ZKPaths.makePath(Objects.requireNonNull(path, "path cannot be null"), childNodeName);
     }
 
@@ -113,6 +136,12 @@ public class PersistentTtlNode implements Closeable
     {
         node.start();
 
+        if ( touchManager != null )
+        {
+            touchRef.set(touchManager.register(childPath, ttlMs, ttlMs / touchScheduleFactor));
+            return;
+        }
+
         Runnable touchTask = new Runnable()
         {
             @Override
@@ -120,18 +149,7 @@ public class PersistentTtlNode implements Closeable
             {
                 try
                 {
-                    try
-                    {
-                        client.setData().forPath(childPath);
-                    }
-                    catch ( KeeperException.NoNodeException e )
-                    {
-                        client.create().orSetData().withTtl(ttlMs).withMode(CreateMode.PERSISTENT_WITH_TTL).forPath(childPath);
-                    }
-                }
-                catch ( KeeperException.NoNodeException ignore )
-                {
-                    // ignore
+                    touch(client, childPath, ttlMs);
                 }
                 catch ( Exception e )
                 {
@@ -197,6 +215,11 @@ public class PersistentTtlNode implements Closeable
         {
             future.cancel(true);
         }
+        PersistentTtlTouchManager.Touch touch = touchRef.getAndSet(null);
+        if ( touch != null )
+        {
+            touchManager.unregister(touch);
+        }
         try
         {
             node.close();
@@ -206,4 +229,23 @@ public class PersistentTtlNode implements Closeable
             throw new RuntimeException(e);
         }
     }
+
+    static void touch(CuratorFramework client, String childPath, long ttlMs) throws Exception
+    {
+        try
+        {
+            try
+            {
+                client.setData().forPath(childPath);
+            }
+            catch ( KeeperException.NoNodeException e )
+            {
+                client.create().orSetData().withTtl(ttlMs).withMode(CreateMode.PERSISTENT_WITH_TTL).forPath(childPath);
+            }
+        }
+        catch ( KeeperException.NoNodeException ignore )
+        {
+            // ignore
+        }
+    }
 }
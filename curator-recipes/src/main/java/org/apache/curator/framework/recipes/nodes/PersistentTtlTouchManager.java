@@ -0,0 +1,250 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.curator.framework.recipes.nodes;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.api.transaction.CuratorOp;
+import org.apache.curator.utils.ThreadUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.io.Closeable;
+import java.util.List;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * <p>
+ *     Touches the TTL child nodes of many {@link PersistentTtlNode}s using a single thread. Instead of
+ *     each node sending its own <code>setData()</code> on its own schedule, due touches are grouped into
+ *     <code>multi()</code> transactions of at most <code>maxBatchSize</code> operations. If a transaction fails
+ *     (e.g. because a touch node does not exist yet), the touches in that batch are applied individually.
+ * </p>
+ *
+ * <p>
+ *     Touch times are jittered so that touches are spread evenly over time: the first touch of a node is
+ *     scheduled at a random point within its touch interval and each subsequent touch is scheduled
+ *     between <code>(1 - jitter) * interval</code> and <code>interval</code> after the previous one.
+ * </p>
+ *
+ * <p>
+ *     Usually, one manager should be used per client. Pass it to
+ *     {@link PersistentTtlNode#PersistentTtlNode(CuratorFramework, PersistentTtlTouchManager, String, long, byte[], String, int)}.
+ *     The manager must be started before the nodes that use it and closed after them.
+ * </p>
+ */
+public class PersistentTtlTouchManager implements Closeable
+{
+    public static final int DEFAULT_MAX_BATCH_SIZE = 100;
+    public static final long DEFAULT_TICK_MS = 100;
+    public static final double DEFAULT_JITTER = 0.1;
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
+    private final CuratorFramework client;
+    private final int maxBatchSize;
+    private final long tickMs;
+    private final double jitter;
+    private final PriorityQueue<Touch> queue = new PriorityQueue<>((t1, t2) -> Long.compare(t1.nextTouchMs, t2.nextTouchMs));    // guarded by this
+    private final AtomicReference<State> state = new AtomicReference<>(State.LATENT);
+    private volatile ScheduledExecutorService executorService;
+
+    private enum State
+    {
+        LATENT,
+        STARTED,
+        CLOSED
+    }
+
+    /**
+     * A registered touch node
+     */
+    static class Touch
+    {
+        private final String childPath;
+        private final long ttlMs;
+        private final long intervalMs;
+        private long nextTouchMs;   // guarded by the manager
+        private boolean cancelled;  // guarded by the manager
+
+        private Touch(String childPath, long ttlMs, long intervalMs)
+        {
+            this.childPath = childPath;
+            this.ttlMs = ttlMs;
+            this.intervalMs = intervalMs;
+        }
+    }
+
+    /**
+     * Uses {@link #DEFAULT_MAX_BATCH_SIZE}, {@link #DEFAULT_TICK_MS} and {@link #DEFAULT_JITTER}
+     *
+     * @param client the client
+     */
+    public PersistentTtlTouchManager(CuratorFramework client)
+    {
+        this(client, DEFAULT_MAX_BATCH_SIZE, DEFAULT_TICK_MS, DEFAULT_JITTER);
+    }
+
+    /**
+     * @param client the client
+     * @param maxBatchSize maximum number of touches per transaction
+     * @param tickMs how often to check for due touches. Touches can be delayed by up to this amount so it should be small relative to the touch intervals
+     * @param jitter fraction (0 - 1) by which touch intervals are randomly shortened
+     */
+    public PersistentTtlTouchManager(CuratorFramework client, int maxBatchSize, long tickMs, double jitter)
+    {
+        Preconditions.checkArgument(maxBatchSize > 0, "maxBatchSize must be greater than 0");
+        Preconditions.checkArgument(tickMs > 0, "tickMs must be greater than 0");
+        Preconditions.checkArgument((jitter >= 0) && (jitter < 1), "jitter must be >= 0 and < 1");
+        this.client = Objects.requireNonNull(client, "client cannot be null");
+        this.maxBatchSize = maxBatchSize;
+        this.tickMs = tickMs;
+        this.jitter = jitter;
+    }
+
+    /**
+     * Start the touch thread
+     */
+    public void start()
+    {
+        Preconditions.checkState(state.compareAndSet(State.LATENT, State.STARTED), "Cannot be started more than once");
+        executorService = ThreadUtils.newSingleThreadScheduledExecutor("PersistentTtlTouchManager");
+        executorService.scheduleWithFixedDelay(this::touchDue, tickMs, tickMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stop the touch thread
+     */
+    @Override
+    public void close()
+    {
+        if ( state.getAndSet(State.CLOSED) == State.STARTED )
+        {
+            executorService.shutdownNow();
+        }
+        synchronized(this)
+        {
+            queue.clear();
+        }
+    }
+
+    Touch register(String childPath, long ttlMs, long intervalMs)
+    {
+        Preconditions.checkState(state.get() == State.STARTED, "Touch manager has not been started");
+        Touch touch = new Touch(childPath, ttlMs, intervalMs);
+        touch.nextTouchMs = now() + ThreadLocalRandom.current().nextLong(Math.max(intervalMs, 1));
+        synchronized(this)
+        {
+            queue.add(touch);
+        }
+        return touch;
+    }
+
+    synchronized void unregister(Touch touch)
+    {
+        touch.cancelled = true;
+        queue.remove(touch);
+    }
+
+    @VisibleForTesting
+    synchronized int getRegisteredQty()
+    {
+        return queue.size();
+    }
+
+    private void touchDue()
+    {
+        List<Touch> due = Lists.newArrayList();
+        long now = now();
+        synchronized(this)
+        {
+            while ( !queue.isEmpty() && (queue.peek().nextTouchMs <= now) )
+            {
+                due.add(queue.poll());
+            }
+        }
+
+        for ( List<Touch> batch : Lists.partition(due, maxBatchSize) )
+        {
+            touchBatch(batch);
+        }
+
+        synchronized(this)
+        {
+            for ( Touch touch : due )
+            {
+                if ( touch.cancelled )
+                {
+                    continue;
+                }
+                long interval = touch.intervalMs - (long)(touch.intervalMs * jitter * ThreadLocalRandom.current().nextDouble());
+                touch.nextTouchMs = now + interval;
+                queue.add(touch);
+            }
+        }
+    }
+
+    private void touchBatch(List<Touch> batch)
+    {
+        try
+        {
+            List<CuratorOp> operations = Lists.newArrayListWithCapacity(batch.size());
+            for ( Touch touch : batch )
+            {
+                operations.add(client.transactionOp().setData().forPath(touch.childPath));
+            }
+            client.transaction().forOperations(operations);
+            return;
+        }
+        catch ( Exception e )
+        {
+            if ( ThreadUtils.checkInterrupted(e) )
+            {
+                return;
+            }
+            log.debug("Batched touch failed, touching individually", e);
+        }
+
+        for ( Touch touch : batch )
+        {
+            try
+            {
+                PersistentTtlNode.touch(client, touch.childPath, touch.ttlMs);
+            }
+            catch ( Exception e )
+            {
+                if ( ThreadUtils.checkInterrupted(e) )
+                {
+                    return;
+                }
+                log.debug("Could not touch child node", e);
+            }
+        }
+    }
+
+    private static long now()
+    {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime());
+    }
+}
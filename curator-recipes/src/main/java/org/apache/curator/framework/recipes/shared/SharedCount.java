@@ -28,7 +28,9 @@ import java.io.Closeable;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.util.Map;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.Executor;
+import java.util.function.IntUnaryOperator;
 
 /**
  * Manages a shared integer. All clients watching the same path will have the up-to-date
@@ -49,6 +51,19 @@ public class SharedCount implements Closeable, SharedCountReader, Listenable<Sha
         sharedValue = new SharedValue(client, path, toBytes(seedValue));
     }
 
+    /**
+     * @param client the client
+     * @param path the shared path - i.e. where the shared count is stored
+     * @param seedValue the initial value for the count if/f the path has not yet been created
+     * @param coalesceNotifications if true, watch-triggered reads are coalesced and listeners are only
+     *                              notified when the version of the count has advanced. See
+     *                              {@link SharedValue#SharedValue(CuratorFramework, String, byte[], boolean)}
+     */
+    public SharedCount(CuratorFramework client, String path, int seedValue, boolean coalesceNotifications)
+    {
+        sharedValue = new SharedValue(client, path, toBytes(seedValue), coalesceNotifications);
+    }
+
     protected SharedCount(CuratorFramework client, String path, SharedValue sv)
     {
         sharedValue = sv;
@@ -116,6 +131,22 @@ public class SharedCount implements Closeable, SharedCountReader, Listenable<Sha
         return sharedValue.trySetValue(previousCopy, toBytes(newCount));
     }
 
+    /**
+     * Asynchronously apply the given function to the current count and attempt to set the result
+     * using compare-and-set semantics, retrying with jittered exponential backoff if the count
+     * was changed by another client. See {@link SharedValue#updateValueAsync(java.util.function.UnaryOperator, int, int)}
+     *
+     * @param updater function that returns the new count given the current count. It may be called multiple times.
+     * @param maxAttempts maximum number of set attempts
+     * @param baseSleepTimeMs initial amount of time to wait between attempts
+     * @return stage that completes with the count that was set
+     */
+    public CompletionStage<VersionedValue<Integer>> updateCountAsync(IntUnaryOperator updater, int maxAttempts, int baseSleepTimeMs)
+    {
+        return sharedValue.updateValueAsync(bytes -> toBytes(updater.applyAsInt(fromBytes(bytes))), maxAttempts, baseSleepTimeMs)
+            .thenApply(value -> new VersionedValue<Integer>(value.getVersion(), fromBytes(value.getValue())));
+    }
+
     @Override
     public void     addListener(SharedCountListener listener)
     {
@@ -41,7 +41,16 @@ import org.slf4j.LoggerFactory;
 import java.io.Closeable;
 import java.io.IOException;
 import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
 
 /**
  * Manages a shared value. All clients watching the same path will have the up-to-date
@@ -50,6 +59,7 @@ import java.util.concurrent.atomic.AtomicReference;
 public class SharedValue implements Closeable, SharedValueReader
 {
 	private static final int UNINITIALIZED_VERSION = -1;
+    private static final int MAX_BACKOFF_SHIFT = 10;
 
     private final Logger log = LoggerFactory.getLogger(getClass());
     private final StandardListenerManager<SharedValueListener> listeners = StandardListenerManager.standard();
@@ -59,6 +69,11 @@ public class SharedValue implements Closeable, SharedValueReader
     private final AtomicReference<State> state = new AtomicReference<State>(State.LATENT);
     private final AtomicReference<VersionedValue<byte[]>> currentValue;
     private final CuratorWatcher watcher;
+    private final boolean coalesceNotifications;
+    private final AtomicBoolean readInFlight = new AtomicBoolean(false);
+    private final AtomicBoolean readRequested = new AtomicBoolean(false);
+    private final AtomicInteger lastNotifiedVersion = new AtomicInteger(UNINITIALIZED_VERSION);
+    private final AtomicReference<ScheduledExecutorService> retryExecutor = new AtomicReference<>();
 
     private class SharedValueCuratorWatcher implements CuratorWatcher
     {
@@ -107,8 +122,23 @@ public class SharedValue implements Closeable, SharedValueReader
      * @param seedValue the initial value for the value if/f the path has not yet been created
      */
     public SharedValue(CuratorFramework client, String path, byte[] seedValue)
+    {
+        this(client, path, seedValue, false);
+    }
+
+    /**
+     * @param client    the client
+     * @param path      the shared path - i.e. where the shared value is stored
+     * @param seedValue the initial value for the value if/f the path has not yet been created
+     * @param coalesceNotifications if true, watch-triggered reads are coalesced so that at most one
+     *                              read is outstanding at a time and listeners are only notified when the
+     *                              version of the value has advanced since the last notification (i.e. listeners
+     *                              are not called after a reconnection if the value did not change)
+     */
+    public SharedValue(CuratorFramework client, String path, byte[] seedValue, boolean coalesceNotifications)
     {
         this.client = client.newWatcherRemoveCuratorFramework();
+        this.coalesceNotifications = coalesceNotifications;
         this.path = PathUtils.validatePath(path);
         this.seedValue = Arrays.copyOf(seedValue, seedValue.length);
         this.watcher = new SharedValueCuratorWatcher();
@@ -123,6 +153,7 @@ public class SharedValue implements Closeable, SharedValueReader
         this.seedValue = Arrays.copyOf(seedValue, seedValue.length);
         // inject watcher for testing
         this.watcher = watcher;
+        this.coalesceNotifications = false;
         currentValue = new AtomicReference<VersionedValue<byte[]>>(new VersionedValue<byte[]>(UNINITIALIZED_VERSION, Arrays.copyOf(seedValue, seedValue.length)));
     }
 
@@ -140,6 +171,18 @@ public class SharedValue implements Closeable, SharedValueReader
         return new VersionedValue<byte[]>(localCopy.getVersion(), Arrays.copyOf(localCopy.getValue(), localCopy.getValue().length));
     }
 
+    /**
+     * Return the current version and value without copying. This is a lock-free read of the
+     * most recently seen value and is suitable for high-frequency readers. <b>NOTE:</b> the
+     * returned byte array is the internal instance and must not be modified.
+     *
+     * @return version/value
+     */
+    public VersionedValue<byte[]> peekVersionedValue()
+    {
+        return currentValue.get();
+    }
+
     /**
      * Change the shared value value irrespective of its previous state
      *
@@ -211,6 +254,111 @@ public class SharedValue implements Closeable, SharedValueReader
         return false;
     }
 
+    /**
+     * Asynchronously apply the given function to the current value and attempt to set the result
+     * using the version of the value that was used as the input (i.e. compare-and-set). If the value has been
+     * changed by another client, the value is re-read and the update is retried after sleeping for an
+     * exponentially increasing, randomized (jittered) amount of time up to {@code maxAttempts} times.
+     *
+     * @param updater function that returns the new value given the current value. It may be called multiple times.
+     * @param maxAttempts maximum number of set attempts
+     * @param baseSleepTimeMs initial amount of time to wait between attempts
+     * @return stage that completes with the value that was set or completes exceptionally with
+     * {@link KeeperException.BadVersionException} if the attempts were exhausted or any other error
+     */
+    public CompletionStage<VersionedValue<byte[]>> updateValueAsync(UnaryOperator<byte[]> updater, int maxAttempts, int baseSleepTimeMs)
+    {
+        Preconditions.checkState(state.get() == State.STARTED, "not started");
+        Preconditions.checkArgument(maxAttempts > 0, "maxAttempts must be greater than 0");
+        Preconditions.checkArgument(baseSleepTimeMs >= 0, "baseSleepTimeMs cannot be negative");
+
+        CompletableFuture<VersionedValue<byte[]>> future = new CompletableFuture<>();
+        attemptUpdate(updater, 0, maxAttempts, baseSleepTimeMs, future);
+        return future;
+    }
+
+    private void attemptUpdate(UnaryOperator<byte[]> updater, int attempt, int maxAttempts, int baseSleepTimeMs, CompletableFuture<VersionedValue<byte[]>> future)
+    {
+        if ( state.get() != State.STARTED )
+        {
+            future.completeExceptionally(new IllegalStateException("not started"));
+            return;
+        }
+
+        try
+        {
+            VersionedValue<byte[]> current = currentValue.get();
+            byte[] newValue = updater.apply(Arrays.copyOf(current.getValue(), current.getValue().length));
+            BackgroundCallback callback = (__, event) -> {
+                if ( event.getResultCode() == KeeperException.Code.OK.intValue() )
+                {
+                    updateValue(event.getStat().getVersion(), Arrays.copyOf(newValue, newValue.length));
+                    future.complete(new VersionedValue<>(event.getStat().getVersion(), Arrays.copyOf(newValue, newValue.length)));
+                }
+                else if ( event.getResultCode() == KeeperException.Code.BADVERSION.intValue() )
+                {
+                    if ( (attempt + 1) >= maxAttempts )
+                    {
+                        future.completeExceptionally(new KeeperException.BadVersionException(path));
+                        return;
+                    }
+                    long sleepMs = ThreadLocalRandom.current().nextLong(baseSleepTimeMs, ((long)baseSleepTimeMs << Math.min(attempt + 1, MAX_BACKOFF_SHIFT)) + 1);
+                    BackgroundCallback readCallback = (___, readEvent) -> {
+                        if ( readEvent.getResultCode() == KeeperException.Code.OK.intValue() )
+                        {
+                            updateValue(readEvent.getStat().getVersion(), readEvent.getData());
+                        }
+                        try
+                        {
+                            getRetryExecutor().schedule(() -> attemptUpdate(updater, attempt + 1, maxAttempts, baseSleepTimeMs, future), sleepMs, TimeUnit.MILLISECONDS);
+                        }
+                        catch ( RejectedExecutionException | IllegalStateException e )
+                        {
+                            future.completeExceptionally(new IllegalStateException("closed", e));
+                        }
+                    };
+                    client.getData().inBackground(readCallback).forPath(path);
+                }
+                else
+                {
+                    future.completeExceptionally(KeeperException.create(KeeperException.Code.get(event.getResultCode()), path));
+                }
+            };
+            client.setData().withVersion(current.getVersion()).inBackground(callback).forPath(path, newValue);
+        }
+        catch ( Exception e )
+        {
+            ThreadUtils.checkInterrupted(e);
+            future.completeExceptionally(e);
+        }
+    }
+
+    private ScheduledExecutorService getRetryExecutor()
+    {
+        Preconditions.checkState(state.get() == State.STARTED, "not started");
+        ScheduledExecutorService executor = retryExecutor.get();
+        if ( executor == null )
+        {
+            ScheduledExecutorService newExecutor = ThreadUtils.newSingleThreadScheduledExecutor("SharedValue");
+            if ( retryExecutor.compareAndSet(null, newExecutor) )
+            {
+                executor = newExecutor;
+                if ( state.get() != State.STARTED )
+                {
+                    // lost a race with close()
+                    retryExecutor.compareAndSet(newExecutor, null);
+                    newExecutor.shutdownNow();
+                }
+            }
+            else
+            {
+                newExecutor.shutdownNow();
+                executor = retryExecutor.get();
+            }
+        }
+        return executor;
+    }
+
     private void updateValue(int version, byte[] bytes)
     {
         while (true)
@@ -261,6 +409,7 @@ public class SharedValue implements Closeable, SharedValueReader
         }
 
         readValue();
+        lastNotifiedVersion.set(currentValue.get().getVersion());
     }
 
     @Override
@@ -270,6 +419,11 @@ public class SharedValue implements Closeable, SharedValueReader
         client.removeWatchers();
         client.getConnectionStateListenable().removeListener(connectionStateListener);
         listeners.clear();
+        ScheduledExecutorService executor = retryExecutor.getAndSet(null);
+        if ( executor != null )
+        {
+            executor.shutdownNow();
+        }
     }
 
     private void readValue() throws Exception
@@ -289,9 +443,54 @@ public class SharedValue implements Closeable, SharedValueReader
         }
     };
 
+    private final BackgroundCallback coalescingUpdateAndNotifyListenerCallback = new BackgroundCallback() {
+        @Override
+        public void processResult(CuratorFramework client, CuratorEvent event) throws Exception {
+            if (event.getResultCode() == KeeperException.Code.OK.intValue()) {
+                updateValue(event.getStat().getVersion(), event.getData());
+                int version = currentValue.get().getVersion();
+                if (lastNotifiedVersion.getAndAccumulate(version, Math::max) < version) {
+                    notifyListeners();
+                }
+            }
+            readInFlight.set(false);
+            if ( readRequested.get() && readInFlight.compareAndSet(false, true) )
+            {
+                coalescedRead();
+            }
+        }
+    };
+
     private void readValueAndNotifyListenersInBackground() throws Exception
     {
-        client.getData().usingWatcher(watcher).inBackground(upadateAndNotifyListenerCallback).forPath(path);
+        if ( coalesceNotifications )
+        {
+            // any reads requested while a read is outstanding are satisfied by a single follow-up read
+            readRequested.set(true);
+            if ( readInFlight.compareAndSet(false, true) )
+            {
+                coalescedRead();
+            }
+        }
+        else
+        {
+            client.getData().usingWatcher(watcher).inBackground(upadateAndNotifyListenerCallback).forPath(path);
+        }
+    }
+
+    private void coalescedRead()
+    {
+        readRequested.set(false);
+        try
+        {
+            client.getData().usingWatcher(watcher).inBackground(coalescingUpdateAndNotifyListenerCallback).forPath(path);
+        }
+        catch ( Exception e )
+        {
+            readInFlight.set(false);
+            ThreadUtils.checkInterrupted(e);
+            log.error("Could not read value", e);
+        }
     }
 
     private void notifyListeners()
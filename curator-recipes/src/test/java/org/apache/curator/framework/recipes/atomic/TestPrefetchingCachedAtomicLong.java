@@ -0,0 +1,122 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.curator.framework.recipes.atomic;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.CuratorFrameworkFactory;
+import org.apache.curator.retry.RetryNTimes;
+import org.apache.curator.retry.RetryOneTime;
+import org.apache.curator.test.BaseClassForTests;
+import org.apache.curator.test.Timing;
+import org.apache.curator.utils.CloseableUtils;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+public class TestPrefetchingCachedAtomicLong extends BaseClassForTests
+{
+    @Test
+    public void testBasic() throws Exception
+    {
+        Timing timing = new Timing();
+        CuratorFramework client = CuratorFrameworkFactory.newClient(server.getConnectString(), new RetryOneTime(1));
+        client.start();
+        try
+        {
+            DistributedAtomicLong dal = new DistributedAtomicLong(client, "/counter", new RetryOneTime(1));
+            try ( PrefetchingCachedAtomicLong cachedLong = new PrefetchingCachedAtomicLong(dal, 10) )
+            {
+                for ( long i = 0; i < 25; ++i )
+                {
+                    AtomicValue<Long> value = cachedLong.next();
+                    assertTrue(value.succeeded());
+                    assertEquals(value.preValue().longValue(), i);
+                    assertEquals(value.postValue().longValue(), i + 1);
+                }
+
+                AtomicValue<Long> value = cachedLong.nextAsync().toCompletableFuture().get(timing.seconds(), TimeUnit.SECONDS);
+                assertTrue(value.succeeded());
+                assertEquals(value.preValue().longValue(), 25);
+
+                // the next chunk should have been prefetched
+                timing.sleepABit();
+                assertEquals(dal.get().postValue().longValue(), 40);
+            }
+        }
+        finally
+        {
+            CloseableUtils.closeQuietly(client);
+        }
+    }
+
+    @Test
+    public void testConcurrentCallers() throws Exception
+    {
+        final int THREAD_QTY = 8;
+        final int VALUE_QTY = 200;
+
+        CuratorFramework client = CuratorFrameworkFactory.newClient(server.getConnectString(), new RetryOneTime(1));
+        client.start();
+        ExecutorService service = Executors.newFixedThreadPool(THREAD_QTY);
+        try
+        {
+            DistributedAtomicLong dal = new DistributedAtomicLong(client, "/counter", new RetryNTimes(10, 1));
+            try ( PrefetchingCachedAtomicLong cachedLong = new PrefetchingCachedAtomicLong(dal, 16, 4, null) )
+            {
+                Set<Long> values = Sets.newSetFromMap(new ConcurrentHashMap<>());
+                List<Future<Boolean>> futures = Lists.newArrayList();
+                for ( int i = 0; i < THREAD_QTY; ++i )
+                {
+                    futures.add(service.submit(() -> {
+                        for ( int j = 0; j < VALUE_QTY; ++j )
+                        {
+                            AtomicValue<Long> value = (j % 2 == 0) ? cachedLong.next() : cachedLong.nextAsync().toCompletableFuture().get();
+                            if ( !value.succeeded() || !values.add(value.preValue()) )
+                            {
+                                return false;
+                            }
+                        }
+                        return true;
+                    }));
+                }
+                for ( Future<Boolean> future : futures )
+                {
+                    assertTrue(future.get());
+                }
+                assertEquals(values.size(), THREAD_QTY * VALUE_QTY);
+            }
+        }
+        finally
+        {
+            service.shutdownNow();
+            CloseableUtils.closeQuietly(client);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.curator.framework.recipes.atomic;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.common.collect.Lists;
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.CuratorFrameworkFactory;
+import org.apache.curator.retry.RetryNTimes;
+import org.apache.curator.retry.RetryOneTime;
+import org.apache.curator.test.BaseClassForTests;
+import org.apache.curator.utils.CloseableUtils;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+public class TestStripedDistributedAtomicLong extends BaseClassForTests
+{
+    @Test
+    public void testSimultaneous() throws Exception
+    {
+        final int THREAD_QTY = 10;
+        final int INCREMENT_QTY = 20;
+
+        CuratorFramework client = CuratorFrameworkFactory.newClient(server.getConnectString(), new RetryOneTime(1));
+        client.start();
+        ExecutorService service = Executors.newFixedThreadPool(THREAD_QTY);
+        try
+        {
+            StripedDistributedAtomicLong counter = new StripedDistributedAtomicLong(client, "/counter", 4, new RetryNTimes(100, 1));
+            List<Future<Boolean>> futures = Lists.newArrayList();
+            for ( int i = 0; i < THREAD_QTY; ++i )
+            {
+                futures.add(service.submit(() -> {
+                    boolean success = true;
+                    for ( int j = 0; j < INCREMENT_QTY; ++j )
+                    {
+                        success = counter.increment() && success;
+                    }
+                    return success;
+                }));
+            }
+            for ( Future<Boolean> future : futures )
+            {
+                assertTrue(future.get());
+            }
+            assertEquals(counter.get(), THREAD_QTY * INCREMENT_QTY);
+            assertTrue(client.getChildren().forPath("/counter").size() > 1);
+        }
+        finally
+        {
+            service.shutdownNow();
+            CloseableUtils.closeQuietly(client);
+        }
+    }
+
+    @Test
+    public void testBatching() throws Exception
+    {
+        CuratorFramework client = CuratorFrameworkFactory.newClient(server.getConnectString(), new RetryOneTime(1));
+        client.start();
+        try
+        {
+            StripedDistributedAtomicLong counter = new StripedDistributedAtomicLong(client, "/counter", 2, new RetryOneTime(1), 10, TimeUnit.MINUTES);
+            counter.start();
+            try
+            {
+                counter.addBatched(5);
+                counter.addBatched(-2);
+                assertEquals(counter.getPending(), 3);
+                assertEquals(counter.get(), 0);
+
+                assertTrue(counter.flush());
+                assertEquals(counter.getPending(), 0);
+                assertEquals(counter.get(), 3);
+
+                counter.addBatched(10);
+            }
+            finally
+            {
+                counter.close();
+            }
+            assertEquals(counter.get(), 13);
+        }
+        finally
+        {
+            CloseableUtils.closeQuietly(client);
+        }
+    }
+}
@@ -0,0 +1,175 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.curator.framework.recipes.barriers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import com.google.common.collect.Lists;
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.CuratorFrameworkFactory;
+import org.apache.curator.retry.RetryOneTime;
+import org.apache.curator.test.compatibility.CuratorTestBase;
+import org.apache.curator.utils.CloseableUtils;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Tag(CuratorTestBase.zk36Group)
+public class TestDistributedSharedWatchDoubleBarrier extends CuratorTestBase
+{
+    private static final int QTY = 5;
+
+    @Test
+    public void testMultiClient() throws Exception
+    {
+        List<CuratorFramework> clients = Lists.newArrayList();
+        try
+        {
+            for ( int i = 0; i < QTY; ++i )
+            {
+                CuratorFramework client = CuratorFrameworkFactory.newClient(server.getConnectString(), timing.session(), timing.connection(), new RetryOneTime(1));
+                client.start();
+                clients.add(client);
+            }
+            runParticipants(clients);
+        }
+        finally
+        {
+            clients.forEach(CloseableUtils::closeQuietly);
+        }
+    }
+
+    @Test
+    public void testSharedClient() throws Exception
+    {
+        try ( CuratorFramework client = CuratorFrameworkFactory.newClient(server.getConnectString(), timing.session(), timing.connection(), new RetryOneTime(1)) )
+        {
+            client.start();
+            List<CuratorFramework> clients = Lists.newArrayList();
+            for ( int i = 0; i < QTY; ++i )
+            {
+                clients.add(client);
+            }
+
+            // run two cycles to make sure the barrier can be reused
+            runParticipants(clients);
+            runParticipants(clients);
+        }
+    }
+
+    @Test
+    public void testEnterTimeout() throws Exception
+    {
+        try ( CuratorFramework client = CuratorFrameworkFactory.newClient(server.getConnectString(), timing.session(), timing.connection(), new RetryOneTime(1)) )
+        {
+            client.start();
+            DistributedSharedWatchDoubleBarrier barrier = new DistributedSharedWatchDoubleBarrier(client, "/barrier", 2);
+            assertFalse(barrier.enter(timing.multiple(0.5).milliseconds(), TimeUnit.MILLISECONDS));
+
+            DistributedSharedWatchDoubleBarrier barrier2 = new DistributedSharedWatchDoubleBarrier(client, "/barrier", 2);
+            assertTrue(barrier2.enter(timing.milliseconds(), TimeUnit.MILLISECONDS));
+            assertTrue(client.checkExists().forPath("/barrier/ready") != null);
+        }
+    }
+
+    @Test
+    public void testFailedEnterReleasesWatch() throws Exception
+    {
+        try ( CuratorFramework client = CuratorFrameworkFactory.newClient(server.getConnectString(), timing.session(), timing.connection(), new RetryOneTime(1)) )
+        {
+            client.start();
+            DistributedSharedWatchDoubleBarrier barrier = new DistributedSharedWatchDoubleBarrier(client, "/barrier", 2);
+            assertFalse(barrier.enter(timing.multiple(0.5).milliseconds(), TimeUnit.MILLISECONDS));
+            assertEquals(SharedBarrierWatch.activeWatchCount(), 0);
+            assertEquals(client.getChildren().forPath("/barrier").size(), 1);   // still a member - can leave
+
+            assertTrue(barrier.leave(timing.milliseconds(), TimeUnit.MILLISECONDS));
+            assertEquals(SharedBarrierWatch.activeWatchCount(), 0);
+            assertEquals(client.getChildren().forPath("/barrier").size(), 0);
+        }
+    }
+
+    @Test
+    public void testUnsyncedWhileDisconnected() throws Exception
+    {
+        try ( CuratorFramework client = CuratorFrameworkFactory.newClient(server.getConnectString(), timing.session(), timing.connection(), new RetryOneTime(1)) )
+        {
+            client.start();
+            SharedBarrierWatch watch = SharedBarrierWatch.acquire(client, "/barrier", "ready");
+            try
+            {
+                assertTrue(watch.waitFor(watch::isSynced, true, System.currentTimeMillis() + timing.forWaiting().milliseconds()));
+                server.stop();
+                assertTrue(watch.waitFor(() -> !watch.isSynced(), true, System.currentTimeMillis() + timing.forWaiting().milliseconds()));
+                server.restart();
+                assertTrue(watch.waitFor(watch::isSynced, true, System.currentTimeMillis() + timing.forWaiting().milliseconds()));
+            }
+            finally
+            {
+                watch.release();
+            }
+        }
+    }
+
+    private void runParticipants(List<CuratorFramework> clients) throws Exception
+    {
+        CountDownLatch postEnterLatch = new CountDownLatch(clients.size());
+        AtomicInteger count = new AtomicInteger(0);
+        ExecutorService service = Executors.newCachedThreadPool();
+        try
+        {
+            List<Future<Void>> futures = Lists.newArrayList();
+            for ( CuratorFramework client : clients )
+            {
+                futures.add(service.submit(() -> {
+                    DistributedSharedWatchDoubleBarrier barrier = new DistributedSharedWatchDoubleBarrier(client, "/barrier", clients.size());
+                    assertTrue(barrier.enter(timing.seconds(), TimeUnit.SECONDS));
+                    count.incrementAndGet();
+
+                    postEnterLatch.countDown();
+                    assertTrue(timing.awaitLatch(postEnterLatch));
+                    assertEquals(count.get(), clients.size());
+
+                    assertTrue(barrier.leave(timing.seconds(), TimeUnit.SECONDS));
+                    count.decrementAndGet();
+                    return null;
+                }));
+            }
+
+            for ( Future<Void> f : futures )
+            {
+                f.get();
+            }
+            assertEquals(count.get(), 0);
+            assertTrue(clients.get(0).checkExists().forPath("/barrier/ready") == null);
+        }
+        finally
+        {
+            service.shutdownNow();
+        }
+    }
+}
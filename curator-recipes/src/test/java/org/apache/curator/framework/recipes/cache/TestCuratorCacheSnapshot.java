@@ -0,0 +1,108 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.curator.framework.recipes.cache;
+
+import static org.apache.curator.framework.recipes.cache.CuratorCacheListener.builder;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.CuratorFrameworkFactory;
+import org.apache.curator.retry.RetryOneTime;
+import org.apache.curator.test.compatibility.CuratorTestBase;
+import org.apache.zookeeper.data.Stat;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+@Tag(CuratorTestBase.zk36Group)
+public class TestCuratorCacheSnapshot extends CuratorTestBase
+{
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testReadWrite() throws Exception
+    {
+        Path file = tempDir.resolve("snapshot");
+        CuratorCacheSnapshot snapshot = new CuratorCacheSnapshot(file, "/root");
+        Stat stat = new Stat(1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11);
+        ChildData one = new ChildData("/root", stat, "one".getBytes());
+        ChildData two = new ChildData("/root/two", stat, null);
+        snapshot.write(Arrays.asList(one, two));
+
+        List<ChildData> entries = snapshot.read();
+        assertEquals(entries, Arrays.asList(one, two));
+
+        // snapshots for different roots are ignored
+        assertTrue(new CuratorCacheSnapshot(file, "/other").read().isEmpty());
+        assertTrue(new CuratorCacheSnapshot(tempDir.resolve("missing"), "/root").read().isEmpty());
+    }
+
+    @Test
+    public void testWarmStart() throws Exception
+    {
+        Path file = tempDir.resolve("snapshot");
+        try (CuratorFramework client = CuratorFrameworkFactory.newClient(server.getConnectString(), timing.session(), timing.connection(), new RetryOneTime(1)))
+        {
+            client.start();
+            client.create().creatingParentsIfNeeded().forPath("/test/one", "one".getBytes());
+            client.create().forPath("/test/two", "two".getBytes());
+            client.create().forPath("/test/three", "three".getBytes());
+
+            try (CuratorCache cache = CuratorCache.builder(client, "/test").withSnapshot(file, 1, TimeUnit.HOURS).build())
+            {
+                CountDownLatch initializedLatch = new CountDownLatch(1);
+                cache.listenable().addListener(builder().forInitialized(initializedLatch::countDown).build());
+                cache.start();
+                assertTrue(timing.awaitLatch(initializedLatch));
+                assertEquals(cache.size(), 4);
+            }
+
+            client.setData().forPath("/test/one", "changed".getBytes());
+            client.delete().forPath("/test/two");
+            client.create().forPath("/test/four", "four".getBytes());
+
+            try (CuratorCache cache = CuratorCache.builder(client, "/test").withSnapshot(file, 1, TimeUnit.HOURS).build())
+            {
+                CountDownLatch initializedLatch = new CountDownLatch(1);
+                cache.listenable().addListener(builder().forInitialized(initializedLatch::countDown).build());
+                cache.start();
+
+                // snapshot data is available immediately
+                assertTrue(cache.get("/test/three").isPresent());
+
+                assertTrue(timing.awaitLatch(initializedLatch));
+                assertEquals(cache.size(), 4);
+                assertArrayEquals(cache.get("/test/one").get().getData(), "changed".getBytes());
+                assertArrayEquals(cache.get("/test/three").get().getData(), "three".getBytes());
+                assertArrayEquals(cache.get("/test/four").get().getData(), "four".getBytes());
+                assertFalse(cache.get("/test/two").isPresent());
+            }
+        }
+    }
+}
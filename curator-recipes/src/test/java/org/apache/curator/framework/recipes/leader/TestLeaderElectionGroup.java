@@ -0,0 +1,186 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.curator.framework.recipes.leader;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.CuratorFrameworkFactory;
+import org.apache.curator.retry.RetryOneTime;
+import org.apache.curator.test.compatibility.CuratorTestBase;
+import org.apache.zookeeper.data.Stat;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+@Tag(CuratorTestBase.zk36Group)
+public class TestLeaderElectionGroup extends CuratorTestBase
+{
+    private static final String PARENT_PATH = "/shards";
+    private static final int ELECTION_QTY = 20;
+
+    @Test
+    public void testManyElections() throws Exception
+    {
+        try ( CuratorFramework client = CuratorFrameworkFactory.newClient(server.getConnectString(), timing.session(), timing.connection(), new RetryOneTime(1)) )
+        {
+            client.start();
+
+            BlockingQueue<String> events1 = new LinkedBlockingQueue<>();
+            BlockingQueue<String> events2 = new LinkedBlockingQueue<>();
+            try ( LeaderElectionGroup group1 = new LeaderElectionGroup(client, PARENT_PATH, "one", 2);
+                  LeaderElectionGroup group2 = new LeaderElectionGroup(client, PARENT_PATH, "two", 2) )
+            {
+                for ( int i = 0; i < ELECTION_QTY; ++i )
+                {
+                    group1.join("shard-" + i, new QueueListener("shard-" + i, events1));
+                }
+                group1.start();
+                for ( int i = 0; i < ELECTION_QTY; ++i )
+                {
+                    assertTrue(timing.takeFromQueue(events1).startsWith("isLeader"));
+                }
+                for ( int i = 0; i < ELECTION_QTY; ++i )
+                {
+                    assertTrue(group1.hasLeadership("shard-" + i));
+                }
+
+                group2.start();
+                for ( int i = 0; i < ELECTION_QTY; ++i )
+                {
+                    group2.join("shard-" + i, new QueueListener("shard-" + i, events2));
+                }
+                timing.sleepABit();
+                assertTrue(events2.isEmpty());
+                assertFalse(group2.hasLeadership("shard-0"));
+
+                assertTrue(group1.leave("shard-0"));
+                assertEquals(timing.takeFromQueue(events1), "notLeader shard-0");
+                assertEquals(timing.takeFromQueue(events2), "isLeader shard-0");
+                assertTrue(group2.hasLeadership("shard-0"));
+                assertFalse(group1.leave("shard-0"));
+            }
+        }
+    }
+
+    @Test
+    public void testRecreateDeletedNode() throws Exception
+    {
+        try ( CuratorFramework client = CuratorFrameworkFactory.newClient(server.getConnectString(), timing.session(), timing.connection(), new RetryOneTime(1)) )
+        {
+            client.start();
+
+            BlockingQueue<String> events = new LinkedBlockingQueue<>();
+            try ( LeaderElectionGroup group = new LeaderElectionGroup(client, PARENT_PATH, "one", 1) )
+            {
+                group.start();
+                group.join("shard", new QueueListener("shard", events));
+                assertEquals(timing.takeFromQueue(events), "isLeader shard");
+
+                String ourNode = client.getChildren().forPath(PARENT_PATH + "/shard").get(0);
+                client.delete().forPath(PARENT_PATH + "/shard/" + ourNode);
+                assertEquals(timing.takeFromQueue(events), "notLeader shard");
+                assertEquals(timing.takeFromQueue(events), "isLeader shard");
+                assertEquals(client.getChildren().forPath(PARENT_PATH + "/shard").size(), 1);
+            }
+        }
+    }
+
+    @Test
+    public void testNoLeadershipUntilResyncedAfterSessionLoss() throws Exception
+    {
+        try ( CuratorFramework client = CuratorFrameworkFactory.newClient(server.getConnectString(), timing.session(), timing.connection(), new RetryOneTime(1)) )
+        {
+            client.start();
+
+            BlockingQueue<String> events = new LinkedBlockingQueue<>();
+            LeaderLatchListener listener = new LeaderLatchListener()
+            {
+                @Override
+                public void isLeader()
+                {
+                    // leadership must only be granted for a node owned by the current session
+                    try
+                    {
+                        long sessionId = client.getZookeeperClient().getZooKeeper().getSessionId();
+                        boolean owned = false;
+                        for ( String child : client.getChildren().forPath(PARENT_PATH + "/shard") )
+                        {
+                            Stat stat = client.checkExists().forPath(PARENT_PATH + "/shard/" + child);
+                            owned = owned || ((stat != null) && (stat.getEphemeralOwner() == sessionId));
+                        }
+                        events.add(owned ? "isLeader shard" : "isLeader with stale node");
+                    }
+                    catch ( Exception e )
+                    {
+                        events.add("isLeader check failed " + e);
+                    }
+                }
+
+                @Override
+                public void notLeader()
+                {
+                    events.add("notLeader shard");
+                }
+            };
+
+            try ( LeaderElectionGroup group = new LeaderElectionGroup(client, PARENT_PATH, "one", 1) )
+            {
+                group.start();
+                group.join("shard", listener);
+                assertEquals(timing.takeFromQueue(events), "isLeader shard");
+
+                client.getZookeeperClient().getZooKeeper().getTestable().injectSessionExpiration();
+                assertEquals(timing.takeFromQueue(events), "notLeader shard");
+                assertEquals(timing.takeFromQueue(events), "isLeader shard");
+                assertTrue(group.hasLeadership("shard"));
+
+                timing.sleepABit();
+                assertEquals(client.getChildren().forPath(PARENT_PATH + "/shard").size(), 1);
+            }
+        }
+    }
+
+    private static class QueueListener implements LeaderLatchListener
+    {
+        private final String name;
+        private final BlockingQueue<String> events;
+
+        QueueListener(String name, BlockingQueue<String> events)
+        {
+            this.name = name;
+            this.events = events;
+        }
+
+        @Override
+        public void isLeader()
+        {
+            events.add("isLeader " + name);
+        }
+
+        @Override
+        public void notLeader()
+        {
+            events.add("notLeader " + name);
+        }
+    }
+}
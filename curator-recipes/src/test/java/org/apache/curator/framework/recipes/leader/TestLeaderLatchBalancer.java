@@ -0,0 +1,98 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.curator.framework.recipes.leader;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.CuratorFrameworkFactory;
+import org.apache.curator.retry.RetryOneTime;
+import org.apache.curator.test.BaseClassForTests;
+import org.apache.curator.test.Timing;
+import org.apache.curator.test.compatibility.CuratorTestBase;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+@Tag(CuratorTestBase.zk35TestCompatibilityGroup)
+public class TestLeaderLatchBalancer extends BaseClassForTests
+{
+    private static final int LATCH_QTY = 6;
+
+    @Test
+    public void testRebalance() throws Exception
+    {
+        Timing timing = new Timing();
+        try ( CuratorFramework client = CuratorFrameworkFactory.newClient(server.getConnectString(), timing.session(), timing.connection(), new RetryOneTime(1)) )
+        {
+            client.start();
+            try ( LeaderLatchBalancer balancer1 = new LeaderLatchBalancer(client, "one", 1, TimeUnit.HOURS);
+                  LeaderLatchBalancer balancer2 = new LeaderLatchBalancer(client, "two", 1, TimeUnit.HOURS) )
+            {
+                for ( int i = 0; i < LATCH_QTY; ++i )
+                {
+                    balancer1.addLatch("/shards/" + i, new NoOpListener());
+                }
+                balancer1.start();
+                assertTrue(waitForLeaderships(balancer1, LATCH_QTY, timing));
+
+                for ( int i = 0; i < LATCH_QTY; ++i )
+                {
+                    balancer2.addLatch("/shards/" + i, new NoOpListener());
+                }
+                balancer2.start();
+                timing.sleepABit();
+                assertEquals(balancer2.getLeaderships().size(), 0);
+                assertEquals(balancer2.rebalance(), 0);  // not over-loaded
+
+                assertEquals(balancer1.rebalance(), LATCH_QTY / 2);
+                assertTrue(waitForLeaderships(balancer2, LATCH_QTY / 2, timing));
+                assertTrue(waitForLeaderships(balancer1, LATCH_QTY / 2, timing));
+                assertEquals(balancer1.rebalance(), 0);  // already balanced
+            }
+        }
+    }
+
+    private boolean waitForLeaderships(LeaderLatchBalancer balancer, int qty, Timing timing) throws InterruptedException
+    {
+        for ( int i = 0; i < 10; ++i )
+        {
+            if ( balancer.getLeaderships().size() == qty )
+            {
+                return true;
+            }
+            timing.sleepABit();
+        }
+        return false;
+    }
+
+    private static class NoOpListener implements LeaderLatchListener
+    {
+        @Override
+        public void isLeader()
+        {
+        }
+
+        @Override
+        public void notLeader()
+        {
+        }
+    }
+}
@@ -0,0 +1,132 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.curator.framework.recipes.leader;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import com.google.common.collect.Lists;
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.CuratorFrameworkFactory;
+import org.apache.curator.retry.RetryOneTime;
+import org.apache.curator.test.compatibility.CuratorTestBase;
+import org.apache.curator.utils.CloseableUtils;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+@Tag(CuratorTestBase.zk36Group)
+public class TestParticipantCache extends CuratorTestBase
+{
+    private static final String PATH_NAME = "/one/two/me";
+
+    @Test
+    public void testLeaderLatch() throws Exception
+    {
+        final int LATCH_QTY = 3;
+
+        List<LeaderLatch> latches = Lists.newArrayList();
+        try ( CuratorFramework client = CuratorFrameworkFactory.newClient(server.getConnectString(), timing.session(), timing.connection(), new RetryOneTime(1)) )
+        {
+            client.start();
+            for ( int i = 0; i < LATCH_QTY; ++i )
+            {
+                LeaderLatch latch = new LeaderLatch(client, PATH_NAME, Integer.toString(i));
+                latch.cacheParticipants();
+                latches.add(latch);
+                latch.start();
+            }
+
+            LeaderLatch first = latches.get(0);
+            assertTrue(waitForParticipants(first, LATCH_QTY));
+            assertEquals(first.currentLeader(), first.getLeader());
+            assertEquals(Lists.newArrayList(first.currentParticipants()), Lists.newArrayList(first.getParticipants()));
+            assertTrue(first.currentLeader().isLeader());
+
+            LeaderLatch leader = latches.stream().filter(l -> l.getId().equals(first.currentLeader().getId())).findFirst().get();
+            latches.remove(leader);
+            leader.close();
+            LeaderLatch remaining = latches.get(0);
+            assertTrue(waitForParticipants(remaining, LATCH_QTY - 1));
+            assertEquals(remaining.currentLeader(), remaining.getLeader());
+        }
+        finally
+        {
+            latches.forEach(CloseableUtils::closeQuietly);
+        }
+    }
+
+    @Test
+    public void testStandalone() throws Exception
+    {
+        try ( CuratorFramework client = CuratorFrameworkFactory.newClient(server.getConnectString(), timing.session(), timing.connection(), new RetryOneTime(1)) )
+        {
+            client.start();
+            try ( ParticipantCache cache = ParticipantCache.forLeaderSelector(client, PATH_NAME) )
+            {
+                cache.start();
+                assertFalse(cache.currentLeader().isLeader());
+                assertTrue(cache.currentParticipants().isEmpty());
+
+                CountDownLatch isLeaderLatch = new CountDownLatch(1);
+                CountDownLatch releaseLatch = new CountDownLatch(1);
+                LeaderSelector selector = new LeaderSelector(client, PATH_NAME, new LeaderSelectorListenerAdapter()
+                {
+                    @Override
+                    public void takeLeadership(CuratorFramework client) throws Exception
+                    {
+                        isLeaderLatch.countDown();
+                        releaseLatch.await();
+                    }
+                });
+                selector.setId("leader");
+                selector.start();
+                try
+                {
+                    assertTrue(timing.awaitLatch(isLeaderLatch));
+                    timing.sleepABit();
+                    Collection<Participant> participants = cache.currentParticipants();
+                    assertEquals(participants.size(), 1);
+                    assertEquals(cache.currentLeader(), new Participant("leader", true));
+                }
+                finally
+                {
+                    releaseLatch.countDown();
+                    selector.close();
+                }
+            }
+        }
+    }
+
+    private boolean waitForParticipants(LeaderLatch latch, int qty) throws InterruptedException
+    {
+        for ( int i = 0; i < 10; ++i )
+        {
+            if ( latch.currentParticipants().size() == qty )
+            {
+                return true;
+            }
+            timing.sleepABit();
+        }
+        return false;
+    }
+}
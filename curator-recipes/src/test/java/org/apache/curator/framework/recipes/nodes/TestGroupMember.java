@@ -21,6 +21,7 @@ package org.apache.curator.framework.recipes.nodes;
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import com.google.common.base.Function;
 import com.google.common.collect.Maps;
@@ -34,7 +35,11 @@ import org.apache.curator.utils.CloseableUtils;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
 
+import java.util.Collections;
 import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 @Tag(CuratorTestBase.zk35TestCompatibilityGroup)
 public class TestGroupMember extends BaseClassForTests
@@ -108,4 +113,57 @@ public class TestGroupMember extends BaseClassForTests
             CloseableUtils.closeQuietly(client);
         }
     }
+
+    @Test
+    public void testListener() throws Exception
+    {
+        Timing timing = new Timing();
+        BlockingQueue<String> events = new LinkedBlockingQueue<>();
+        try ( CuratorFramework client = CuratorFrameworkFactory.newClient(server.getConnectString(), new RetryOneTime(1)) )
+        {
+            client.start();
+
+            try ( GroupMember groupMember1 = new GroupMember(client, "/member", "1", "one".getBytes()) )
+            {
+                groupMember1.getListenable().addListener(new GroupMemberListener()
+                {
+                    @Override
+                    public void memberJoined(String id, byte[] data)
+                    {
+                        events.add("joined " + id + " " + new String(data));
+                    }
+
+                    @Override
+                    public void memberLeft(String id, byte[] data)
+                    {
+                        events.add("left " + id);
+                    }
+
+                    @Override
+                    public void memberChanged(String id, byte[] oldData, byte[] newData)
+                    {
+                        events.add("changed " + id + " " + new String(oldData) + " " + new String(newData));
+                    }
+                });
+                groupMember1.start();
+                assertEquals(events.poll(timing.forWaiting().milliseconds(), TimeUnit.MILLISECONDS), "joined 1 one");
+
+                Map<String, byte[]> currentMembers = groupMember1.getCurrentMembers();
+                assertSame(currentMembers, groupMember1.getCurrentMembers());
+
+                try ( GroupMember groupMember2 = new GroupMember(client, "/member", "2", "two".getBytes()) )
+                {
+                    groupMember2.start();
+                    assertEquals(events.poll(timing.forWaiting().milliseconds(), TimeUnit.MILLISECONDS), "joined 2 two");
+                    assertEquals(groupMember1.getCurrentMembers().size(), 2);
+
+                    groupMember2.setThisData("three".getBytes());
+                    assertEquals(events.poll(timing.forWaiting().milliseconds(), TimeUnit.MILLISECONDS), "changed 2 two three");
+                    assertArrayEquals(groupMember1.getCurrentMembers().get("2"), "three".getBytes());
+                }
+                assertEquals(events.poll(timing.forWaiting().milliseconds(), TimeUnit.MILLISECONDS), "left 2");
+                assertEquals(groupMember1.getCurrentMembers().keySet(), Collections.singleton("1"));
+            }
+        }
+    }
 }
@@ -0,0 +1,113 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.curator.framework.recipes.nodes;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.CuratorFrameworkFactory;
+import org.apache.curator.retry.RetryOneTime;
+import org.apache.curator.test.compatibility.CuratorTestBase;
+import org.apache.zookeeper.CreateMode;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+@Tag(CuratorTestBase.zk36Group)
+public class TestPersistentNodeGroup extends CuratorTestBase
+{
+    private static final int NODE_QTY = 25;
+
+    @Test
+    public void testCreateAndRecreate() throws Exception
+    {
+        try ( CuratorFramework client = CuratorFrameworkFactory.newClient(server.getConnectString(), timing.session(), timing.connection(), new RetryOneTime(1)) )
+        {
+            client.start();
+
+            BlockingQueue<String> createdPaths = new LinkedBlockingQueue<>();
+            try ( PersistentNodeGroup group = new PersistentNodeGroup(client, "/shards", CreateMode.EPHEMERAL, true, -1, 10) )
+            {
+                group.getListenable().addListener(createdPaths::add);
+                for ( int i = 0; i < NODE_QTY; ++i )
+                {
+                    group.addNode("/shards/" + (i % 2) + "/node" + i, ("data" + i).getBytes());
+                }
+                group.start();
+                assertTrue(group.waitForInitialCreate(timing.forWaiting().milliseconds(), TimeUnit.MILLISECONDS));
+                assertEquals(createdPaths.size(), NODE_QTY);
+                createdPaths.clear();
+
+                for ( int i = 0; i < NODE_QTY; ++i )
+                {
+                    String actualPath = group.getActualPath("/shards/" + (i % 2) + "/node" + i);
+                    assertTrue(actualPath.endsWith("-node" + i));
+                    assertArrayEquals(client.getData().forPath(actualPath), ("data" + i).getBytes());
+                }
+
+                String deletedPath = group.getActualPath("/shards/1/node3");
+                client.delete().forPath(deletedPath);
+                assertEquals(timing.takeFromQueue(createdPaths), deletedPath);
+                assertNotNull(client.checkExists().forPath(deletedPath));
+
+                group.setData("/shards/1/node3", "new".getBytes());
+                timing.sleepABit();
+                assertArrayEquals(client.getData().forPath(deletedPath), "new".getBytes());
+
+                assertTrue(group.removeNode("/shards/1/node3"));
+                timing.sleepABit();
+                assertNull(client.checkExists().forPath(deletedPath));
+            }
+
+            assertEquals(client.getChildren().forPath("/shards/0").size(), 0);
+            assertEquals(client.getChildren().forPath("/shards/1").size(), 0);
+        }
+    }
+
+    @Test
+    public void testRemoveWhileEnsuring() throws Exception
+    {
+        try ( CuratorFramework client = CuratorFrameworkFactory.newClient(server.getConnectString(), timing.session(), timing.connection(), new RetryOneTime(1)) )
+        {
+            client.start();
+            client.create().forPath("/shards");
+
+            try ( PersistentNodeGroup group = new PersistentNodeGroup(client, "/shards", CreateMode.PERSISTENT, true, -1, 10) )
+            {
+                for ( int i = 0; i < NODE_QTY; ++i )
+                {
+                    group.addNode("/shards/node" + i, ("data" + i).getBytes());
+                }
+                group.start();
+                for ( int i = 0; i < NODE_QTY; ++i )
+                {
+                    assertTrue(group.removeNode("/shards/node" + i));   // races the initial create pass
+                }
+                timing.sleepABit();
+                assertEquals(client.getChildren().forPath("/shards").size(), 0);
+            }
+        }
+    }
+}
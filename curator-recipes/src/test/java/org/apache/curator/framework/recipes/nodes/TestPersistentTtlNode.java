@@ -37,6 +37,8 @@ import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 
@@ -93,6 +95,56 @@ public class TestPersistentTtlNode extends CuratorTestBase
         }
     }
 
+    @Test
+    public void testSharedTouchManager() throws Exception
+    {
+        final int nodeQty = 10;
+        try (CuratorFramework client = CuratorFrameworkFactory.newClient(server.getConnectString(), new RetryOneTime(1)))
+        {
+            client.start();
+
+            try (PersistentTtlTouchManager touchManager = new PersistentTtlTouchManager(client, 3, Math.max(ttlMs / 20, 1), PersistentTtlTouchManager.DEFAULT_JITTER))
+            {
+                touchManager.start();
+
+                List<PersistentTtlNode> nodes = new ArrayList<>();
+                try
+                {
+                    for ( int i = 0; i < nodeQty; ++i )
+                    {
+                        PersistentTtlNode node = new PersistentTtlNode(client, touchManager, "/test/" + i, ttlMs, new byte[0], PersistentTtlNode.DEFAULT_CHILD_NODE_NAME, PersistentTtlNode.DEFAULT_TOUCH_SCHEDULE_FACTOR);
+                        nodes.add(node);
+                        node.start();
+                    }
+                    for ( PersistentTtlNode node : nodes )
+                    {
+                        assertTrue(node.waitForInitialCreate(timing.session(), TimeUnit.MILLISECONDS));
+                    }
+
+                    for ( int i = 0; i < 5; ++i )
+                    {
+                        Thread.sleep(ttlMs + (ttlMs / 2));  // sleep a bit more than the TTL
+                        for ( int j = 0; j < nodeQty; ++j )
+                        {
+                            assertNotNull(client.checkExists().forPath("/test/" + j));
+                        }
+                    }
+                }
+                finally
+                {
+                    nodes.forEach(PersistentTtlNode::close);
+                }
+                assertEquals(touchManager.getRegisteredQty(), 0);
+
+                timing.sleepABit();
+                for ( int j = 0; j < nodeQty; ++j )
+                {
+                    assertNull(client.checkExists().forPath("/test/" + j));
+                }
+            }
+        }
+    }
+
     @Test
     public void testForcedDeleteOfTouchNode() throws Exception
     {
@@ -42,6 +42,7 @@ import org.junit.jupiter.api.Test;
 import java.util.List;
 import java.util.Random;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
@@ -521,6 +522,104 @@ public class TestSharedCount extends CuratorTestBase
         }
     }
 
+    @Test
+    public void testUpdateCountAsync() throws Exception
+    {
+        final int CLIENT_QTY = 3;
+        final int INCREMENTS = 5;
+
+        List<CuratorFramework> clients = Lists.newArrayList();
+        List<SharedCount> counts = Lists.newArrayList();
+        try
+        {
+            for ( int i = 0; i < CLIENT_QTY; ++i )
+            {
+                CuratorFramework client = CuratorFrameworkFactory.newClient(server.getConnectString(), new RetryOneTime(1));
+                clients.add(client);
+                client.start();
+                SharedCount count = new SharedCount(client, "/count", 0, true);
+                counts.add(count);
+                count.start();
+            }
+
+            List<CompletableFuture<VersionedValue<Integer>>> futures = Lists.newArrayList();
+            for ( int i = 0; i < INCREMENTS; ++i )
+            {
+                for ( SharedCount count : counts )
+                {
+                    futures.add(count.updateCountAsync(c -> c + 1, Integer.MAX_VALUE, 1).toCompletableFuture());
+                }
+            }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(timing.forWaiting().seconds(), TimeUnit.SECONDS);
+
+            SharedCount check = new SharedCount(clients.get(0), "/count", 0);
+            check.start();
+            try
+            {
+                assertEquals(check.getCount(), CLIENT_QTY * INCREMENTS);
+            }
+            finally
+            {
+                CloseableUtils.closeQuietly(check);
+            }
+        }
+        finally
+        {
+            counts.forEach(CloseableUtils::closeQuietly);
+            clients.forEach(CloseableUtils::closeQuietly);
+        }
+    }
+
+    @Test
+    public void testCoalescedNotifications() throws Exception
+    {
+        CuratorFramework client = CuratorFrameworkFactory.newClient(server.getConnectString(), timing.session(), timing.connection(), new RetryOneTime(1));
+        SharedCount count = new SharedCount(client, "/count", 0, true);
+        try
+        {
+            client.start();
+            count.start();
+
+            Semaphore changes = new Semaphore(0);
+            Semaphore reconnects = new Semaphore(0);
+            count.addListener(new SharedCountListener()
+            {
+                @Override
+                public void countHasChanged(SharedCountReader sharedCount, int newCount)
+                {
+                    changes.release();
+                }
+
+                @Override
+                public void stateChanged(CuratorFramework client, ConnectionState newState)
+                {
+                    if ( newState == ConnectionState.RECONNECTED )
+                    {
+                        reconnects.release();
+                    }
+                }
+            });
+
+            count.setCount(1);
+            assertTrue(timing.acquireSemaphore(changes, 1));
+
+            // the value has not changed so a reconnection should not notify listeners
+            server.restart();
+            assertTrue(timing.acquireSemaphore(reconnects, 1));
+            timing.sleepABit();
+            assertEquals(changes.availablePermits(), 0);
+
+            count.setCount(2);
+            assertTrue(timing.acquireSemaphore(changes, 1));
+            assertEquals(count.getCount(), 2);
+        }
+        finally
+        {
+            CloseableUtils.closeQuietly(count);
+            CloseableUtils.closeQuietly(client);
+        }
+    }
+
     private SharedCount createSharedCountWithFaultyWatcher(CuratorFramework curatorFramework, String path, int val) {
 
         final CuratorWatcher faultyWatcher = new CuratorWatcher() {
@@ -0,0 +1,96 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.curator.x.async;
+
+/**
+ * Demand-driven (backpressure aware) streaming interfaces. These have the same shape and
+ * semantics as <code>java.util.concurrent.Flow</code> / Reactive Streams so that they can be
+ * bridged to them with thin delegating adapters. Curator targets Java 8 so it cannot use
+ * <code>Flow</code> directly.
+ */
+public final class AsyncFlow
+{
+    /**
+     * A producer of items that are delivered to subscribers as they request them
+     */
+    @FunctionalInterface
+    public interface Publisher<T>
+    {
+        /**
+         * Add the given subscriber. Each subscription is independent.
+         *
+         * @param subscriber the subscriber
+         */
+        void subscribe(Subscriber<? super T> subscriber);
+    }
+
+    /**
+     * A receiver of items. Methods are called serially (never concurrently) for a given subscription.
+     */
+    public interface Subscriber<T>
+    {
+        /**
+         * Called before any other method. No items are sent until {@link Subscription#request(long)} is called.
+         *
+         * @param subscription the subscription
+         */
+        void onSubscribe(Subscription subscription);
+
+        /**
+         * Called with the next item. Never called more times than have been requested.
+         *
+         * @param item the item
+         */
+        void onNext(T item);
+
+        /**
+         * Called when the publisher fails. No other methods are called afterwards.
+         *
+         * @param e the error
+         */
+        void onError(Throwable e);
+
+        /**
+         * Called when there are no more items. No other methods are called afterwards.
+         */
+        void onComplete();
+    }
+
+    /**
+     * Link between a publisher and a subscriber
+     */
+    public interface Subscription
+    {
+        /**
+         * Add to the number of items the subscriber is ready to receive
+         *
+         * @param n number of items - must be greater than 0
+         */
+        void request(long n);
+
+        /**
+         * Stop receiving items. Work that has not been started yet is abandoned.
+         */
+        void cancel();
+    }
+
+    private AsyncFlow()
+    {
+    }
+}
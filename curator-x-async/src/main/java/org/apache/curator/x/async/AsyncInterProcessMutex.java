@@ -0,0 +1,311 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.curator.x.async;
+
+import com.google.common.base.Preconditions;
+import org.apache.curator.framework.recipes.locks.LockInternals;
+import org.apache.curator.framework.recipes.locks.LockInternalsSorter;
+import org.apache.curator.framework.recipes.locks.StandardLockInternalsDriver;
+import org.apache.curator.utils.PathUtils;
+import org.apache.curator.utils.ThreadUtils;
+import org.apache.curator.utils.ZKPaths;
+import org.apache.curator.x.async.api.CreateOption;
+import org.apache.curator.x.async.api.DeleteOption;
+import org.apache.zookeeper.CreateMode;
+import org.apache.zookeeper.KeeperException;
+import org.apache.zookeeper.WatchedEvent;
+import org.apache.zookeeper.Watcher;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * <p>
+ *     A distributed mutex that is acquired asynchronously. Unlike {@link AsyncWrappers#lockAsync(org.apache.curator.framework.recipes.locks.InterProcessLock)},
+ *     which runs the blocking <code>acquire()</code> of a lock in a thread, pending acquisitions here don't hold
+ *     threads: each one is an ephemeral-sequential node plus a watch on its predecessor, driven by
+ *     {@link AsyncCuratorFramework} callbacks. Thousands of acquisitions can be pending at once.
+ * </p>
+ *
+ * <p>
+ *     The lock nodes are the same as {@link org.apache.curator.framework.recipes.locks.InterProcessMutex}'s so the two
+ *     can be used on the same path. Unlike <code>InterProcessMutex</code>, this mutex is NOT re-entrant - there is no
+ *     owning thread. Each successful acquisition returns a {@link Lease} that must be released.
+ * </p>
+ *
+ * <p>
+ *     An acquisition is abandoned (its node deleted) if it times out or if the returned stage's
+ *     <code>toCompletableFuture()</code> is cancelled or completed (normally or exceptionally) by anyone
+ *     else before the lock is acquired.
+ * </p>
+ *
+ * <code><pre>
+ * AsyncInterProcessMutex mutex = new AsyncInterProcessMutex(async, "/locks/resource");
+ * mutex.acquire(10, TimeUnit.SECONDS).thenCompose(lease -> {
+ *     return doWork().whenComplete((result, e) -> lease.release());
+ * });
+ * </pre></code>
+ */
+public class AsyncInterProcessMutex
+{
+    private static final String LOCK_NAME = "lock-";
+    private static final LockInternalsSorter sorter = new StandardLockInternalsDriver();
+
+    private final AsyncCuratorFramework client;
+    private final String basePath;
+    private final ScheduledExecutorService timeoutExecutor;
+
+    /**
+     * A held lock
+     */
+    public interface Lease
+    {
+        /**
+         * @return the path of the lock node
+         */
+        String lockNodePath();
+
+        /**
+         * Release the lock. Calling more than once has no effect.
+         *
+         * @return stage that completes when the lock node has been deleted
+         */
+        CompletionStage<Void> release();
+    }
+
+    private static class DefaultTimeoutExecutorHolder
+    {
+        private static final ScheduledExecutorService executor = ThreadUtils.newSingleThreadScheduledExecutor("AsyncInterProcessMutex");
+    }
+
+    /**
+     * Timeouts are scheduled on a shared, single daemon thread
+     *
+     * @param client client
+     * @param path the path to lock
+     */
+    public AsyncInterProcessMutex(AsyncCuratorFramework client, String path)
+    {
+        this(client, path, null);
+    }
+
+    /**
+     * @param client client
+     * @param path the path to lock
+     * @param timeoutExecutor executor used to schedule timeouts. Timeout tasks only complete stages.
+     */
+    public AsyncInterProcessMutex(AsyncCuratorFramework client, String path, ScheduledExecutorService timeoutExecutor)
+    {
+        this.client = Objects.requireNonNull(client, "client cannot be null");
+        this.basePath = PathUtils.validatePath(path);
+        this.timeoutExecutor = timeoutExecutor;
+    }
+
+    /**
+     * Acquire the mutex, waiting as long as needed
+     *
+     * @return stage that completes with the lease when the mutex is acquired
+     */
+    public CompletionStage<Lease> acquire()
+    {
+        return new Attempt().start(-1);
+    }
+
+    /**
+     * Acquire the mutex waiting at most the given time. If the mutex isn't acquired in time the stage
+     * is completed exceptionally with {@link AsyncWrappers.TimeoutException}
+     *
+     * @param time max time to wait
+     * @param unit time unit
+     * @return stage that completes with the lease when the mutex is acquired
+     */
+    public CompletionStage<Lease> acquire(long time, TimeUnit unit)
+    {
+        Preconditions.checkArgument(time >= 0, "time cannot be negative");
+        return new Attempt().start(unit.toMillis(time));
+    }
+
+    private CompletionStage<Void> deleteNode(String path)
+    {
+        return client.delete().withOptions(EnumSet.of(DeleteOption.guaranteed, DeleteOption.quietly)).forPath(path);
+    }
+
+    private class LeaseImpl implements Lease
+    {
+        private final String lockNodePath;
+        private final AtomicBoolean released = new AtomicBoolean(false);
+
+        private LeaseImpl(String lockNodePath)
+        {
+            this.lockNodePath = lockNodePath;
+        }
+
+        @Override
+        public String lockNodePath()
+        {
+            return lockNodePath;
+        }
+
+        @Override
+        public CompletionStage<Void> release()
+        {
+            if ( released.compareAndSet(false, true) )
+            {
+                return deleteNode(lockNodePath);
+            }
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+
+    private class Attempt
+    {
+        private final CompletableFuture<Lease> future = new CompletableFuture<>();
+        private final AtomicReference<String> ourPath = new AtomicReference<>();    // set to null once the node is given up
+        private final AtomicReference<LeaseImpl> grantedLease = new AtomicReference<>();
+
+        private CompletionStage<Lease> start(long timeoutMs)
+        {
+            if ( timeoutMs >= 0 )
+            {
+                ScheduledExecutorService executor = (timeoutExecutor != null) ? timeoutExecutor : DefaultTimeoutExecutorHolder.executor;
+                ScheduledFuture<?> timeoutTask = executor.schedule(() -> future.completeExceptionally(new AsyncWrappers.TimeoutException()), timeoutMs, TimeUnit.MILLISECONDS);
+                future.whenComplete((lease, e) -> timeoutTask.cancel(false));
+            }
+            future.whenComplete((lease, e) -> {
+                // unless the future holds the lease this attempt granted, it was timed out, cancelled, failed
+                // or completed by the caller - either way nobody can release the node so delete it
+                if ( (e != null) || (lease == null) || (lease != grantedLease.get()) )
+                {
+                    abandon();
+                }
+            });
+
+            client.create()
+                .withOptions(EnumSet.of(CreateOption.createParentsAsContainers, CreateOption.doProtected), CreateMode.EPHEMERAL_SEQUENTIAL)
+                .forPath(ZKPaths.makePath(basePath, LOCK_NAME))
+                .whenComplete((path, e) -> {
+                    if ( e != null )
+                    {
+                        future.completeExceptionally(e);
+                    }
+                    else
+                    {
+                        ourPath.set(path);
+                        if ( future.isDone() )
+                        {
+                            abandon();  // abandoned while the node was being created
+                        }
+                        else
+                        {
+                            check();
+                        }
+                    }
+                });
+            return future;
+        }
+
+        private void check()
+        {
+            if ( future.isDone() )
+            {
+                return;
+            }
+
+            client.getChildren().forPath(basePath).whenComplete((children, e) -> {
+                String localOurPath = ourPath.get();
+                if ( e != null )
+                {
+                    future.completeExceptionally(e);
+                }
+                else if ( localOurPath != null )
+                {
+                    List<String> sortedChildren = LockInternals.getSortedChildren(LOCK_NAME, sorter, children);
+                    int ourIndex = sortedChildren.indexOf(ZKPaths.getNodeFromPath(localOurPath));
+                    if ( ourIndex < 0 )
+                    {
+                        // most likely the session expired
+                        future.completeExceptionally(new KeeperException.NoNodeException(localOurPath));
+                    }
+                    else if ( ourIndex == 0 )
+                    {
+                        LeaseImpl lease = new LeaseImpl(localOurPath);
+                        grantedLease.set(lease);    // must be set before completing so the completion handler sees it
+                        future.complete(lease);     // if the future was completed concurrently, abandon() deletes the node
+                    }
+                    else
+                    {
+                        watchPredecessor(ZKPaths.makePath(basePath, sortedChildren.get(ourIndex - 1)));
+                    }
+                }
+            });
+        }
+
+        private void watchPredecessor(String predecessorPath)
+        {
+            AsyncStage<?> stage = client.watched().checkExists().forPath(predecessorPath);
+            stage.whenComplete((stat, e) -> {
+                if ( e != null )
+                {
+                    future.completeExceptionally(e);
+                }
+                else if ( stat == null )
+                {
+                    check();    // already gone
+                }
+                else
+                {
+                    waitForEvent(stage.event());
+                }
+            });
+        }
+
+        private void waitForEvent(CompletionStage<WatchedEvent> event)
+        {
+            event.whenComplete((watchedEvent, e) -> {
+                Throwable cause = (e instanceof CompletionException) ? e.getCause() : e;
+                if ( (cause instanceof AsyncEventException) && (((AsyncEventException)cause).getKeeperState() != Watcher.Event.KeeperState.Expired) && !future.isDone() )
+                {
+                    // connection problem - the watch is still set
+                    waitForEvent(((AsyncEventException)cause).reset());
+                }
+                else
+                {
+                    check();
+                }
+            });
+        }
+
+        private void abandon()
+        {
+            String path = ourPath.getAndSet(null);
+            if ( path != null )
+            {
+                deleteNode(path);
+            }
+        }
+    }
+}
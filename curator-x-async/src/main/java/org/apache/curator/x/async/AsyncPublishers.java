@@ -0,0 +1,257 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.curator.x.async;
+
+import org.apache.curator.framework.recipes.cache.ChildData;
+import org.apache.curator.framework.recipes.cache.CuratorCache;
+import org.apache.curator.framework.recipes.cache.CuratorCacheListener;
+import org.apache.curator.framework.recipes.watch.PersistentWatcher;
+import org.apache.curator.x.async.modeled.ZPath;
+import org.apache.curator.x.async.modeled.cached.CachedModeledFramework;
+import org.apache.curator.x.async.modeled.cached.ModeledCacheListener;
+import org.apache.zookeeper.WatchedEvent;
+import org.apache.zookeeper.Watcher;
+import org.apache.zookeeper.data.Stat;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * <p>
+ *     {@link AsyncFlow.Publisher} views of Curator's event sources. Each subscription registers
+ *     its own listener with the source and buffers at most <code>capacity</code> events that the subscriber
+ *     has not yet requested. When the buffer is full, the {@link OverflowStrategy} decides what happens, so
+ *     a slow subscriber never blocks the source or grows an unbounded queue.
+ * </p>
+ *
+ * <p>
+ *     Subscribers are called using the given executor (or, if none is given, the
+ *     {@link ForkJoinPool#commonPool()}) so that a slow subscriber doesn't hold up the source's thread. If the
+ *     executor rejects a delivery the subscription fails with the {@link java.util.concurrent.RejectedExecutionException}.
+ *     Subscriptions do not complete when the source is closed - cancel them when done. Events that occur before a
+ *     subscription starts are not published.
+ * </p>
+ */
+public class AsyncPublishers
+{
+    /**
+     * An event from a {@link CuratorCache}. See {@link CuratorCacheListener#event(CuratorCacheListener.Type, ChildData, ChildData)}
+     */
+    public static class CacheEvent
+    {
+        private final CuratorCacheListener.Type type;
+        private final ChildData oldData;
+        private final ChildData data;
+
+        public CacheEvent(CuratorCacheListener.Type type, ChildData oldData, ChildData data)
+        {
+            this.type = Objects.requireNonNull(type, "type cannot be null");
+            this.oldData = oldData;
+            this.data = data;
+        }
+
+        public CuratorCacheListener.Type getType()
+        {
+            return type;
+        }
+
+        /**
+         * @return the old node data or null for {@link CuratorCacheListener.Type#NODE_CREATED}
+         */
+        public ChildData getOldData()
+        {
+            return oldData;
+        }
+
+        /**
+         * @return the new node data or null for {@link CuratorCacheListener.Type#NODE_DELETED}
+         */
+        public ChildData getData()
+        {
+            return data;
+        }
+
+        /**
+         * @return the path of the node
+         */
+        public String getPath()
+        {
+            return (data != null) ? data.getPath() : oldData.getPath();
+        }
+
+        @Override
+        public String toString()
+        {
+            return "CacheEvent{" + "type=" + type + ", oldData=" + oldData + ", data=" + data + '}';
+        }
+    }
+
+    /**
+     * An event from a {@link CachedModeledFramework}. See {@link ModeledCacheListener#accept(ModeledCacheListener.Type, ZPath, Stat, Object)}
+     */
+    public static class ModeledCacheEvent<T>
+    {
+        private final ModeledCacheListener.Type type;
+        private final ZPath path;
+        private final Stat stat;
+        private final T model;
+
+        public ModeledCacheEvent(ModeledCacheListener.Type type, ZPath path, Stat stat, T model)
+        {
+            this.type = Objects.requireNonNull(type, "type cannot be null");
+            this.path = Objects.requireNonNull(path, "path cannot be null");
+            this.stat = stat;
+            this.model = model;
+        }
+
+        public ModeledCacheListener.Type getType()
+        {
+            return type;
+        }
+
+        public ZPath getPath()
+        {
+            return path;
+        }
+
+        /**
+         * @return the node's stat (previous stat for removal)
+         */
+        public Stat getStat()
+        {
+            return stat;
+        }
+
+        /**
+         * @return the node's model (previous model for removal)
+         */
+        public T getModel()
+        {
+            return model;
+        }
+
+        @Override
+        public String toString()
+        {
+            return "ModeledCacheEvent{" + "type=" + type + ", path=" + path + ", stat=" + stat + ", model=" + model + '}';
+        }
+    }
+
+    /**
+     * Publish the events of a persistent watcher. Events for the same path are coalesced
+     * by {@link OverflowStrategy#COALESCE_BY_PATH}, connection state events (which have no path) are not.
+     *
+     * @param watcher the watcher
+     * @param overflowStrategy what to do when a subscriber's buffer is full
+     * @param capacity maximum number of unrequested events buffered per subscription
+     * @return publisher that calls subscribers using the {@link ForkJoinPool#commonPool()}
+     */
+    public static AsyncFlow.Publisher<WatchedEvent> persistentWatcher(PersistentWatcher watcher, OverflowStrategy overflowStrategy, int capacity)
+    {
+        return persistentWatcher(watcher, overflowStrategy, capacity, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Publish the events of a persistent watcher. Events for the same path are coalesced
+     * by {@link OverflowStrategy#COALESCE_BY_PATH}, connection state events (which have no path) are not.
+     *
+     * @param watcher the watcher
+     * @param overflowStrategy what to do when a subscriber's buffer is full
+     * @param capacity maximum number of unrequested events buffered per subscription
+     * @param executor executor used to call subscribers
+     * @return publisher
+     */
+    public static AsyncFlow.Publisher<WatchedEvent> persistentWatcher(PersistentWatcher watcher, OverflowStrategy overflowStrategy, int capacity, Executor executor)
+    {
+        Objects.requireNonNull(watcher, "watcher cannot be null");
+        return new EventPublisher<>(sink -> {
+            Watcher listener = sink::accept;
+            watcher.getListenable().addListener(listener);
+            return () -> watcher.getListenable().removeListener(listener);
+        }, WatchedEvent::getPath, overflowStrategy, capacity, executor);
+    }
+
+    /**
+     * Publish the events of a cache. The cache's initialized event is not published.
+     *
+     * @param cache the cache
+     * @param overflowStrategy what to do when a subscriber's buffer is full
+     * @param capacity maximum number of unrequested events buffered per subscription
+     * @return publisher that calls subscribers using the {@link ForkJoinPool#commonPool()}
+     */
+    public static AsyncFlow.Publisher<CacheEvent> curatorCache(CuratorCache cache, OverflowStrategy overflowStrategy, int capacity)
+    {
+        return curatorCache(cache, overflowStrategy, capacity, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Publish the events of a cache. The cache's initialized event is not published.
+     *
+     * @param cache the cache
+     * @param overflowStrategy what to do when a subscriber's buffer is full
+     * @param capacity maximum number of unrequested events buffered per subscription
+     * @param executor executor used to call subscribers
+     * @return publisher
+     */
+    public static AsyncFlow.Publisher<CacheEvent> curatorCache(CuratorCache cache, OverflowStrategy overflowStrategy, int capacity, Executor executor)
+    {
+        Objects.requireNonNull(cache, "cache cannot be null");
+        return new EventPublisher<>(sink -> {
+            CuratorCacheListener listener = (type, oldData, data) -> sink.accept(new CacheEvent(type, oldData, data));
+            cache.listenable().addListener(listener);
+            return () -> cache.listenable().removeListener(listener);
+        }, CacheEvent::getPath, overflowStrategy, capacity, executor);
+    }
+
+    /**
+     * Publish the events of a cached modeled framework. The cache's initialized event is not published.
+     *
+     * @param modeled the cached modeled framework
+     * @param overflowStrategy what to do when a subscriber's buffer is full
+     * @param capacity maximum number of unrequested events buffered per subscription
+     * @return publisher that calls subscribers using the {@link ForkJoinPool#commonPool()}
+     */
+    public static <T> AsyncFlow.Publisher<ModeledCacheEvent<T>> cachedModeled(CachedModeledFramework<T> modeled, OverflowStrategy overflowStrategy, int capacity)
+    {
+        return cachedModeled(modeled, overflowStrategy, capacity, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Publish the events of a cached modeled framework. The cache's initialized event is not published.
+     *
+     * @param modeled the cached modeled framework
+     * @param overflowStrategy what to do when a subscriber's buffer is full
+     * @param capacity maximum number of unrequested events buffered per subscription
+     * @param executor executor used to call subscribers
+     * @return publisher
+     */
+    public static <T> AsyncFlow.Publisher<ModeledCacheEvent<T>> cachedModeled(CachedModeledFramework<T> modeled, OverflowStrategy overflowStrategy, int capacity, Executor executor)
+    {
+        Objects.requireNonNull(modeled, "modeled cannot be null");
+        return new EventPublisher<>(sink -> {
+            ModeledCacheListener<T> listener = (type, path, stat, model) -> sink.accept(new ModeledCacheEvent<>(type, path, stat, model));
+            modeled.listenable().addListener(listener);
+            return () -> modeled.listenable().removeListener(listener);
+        }, event -> event.getPath().fullPath(), overflowStrategy, capacity, executor);
+    }
+
+    private AsyncPublishers()
+    {
+    }
+}
@@ -20,6 +20,7 @@ package org.apache.curator.x.async;
 
 import com.google.common.base.Throwables;
 import com.google.common.collect.Maps;
+import org.apache.curator.framework.recipes.cache.ChildData;
 import org.apache.curator.framework.recipes.locks.InterProcessLock;
 import org.apache.curator.utils.ThreadUtils;
 import org.apache.curator.utils.ZKPaths;
@@ -62,6 +63,11 @@ import java.util.concurrent.TimeUnit;
  * </p>
  *
  * <p>
+ *     Note: the lock wrappers use a thread for each pending acquisition. For large numbers of pending
+ *     acquisitions use {@link AsyncInterProcessMutex}, which does not block any threads.
+ * </p>
+ *
+ * <p>
  *     E.g. EnsureContainers
  * <code><pre>
  *     AsyncWrappers.(client, path, executor).thenAccept(dummy -> {
@@ -132,6 +138,55 @@ public class AsyncWrappers
         return future;
     }
 
+    /**
+     * <p>
+     * Streaming version of {@link #childrenWithData(AsyncCuratorFramework, String)}. Rather than reading all
+     * children at once and buffering the results, the returned publisher reads children as its subscriber
+     * requests them with at most <code>maxInFlight</code> data reads outstanding. Each subscription does its
+     * own <code>getChildren()</code>. Items are published in the order that the reads complete. Cancelling
+     * the subscription stops further reads.
+     * </p>
+     *
+     * <p>
+     * Note: as with {@link #childrenWithData(AsyncCuratorFramework, String)}, if the parent node does not exist
+     * the subscription is completed without items. Children deleted before they are read are skipped.
+     * </p>
+     *
+     * @param client client
+     * @param path parent path
+     * @param maxInFlight maximum number of concurrent data reads
+     * @return publisher
+     */
+    public static AsyncFlow.Publisher<ChildData> childrenWithDataPublisher(AsyncCuratorFramework client, String path, int maxInFlight)
+    {
+        return childrenWithDataPublisher(client, path, false, maxInFlight);
+    }
+
+    /**
+     * <p>
+     * Streaming version of {@link #childrenWithData(AsyncCuratorFramework, String, boolean)}. Rather than reading all
+     * children at once and buffering the results, the returned publisher reads children as its subscriber
+     * requests them with at most <code>maxInFlight</code> data reads outstanding. Each subscription does its
+     * own <code>getChildren()</code>. Items are published in the order that the reads complete. Cancelling
+     * the subscription stops further reads.
+     * </p>
+     *
+     * <p>
+     * Note: as with {@link #childrenWithData(AsyncCuratorFramework, String, boolean)}, if the parent node does not exist
+     * the subscription is completed without items. Children deleted before they are read are skipped.
+     * </p>
+     *
+     * @param client client
+     * @param path parent path
+     * @param isCompressed pass true if data is compressed
+     * @param maxInFlight maximum number of concurrent data reads
+     * @return publisher
+     */
+    public static AsyncFlow.Publisher<ChildData> childrenWithDataPublisher(AsyncCuratorFramework client, String path, boolean isCompressed, int maxInFlight)
+    {
+        return new ChildrenWithDataPublisher(client, path, isCompressed, maxInFlight);
+    }
+
     /**
      * Asynchronously ensure that the parents of the given path are created
      *
@@ -0,0 +1,277 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.curator.x.async;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
+import com.google.common.collect.Lists;
+import org.apache.curator.framework.recipes.cache.ChildData;
+import org.apache.curator.utils.ZKPaths;
+import org.apache.zookeeper.KeeperException;
+import org.apache.zookeeper.data.Stat;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+
+class ChildrenWithDataPublisher implements AsyncFlow.Publisher<ChildData>
+{
+    private final AsyncCuratorFramework client;
+    private final String path;
+    private final boolean isCompressed;
+    private final int maxInFlight;
+
+    ChildrenWithDataPublisher(AsyncCuratorFramework client, String path, boolean isCompressed, int maxInFlight)
+    {
+        Preconditions.checkArgument(maxInFlight > 0, "maxInFlight must be greater than 0");
+        this.client = Objects.requireNonNull(client, "client cannot be null");
+        this.path = Objects.requireNonNull(path, "path cannot be null");
+        this.isCompressed = isCompressed;
+        this.maxInFlight = maxInFlight;
+    }
+
+    @Override
+    public void subscribe(AsyncFlow.Subscriber<? super ChildData> subscriber)
+    {
+        new ChildrenSubscription(Objects.requireNonNull(subscriber, "subscriber cannot be null")).start();
+    }
+
+    private class ChildrenSubscription implements AsyncFlow.Subscription
+    {
+        private final AsyncFlow.Subscriber<? super ChildData> subscriber;
+        private final Queue<ChildData> ready = new ArrayDeque<>();     // guarded by this
+        private List<String> children = null;       // guarded by this - null until loaded
+        private boolean loading = false;            // guarded by this
+        private int nextChild = 0;                  // guarded by this
+        private int inFlight = 0;                   // guarded by this
+        private long demand = 0;                    // guarded by this
+        private Throwable error = null;             // guarded by this
+        private boolean done = false;               // guarded by this - terminated or cancelled
+        private boolean draining = false;           // guarded by this - only one thread signals the subscriber at a time
+
+        private ChildrenSubscription(AsyncFlow.Subscriber<? super ChildData> subscriber)
+        {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n)
+        {
+            synchronized(this)
+            {
+                if ( n <= 0 )
+                {
+                    if ( error == null )
+                    {
+                        error = new IllegalArgumentException("n must be greater than 0");
+                    }
+                }
+                else
+                {
+                    demand = ((demand + n) < 0) ? Long.MAX_VALUE : (demand + n);
+                }
+            }
+            drain();
+        }
+
+        @Override
+        public synchronized void cancel()
+        {
+            done = true;
+            ready.clear();
+        }
+
+        private void start()
+        {
+            synchronized(this)
+            {
+                draining = true;    // hold signals until onSubscribe() returns
+            }
+            try
+            {
+                subscriber.onSubscribe(this);
+            }
+            finally
+            {
+                synchronized(this)
+                {
+                    draining = false;
+                }
+            }
+            drain();
+        }
+
+        private void drain()
+        {
+            synchronized(this)
+            {
+                if ( draining )
+                {
+                    return; // the draining thread will loop and see any changes
+                }
+                draining = true;
+            }
+
+            try
+            {
+                for(;;)
+                {
+                    ChildData item = null;
+                    Throwable localError = null;
+                    boolean complete = false;
+                    boolean load = false;
+                    List<String> reads = Collections.emptyList();
+                    synchronized(this)
+                    {
+                        if ( !done )
+                        {
+                            if ( error != null )
+                            {
+                                done = true;
+                                localError = error;
+                            }
+                            else if ( (demand > 0) && !ready.isEmpty() )
+                            {
+                                item = ready.poll();
+                                --demand;
+                            }
+                            else if ( children == null )
+                            {
+                                load = (demand > 0) && !loading;
+                                loading = loading || load;
+                            }
+                            else if ( (nextChild >= children.size()) && (inFlight == 0) && ready.isEmpty() )
+                            {
+                                done = true;
+                                complete = true;
+                            }
+                            else
+                            {
+                                reads = nextReads();
+                            }
+                        }
+
+                        if ( (item == null) && (localError == null) && !complete && !load && reads.isEmpty() )
+                        {
+                            draining = false;
+                            return;
+                        }
+                    }
+
+                    if ( localError != null )
+                    {
+                        subscriber.onError(localError);
+                    }
+                    else if ( complete )
+                    {
+                        subscriber.onComplete();
+                    }
+                    else if ( item != null )
+                    {
+                        subscriber.onNext(item);
+                    }
+                    else if ( load )
+                    {
+                        loadChildren();
+                    }
+                    else
+                    {
+                        reads.forEach(this::read);
+                    }
+                }
+            }
+            catch ( RuntimeException e )
+            {
+                // a misbehaving subscriber - stop the subscription
+                synchronized(this)
+                {
+                    done = true;
+                    draining = false;
+                    ready.clear();
+                }
+                throw e;
+            }
+        }
+
+        // guarded by this
+        private List<String> nextReads()
+        {
+            long qty = Math.min(Math.min(maxInFlight - inFlight, demand - inFlight - ready.size()), children.size() - nextChild);
+            if ( qty <= 0 )
+            {
+                return Collections.emptyList();
+            }
+            List<String> reads = Lists.newArrayList(children.subList(nextChild, nextChild + (int)qty));
+            nextChild += reads.size();
+            inFlight += reads.size();
+            return reads;
+        }
+
+        private void loadChildren()
+        {
+            client.getChildren().forPath(path).handle((loadedChildren, e) -> {
+                synchronized(this)
+                {
+                    if ( e == null )
+                    {
+                        children = loadedChildren;
+                    }
+                    else if ( Throwables.getRootCause(e) instanceof KeeperException.NoNodeException )
+                    {
+                        children = Collections.emptyList();
+                    }
+                    else if ( error == null )
+                    {
+                        error = e;
+                    }
+                }
+                drain();
+                return null;
+            });
+        }
+
+        private void read(String child)
+        {
+            String childPath = ZKPaths.makePath(path, child);
+            Stat stat = new Stat();
+            AsyncStage<byte[]> stage = isCompressed ? client.getData().decompressedStoringStatIn(stat).forPath(childPath) : client.getData().storingStatIn(stat).forPath(childPath);
+            stage.handle((data, e) -> {
+                synchronized(this)
+                {
+                    --inFlight;
+                    if ( e == null )
+                    {
+                        if ( !done )
+                        {
+                            ready.add(new ChildData(childPath, stat, data));
+                        }
+                    }
+                    else if ( !(Throwables.getRootCause(e) instanceof KeeperException.NoNodeException) && (error == null) )
+                    {
+                        error = e;
+                    }
+                    // else - the node was deleted after the children were read, skip it
+                }
+                drain();
+                return null;
+            });
+        }
+    }
+}
@@ -0,0 +1,334 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.curator.x.async;
+
+import com.google.common.base.Preconditions;
+import org.apache.curator.utils.ThreadUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Publishes events from a listener based source. Each subscription registers its own listener
+ * and has its own bounded buffer. Events are buffered until requested - the source's thread
+ * never waits for a subscriber.
+ */
+class EventPublisher<T> implements AsyncFlow.Publisher<T>
+{
+    private final Logger log = LoggerFactory.getLogger(getClass());
+    private final Function<Consumer<T>, Runnable> register;
+    private final Function<T, String> pathFunction;
+    private final OverflowStrategy overflowStrategy;
+    private final int capacity;
+    private final Executor executor;
+
+    /**
+     * @param register registers the given sink with the source and returns a runnable that unregisters it
+     * @param pathFunction returns the path of an event (or null) - used for {@link OverflowStrategy#COALESCE_BY_PATH}
+     * @param overflowStrategy overflow strategy
+     * @param capacity maximum number of buffered events per subscription
+     * @param executor executor used to call subscribers
+     */
+    EventPublisher(Function<Consumer<T>, Runnable> register, Function<T, String> pathFunction, OverflowStrategy overflowStrategy, int capacity, Executor executor)
+    {
+        Preconditions.checkArgument(capacity > 0, "capacity must be greater than 0");
+        this.register = Objects.requireNonNull(register, "register cannot be null");
+        this.pathFunction = Objects.requireNonNull(pathFunction, "pathFunction cannot be null");
+        this.overflowStrategy = Objects.requireNonNull(overflowStrategy, "overflowStrategy cannot be null");
+        this.capacity = capacity;
+        this.executor = Objects.requireNonNull(executor, "executor cannot be null");
+    }
+
+    @Override
+    public void subscribe(AsyncFlow.Subscriber<? super T> subscriber)
+    {
+        new EventSubscription(Objects.requireNonNull(subscriber, "subscriber cannot be null")).start();
+    }
+
+    private class EventSubscription implements AsyncFlow.Subscription, Consumer<T>
+    {
+        private final AsyncFlow.Subscriber<? super T> subscriber;
+        private final Queue<T> queue = new ArrayDeque<>();                  // guarded by this - all but COALESCE_BY_PATH
+        private final Map<Object, T> coalesced = new LinkedHashMap<>();     // guarded by this - COALESCE_BY_PATH
+        private Runnable unregister = null;     // guarded by this
+        private long demand = 0;                // guarded by this
+        private long droppedCount = 0;          // guarded by this
+        private Throwable error = null;         // guarded by this
+        private boolean done = false;           // guarded by this - terminated or cancelled
+        private boolean draining = false;       // guarded by this - only one thread signals the subscriber at a time
+
+        private EventSubscription(AsyncFlow.Subscriber<? super T> subscriber)
+        {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void accept(T item)
+        {
+            synchronized(this)
+            {
+                if ( done || (error != null) )
+                {
+                    return;
+                }
+
+                if ( overflowStrategy == OverflowStrategy.COALESCE_BY_PATH )
+                {
+                    String path = pathFunction.apply(item);
+                    Object key = (path != null) ? path : new Object();
+                    if ( !coalesced.containsKey(key) && (coalesced.size() >= capacity) )
+                    {
+                        Iterator<T> iterator = coalesced.values().iterator();
+                        iterator.next();
+                        iterator.remove();
+                        ++droppedCount;
+                    }
+                    coalesced.put(key, item);   // a replaced entry keeps its place in line
+                }
+                else
+                {
+                    if ( queue.size() >= capacity )
+                    {
+                        if ( overflowStrategy == OverflowStrategy.BUFFER )
+                        {
+                            error = new IllegalStateException("Subscriber buffer overflow. Capacity: " + capacity);
+                        }
+                        else
+                        {
+                            queue.poll();
+                            ++droppedCount;
+                        }
+                    }
+                    if ( error == null )
+                    {
+                        queue.add(item);
+                    }
+                }
+            }
+            scheduleDrain();
+        }
+
+        @Override
+        public void request(long n)
+        {
+            synchronized(this)
+            {
+                if ( n <= 0 )
+                {
+                    if ( error == null )
+                    {
+                        error = new IllegalArgumentException("n must be greater than 0");
+                    }
+                }
+                else
+                {
+                    demand = ((demand + n) < 0) ? Long.MAX_VALUE : (demand + n);
+                }
+            }
+            scheduleDrain();
+        }
+
+        @Override
+        public void cancel()
+        {
+            terminate();
+        }
+
+        private void start()
+        {
+            synchronized(this)
+            {
+                draining = true;    // hold signals until onSubscribe() returns
+            }
+            try
+            {
+                subscriber.onSubscribe(this);
+            }
+            finally
+            {
+                synchronized(this)
+                {
+                    draining = false;
+                }
+            }
+
+            Runnable localUnregister = register.apply(this);
+            boolean cancelled;
+            synchronized(this)
+            {
+                cancelled = done;
+                if ( !cancelled )
+                {
+                    unregister = localUnregister;
+                }
+            }
+            if ( cancelled )
+            {
+                localUnregister.run();
+            }
+            else
+            {
+                scheduleDrain();
+            }
+        }
+
+        // returns true if this call ended the subscription
+        private boolean terminate()
+        {
+            Runnable localUnregister;
+            boolean wasActive;
+            synchronized(this)
+            {
+                wasActive = !done;
+                done = true;
+                queue.clear();
+                coalesced.clear();
+                localUnregister = unregister;
+                unregister = null;
+                if ( droppedCount > 0 )
+                {
+                    log.debug("Subscription ended. Dropped events: {}", droppedCount);
+                }
+            }
+            if ( localUnregister != null )
+            {
+                localUnregister.run();
+            }
+            return wasActive;
+        }
+
+        private void scheduleDrain()
+        {
+            synchronized(this)
+            {
+                if ( draining || done )
+                {
+                    return; // the draining thread will loop and see any changes
+                }
+                draining = true;
+            }
+
+            try
+            {
+                executor.execute(this::drain);
+            }
+            catch ( RejectedExecutionException e )
+            {
+                // the executor is gone so fail the subscription from this thread. draining stays set so
+                // nothing else is signalled after onError()
+                log.error("Could not schedule event delivery. Failing the subscription.", e);
+                if ( terminate() )
+                {
+                    try
+                    {
+                        subscriber.onError(e);
+                    }
+                    catch ( RuntimeException subscriberException )
+                    {
+                        ThreadUtils.checkInterrupted(subscriberException);
+                        log.error("Subscriber threw an exception from onError()", subscriberException);
+                    }
+                }
+            }
+        }
+
+        private void drain()
+        {
+            try
+            {
+                for(;;)
+                {
+                    T item = null;
+                    Throwable localError = null;
+                    synchronized(this)
+                    {
+                        if ( !done )
+                        {
+                            if ( error != null )
+                            {
+                                localError = error;
+                            }
+                            else if ( demand > 0 )
+                            {
+                                item = poll();
+                                if ( item != null )
+                                {
+                                    --demand;
+                                }
+                            }
+                        }
+
+                        if ( (item == null) && (localError == null) )
+                        {
+                            draining = false;
+                            return;
+                        }
+                    }
+
+                    if ( localError != null )
+                    {
+                        terminate();
+                        subscriber.onError(localError);
+                    }
+                    else
+                    {
+                        subscriber.onNext(item);
+                    }
+                }
+            }
+            catch ( RuntimeException e )
+            {
+                // a misbehaving subscriber - stop the subscription
+                ThreadUtils.checkInterrupted(e);
+                log.error("Subscriber threw an exception. Cancelling the subscription.", e);
+                synchronized(this)
+                {
+                    draining = false;
+                }
+                terminate();
+            }
+        }
+
+        // guarded by this
+        private T poll()
+        {
+            if ( overflowStrategy == OverflowStrategy.COALESCE_BY_PATH )
+            {
+                Iterator<T> iterator = coalesced.values().iterator();
+                if ( !iterator.hasNext() )
+                {
+                    return null;
+                }
+                T item = iterator.next();
+                iterator.remove();
+                return item;
+            }
+            return queue.poll();
+        }
+    }
+}
@@ -0,0 +1,44 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.curator.x.async;
+
+/**
+ * What an event publisher does when events arrive faster than a subscriber requests them
+ * and the subscriber's buffer is full
+ */
+public enum OverflowStrategy
+{
+    /**
+     * Buffer events up to the capacity. If the buffer overflows, the subscription fails
+     * with an {@link IllegalStateException}.
+     */
+    BUFFER,
+
+    /**
+     * Buffer events up to the capacity. If the buffer is full, the oldest buffered event is discarded.
+     */
+    DROP_OLDEST,
+
+    /**
+     * Buffer only the most recent event for each path. A new event for a path that already has a buffered
+     * event replaces it (keeping its place in line). If the buffer holds events for capacity paths,
+     * the oldest buffered event is discarded. Events without a path are never coalesced.
+     */
+    COALESCE_BY_PATH
+}
@@ -20,6 +20,7 @@ package org.apache.curator.x.async.migrations;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Throwables;
+import com.google.common.collect.MapMaker;
 import org.apache.curator.framework.api.transaction.CuratorOp;
 import org.apache.curator.framework.imps.ExtractingCuratorOp;
 import org.apache.curator.framework.recipes.locks.InterProcessLock;
@@ -33,10 +34,12 @@ import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.CompletionStage;
 import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
@@ -55,6 +58,8 @@ public class MigrationManager
     private final String metaDataPath;
     private final Executor executor;
     private final Duration lockMax;
+    private final boolean checkBeforeLocking;
+    private final Map<Migration, byte[]> hashCache = new MapMaker().weakKeys().makeMap();
 
     private static final String META_DATA_NODE_NAME = "meta-";
 
@@ -66,12 +71,29 @@ public class MigrationManager
      * @param lockMax max time to wait for locks
      */
     public MigrationManager(AsyncCuratorFramework client, String lockPath, String metaDataPath, Executor executor, Duration lockMax)
+    {
+        this(client, lockPath, metaDataPath, executor, lockMax, false);
+    }
+
+    /**
+     * @param client the curator client
+     * @param lockPath base path for locks used by the manager
+     * @param metaDataPath base path to store the meta data
+     * @param executor the executor to use
+     * @param lockMax max time to wait for locks
+     * @param checkBeforeLocking if true, the meta data of a set is read before taking its lock. If the meta data shows
+     *                           that every migration of the set has already been applied the lock is not taken and
+     *                           {@link #filter(MigrationSet, java.util.List)} is not called. This makes the common
+     *                           startup case (nothing to do) a single read pass.
+     */
+    public MigrationManager(AsyncCuratorFramework client, String lockPath, String metaDataPath, Executor executor, Duration lockMax, boolean checkBeforeLocking)
     {
         this.client = Objects.requireNonNull(client, "client cannot be null");
         this.lockPath = Objects.requireNonNull(lockPath, "lockPath cannot be null");
         this.metaDataPath = Objects.requireNonNull(metaDataPath, "metaDataPath cannot be null");
         this.executor = Objects.requireNonNull(executor, "executor cannot be null");
         this.lockMax = Objects.requireNonNull(lockMax, "lockMax cannot be null");
+        this.checkBeforeLocking = checkBeforeLocking;
     }
 
     /**
@@ -83,9 +105,66 @@ public class MigrationManager
      */
     public CompletionStage<Void> migrate(MigrationSet set)
     {
-        InterProcessLock lock = new InterProcessSemaphoreMutex(client.unwrap(), ZKPaths.makePath(lockPath, set.id()));
-        CompletionStage<Void> lockStage = lockAsync(lock, lockMax.toMillis(), TimeUnit.MILLISECONDS, executor);
-        return lockStage.thenCompose(__ -> runMigrationInLock(lock, set));
+        if ( checkBeforeLocking )
+        {
+            return readMetaData(set).thenCompose(metaData -> isUpToDate(set, metaData) ? CompletableFuture.completedFuture(null) : migrateInLock(set));
+        }
+        return migrateInLock(set);
+    }
+
+    /**
+     * Process the given migration sets concurrently. Each set is migrated under its own lock
+     * (as with {@link #migrate(MigrationSet)}) so independent sets don't wait for each other.
+     *
+     * @param sets the sets - each must have a unique ID
+     * @return completion stage. Completes when all sets have been processed. If any set fails, the stage is completed
+     * exceptionally with the first failure.
+     */
+    public CompletionStage<Void> migrateAll(List<MigrationSet> sets)
+    {
+        CompletableFuture<?>[] stages = sets.stream()
+            .map(set -> migrate(set).toCompletableFuture())
+            .toArray(CompletableFuture[]::new);
+        return CompletableFuture.allOf(stages);
+    }
+
+    /**
+     * Return the migrations that {@link #migrate(MigrationSet)} would apply for the given set. No locks are
+     * taken and nothing is written, so this is an estimate - another process may be migrating the set concurrently.
+     *
+     * @param set the set
+     * @return completion stage with the migrations that would be applied. If there is a migration-specific error, the stage will be completed
+     * exceptionally with {@link org.apache.curator.x.async.migrations.MigrationException}.
+     */
+    public CompletionStage<List<Migration>> dryRun(MigrationSet set)
+    {
+        return readMetaData(set).thenApply(metaData -> {
+            try
+            {
+                return filter(set, sortMetaData(metaData));
+            }
+            catch ( MigrationException e )
+            {
+                throw new CompletionException(e);
+            }
+        });
+    }
+
+    /**
+     * Same as {@link #dryRun(MigrationSet)} for several sets. The meta data of all the sets is read concurrently.
+     *
+     * @param sets the sets - each must have a unique ID
+     * @return completion stage with the migrations that would be applied mapped by set ID
+     */
+    public CompletionStage<Map<String, List<Migration>>> dryRunAll(List<MigrationSet> sets)
+    {
+        Map<String, CompletableFuture<List<Migration>>> stages = new LinkedHashMap<>();
+        sets.forEach(set -> stages.put(set.id(), dryRun(set).toCompletableFuture()));
+        return CompletableFuture.allOf(stages.values().toArray(new CompletableFuture[0])).thenApply(__ -> {
+            Map<String, List<Migration>> plan = new LinkedHashMap<>();
+            stages.forEach((id, stage) -> plan.put(id, stage.join()));
+            return plan;
+        });
     }
 
     /**
@@ -108,7 +187,7 @@ public class MigrationManager
         int compareSize = Math.min(set.migrations().size(), operationHashesInOrder.size());
         for ( int i = 0; i < compareSize; ++i )
         {
-            byte[] setHash = hash(set.migrations().get(i).operations());
+            byte[] setHash = hash(set.migrations().get(i));
             if ( !Arrays.equals(setHash, operationHashesInOrder.get(i)) )
             {
                 throw new MigrationException(set.id(), String.format("Metadata mismatch. Migration ID: %s", set.id()));
@@ -117,6 +196,13 @@ public class MigrationManager
         return set.migrations().subList(operationHashesInOrder.size(), set.migrations().size());
     }
 
+    private byte[] hash(Migration migration)
+    {
+        // migrations must produce the same operations each time (their hashes are compared to
+        // the meta data of previous runs) so the hash is only computed once per instance
+        return hashCache.computeIfAbsent(migration, m -> hash(m.operations()));
+    }
+
     private byte[] hash(List<CuratorOp> operations)
     {
         MessageDigest digest;
@@ -141,6 +227,46 @@ public class MigrationManager
         return digest.digest();
     }
 
+    private CompletionStage<Void> migrateInLock(MigrationSet set)
+    {
+        InterProcessLock lock = new InterProcessSemaphoreMutex(client.unwrap(), ZKPaths.makePath(lockPath, set.id()));
+        CompletionStage<Void> lockStage = lockAsync(lock, lockMax.toMillis(), TimeUnit.MILLISECONDS, executor);
+        return lockStage.thenCompose(__ -> runMigrationInLock(lock, set));
+    }
+
+    private CompletionStage<Map<String, byte[]>> readMetaData(MigrationSet set)
+    {
+        return childrenWithData(client, ZKPaths.makePath(metaDataPath, set.id()));
+    }
+
+    private boolean isUpToDate(MigrationSet set, Map<String, byte[]> metaData)
+    {
+        // meta data is only ever added (in the same transaction as its migration) so if it matches
+        // every migration of the set there's nothing to do. Anything else is decided under the lock.
+        List<byte[]> sortedMetaData = sortMetaData(metaData);
+        if ( sortedMetaData.size() != set.migrations().size() )
+        {
+            return false;
+        }
+        for ( int i = 0; i < sortedMetaData.size(); ++i )
+        {
+            if ( !Arrays.equals(hash(set.migrations().get(i)), sortedMetaData.get(i)) )
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static List<byte[]> sortMetaData(Map<String, byte[]> metaData)
+    {
+        return metaData.keySet()
+            .stream()
+            .sorted(Comparator.naturalOrder())
+            .map(metaData::get)
+            .collect(Collectors.toList());
+    }
+
     private CompletionStage<Void> runMigrationInLock(InterProcessLock lock, MigrationSet set)
     {
         String thisMetaDataPath = ZKPaths.makePath(metaDataPath, set.id());
@@ -159,11 +285,7 @@ public class MigrationManager
 
     private CompletionStage<Void> applyMetaData(MigrationSet set, Map<String, byte[]> metaData, String thisMetaDataPath)
     {
-        List<byte[]> sortedMetaData = metaData.keySet()
-            .stream()
-            .sorted(Comparator.naturalOrder())
-            .map(metaData::get)
-            .collect(Collectors.toList());
+        List<byte[]> sortedMetaData = sortMetaData(metaData);
 
         List<Migration> toBeApplied;
         try
@@ -199,9 +321,8 @@ public class MigrationManager
         List<CuratorOp> operations = new ArrayList<>();
         String metaDataBasePath = ZKPaths.makePath(thisMetaDataPath, META_DATA_NODE_NAME);
         toBeApplied.forEach(migration -> {
-            List<CuratorOp> thisMigrationOperations = migration.operations();
-            operations.addAll(thisMigrationOperations);
-            operations.add(client.transactionOp().create().withMode(CreateMode.PERSISTENT_SEQUENTIAL).forPath(metaDataBasePath, hash(thisMigrationOperations)));
+            operations.addAll(migration.operations());
+            operations.add(client.transactionOp().create().withMode(CreateMode.PERSISTENT_SEQUENTIAL).forPath(metaDataBasePath, hash(migration)));
         });
         return client.transaction().forOperations(operations).thenApply(__ -> null);
     }
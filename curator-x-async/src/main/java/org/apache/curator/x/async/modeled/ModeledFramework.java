@@ -21,11 +21,14 @@ package org.apache.curator.x.async.modeled;
 import org.apache.curator.framework.api.transaction.CuratorOp;
 import org.apache.curator.framework.api.transaction.CuratorTransactionResult;
 import org.apache.curator.x.async.AsyncCuratorFramework;
+import org.apache.curator.x.async.AsyncResult;
 import org.apache.curator.x.async.AsyncStage;
 import org.apache.curator.x.async.modeled.cached.CachedModeledFramework;
 import org.apache.curator.x.async.modeled.versioned.VersionedModeledFramework;
 import org.apache.zookeeper.data.Stat;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 
 public interface ModeledFramework<T>
@@ -368,4 +371,37 @@ public interface ModeledFramework<T>
      * @return AsyncStage instance for managing the completion
      */
     AsyncStage<List<CuratorTransactionResult>> inTransaction(List<CuratorOp> operations);
+
+    /**
+     * Same as {@link #setAll(java.util.Map, int, int, java.util.concurrent.Executor)} using a maximum transaction size
+     * of half of <code>jute.maxbuffer</code>, 4 transactions in flight and the common fork/join pool for serialization
+     *
+     * @param models models to write mapped by path
+     * @return AsyncStage with the result for each path
+     */
+    AsyncStage<Map<ZPath, AsyncResult<String>>> setAll(Map<ZPath, T> models);
+
+    /**
+     * <p>
+     * Bulk write the given models. Models are serialized in parallel using the given executor and
+     * their create operations are packed, in order, into transactions of at most <code>maxTransactionBytes</code>
+     * (an estimate of the request size). Transactions are sent as soon as they're packed with
+     * up to <code>maxTransactionsInFlight</code> outstanding at once.
+     * </p>
+     *
+     * <p>
+     * Transactions are all-or-nothing. If a transaction fails (e.g. one of its nodes already exists or a parent
+     * is missing) each of its models is written individually via the equivalent of {@link #set(Object)}, which
+     * honors the {@link ModelSpec}'s create options (e.g. {@link org.apache.curator.x.async.api.CreateOption#setDataIfExists}
+     * and {@link org.apache.curator.x.async.api.CreateOption#createParentsIfNeeded}). The returned stage completes when
+     * all models have been written or have failed - the result for each path is either the created path or the error.
+     * </p>
+     *
+     * @param models models to write mapped by path. Unresolved paths are resolved using the model
+     * @param maxTransactionBytes maximum estimated size of a transaction - must be well under <code>jute.maxbuffer</code>
+     * @param maxTransactionsInFlight maximum number of concurrent transactions
+     * @param serializationExecutor executor used to serialize models
+     * @return AsyncStage with the result for each path
+     */
+    AsyncStage<Map<ZPath, AsyncResult<String>>> setAll(Map<ZPath, T> models, int maxTransactionBytes, int maxTransactionsInFlight, Executor serializationExecutor);
 }
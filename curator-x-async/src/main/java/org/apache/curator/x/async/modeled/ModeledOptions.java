@@ -25,5 +25,12 @@ public enum ModeledOptions
      * to ignore {@link org.apache.zookeeper.KeeperException.NoNodeException} and merely return
      * an empty list
      */
-    ignoreMissingNodesForChildren
+    ignoreMissingNodesForChildren,
+
+    /**
+     * Causes the cache of a {@link ModeledFramework#cached()} instance to keep the raw bytes of
+     * each node and only deserialize a model when it is first read. Each node version is deserialized
+     * at most once. Useful for large models that are updated frequently but read rarely.
+     */
+    lazyCacheDeserialization
 }
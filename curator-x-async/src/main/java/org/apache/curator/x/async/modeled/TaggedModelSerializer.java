@@ -0,0 +1,521 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.curator.x.async.modeled;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * <p>
+ *     A compact binary model serializer. Models are written as a list of tagged fields (similar to
+ *     Protocol Buffers) by a {@link Codec} that you provide. Because fields are identified by tag:
+ * </p>
+ * <ul>
+ *     <li>fields can be added - older readers skip tags they don't know (forward compatibility)</li>
+ *     <li>fields can be removed - newer readers get the default for missing tags (backward compatibility)</li>
+ *     <li>tags must never be re-used for a different field or value type</li>
+ * </ul>
+ *
+ * <p>
+ *     Serialized bytes start with a versioned header. Bytes without the header (e.g. nodes written
+ *     by {@link JacksonModelSerializer}) are passed to the optional legacy serializer so that existing
+ *     nodes can be read and migrated in place - they are re-written in the binary format the next time
+ *     they are set.
+ * </p>
+ *
+ * <p>
+ *     Reads are zero-copy: a {@link Reader} indexes the fields of the znode's <code>byte[]</code>
+ *     and values are decoded directly from it when requested.
+ * </p>
+ *
+ * <code><pre>
+ * TaggedModelSerializer&lt;Person&gt; serializer = TaggedModelSerializer.build(new TaggedModelSerializer.Codec&lt;Person&gt;() {
+ *     public void write(Person person, TaggedModelSerializer.Writer writer) {
+ *         writer.writeString(1, person.getName());
+ *         writer.writeInt(2, person.getAge());
+ *     }
+ *
+ *     public Person read(TaggedModelSerializer.Reader reader) {
+ *         return new Person(reader.getString(1, ""), reader.getInt(2, 0));
+ *     }
+ * }, JacksonModelSerializer.build(Person.class));
+ * </pre></code>
+ */
+public class TaggedModelSerializer<T> implements ModelSerializer<T>
+{
+    /**
+     * The header is a zero byte (which cannot start a JSON document), a marker byte and a format version
+     */
+    static final byte[] HEADER = {0, (byte)0xCB, 1};
+
+    private static final int WIRE_VARINT = 0;
+    private static final int WIRE_FIXED64 = 1;
+    private static final int WIRE_LENGTH_DELIMITED = 2;
+    private static final int WIRE_TYPE_BITS = 3;
+    private static final int WIRE_TYPE_MASK = (1 << WIRE_TYPE_BITS) - 1;
+
+    private final Codec<T> codec;
+    private final ModelSerializer<T> legacySerializer;
+
+    /**
+     * Writes and reads the fields of a model
+     */
+    public interface Codec<T>
+    {
+        /**
+         * Write the fields of the given model
+         *
+         * @param model model
+         * @param writer field writer
+         */
+        void write(T model, Writer writer);
+
+        /**
+         * Create a model from the given fields
+         *
+         * @param reader field reader
+         * @return model
+         */
+        T read(Reader reader);
+    }
+
+    /**
+     * @param codec the codec
+     * @return serializer
+     */
+    public static <T> TaggedModelSerializer<T> build(Codec<T> codec)
+    {
+        return new TaggedModelSerializer<>(codec, null);
+    }
+
+    /**
+     * @param codec the codec
+     * @param legacySerializer serializer to use for bytes that don't have the header (e.g. a {@link JacksonModelSerializer})
+     * @return serializer
+     */
+    public static <T> TaggedModelSerializer<T> build(Codec<T> codec, ModelSerializer<T> legacySerializer)
+    {
+        return new TaggedModelSerializer<>(codec, Objects.requireNonNull(legacySerializer, "legacySerializer cannot be null"));
+    }
+
+    private TaggedModelSerializer(Codec<T> codec, ModelSerializer<T> legacySerializer)
+    {
+        this.codec = Objects.requireNonNull(codec, "codec cannot be null");
+        this.legacySerializer = legacySerializer;
+    }
+
+    @Override
+    public byte[] serialize(T model)
+    {
+        Writer writer = new Writer();
+        writer.writeRaw(HEADER, 0, HEADER.length);
+        codec.write(model, writer);
+        return writer.toByteArray();
+    }
+
+    @Override
+    public T deserialize(byte[] bytes)
+    {
+        if ( !hasHeader(bytes) )
+        {
+            if ( legacySerializer == null )
+            {
+                throw new RuntimeException("Bytes are not in the tagged binary format");
+            }
+            return legacySerializer.deserialize(bytes);
+        }
+        return codec.read(new Reader(bytes, HEADER.length, bytes.length));
+    }
+
+    /**
+     * Return true if the given bytes were written by this serializer (i.e. they start with the header)
+     *
+     * @param bytes bytes to check
+     * @return true/false
+     */
+    public static boolean hasHeader(byte[] bytes)
+    {
+        if ( (bytes == null) || (bytes.length < HEADER.length) )
+        {
+            return false;
+        }
+        for ( int i = 0; i < HEADER.length; ++i )
+        {
+            if ( bytes[i] != HEADER[i] )
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Writes tagged fields. Tags must be greater than 0. A tag can be written multiple
+     * times to form a list (see {@link Reader#getStringList(int)} and {@link Reader#getModelList(int, Codec)}).
+     */
+    public static class Writer
+    {
+        private byte[] buffer = new byte[64];
+        private int length = 0;
+
+        private Writer()
+        {
+        }
+
+        public Writer writeInt(int tag, int value)
+        {
+            return writeLong(tag, value);
+        }
+
+        public Writer writeLong(int tag, long value)
+        {
+            writeKey(tag, WIRE_VARINT);
+            writeVarint((value << 1) ^ (value >> 63));  // zig-zag so that small negative values are small
+            return this;
+        }
+
+        public Writer writeBoolean(int tag, boolean value)
+        {
+            writeKey(tag, WIRE_VARINT);
+            writeVarint(value ? 1 : 0);
+            return this;
+        }
+
+        public Writer writeDouble(int tag, double value)
+        {
+            writeKey(tag, WIRE_FIXED64);
+            long bits = Double.doubleToRawLongBits(value);
+            ensureCapacity(8);
+            for ( int i = 0; i < 8; ++i )
+            {
+                buffer[length++] = (byte)(bits >>> (i * 8));
+            }
+            return this;
+        }
+
+        /**
+         * Write a string. <code>null</code> values are not written.
+         */
+        public Writer writeString(int tag, String value)
+        {
+            if ( value != null )
+            {
+                writeBytes(tag, value.getBytes(StandardCharsets.UTF_8));
+            }
+            return this;
+        }
+
+        /**
+         * Write bytes. <code>null</code> values are not written.
+         */
+        public Writer writeBytes(int tag, byte[] value)
+        {
+            if ( value != null )
+            {
+                writeKey(tag, WIRE_LENGTH_DELIMITED);
+                writeVarint(value.length);
+                writeRaw(value, 0, value.length);
+            }
+            return this;
+        }
+
+        /**
+         * Write a nested model. <code>null</code> values are not written.
+         */
+        public <U> Writer writeModel(int tag, U value, Codec<U> codec)
+        {
+            if ( value != null )
+            {
+                Writer nested = new Writer();
+                codec.write(value, nested);
+                writeKey(tag, WIRE_LENGTH_DELIMITED);
+                writeVarint(nested.length);
+                writeRaw(nested.buffer, 0, nested.length);
+            }
+            return this;
+        }
+
+        private void writeKey(int tag, int wireType)
+        {
+            Preconditions.checkArgument(tag > 0, "tag must be greater than 0");
+            writeVarint(((long)tag << WIRE_TYPE_BITS) | wireType);
+        }
+
+        private void writeVarint(long value)
+        {
+            ensureCapacity(10);
+            while ( (value & ~0x7FL) != 0 )
+            {
+                buffer[length++] = (byte)((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[length++] = (byte)value;
+        }
+
+        private void writeRaw(byte[] bytes, int offset, int qty)
+        {
+            ensureCapacity(qty);
+            System.arraycopy(bytes, offset, buffer, length, qty);
+            length += qty;
+        }
+
+        private void ensureCapacity(int qty)
+        {
+            if ( (length + qty) > buffer.length )
+            {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + qty));
+            }
+        }
+
+        private byte[] toByteArray()
+        {
+            return Arrays.copyOf(buffer, length);
+        }
+    }
+
+    /**
+     * Reads tagged fields directly from the serialized bytes. Unknown tags are ignored. If a
+     * non-list tag appears more than once, the last value wins.
+     */
+    public static class Reader
+    {
+        private final byte[] bytes;
+        private final int[] fieldKeys;       // tag << WIRE_TYPE_BITS | wire type
+        private final int[] fieldOffsets;    // offset of the value (after the key and, for length delimited fields, the length)
+        private final int[] fieldLengths;    // length of length delimited values
+        private final int fieldQty;
+
+        private Reader(byte[] bytes, int offset, int end)
+        {
+            this.bytes = bytes;
+
+            int[] keys = new int[8];
+            int[] offsets = new int[8];
+            int[] lengths = new int[8];
+            int qty = 0;
+            int position = offset;
+            while ( position < end )
+            {
+                long key = readVarint(position);
+                position += varintSize(position);
+                int fieldLength = 0;
+                switch ( (int)(key & WIRE_TYPE_MASK) )
+                {
+                    case WIRE_VARINT:
+                    {
+                        fieldLength = varintSize(position);
+                        break;
+                    }
+
+                    case WIRE_FIXED64:
+                    {
+                        fieldLength = 8;
+                        break;
+                    }
+
+                    case WIRE_LENGTH_DELIMITED:
+                    {
+                        fieldLength = (int)readVarint(position);
+                        position += varintSize(position);
+                        break;
+                    }
+
+                    default:
+                    {
+                        throw new RuntimeException("Unknown wire type: " + (key & WIRE_TYPE_MASK));
+                    }
+                }
+                if ( (fieldLength < 0) || ((position + fieldLength) > end) )
+                {
+                    throw new RuntimeException("Truncated field at offset: " + position);
+                }
+
+                if ( qty == keys.length )
+                {
+                    keys = Arrays.copyOf(keys, qty * 2);
+                    offsets = Arrays.copyOf(offsets, qty * 2);
+                    lengths = Arrays.copyOf(lengths, qty * 2);
+                }
+                keys[qty] = (int)key;
+                offsets[qty] = position;
+                lengths[qty] = fieldLength;
+                ++qty;
+                position += fieldLength;
+            }
+
+            fieldKeys = keys;
+            fieldOffsets = offsets;
+            fieldLengths = lengths;
+            fieldQty = qty;
+        }
+
+        public boolean has(int tag)
+        {
+            for ( int i = 0; i < fieldQty; ++i )
+            {
+                if ( (fieldKeys[i] >>> WIRE_TYPE_BITS) == tag )
+                {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        public int getInt(int tag, int defaultValue)
+        {
+            return (int)getLong(tag, defaultValue);
+        }
+
+        public long getLong(int tag, long defaultValue)
+        {
+            int index = find(tag, WIRE_VARINT);
+            if ( index < 0 )
+            {
+                return defaultValue;
+            }
+            long value = readVarint(fieldOffsets[index]);
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        public boolean getBoolean(int tag, boolean defaultValue)
+        {
+            int index = find(tag, WIRE_VARINT);
+            return (index < 0) ? defaultValue : (readVarint(fieldOffsets[index]) != 0);
+        }
+
+        public double getDouble(int tag, double defaultValue)
+        {
+            int index = find(tag, WIRE_FIXED64);
+            if ( index < 0 )
+            {
+                return defaultValue;
+            }
+            long bits = 0;
+            for ( int i = 0; i < 8; ++i )
+            {
+                bits |= (bytes[fieldOffsets[index] + i] & 0xFFL) << (i * 8);
+            }
+            return Double.longBitsToDouble(bits);
+        }
+
+        public String getString(int tag, String defaultValue)
+        {
+            int index = find(tag, WIRE_LENGTH_DELIMITED);
+            return (index < 0) ? defaultValue : new String(bytes, fieldOffsets[index], fieldLengths[index], StandardCharsets.UTF_8);
+        }
+
+        /**
+         * Return a copy of the bytes for the given tag
+         */
+        public byte[] getBytes(int tag, byte[] defaultValue)
+        {
+            int index = find(tag, WIRE_LENGTH_DELIMITED);
+            return (index < 0) ? defaultValue : Arrays.copyOfRange(bytes, fieldOffsets[index], fieldOffsets[index] + fieldLengths[index]);
+        }
+
+        /**
+         * Return a read-only view of the bytes for the given tag without copying
+         */
+        public ByteBuffer getByteBuffer(int tag)
+        {
+            int index = find(tag, WIRE_LENGTH_DELIMITED);
+            return (index < 0) ? null : ByteBuffer.wrap(bytes, fieldOffsets[index], fieldLengths[index]).slice().asReadOnlyBuffer();
+        }
+
+        public <U> U getModel(int tag, Codec<U> codec, U defaultValue)
+        {
+            int index = find(tag, WIRE_LENGTH_DELIMITED);
+            return (index < 0) ? defaultValue : codec.read(new Reader(bytes, fieldOffsets[index], fieldOffsets[index] + fieldLengths[index]));
+        }
+
+        public List<String> getStringList(int tag)
+        {
+            ImmutableList.Builder<String> builder = ImmutableList.builder();
+            for ( int i = 0; i < fieldQty; ++i )
+            {
+                if ( fieldKeys[i] == ((tag << WIRE_TYPE_BITS) | WIRE_LENGTH_DELIMITED) )
+                {
+                    builder.add(new String(bytes, fieldOffsets[i], fieldLengths[i], StandardCharsets.UTF_8));
+                }
+            }
+            return builder.build();
+        }
+
+        public <U> List<U> getModelList(int tag, Codec<U> codec)
+        {
+            ImmutableList.Builder<U> builder = ImmutableList.builder();
+            for ( int i = 0; i < fieldQty; ++i )
+            {
+                if ( fieldKeys[i] == ((tag << WIRE_TYPE_BITS) | WIRE_LENGTH_DELIMITED) )
+                {
+                    builder.add(codec.read(new Reader(bytes, fieldOffsets[i], fieldOffsets[i] + fieldLengths[i])));
+                }
+            }
+            return builder.build();
+        }
+
+        private int find(int tag, int wireType)
+        {
+            int key = (tag << WIRE_TYPE_BITS) | wireType;
+            for ( int i = fieldQty - 1; i >= 0; --i )
+            {
+                if ( fieldKeys[i] == key )
+                {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private long readVarint(int position)
+        {
+            long value = 0;
+            for ( int shift = 0; shift < 64; shift += 7 )
+            {
+                if ( position >= bytes.length )
+                {
+                    throw new RuntimeException("Truncated varint");
+                }
+                byte b = bytes[position++];
+                value |= (long)(b & 0x7F) << shift;
+                if ( (b & 0x80) == 0 )
+                {
+                    return value;
+                }
+            }
+            throw new RuntimeException("Malformed varint");
+        }
+
+        private int varintSize(int position)
+        {
+            int size = 1;
+            while ( (position < bytes.length) && ((bytes[position] & 0x80) != 0) )
+            {
+                ++position;
+                ++size;
+            }
+            return size;
+        }
+    }
+}
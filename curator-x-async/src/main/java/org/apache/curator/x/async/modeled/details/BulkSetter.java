@@ -0,0 +1,274 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.curator.x.async.modeled.details;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
+import org.apache.curator.framework.api.transaction.CuratorOp;
+import org.apache.curator.framework.api.transaction.CuratorTransactionResult;
+import org.apache.curator.x.async.AsyncResult;
+import org.apache.curator.x.async.details.AsyncResultImpl;
+import org.apache.curator.x.async.modeled.ModelSerializer;
+import org.apache.curator.x.async.modeled.ZPath;
+import org.apache.zookeeper.KeeperException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Implements {@link org.apache.curator.x.async.modeled.ModeledFramework#setAll(Map, int, int, Executor)}. Models are
+ * serialized in chunks on the serialization executor. Chunks are packed in order into size bounded transactions
+ * which are sent as they fill so that serialization overlaps with writing.
+ */
+class BulkSetter<T>
+{
+    static final int DEFAULT_MAX_TRANSACTION_BYTES = Integer.getInteger("jute.maxbuffer", 0xfffff) / 2;
+    static final int DEFAULT_MAX_TRANSACTIONS_IN_FLIGHT = 4;
+
+    private static final int SERIALIZATION_CHUNK_SIZE = 256;
+    private static final int OP_OVERHEAD_BYTES = 128;   // estimate for the op header, create mode, ACLs, etc.
+
+    private final ModeledFrameworkImpl<T> modeled;
+    private final int maxTransactionBytes;
+    private final int maxTransactionsInFlight;
+    private final Executor serializationExecutor;
+    private final ModelStage<Map<ZPath, AsyncResult<String>>> stage = ModelStage.make();
+    private final Map<ZPath, AsyncResult<String>> results = new ConcurrentHashMap<>();
+    private final Queue<List<Item>> readyTransactions = new ArrayDeque<>();    // guarded by this
+    private int transactionsInFlight = 0;       // guarded by this
+    private boolean packingComplete = false;    // guarded by this
+    private List<ZPath> paths;
+    private List<Item> currentTransaction = new ArrayList<>();   // only accessed by the packing chain
+    private int currentTransactionBytes = 0;                      // only accessed by the packing chain
+
+    private static class Item
+    {
+        private final ZPath path;
+        private final byte[] bytes;
+
+        private Item(ZPath path, byte[] bytes)
+        {
+            this.path = path;
+            this.bytes = bytes;
+        }
+
+        private int estimatedSize()
+        {
+            return OP_OVERHEAD_BYTES + path.fullPath().length() + bytes.length;
+        }
+    }
+
+    BulkSetter(ModeledFrameworkImpl<T> modeled, int maxTransactionBytes, int maxTransactionsInFlight, Executor serializationExecutor)
+    {
+        Preconditions.checkArgument(maxTransactionBytes > 0, "maxTransactionBytes must be greater than 0");
+        Preconditions.checkArgument(maxTransactionsInFlight > 0, "maxTransactionsInFlight must be greater than 0");
+        this.modeled = Objects.requireNonNull(modeled, "modeled cannot be null");
+        this.maxTransactionBytes = maxTransactionBytes;
+        this.maxTransactionsInFlight = maxTransactionsInFlight;
+        this.serializationExecutor = Objects.requireNonNull(serializationExecutor, "serializationExecutor cannot be null");
+    }
+
+    ModelStage<Map<ZPath, AsyncResult<String>>> setAll(Map<ZPath, T> models)
+    {
+        List<Map.Entry<ZPath, T>> entries = new ArrayList<>(Objects.requireNonNull(models, "models cannot be null").entrySet());
+        paths = entries.stream().map(entry -> resolve(entry.getKey(), entry.getValue())).collect(Collectors.toList());
+
+        try
+        {
+            CompletableFuture<Void> packing = CompletableFuture.completedFuture(null);
+            for ( int start = 0; start < entries.size(); start += SERIALIZATION_CHUNK_SIZE )
+            {
+                int end = Math.min(entries.size(), start + SERIALIZATION_CHUNK_SIZE);
+                List<Map.Entry<ZPath, T>> chunk = entries.subList(start, end);
+                List<ZPath> chunkPaths = paths.subList(start, end);
+                CompletableFuture<List<Item>> serialized = CompletableFuture.supplyAsync(() -> serialize(chunk, chunkPaths), serializationExecutor);
+                packing = packing.thenCombine(serialized, (dummy, items) -> {
+                    pack(items);
+                    return null;
+                });
+            }
+            packing.whenComplete((dummy, e) -> {
+                if ( e != null )
+                {
+                    stage.completeExceptionally(e);
+                }
+                else
+                {
+                    closeTransaction();
+                    synchronized(this)
+                    {
+                        packingComplete = true;
+                    }
+                    pump();
+                }
+            });
+        }
+        catch ( Exception e )
+        {
+            stage.completeExceptionally(e);
+        }
+        return stage;
+    }
+
+    private ZPath resolve(ZPath path, T model)
+    {
+        return path.isResolved() ? path : path.resolved(model);
+    }
+
+    private List<Item> serialize(List<Map.Entry<ZPath, T>> chunk, List<ZPath> chunkPaths)
+    {
+        ModelSerializer<T> serializer = modeled.modelSpec().serializer();
+        List<Item> items = new ArrayList<>(chunk.size());
+        for ( int i = 0; i < chunk.size(); ++i )
+        {
+            ZPath path = chunkPaths.get(i);
+            try
+            {
+                items.add(new Item(path, serializer.serialize(chunk.get(i).getValue())));
+            }
+            catch ( Exception e )
+            {
+                results.put(path, toResult(e));
+            }
+        }
+        return items;
+    }
+
+    private void pack(List<Item> items)
+    {
+        for ( Item item : items )
+        {
+            int size = item.estimatedSize();
+            if ( !currentTransaction.isEmpty() && ((currentTransactionBytes + size) > maxTransactionBytes) )
+            {
+                closeTransaction();
+            }
+            currentTransaction.add(item);
+            currentTransactionBytes += size;
+        }
+        pump();
+    }
+
+    private void closeTransaction()
+    {
+        if ( !currentTransaction.isEmpty() )
+        {
+            synchronized(this)
+            {
+                readyTransactions.add(currentTransaction);
+            }
+            currentTransaction = new ArrayList<>();
+            currentTransactionBytes = 0;
+        }
+    }
+
+    private void pump()
+    {
+        List<List<Item>> transactions = new ArrayList<>();
+        boolean complete;
+        synchronized(this)
+        {
+            while ( (transactionsInFlight < maxTransactionsInFlight) && !readyTransactions.isEmpty() )
+            {
+                transactions.add(readyTransactions.poll());
+                ++transactionsInFlight;
+            }
+            complete = packingComplete && (transactionsInFlight == 0) && readyTransactions.isEmpty();
+        }
+
+        transactions.forEach(this::write);
+        if ( complete )
+        {
+            Map<ZPath, AsyncResult<String>> orderedResults = new LinkedHashMap<>();
+            paths.forEach(path -> orderedResults.put(path, results.get(path)));
+            stage.complete(Collections.unmodifiableMap(orderedResults));
+        }
+    }
+
+    private void write(List<Item> transaction)
+    {
+        try
+        {
+            List<CuratorOp> operations = transaction.stream().map(item -> modeled.createOp(item.path.fullPath(), item.bytes)).collect(Collectors.toList());
+            modeled.inTransaction(operations).whenComplete((transactionResults, e) -> {
+                if ( e != null )
+                {
+                    writeIndividually(transaction);
+                }
+                else
+                {
+                    for ( int i = 0; i < transaction.size(); ++i )
+                    {
+                        CuratorTransactionResult transactionResult = transactionResults.get(i);
+                        results.put(transaction.get(i).path, new AsyncResultImpl<>(transactionResult.getResultPath()));
+                    }
+                    transactionComplete();
+                }
+            });
+        }
+        catch ( Exception e )
+        {
+            writeIndividually(transaction);
+        }
+    }
+
+    private void writeIndividually(List<Item> transaction)
+    {
+        AtomicInteger remaining = new AtomicInteger(transaction.size());
+        for ( Item item : transaction )
+        {
+            modeled.set(item.path.fullPath(), item.bytes, null, -1).whenComplete((path, e) -> {
+                results.put(item.path, (e != null) ? toResult(e) : new AsyncResultImpl<>(path));
+                if ( remaining.decrementAndGet() == 0 )
+                {
+                    transactionComplete();
+                }
+            });
+        }
+    }
+
+    private void transactionComplete()
+    {
+        synchronized(this)
+        {
+            --transactionsInFlight;
+        }
+        pump();
+    }
+
+    private static AsyncResult<String> toResult(Throwable e)
+    {
+        Throwable cause = Throwables.getRootCause(e);
+        if ( cause instanceof KeeperException )
+        {
+            return new AsyncResultImpl<>(((KeeperException)cause).code());
+        }
+        return new AsyncResultImpl<>(e);
+    }
+}
@@ -22,6 +22,7 @@ import org.apache.curator.framework.api.transaction.CuratorOp;
 import org.apache.curator.framework.api.transaction.CuratorTransactionResult;
 import org.apache.curator.framework.listen.Listenable;
 import org.apache.curator.x.async.AsyncCuratorFramework;
+import org.apache.curator.x.async.AsyncResult;
 import org.apache.curator.x.async.AsyncStage;
 import org.apache.curator.x.async.modeled.ModelSpec;
 import org.apache.curator.x.async.modeled.ModeledFramework;
@@ -48,17 +49,19 @@ class CachedModeledFrameworkImpl<T> implements CachedModeledFramework<T>
     private final ModeledFramework<T> client;
     private final ModeledCacheImpl<T> cache;
     private final Executor executor;
+    private final VersionedUpdater<T> versionedUpdater;
 
-    CachedModeledFrameworkImpl(ModeledFramework<T> client, ExecutorService executor)
+    CachedModeledFrameworkImpl(ModeledFramework<T> client, ExecutorService executor, boolean lazyDeserialization)
     {
-        this(client, new ModeledCacheImpl<>(client.unwrap().unwrap(), client.modelSpec(), executor), executor);
+        this(client, new ModeledCacheImpl<>(client.unwrap().unwrap(), client.modelSpec(), executor, lazyDeserialization), executor, new VersionedUpdater<>());
     }
 
-    private CachedModeledFrameworkImpl(ModeledFramework<T> client, ModeledCacheImpl<T> cache, Executor executor)
+    private CachedModeledFrameworkImpl(ModeledFramework<T> client, ModeledCacheImpl<T> cache, Executor executor, VersionedUpdater<T> versionedUpdater)
     {
         this.client = client;
         this.cache = cache;
         this.executor = executor;
+        this.versionedUpdater = versionedUpdater;
     }
 
     @Override
@@ -100,7 +103,8 @@ class CachedModeledFrameworkImpl<T> implements CachedModeledFramework<T>
     @Override
     public VersionedModeledFramework<T> versioned()
     {
-        return new VersionedModeledFrameworkImpl<>(this);
+        // read-modify-write must see the current version so updates bypass the cache
+        return new VersionedModeledFrameworkImpl<>(this, client, versionedUpdater);
     }
 
     @Override
@@ -118,7 +122,7 @@ class CachedModeledFrameworkImpl<T> implements CachedModeledFramework<T>
     @Override
     public CachedModeledFramework<T> child(Object child)
     {
-        return new CachedModeledFrameworkImpl<>(client.child(child), cache, executor);
+        return new CachedModeledFrameworkImpl<>(client.child(child), cache, executor, versionedUpdater);
     }
 
     @Override
@@ -130,7 +134,7 @@ class CachedModeledFrameworkImpl<T> implements CachedModeledFramework<T>
     @Override
     public CachedModeledFramework<T> withPath(ZPath path)
     {
-        return new CachedModeledFrameworkImpl<>(client.withPath(path), cache, executor);
+        return new CachedModeledFrameworkImpl<>(client.withPath(path), cache, executor, versionedUpdater);
     }
 
     @Override
@@ -178,7 +182,7 @@ class CachedModeledFrameworkImpl<T> implements CachedModeledFramework<T>
     @Override
     public AsyncStage<ZNode<T>> readAsZNode()
     {
-        return internalRead(Function.identity(), this::exceptionally);
+        return internalRead(CachedModeledFrameworkImpl::resolved, this::exceptionally);
     }
 
     @Override
@@ -196,18 +200,25 @@ class CachedModeledFrameworkImpl<T> implements CachedModeledFramework<T>
     @Override
     public AsyncStage<ZNode<T>> readThroughAsZNode()
     {
-        return internalRead(Function.identity(), client::readAsZNode);
+        return internalRead(CachedModeledFrameworkImpl::resolved, client::readAsZNode);
     }
 
     @Override
     public AsyncStage<List<T>> list()
     {
-        List<T> children = cache.currentChildren()
-            .values()
-            .stream()
-            .map(ZNode::model)
-            .collect(Collectors.toList());
-        return ModelStage.completed(children);
+        try
+        {
+            List<T> children = cache.currentChildren()
+                .values()
+                .stream()
+                .map(ZNode::model)
+                .collect(Collectors.toList());
+            return ModelStage.completed(children);
+        }
+        catch ( RuntimeException e )
+        {
+            return ModelStage.exceptionally(e);    // a model that failed lazy deserialization
+        }
     }
 
     @Override
@@ -245,10 +256,9 @@ class CachedModeledFrameworkImpl<T> implements CachedModeledFramework<T>
     @Override
     public AsyncStage<List<ZPath>> children()
     {
-        List<ZPath> paths = cache.currentChildren(client.modelSpec().path())
-            .keySet()
+        List<ZPath> paths = cache.currentImmediateChildren(client.modelSpec().path())
             .stream()
-            .filter(path -> !path.isRoot() && path.parent().equals(client.modelSpec().path()))
+            .map(ZNode::path)
             .collect(Collectors.toList());
         return completed(paths);
     }
@@ -256,12 +266,15 @@ class CachedModeledFrameworkImpl<T> implements CachedModeledFramework<T>
     @Override
     public AsyncStage<List<ZNode<T>>> childrenAsZNodes()
     {
-        List<ZNode<T>> nodes = cache.currentChildren(client.modelSpec().path())
-            .entrySet()
-            .stream()
-            .filter(e -> !e.getKey().isRoot() && e.getKey().parent().equals(client.modelSpec().path()))
-            .map(Map.Entry::getValue)
-            .collect(Collectors.toList());
+        List<ZNode<T>> nodes = cache.currentImmediateChildren(client.modelSpec().path());
+        try
+        {
+            nodes.forEach(ZNode::model);    // surface lazy deserialization failures here rather than in the caller
+        }
+        catch ( RuntimeException e )
+        {
+            return ModelStage.exceptionally(e);
+        }
         return completed(nodes);
     }
 
@@ -313,6 +326,18 @@ class CachedModeledFrameworkImpl<T> implements CachedModeledFramework<T>
         return client.inTransaction(operations);
     }
 
+    @Override
+    public AsyncStage<Map<ZPath, AsyncResult<String>>> setAll(Map<ZPath, T> models)
+    {
+        return client.setAll(models);
+    }
+
+    @Override
+    public AsyncStage<Map<ZPath, AsyncResult<String>>> setAll(Map<ZPath, T> models, int maxTransactionBytes, int maxTransactionsInFlight, Executor serializationExecutor)
+    {
+        return client.setAll(models, maxTransactionBytes, maxTransactionsInFlight, serializationExecutor);
+    }
+
     private <U> AsyncStage<U> completed(U value)
     {
         return ModelStage.completed(value);
@@ -324,11 +349,28 @@ class CachedModeledFrameworkImpl<T> implements CachedModeledFramework<T>
         return ModelStage.exceptionally(exception);
     }
 
+    // with lazy deserialization, makes a model that can't be deserialized fail the read rather than the caller's model() call
+    private static <U> ZNode<U> resolved(ZNode<U> node)
+    {
+        node.model();
+        return node;
+    }
+
     private <U> AsyncStage<U> internalRead(Function<ZNode<T>, U> resolver, Supplier<AsyncStage<U>> elseProc)
     {
         ZPath path = client.modelSpec().path();
         Optional<ZNode<T>> data = cache.currentData(path);
-        return data.map(node -> completed(resolver.apply(node)))
-            .orElseGet(elseProc);
+        if ( !data.isPresent() )
+        {
+            return elseProc.get();
+        }
+        try
+        {
+            return completed(resolver.apply(data.get()));
+        }
+        catch ( RuntimeException e )
+        {
+            return ModelStage.exceptionally(e);    // e.g. lazy deserialization failed
+        }
     }
 }
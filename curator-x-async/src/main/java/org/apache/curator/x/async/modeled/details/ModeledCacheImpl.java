@@ -37,36 +37,123 @@ import org.apache.curator.x.async.modeled.ZPath;
 import org.apache.curator.x.async.modeled.cached.ModeledCache;
 import org.apache.curator.x.async.modeled.cached.ModeledCacheListener;
 import org.apache.zookeeper.data.Stat;
-import java.util.AbstractMap;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 class ModeledCacheImpl<T> implements TreeCacheListener, ModeledCache<T>
 {
     private final CuratorCacheBridge cache;
-    private final Map<ZPath, Entry<T>> entries = new ConcurrentHashMap<>();
+    private final Map<ZPath, ZNode<T>> entries = new ConcurrentHashMap<>();
+    private final Map<ZPath, Set<ZPath>> childIndex = new ConcurrentHashMap<>();   // parent -> children that are, or are ancestors of, entries. Mutations guarded by childIndex
     private final ModelSerializer<T> serializer;
     private final StandardListenerManager<ModeledCacheListener<T>> listenerContainer = StandardListenerManager.standard();
     private final ZPath basePath;
     private final EnsureContainers ensureContainers;
+    private final boolean lazyDeserialization;
 
-    private static final class Entry<T>
+    /**
+     * The model of a node version, deserialized on first access. Shared by the ZNodes of
+     * the same version so that each version is deserialized at most once. A failure is also
+     * remembered (and reported to the failure handler once) - every access rethrows it.
+     */
+    private static final class LazyModel<T>
     {
-        final Stat stat;
-        final T model;
+        private final byte[] bytes;
+        private final ModelSerializer<T> serializer;
+        private final Consumer<Exception> failureHandler;
+        private volatile T model;
+        private volatile RuntimeException failure;
 
-        Entry(Stat stat, T model)
+        LazyModel(byte[] bytes, ModelSerializer<T> serializer, Consumer<Exception> failureHandler)
         {
+            this.bytes = bytes;
+            this.serializer = serializer;
+            this.failureHandler = failureHandler;
+        }
+
+        T get()
+        {
+            T localModel = model;
+            if ( localModel == null )
+            {
+                boolean newFailure = false;
+                synchronized(this)
+                {
+                    localModel = model;
+                    if ( (localModel == null) && (failure == null) )
+                    {
+                        try
+                        {
+                            localModel = serializer.deserialize(bytes);
+                            model = localModel;
+                        }
+                        catch ( RuntimeException e )
+                        {
+                            failure = e;
+                            newFailure = true;
+                        }
+                    }
+                }
+                if ( newFailure )
+                {
+                    failureHandler.accept(failure);
+                }
+                if ( failure != null )
+                {
+                    throw failure;
+                }
+            }
+            return localModel;
+        }
+    }
+
+    private static final class LazyZNode<T> implements ZNode<T>
+    {
+        private final ZPath path;
+        private final Stat stat;
+        private final LazyModel<T> model;
+
+        LazyZNode(ZPath path, Stat stat, LazyModel<T> model)
+        {
+            this.path = path;
             this.stat = stat;
             this.model = model;
         }
+
+        @Override
+        public ZPath path()
+        {
+            return path;
+        }
+
+        @Override
+        public Stat stat()
+        {
+            return stat;
+        }
+
+        @Override
+        public T model()
+        {
+            return model.get();
+        }
     }
 
-    ModeledCacheImpl(CuratorFramework client, ModelSpec<T> modelSpec, ExecutorService executor)
+    ModeledCacheImpl(CuratorFramework client, ModelSpec<T> modelSpec, ExecutorService executor, boolean lazyDeserialization)
     {
+        this.lazyDeserialization = lazyDeserialization;
         if ( !modelSpec.path().isResolved() && !modelSpec.path().isRoot() && modelSpec.path().parent().isResolved() )
         {
             modelSpec = modelSpec.parent(); // i.e. the last item is a parameter
@@ -111,18 +198,17 @@ class ModeledCacheImpl<T> implements TreeCacheListener, ModeledCache<T>
     public void close()
     {
         cache.close();
-        entries.clear();
+        synchronized(childIndex)
+        {
+            entries.clear();
+            childIndex.clear();
+        }
     }
 
     @Override
     public Optional<ZNode<T>> currentData(ZPath path)
     {
-        Entry<T> entry = entries.get(path);
-        if ( entry != null )
-        {
-            return Optional.of(new ZNodeImpl<>(path, entry.stat, entry.model));
-        }
-        return Optional.empty();
+        return Optional.ofNullable(entries.get(path));
     }
 
     ZPath basePath()
@@ -138,11 +224,44 @@ class ModeledCacheImpl<T> implements TreeCacheListener, ModeledCache<T>
     @Override
     public Map<ZPath, ZNode<T>> currentChildren(ZPath path)
     {
-        return entries.entrySet()
-            .stream()
-            .filter(entry -> entry.getKey().startsWith(path))
-            .map(entry -> new AbstractMap.SimpleEntry<>(entry.getKey(), new ZNodeImpl<>(entry.getKey(), entry.getValue().stat, entry.getValue().model)))
-            .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+        // walk the index from the given path - work is proportional to the size of the sub-tree
+        Map<ZPath, ZNode<T>> children = new HashMap<>();
+        Deque<ZPath> pending = new ArrayDeque<>();
+        pending.add(path);
+        while ( !pending.isEmpty() )
+        {
+            ZPath current = pending.removeFirst();
+            ZNode<T> node = entries.get(current);
+            if ( node != null )
+            {
+                children.put(current, node);
+            }
+            Set<ZPath> currentChildren = childIndex.get(current);
+            if ( currentChildren != null )
+            {
+                pending.addAll(currentChildren);
+            }
+        }
+        return children;
+    }
+
+    /**
+     * Return the immediate children of the given path that have data (i.e. not the whole sub-tree)
+     *
+     * @param path parent path
+     * @return children
+     */
+    List<ZNode<T>> currentImmediateChildren(ZPath path)
+    {
+        Set<ZPath> children = childIndex.get(path);
+        if ( children == null )
+        {
+            return Collections.emptyList();
+        }
+        return children.stream()
+            .map(entries::get)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toList());
     }
 
     public Listenable<ModeledCacheListener<T>> listenable()
@@ -176,10 +295,27 @@ class ModeledCacheImpl<T> implements TreeCacheListener, ModeledCache<T>
             byte[] bytes = event.getData().getData();
             if ( (bytes != null) && (bytes.length > 0) )    // otherwise it's probably just a parent node being created
             {
-                T model = serializer.deserialize(bytes);
-                entries.put(path, new Entry<>(event.getData().getStat(), model));
-                ModeledCacheListener.Type type = (event.getType() == TreeCacheEvent.Type.NODE_ADDED) ? ModeledCacheListener.Type.NODE_ADDED : ModeledCacheListener.Type.NODE_UPDATED;
-                accept(type, path, event.getData().getStat(), model);
+                Stat stat = event.getData().getStat();
+                ZNode<T> previousNode = entries.get(path);
+                ZNode<T> node = newNode(path, stat, bytes, previousNode);
+                if ( node != previousNode )
+                {
+                    putEntry(path, node);
+                }
+                if ( listenerContainer.size() > 0 )
+                {
+                    T model;
+                    try
+                    {
+                        model = node.model();
+                    }
+                    catch ( RuntimeException e )
+                    {
+                        break;  // lazy deserialization failed - LazyModel has already reported it
+                    }
+                    ModeledCacheListener.Type type = (event.getType() == TreeCacheEvent.Type.NODE_ADDED) ? ModeledCacheListener.Type.NODE_ADDED : ModeledCacheListener.Type.NODE_UPDATED;
+                    accept(type, path, node.stat(), model);
+                }
             }
             break;
         }
@@ -187,10 +323,13 @@ class ModeledCacheImpl<T> implements TreeCacheListener, ModeledCache<T>
         case NODE_REMOVED:
         {
             ZPath path = ZPath.parse(event.getData().getPath());
-            Entry<T> entry = entries.remove(path);
-            T model = (entry != null) ? entry.model : serializer.deserialize(event.getData().getData());
-            Stat stat = (entry != null) ? entry.stat : event.getData().getStat();
-            accept(ModeledCacheListener.Type.NODE_REMOVED, path, stat, model);
+            ZNode<T> node = removeEntry(path);
+            if ( listenerContainer.size() > 0 )
+            {
+                T model = (node != null) ? removedModel(node) : serializer.deserialize(event.getData().getData());
+                Stat stat = (node != null) ? node.stat() : event.getData().getStat();
+                accept(ModeledCacheListener.Type.NODE_REMOVED, path, stat, model);
+            }
             break;
         }
 
@@ -206,6 +345,108 @@ class ModeledCacheImpl<T> implements TreeCacheListener, ModeledCache<T>
         }
     }
 
+    private ZNode<T> newNode(ZPath path, Stat stat, byte[] bytes, ZNode<T> previousNode)
+    {
+        if ( previousNode != null )
+        {
+            if ( previousNode.stat().equals(stat) )
+            {
+                return previousNode;    // nothing changed - reuse the instance
+            }
+
+            // models are memoized by version - a change to only the stat (e.g. a child was added) re-uses the model
+            if ( previousNode instanceof LazyZNode )
+            {
+                LazyModel<T> previousModel = ((LazyZNode<T>)previousNode).model;
+                if ( (previousNode.stat().getMzxid() == stat.getMzxid()) || Arrays.equals(previousModel.bytes, bytes) )
+                {
+                    return new LazyZNode<>(path, stat, previousModel);
+                }
+            }
+            else if ( previousNode.stat().getMzxid() == stat.getMzxid() )
+            {
+                return new ZNodeImpl<>(path, stat, previousNode.model());
+            }
+        }
+
+        if ( lazyDeserialization )
+        {
+            return new LazyZNode<>(path, stat, new LazyModel<>(bytes, serializer, this::notifyException));
+        }
+        return new ZNodeImpl<>(path, stat, serializer.deserialize(bytes));
+    }
+
+    private void putEntry(ZPath path, ZNode<T> node)
+    {
+        synchronized(childIndex)
+        {
+            if ( entries.put(path, node) == null )
+            {
+                // link the path into the index, stopping at the first ancestor that's already linked
+                ZPath current = path;
+                while ( !current.isRoot() )
+                {
+                    ZPath parent = current.parent();
+                    Set<ZPath> children = childIndex.computeIfAbsent(parent, __ -> ConcurrentHashMap.newKeySet());
+                    boolean parentWasLinked = !children.isEmpty() || entries.containsKey(parent);
+                    if ( !children.add(current) || parentWasLinked )
+                    {
+                        break;
+                    }
+                    current = parent;
+                }
+            }
+        }
+    }
+
+    private ZNode<T> removeEntry(ZPath path)
+    {
+        synchronized(childIndex)
+        {
+            ZNode<T> node = entries.remove(path);
+            if ( node != null )
+            {
+                // unlink the path and any ancestors that no longer lead to entries
+                ZPath current = path;
+                while ( !current.isRoot() && !entries.containsKey(current) && !childIndex.containsKey(current) )
+                {
+                    ZPath parent = current.parent();
+                    Set<ZPath> children = childIndex.get(parent);
+                    if ( children == null )
+                    {
+                        break;
+                    }
+                    children.remove(current);
+                    if ( !children.isEmpty() )
+                    {
+                        break;
+                    }
+                    childIndex.remove(parent);
+                    current = parent;
+                }
+            }
+            return node;
+        }
+    }
+
+    // a node whose lazy deserialization failed (already reported by LazyModel) is reported removed with a null model
+    private T removedModel(ZNode<T> node)
+    {
+        try
+        {
+            return node.model();
+        }
+        catch ( RuntimeException e )
+        {
+            return null;
+        }
+    }
+
+    private void notifyException(Exception e)
+    {
+        listenerContainer.forEach(l -> l.handleException(e));
+    }
+
     private void accept(ModeledCacheListener.Type type, ZPath path, Stat stat, T model)
     {
         listenerContainer.forEach(l -> l.accept(type, path, stat, model));
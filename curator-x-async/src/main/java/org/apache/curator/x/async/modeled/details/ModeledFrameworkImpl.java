@@ -28,6 +28,7 @@ import org.apache.curator.framework.api.transaction.CuratorOp;
 import org.apache.curator.framework.api.transaction.CuratorTransactionResult;
 import org.apache.curator.utils.ThreadUtils;
 import org.apache.curator.x.async.AsyncCuratorFramework;
+import org.apache.curator.x.async.AsyncResult;
 import org.apache.curator.x.async.AsyncStage;
 import org.apache.curator.x.async.WatchMode;
 import org.apache.curator.x.async.api.AsyncCuratorFrameworkDsl;
@@ -49,9 +50,12 @@ import org.apache.zookeeper.data.ACL;
 import org.apache.zookeeper.data.Stat;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Function;
 import java.util.function.UnaryOperator;
 import java.util.stream.Collectors;
@@ -68,6 +72,7 @@ public class ModeledFrameworkImpl<T> implements ModeledFramework<T>
     private final AsyncCuratorFrameworkDsl dslClient;
     private final boolean isWatched;
     private final Set<ModeledOptions> modeledOptions;
+    private final VersionedUpdater<T> versionedUpdater;
 
     public static <T> ModeledFrameworkImpl<T> build(AsyncCuratorFramework client, ModelSpec<T> model, WatchMode watchMode, UnaryOperator<WatchedEvent> watcherFilter, UnhandledErrorListener unhandledErrorListener, UnaryOperator<CuratorEvent> resultFilter, Set<ModeledOptions> modeledOptions)
     {
@@ -92,11 +97,12 @@ public class ModeledFrameworkImpl<T> implements ModeledFramework<T>
             unhandledErrorListener,
             resultFilter,
             isWatched,
-            modeledOptions
+            modeledOptions,
+            new VersionedUpdater<>()
         );
     }
 
-    private ModeledFrameworkImpl(AsyncCuratorFramework client, AsyncCuratorFrameworkDsl dslClient, WatchableAsyncCuratorFramework watchableClient, ModelSpec<T> modelSpec, WatchMode watchMode, UnaryOperator<WatchedEvent> watcherFilter, UnhandledErrorListener unhandledErrorListener, UnaryOperator<CuratorEvent> resultFilter, boolean isWatched, Set<ModeledOptions> modeledOptions)
+    private ModeledFrameworkImpl(AsyncCuratorFramework client, AsyncCuratorFrameworkDsl dslClient, WatchableAsyncCuratorFramework watchableClient, ModelSpec<T> modelSpec, WatchMode watchMode, UnaryOperator<WatchedEvent> watcherFilter, UnhandledErrorListener unhandledErrorListener, UnaryOperator<CuratorEvent> resultFilter, boolean isWatched, Set<ModeledOptions> modeledOptions, VersionedUpdater<T> versionedUpdater)
     {
         this.client = client;
         this.dslClient = dslClient;
@@ -108,6 +114,7 @@ public class ModeledFrameworkImpl<T> implements ModeledFramework<T>
         this.resultFilter = resultFilter;
         this.isWatched = isWatched;
         this.modeledOptions = modeledOptions;
+        this.versionedUpdater = versionedUpdater;
     }
 
     @Override
@@ -120,13 +127,13 @@ public class ModeledFrameworkImpl<T> implements ModeledFramework<T>
     public CachedModeledFramework<T> cached(ExecutorService executor)
     {
         Preconditions.checkState(!isWatched, "CachedModeledFramework cannot be used with watched instances as the internal cache would bypass the watchers.");
-        return new CachedModeledFrameworkImpl<>(this, Objects.requireNonNull(executor, "executor cannot be null"));
+        return new CachedModeledFrameworkImpl<>(this, Objects.requireNonNull(executor, "executor cannot be null"), modeledOptions.contains(ModeledOptions.lazyCacheDeserialization));
     }
 
     @Override
     public VersionedModeledFramework<T> versioned()
     {
-        return new VersionedModeledFrameworkImpl<>(this);
+        return new VersionedModeledFrameworkImpl<>(this, this, versionedUpdater);
     }
 
     @Override
@@ -165,9 +172,7 @@ public class ModeledFrameworkImpl<T> implements ModeledFramework<T>
         try
         {
             byte[] bytes = modelSpec.serializer().serialize(item);
-            return dslClient.create()
-                .withOptions(modelSpec.createOptions(), modelSpec.createMode(), fixAclList(modelSpec.aclList()), storingStatIn, modelSpec.ttl(), version)
-                .forPath(resolveForSet(item), bytes);
+            return set(resolveForSet(item), bytes, storingStatIn, version);
         }
         catch ( Exception e )
         {
@@ -175,6 +180,13 @@ public class ModeledFrameworkImpl<T> implements ModeledFramework<T>
         }
     }
 
+    AsyncStage<String> set(String path, byte[] bytes, Stat storingStatIn, int version)
+    {
+        return dslClient.create()
+            .withOptions(modelSpec.createOptions(), modelSpec.createMode(), fixAclList(modelSpec.aclList()), storingStatIn, modelSpec.ttl(), version)
+            .forPath(path, bytes);
+    }
+
     @Override
     public AsyncStage<T> read()
     {
@@ -320,7 +332,8 @@ public class ModeledFrameworkImpl<T> implements ModeledFramework<T>
             unhandledErrorListener,
             resultFilter,
             isWatched,
-            modeledOptions
+            modeledOptions,
+            versionedUpdater
         );
     }
 
@@ -338,7 +351,8 @@ public class ModeledFrameworkImpl<T> implements ModeledFramework<T>
             unhandledErrorListener,
             resultFilter,
             isWatched,
-            modeledOptions
+            modeledOptions,
+            versionedUpdater
         );
     }
 
@@ -356,7 +370,8 @@ public class ModeledFrameworkImpl<T> implements ModeledFramework<T>
             unhandledErrorListener,
             resultFilter,
             isWatched,
-            modeledOptions
+            modeledOptions,
+            versionedUpdater
         );
     }
 
@@ -367,11 +382,16 @@ public class ModeledFrameworkImpl<T> implements ModeledFramework<T>
 
     @Override
     public CuratorOp createOp(T model)
+    {
+        return createOp(resolveForSet(model), modelSpec.serializer().serialize(model));
+    }
+
+    CuratorOp createOp(String path, byte[] bytes)
     {
         return client.transactionOp()
             .create()
             .withOptions(modelSpec.createMode(), fixAclList(modelSpec.aclList()), modelSpec.createOptions().contains(CreateOption.compress), modelSpec.ttl())
-            .forPath(resolveForSet(model), modelSpec.serializer().serialize(model));
+            .forPath(path, bytes);
     }
 
     @Override
@@ -421,6 +441,18 @@ public class ModeledFrameworkImpl<T> implements ModeledFramework<T>
         return client.transaction().forOperations(operations);
     }
 
+    @Override
+    public AsyncStage<Map<ZPath, AsyncResult<String>>> setAll(Map<ZPath, T> models)
+    {
+        return setAll(models, BulkSetter.DEFAULT_MAX_TRANSACTION_BYTES, BulkSetter.DEFAULT_MAX_TRANSACTIONS_IN_FLIGHT, ForkJoinPool.commonPool());
+    }
+
+    @Override
+    public AsyncStage<Map<ZPath, AsyncResult<String>>> setAll(Map<ZPath, T> models, int maxTransactionBytes, int maxTransactionsInFlight, Executor serializationExecutor)
+    {
+        return new BulkSetter<>(this, maxTransactionBytes, maxTransactionsInFlight, serializationExecutor).setAll(models);
+    }
+
     private boolean isCompressed()
     {
         return modelSpec.createOptions().contains(CreateOption.compress);
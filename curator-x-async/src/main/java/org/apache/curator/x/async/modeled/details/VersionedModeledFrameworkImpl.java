@@ -21,17 +21,23 @@ package org.apache.curator.x.async.modeled.details;
 import org.apache.curator.framework.api.transaction.CuratorOp;
 import org.apache.curator.x.async.AsyncStage;
 import org.apache.curator.x.async.modeled.ModeledFramework;
+import org.apache.curator.x.async.modeled.versioned.UpdatePolicy;
 import org.apache.curator.x.async.modeled.versioned.Versioned;
 import org.apache.curator.x.async.modeled.versioned.VersionedModeledFramework;
 import org.apache.zookeeper.data.Stat;
+import java.util.function.UnaryOperator;
 
 class VersionedModeledFrameworkImpl<T> implements VersionedModeledFramework<T>
 {
     private final ModeledFramework<T> client;
+    private final ModeledFramework<T> updateClient;
+    private final VersionedUpdater<T> updater;
 
-    VersionedModeledFrameworkImpl(ModeledFramework<T> client)
+    VersionedModeledFrameworkImpl(ModeledFramework<T> client, ModeledFramework<T> updateClient, VersionedUpdater<T> updater)
     {
         this.client = client;
+        this.updateClient = updateClient;
+        this.updater = updater;
     }
 
     @Override
@@ -82,4 +88,16 @@ class VersionedModeledFrameworkImpl<T> implements VersionedModeledFramework<T>
     {
         return client.updateOp(model.model(), model.version());
     }
+
+    @Override
+    public AsyncStage<Versioned<T>> update(UnaryOperator<T> updater)
+    {
+        return update(updater, UpdatePolicy.DEFAULT);
+    }
+
+    @Override
+    public AsyncStage<Versioned<T>> update(UnaryOperator<T> updater, UpdatePolicy policy)
+    {
+        return this.updater.update(updateClient, updater, policy);
+    }
 }
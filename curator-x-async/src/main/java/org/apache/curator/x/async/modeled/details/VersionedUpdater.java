@@ -0,0 +1,197 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.curator.x.async.modeled.details;
+
+import com.google.common.base.Throwables;
+import org.apache.curator.utils.ThreadUtils;
+import org.apache.curator.x.async.AsyncStage;
+import org.apache.curator.x.async.modeled.ModeledFramework;
+import org.apache.curator.x.async.modeled.versioned.UpdatePolicy;
+import org.apache.curator.x.async.modeled.versioned.Versioned;
+import org.apache.zookeeper.KeeperException;
+import org.apache.zookeeper.data.Stat;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.UnaryOperator;
+
+/**
+ * Read-modify-write loop for versioned updates. Each attempt reads the node, applies the update
+ * operators and writes the result conditioned on the version that was read. Version conflicts are retried after
+ * a jittered exponential backoff. When local combining is enabled, updates to a path that arrive while a write to
+ * that path is in flight are queued and applied together in the next write (or folded into the retry of the
+ * current one) so that N local writers cost one versioned write instead of N competing ones.
+ */
+class VersionedUpdater<T>
+{
+    // key is the full path - presence means a write to the path is in flight, value is the queue of waiting updates
+    private final Map<String, List<Entry<T>>> pending = new HashMap<>();
+
+    private static class BackoffExecutorHolder
+    {
+        private static final ScheduledExecutorService executor = ThreadUtils.newSingleThreadScheduledExecutor("VersionedUpdater");
+    }
+
+    private static class Entry<T>
+    {
+        private final ModeledFramework<T> client;
+        private final UnaryOperator<T> operator;
+        private final UpdatePolicy policy;
+        private final ModelStage<Versioned<T>> stage = ModelStage.make();
+
+        private Entry(ModeledFramework<T> client, UnaryOperator<T> operator, UpdatePolicy policy)
+        {
+            this.client = client;
+            this.operator = operator;
+            this.policy = policy;
+        }
+    }
+
+    AsyncStage<Versioned<T>> update(ModeledFramework<T> client, UnaryOperator<T> operator, UpdatePolicy policy)
+    {
+        Objects.requireNonNull(operator, "operator cannot be null");
+        Objects.requireNonNull(policy, "policy cannot be null");
+
+        Entry<T> entry = new Entry<>(client, operator, policy);
+        List<Entry<T>> batch = new ArrayList<>();
+        batch.add(entry);
+        if ( !policy.combineLocalUpdates() )
+        {
+            attempt(null, batch, 0);
+            return entry.stage;
+        }
+
+        String path = client.modelSpec().path().fullPath();
+        synchronized(pending)
+        {
+            List<Entry<T>> waiting = pending.get(path);
+            if ( waiting != null )
+            {
+                waiting.add(entry);
+                return entry.stage;
+            }
+            pending.put(path, new ArrayList<>());
+        }
+        attempt(path, batch, 0);
+        return entry.stage;
+    }
+
+    private void attempt(String combiningPath, List<Entry<T>> batch, int retryCount)
+    {
+        // the first entry's client and policy speak for the batch
+        Entry<T> first = batch.get(0);
+        Stat stat = new Stat();
+        first.client.read(stat).whenComplete((model, e) -> {
+            if ( e != null )
+            {
+                failed(combiningPath, batch, e);
+                return;
+            }
+
+            T newModel = model;
+            List<Entry<T>> applied = new ArrayList<>(batch.size());
+            for ( Entry<T> entry : batch )
+            {
+                try
+                {
+                    newModel = Objects.requireNonNull(entry.operator.apply(newModel), "operator cannot return null");
+                    applied.add(entry);
+                }
+                catch ( RuntimeException operatorException )
+                {
+                    // only the failing update is dropped - the others still get written
+                    entry.stage.completeExceptionally(operatorException);
+                }
+            }
+            if ( applied.isEmpty() )
+            {
+                finished(combiningPath);
+                return;
+            }
+
+            T writtenModel = newModel;
+            applied.get(0).client.update(writtenModel, stat.getVersion()).whenComplete((newStat, updateException) -> {
+                if ( updateException == null )
+                {
+                    Versioned<T> result = Versioned.from(writtenModel, newStat.getVersion());
+                    applied.forEach(entry -> entry.stage.complete(result));
+                    finished(combiningPath);
+                }
+                else if ( (Throwables.getRootCause(updateException) instanceof KeeperException.BadVersionException) && (retryCount < applied.get(0).policy.getMaxRetries()) )
+                {
+                    long sleepMs = applied.get(0).policy.getSleepTimeMs(retryCount);
+                    BackoffExecutorHolder.executor.schedule(() -> attempt(combiningPath, absorbWaiting(combiningPath, applied), retryCount + 1), sleepMs, TimeUnit.MILLISECONDS);
+                }
+                else
+                {
+                    failed(combiningPath, applied, updateException);
+                }
+            });
+        });
+    }
+
+    private List<Entry<T>> absorbWaiting(String combiningPath, List<Entry<T>> batch)
+    {
+        // a retry has to re-read anyway so anything queued in the meantime rides along for free
+        if ( combiningPath != null )
+        {
+            synchronized(pending)
+            {
+                List<Entry<T>> waiting = pending.get(combiningPath);
+                if ( !waiting.isEmpty() )
+                {
+                    batch.addAll(waiting);
+                    pending.put(combiningPath, new ArrayList<>());
+                }
+            }
+        }
+        return batch;
+    }
+
+    private void failed(String combiningPath, List<Entry<T>> batch, Throwable e)
+    {
+        batch.forEach(entry -> entry.stage.completeExceptionally(e));
+        finished(combiningPath);
+    }
+
+    private void finished(String combiningPath)
+    {
+        if ( combiningPath == null )
+        {
+            return;
+        }
+
+        List<Entry<T>> next;
+        synchronized(pending)
+        {
+            next = pending.get(combiningPath);
+            if ( next.isEmpty() )
+            {
+                pending.remove(combiningPath);
+                return;
+            }
+            pending.put(combiningPath, new ArrayList<>());
+        }
+        attempt(combiningPath, next, 0);
+    }
+}
@@ -18,31 +18,40 @@
  */
 package org.apache.curator.x.async.modeled.details;
 
-import com.google.common.base.Splitter;
-import com.google.common.collect.ImmutableList;
+import com.google.common.collect.MapMaker;
 import org.apache.curator.x.async.modeled.NodeName;
 import org.apache.curator.x.async.modeled.ZPath;
 import org.apache.zookeeper.common.PathUtils;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentMap;
 import java.util.function.UnaryOperator;
 import java.util.regex.Pattern;
-import java.util.stream.Collectors;
 
 import static org.apache.curator.utils.ZKPaths.PATH_SEPARATOR;
 
+/**
+ * ZPaths are interned in a trie rooted at {@link #root}. Each instance points to its parent
+ * and holds weak references to its children, so equal paths that are alive at the same time are
+ * the same instance, common prefixes are shared, and creating a child or resolving a parameterized
+ * path is mostly a map lookup. Paths are removed from the trie once nothing references them.
+ */
 public class ZPathImpl implements ZPath
 {
-    public static final ZPath root = new ZPathImpl(Collections.singletonList(PATH_SEPARATOR), null);
+    public static final ZPath root = new ZPathImpl(null, PATH_SEPARATOR);
 
-    private final List<String> nodes;
+    private final ZPathImpl parent;
+    private final String name;
+    private final int depth;
+    private final int hashCode;
     private final boolean isResolved;
+    private final ZPathImpl resolvedPrefix;    // the longest ancestor (or this) that has no parameters
+    private volatile ConcurrentMap<String, ZPathImpl> children = null;
     private volatile String fullPath = null;
-    private volatile ZPath parent = null;
+    private volatile String[] unresolvedNames = null;
     private volatile Pattern schema = null;
 
     public static ZPath parse(String fullPath, UnaryOperator<String> nameFilter)
@@ -52,19 +61,23 @@ public class ZPathImpl implements ZPath
 
     private static ZPathImpl parseInternal(String fullPath, UnaryOperator<String> nameFilter)
     {
-        List<String> nodes = ImmutableList.<String>builder()
-            .add(PATH_SEPARATOR)
-            .addAll(
-                Splitter.on(PATH_SEPARATOR)
-                    .omitEmptyStrings()
-                    .splitToList(fullPath)
-                    .stream()
-                    .map(nameFilter)
-                    .collect(Collectors.toList())
-             )
-            .build();
-        nodes.forEach(ZPathImpl::validate);
-        return new ZPathImpl(nodes, null);
+        ZPathImpl path = (ZPathImpl)root;
+        int length = fullPath.length();
+        int start = 0;
+        while ( start < length )
+        {
+            int end = fullPath.indexOf(PATH_SEPARATOR, start);
+            if ( end < 0 )
+            {
+                end = length;
+            }
+            if ( end > start )
+            {
+                path = path.childInternal(nameFilter.apply(fullPath.substring(start, end)));
+            }
+            start = end + 1;
+        }
+        return path;
     }
 
     public static ZPath from(String[] names)
@@ -85,48 +98,39 @@ public class ZPathImpl implements ZPath
     public static ZPath from(ZPath base, List<String> names)
     {
         names = Objects.requireNonNull(names, "names cannot be null");
-        names.forEach(ZPathImpl::validate);
-        ImmutableList.Builder<String> builder = ImmutableList.builder();
+        ZPathImpl path;
         if ( base != null )
         {
-            if ( base instanceof ZPathImpl )
-            {
-                builder.addAll(((ZPathImpl)base).nodes);
-            }
-            else
-            {
-                builder.addAll(Splitter.on(PATH_SEPARATOR).omitEmptyStrings().splitToList(base.fullPath()));
-            }
+            path = (base instanceof ZPathImpl) ? (ZPathImpl)base : parseInternal(base.fullPath(), s -> s);
         }
         else
         {
-            builder.add(PATH_SEPARATOR);
+            path = (ZPathImpl)root;
+        }
+        for ( String name : names )
+        {
+            path = path.childInternal(name);
         }
-        List<String> nodes = builder.addAll(names).build();
-        return new ZPathImpl(nodes, null);
+        return path;
     }
 
     @Override
     public ZPath child(Object child)
     {
-        return new ZPathImpl(nodes, NodeName.nameFrom(child));
+        return childInternal(NodeName.nameFrom(child));
     }
 
     @Override
     public ZPath parent()
     {
         checkRootAccess();
-        if ( parent == null )
-        {
-            parent = new ZPathImpl(nodes.subList(0, nodes.size() - 1), null);
-        }
         return parent;
     }
 
     @Override
     public boolean isRoot()
     {
-        return nodes.size() == 1;
+        return parent == null;
     }
 
     @Override
@@ -141,7 +145,16 @@ public class ZPathImpl implements ZPath
         {
             rhs = parseInternal(path.fullPath(), s -> s);
         }
-        return (nodes.size() >= rhs.nodes.size()) && nodes.subList(0, rhs.nodes.size()).equals(rhs.nodes);
+        if ( depth < rhs.depth )
+        {
+            return false;
+        }
+        ZPathImpl ancestor = this;
+        while ( ancestor.depth > rhs.depth )
+        {
+            ancestor = ancestor.parent;
+        }
+        return ancestor.equals(rhs);
     }
 
     @Override
@@ -158,17 +171,30 @@ public class ZPathImpl implements ZPath
     public String fullPath()
     {
         checkResolved();
-        if ( fullPath == null )
+        String localFullPath = fullPath;
+        if ( localFullPath == null )
         {
-            fullPath = buildFullPath(s -> s);
+            if ( isRoot() )
+            {
+                localFullPath = PATH_SEPARATOR;
+            }
+            else if ( parent.isRoot() )
+            {
+                localFullPath = PATH_SEPARATOR + name;
+            }
+            else
+            {
+                localFullPath = parent.fullPath() + PATH_SEPARATOR + name;
+            }
+            fullPath = localFullPath;
         }
-        return fullPath;
+        return localFullPath;
     }
 
     @Override
     public String nodeName()
     {
-        return nodes.get(nodes.size() - 1);
+        return name;
     }
 
     @Override
@@ -183,39 +209,48 @@ public class ZPathImpl implements ZPath
             return false;
         }
 
-        ZPathImpl zPaths = (ZPathImpl)o;
-
-        return nodes.equals(zPaths.nodes);
+        // interned paths are normally identical - this handles instances that
+        // were created concurrently before one of them won the intern race
+        ZPathImpl zPath = (ZPathImpl)o;
+        return (hashCode == zPath.hashCode) && (depth == zPath.depth) && name.equals(zPath.name) && Objects.equals(parent, zPath.parent);
     }
 
     @Override
     public int hashCode()
     {
-        return nodes.hashCode();
+        return hashCode;
     }
 
     @Override
     public String toString()
     {
-        return nodes.subList(1, nodes.size())
-            .stream().map(name -> isParameter(name) ? name.substring(1) : name)
-            .collect(Collectors.joining(PATH_SEPARATOR, PATH_SEPARATOR, ""));
+        if ( isRoot() )
+        {
+            return PATH_SEPARATOR;
+        }
+        return buildFullPath(name -> isParameter(name) ? name.substring(1) : name);
     }
 
     @Override
     public ZPath resolved(List<Object> parameters)
     {
+        if ( isResolved )
+        {
+            return this;
+        }
+
+        // the resolved prefix is shared - only the names after it need to be looked up
         Iterator<Object> iterator = parameters.iterator();
-        List<String> nodeNames = nodes.stream()
-            .map(name -> {
-                if ( isParameter(name) && iterator.hasNext() )
-                {
-                    return NodeName.nameFrom(iterator.next());
-                }
-                return name;
-            })
-            .collect(Collectors.toList());
-        return new ZPathImpl(nodeNames, null);
+        ZPathImpl path = resolvedPrefix;
+        for ( String name : getUnresolvedNames() )
+        {
+            if ( isParameter(name) && iterator.hasNext() )
+            {
+                name = NodeName.nameFrom(iterator.next());
+            }
+            path = path.childInternal(name);
+        }
+        return path;
     }
 
     @Override
@@ -229,16 +264,71 @@ public class ZPathImpl implements ZPath
         return (name.length() > 1) && name.startsWith(PATH_SEPARATOR);
     }
 
-    private ZPathImpl(List<String> nodes, String child)
+    private ZPathImpl(ZPathImpl parent, String name)
     {
-        ImmutableList.Builder<String> builder = ImmutableList.<String>builder().addAll(nodes);
-        if ( child != null )
+        this.parent = parent;
+        this.name = name;
+        if ( parent == null )
+        {
+            depth = 0;
+            hashCode = 31 + name.hashCode();
+            isResolved = true;
+            resolvedPrefix = this;
+        }
+        else
+        {
+            depth = parent.depth + 1;
+            hashCode = (31 * parent.hashCode) + name.hashCode();    // same as the List<String> hash of the node names
+            isResolved = parent.isResolved && !isParameter(name);
+            resolvedPrefix = isResolved ? this : parent.resolvedPrefix;
+        }
+    }
+
+    private ZPathImpl childInternal(String child)
+    {
+        ConcurrentMap<String, ZPathImpl> localChildren = children;
+        if ( localChildren == null )
+        {
+            synchronized(this)
+            {
+                localChildren = children;
+                if ( localChildren == null )
+                {
+                    localChildren = new MapMaker().weakValues().makeMap();
+                    children = localChildren;
+                }
+            }
+        }
+
+        ZPathImpl path = localChildren.get(Objects.requireNonNull(child, "child cannot be null"));
+        if ( path == null )
         {
             validate(child);
-            builder.add(child);
+            ZPathImpl newPath = new ZPathImpl(this, child);
+            path = localChildren.putIfAbsent(child, newPath);
+            if ( path == null )
+            {
+                path = newPath;
+            }
+        }
+        return path;
+    }
+
+    private String[] getUnresolvedNames()
+    {
+        String[] localUnresolvedNames = unresolvedNames;
+        if ( localUnresolvedNames == null )
+        {
+            localUnresolvedNames = new String[depth - resolvedPrefix.depth];
+            ZPathImpl path = this;
+            for ( int i = localUnresolvedNames.length - 1; i >= 0; --i )
+            {
+                localUnresolvedNames[i] = path.name;
+                path = path.parent;
+            }
+            unresolvedNames = localUnresolvedNames;
         }
-        this.nodes = builder.build();
-        isResolved = this.nodes.stream().noneMatch(ZPathImpl::isParameter);
+        return localUnresolvedNames;
     }
 
     private void checkRootAccess()
@@ -272,17 +362,21 @@ public class ZPathImpl implements ZPath
 
     private String buildFullPath(UnaryOperator<String> filter)
     {
-        boolean addSeparator = false;
+        if ( isRoot() )
+        {
+            return filter.apply(name);
+        }
+        String[] names = new String[depth];
+        ZPathImpl path = this;
+        for ( int i = depth - 1; i >= 0; --i )
+        {
+            names[i] = path.name;
+            path = path.parent;
+        }
         StringBuilder str = new StringBuilder();
-        int size = nodes.size();
-        int parameterIndex = 0;
-        for ( int i = 0; i < size; ++i )
+        for ( String name : names )
         {
-            if ( i > 1 )
-            {
-                str.append(PATH_SEPARATOR);
-            }
-            str.append(filter.apply(nodes.get(i)));
+            str.append(PATH_SEPARATOR).append(filter.apply(name));
         }
         return str.toString();
     }
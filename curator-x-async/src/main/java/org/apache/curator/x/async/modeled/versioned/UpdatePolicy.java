@@ -0,0 +1,96 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.curator.x.async.modeled.versioned;
+
+import com.google.common.base.Preconditions;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Controls how {@link VersionedModeledFramework#update(java.util.function.UnaryOperator, UpdatePolicy)}
+ * handles contention. When the versioned write fails with a
+ * {@link org.apache.zookeeper.KeeperException.BadVersionException} the node is re-read and the update
+ * re-applied after an exponentially increasing, jittered delay.
+ */
+public class UpdatePolicy
+{
+    /**
+     * Default policy: 10ms base sleep, 1 second max sleep, 20 retries, no local combining
+     */
+    public static final UpdatePolicy DEFAULT = new UpdatePolicy(10, 1000, 20, false);
+
+    private final int baseSleepTimeMs;
+    private final int maxSleepTimeMs;
+    private final int maxRetries;
+    private final boolean combineLocalUpdates;
+
+    /**
+     * @param baseSleepTimeMs initial amount of time to wait between retries
+     * @param maxSleepTimeMs max time to wait between retries
+     * @param maxRetries max number of times to retry after a version conflict
+     * @param combineLocalUpdates if true, updates to the same path that are issued while a write to that path is
+     *                            in flight are queued and then applied together as a single versioned write. Combining
+     *                            is scoped to the framework instance (and its children) that the updates are issued from.
+     */
+    public UpdatePolicy(int baseSleepTimeMs, int maxSleepTimeMs, int maxRetries, boolean combineLocalUpdates)
+    {
+        Preconditions.checkArgument(baseSleepTimeMs > 0, "baseSleepTimeMs must be greater than 0");
+        Preconditions.checkArgument(maxSleepTimeMs >= baseSleepTimeMs, "maxSleepTimeMs must be >= baseSleepTimeMs");
+        Preconditions.checkArgument(maxRetries >= 0, "maxRetries cannot be negative");
+        this.baseSleepTimeMs = baseSleepTimeMs;
+        this.maxSleepTimeMs = maxSleepTimeMs;
+        this.maxRetries = maxRetries;
+        this.combineLocalUpdates = combineLocalUpdates;
+    }
+
+    /**
+     * Return a copy of this policy with local combining set as given
+     *
+     * @param combineLocalUpdates true to combine local updates
+     * @return new policy
+     */
+    public UpdatePolicy withCombineLocalUpdates(boolean combineLocalUpdates)
+    {
+        return new UpdatePolicy(baseSleepTimeMs, maxSleepTimeMs, maxRetries, combineLocalUpdates);
+    }
+
+    /**
+     * Return the time to wait before the given retry. The upper bound doubles with each retry
+     * (capped at the max sleep time) and the actual value is chosen at random between half the bound
+     * and the bound so that contending writers spread out.
+     *
+     * @param retryCount number of retries so far (0 for the first retry)
+     * @return sleep time in milliseconds
+     */
+    public long getSleepTimeMs(int retryCount)
+    {
+        long boundMs = Math.min(maxSleepTimeMs, (long)baseSleepTimeMs << Math.min(retryCount, 30));
+        long halfMs = boundMs / 2;
+        return halfMs + ThreadLocalRandom.current().nextLong(boundMs - halfMs + 1);
+    }
+
+    public int getMaxRetries()
+    {
+        return maxRetries;
+    }
+
+    public boolean combineLocalUpdates()
+    {
+        return combineLocalUpdates;
+    }
+}
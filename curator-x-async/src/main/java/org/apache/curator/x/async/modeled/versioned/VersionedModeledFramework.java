@@ -21,6 +21,7 @@ package org.apache.curator.x.async.modeled.versioned;
 import org.apache.curator.framework.api.transaction.CuratorOp;
 import org.apache.curator.x.async.AsyncStage;
 import org.apache.zookeeper.data.Stat;
+import java.util.function.UnaryOperator;
 
 public interface VersionedModeledFramework<T>
 {
@@ -53,4 +54,28 @@ public interface VersionedModeledFramework<T>
      * @see org.apache.curator.x.async.modeled.ModeledFramework#updateOp(Object)
      */
     CuratorOp updateOp(Versioned<T> model);
+
+    /**
+     * Same as {@link #update(UnaryOperator, UpdatePolicy)} using {@link UpdatePolicy#DEFAULT}
+     *
+     * @param updater function that returns the new model given the current one
+     * @return AsyncStage
+     */
+    AsyncStage<Versioned<T>> update(UnaryOperator<T> updater);
+
+    /**
+     * Read-modify-write the node at this instance's path: the node is read, <code>updater</code> is applied
+     * to the model and the result is written conditioned on the version that was read. If the write fails
+     * with {@link org.apache.zookeeper.KeeperException.BadVersionException} the cycle is repeated, after
+     * a backoff, as directed by the policy. <code>updater</code> may therefore be called more than once
+     * and must not have side effects. To update a different path use
+     * <code>withPath(path).versioned().update(...)</code>. If the node does not exist the stage completes
+     * with {@link org.apache.zookeeper.KeeperException.NoNodeException}.
+     *
+     * @param updater function that returns the new model given the current one. Must not return <code>null</code>
+     * @param policy retry/combining policy
+     * @return AsyncStage with the model that was written and its new version. When local combining is enabled,
+     * all updates applied in the same write complete with the same result.
+     */
+    AsyncStage<Versioned<T>> update(UnaryOperator<T> updater, UpdatePolicy policy);
 }
@@ -0,0 +1,163 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.curator.x.async;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.CuratorFrameworkFactory;
+import org.apache.curator.framework.recipes.locks.InterProcessMutex;
+import org.apache.curator.retry.RetryOneTime;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class TestAsyncInterProcessMutex extends CompletableBaseClassForTests
+{
+    private static final String LOCK_PATH = "/locks/test";
+
+    @Test
+    public void testBasic() throws Exception
+    {
+        try ( CuratorFramework client = CuratorFrameworkFactory.newClient(server.getConnectString(), timing.session(), timing.connection(), new RetryOneTime(1)) )
+        {
+            client.start();
+            AsyncInterProcessMutex mutex = new AsyncInterProcessMutex(AsyncCuratorFramework.wrap(client), LOCK_PATH);
+
+            AsyncInterProcessMutex.Lease lease = mutex.acquire().toCompletableFuture().get(timing.forWaiting().milliseconds(), TimeUnit.MILLISECONDS);
+            CompletableFuture<AsyncInterProcessMutex.Lease> second = mutex.acquire().toCompletableFuture();
+            timing.sleepABit();
+            assertFalse(second.isDone());
+
+            complete(lease.release());
+            AsyncInterProcessMutex.Lease secondLease = second.get(timing.forWaiting().milliseconds(), TimeUnit.MILLISECONDS);
+            complete(secondLease.release());
+            complete(secondLease.release());    // no-op
+            assertEquals(client.getChildren().forPath(LOCK_PATH).size(), 0);
+        }
+    }
+
+    @Test
+    public void testTimeoutAndCancel() throws Exception
+    {
+        try ( CuratorFramework client = CuratorFrameworkFactory.newClient(server.getConnectString(), timing.session(), timing.connection(), new RetryOneTime(1)) )
+        {
+            client.start();
+            AsyncInterProcessMutex mutex = new AsyncInterProcessMutex(AsyncCuratorFramework.wrap(client), LOCK_PATH);
+            AsyncInterProcessMutex.Lease lease = mutex.acquire().toCompletableFuture().get(timing.forWaiting().milliseconds(), TimeUnit.MILLISECONDS);
+
+            complete(mutex.acquire(timing.forSleepingABit().milliseconds(), TimeUnit.MILLISECONDS), (v, e) -> assertTrue(e instanceof AsyncWrappers.TimeoutException, "Should be TimeoutException, was: " + e));
+
+            CompletableFuture<AsyncInterProcessMutex.Lease> cancelled = mutex.acquire().toCompletableFuture();
+            timing.sleepABit();
+            assertTrue(cancelled.cancel(true));
+
+            timing.sleepABit();
+            assertEquals(client.getChildren().forPath(LOCK_PATH).size(), 1);   // abandoned nodes are deleted
+            complete(lease.release());
+        }
+    }
+
+    @Test
+    public void testCompletedByCaller() throws Exception
+    {
+        try ( CuratorFramework client = CuratorFrameworkFactory.newClient(server.getConnectString(), timing.session(), timing.connection(), new RetryOneTime(1)) )
+        {
+            client.start();
+            AsyncInterProcessMutex mutex = new AsyncInterProcessMutex(AsyncCuratorFramework.wrap(client), LOCK_PATH);
+            AsyncInterProcessMutex.Lease lease = mutex.acquire().toCompletableFuture().get(timing.forWaiting().milliseconds(), TimeUnit.MILLISECONDS);
+
+            CompletableFuture<AsyncInterProcessMutex.Lease> completed = mutex.acquire().toCompletableFuture();
+            timing.sleepABit();
+            assertEquals(client.getChildren().forPath(LOCK_PATH).size(), 2);
+            assertTrue(completed.complete(null));
+
+            timing.sleepABit();
+            assertEquals(client.getChildren().forPath(LOCK_PATH).size(), 1);   // the abandoned node is deleted
+            complete(lease.release());
+            timing.sleepABit();
+            assertEquals(client.getChildren().forPath(LOCK_PATH).size(), 0);
+        }
+    }
+
+    @Test
+    public void testInterProcessMutexCompatibility() throws Exception
+    {
+        try ( CuratorFramework client = CuratorFrameworkFactory.newClient(server.getConnectString(), timing.session(), timing.connection(), new RetryOneTime(1)) )
+        {
+            client.start();
+            InterProcessMutex blockingMutex = new InterProcessMutex(client, LOCK_PATH);
+            assertTrue(blockingMutex.acquire(timing.forWaiting().milliseconds(), TimeUnit.MILLISECONDS));
+
+            AsyncInterProcessMutex mutex = new AsyncInterProcessMutex(AsyncCuratorFramework.wrap(client), LOCK_PATH);
+            CompletableFuture<AsyncInterProcessMutex.Lease> pending = mutex.acquire().toCompletableFuture();
+            timing.sleepABit();
+            assertFalse(pending.isDone());
+
+            blockingMutex.release();
+            AsyncInterProcessMutex.Lease lease = pending.get(timing.forWaiting().milliseconds(), TimeUnit.MILLISECONDS);
+            assertFalse(blockingMutex.acquire(timing.forSleepingABit().milliseconds(), TimeUnit.MILLISECONDS));
+            complete(lease.release());
+        }
+    }
+
+    @Test
+    public void testManyPending() throws Exception
+    {
+        final int qty = 100;
+        try ( CuratorFramework client = CuratorFrameworkFactory.newClient(server.getConnectString(), timing.session(), timing.connection(), new RetryOneTime(1)) )
+        {
+            client.start();
+            AsyncCuratorFramework async = AsyncCuratorFramework.wrap(client);
+            AsyncInterProcessMutex mutex = new AsyncInterProcessMutex(async, LOCK_PATH);
+            AtomicInteger holders = new AtomicInteger();
+            AtomicInteger maxHolders = new AtomicInteger();
+            // each lease is held across a round trip and only counted as released once release() completes
+            // so that overlapping leases would be seen
+            List<CompletionStage<Void>> stages = IntStream.range(0, qty).mapToObj(i -> mutex.acquire().thenCompose(lease -> {
+                maxHolders.accumulateAndGet(holders.incrementAndGet(), Math::max);
+                return async.checkExists().forPath(LOCK_PATH)
+                    .thenCompose(stat -> lease.release())
+                    .whenComplete((v, e) -> holders.decrementAndGet());
+            })).collect(Collectors.toList());
+
+            for ( CompletionStage<Void> stage : stages )
+            {
+                try
+                {
+                    stage.toCompletableFuture().get(timing.forWaiting().milliseconds(), TimeUnit.MILLISECONDS);
+                }
+                catch ( ExecutionException e )
+                {
+                    throw new AssertionError(e);
+                }
+            }
+            assertEquals(maxHolders.get(), 1);
+            assertEquals(client.getChildren().forPath(LOCK_PATH).size(), 0);
+        }
+    }
+}
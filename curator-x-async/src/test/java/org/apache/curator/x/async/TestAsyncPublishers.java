@@ -0,0 +1,197 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.curator.x.async;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import com.google.common.collect.Lists;
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.CuratorFrameworkFactory;
+import org.apache.curator.framework.recipes.cache.CuratorCache;
+import org.apache.curator.framework.recipes.cache.CuratorCacheListener;
+import org.apache.curator.retry.RetryOneTime;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+
+public class TestAsyncPublishers extends CompletableBaseClassForTests
+{
+    private static class QueueSubscriber<T> implements AsyncFlow.Subscriber<T>
+    {
+        private final BlockingQueue<Object> events = new LinkedBlockingQueue<>();
+        private volatile AsyncFlow.Subscription subscription;
+
+        @Override
+        public void onSubscribe(AsyncFlow.Subscription subscription)
+        {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(T item)
+        {
+            events.add(item);
+        }
+
+        @Override
+        public void onError(Throwable e)
+        {
+            events.add(e);
+        }
+
+        @Override
+        public void onComplete()
+        {
+            events.add("complete");
+        }
+    }
+
+    @Test
+    public void testOverflowStrategies()
+    {
+        assertEquals(publishSlowly(OverflowStrategy.DROP_OLDEST), Lists.newArrayList("a:3", "b:1", "c:1"));
+        assertEquals(publishSlowly(OverflowStrategy.COALESCE_BY_PATH), Lists.newArrayList("a:3", "b:1", "c:1"));
+
+        List<Object> buffered = publishSlowly(OverflowStrategy.BUFFER);
+        assertEquals(buffered.size(), 1);
+        assertTrue(buffered.get(0) instanceof IllegalStateException);
+    }
+
+    @Test
+    public void testCoalescing()
+    {
+        assertEquals(publish(OverflowStrategy.COALESCE_BY_PATH, "a:1", "b:1", "a:2", "c:1", "b:2"), Lists.newArrayList("a:2", "b:2", "c:1"));
+        assertEquals(publish(OverflowStrategy.DROP_OLDEST, "a:1", "b:1", "a:2", "c:1", "b:2"), Lists.newArrayList("a:2", "c:1", "b:2"));
+    }
+
+    @Test
+    public void testCancel()
+    {
+        List<Consumer<String>> sinks = new CopyOnWriteArrayList<>();
+        EventPublisher<String> publisher = newPublisher(sinks, OverflowStrategy.BUFFER);
+        QueueSubscriber<String> subscriber = new QueueSubscriber<>();
+        publisher.subscribe(subscriber);
+        assertEquals(sinks.size(), 1);
+
+        subscriber.subscription.request(1);
+        sinks.forEach(sink -> sink.accept("a:1"));
+        assertEquals(subscriber.events.poll(), "a:1");
+
+        subscriber.subscription.cancel();
+        assertEquals(sinks.size(), 0);
+        subscriber.subscription.request(1);
+        assertNull(subscriber.events.poll());
+    }
+
+    @Test
+    public void testRejectedExecution()
+    {
+        List<Consumer<String>> sinks = new CopyOnWriteArrayList<>();
+        EventPublisher<String> publisher = new EventPublisher<>(sink -> {
+            sinks.add(sink);
+            return () -> sinks.remove(sink);
+        }, item -> null, OverflowStrategy.BUFFER, 3, command -> {
+            throw new RejectedExecutionException("test");
+        });
+        QueueSubscriber<String> subscriber = new QueueSubscriber<>();
+        publisher.subscribe(subscriber);
+
+        assertTrue(subscriber.events.poll() instanceof RejectedExecutionException);
+        assertEquals(sinks.size(), 0);
+        subscriber.subscription.request(1);
+        sinks.forEach(sink -> sink.accept("a:1"));
+        assertNull(subscriber.events.poll());   // only one terminal signal
+    }
+
+    @Test
+    public void testCuratorCache() throws Exception
+    {
+        try ( CuratorFramework client = CuratorFrameworkFactory.newClient(server.getConnectString(), timing.session(), timing.connection(), new RetryOneTime(1)) )
+        {
+            client.start();
+            try ( CuratorCache cache = CuratorCache.build(client, "/test") )
+            {
+                cache.start();
+
+                QueueSubscriber<AsyncPublishers.CacheEvent> subscriber = new QueueSubscriber<>();
+                AsyncPublishers.curatorCache(cache, OverflowStrategy.COALESCE_BY_PATH, 10).subscribe(subscriber);
+
+                client.create().creatingParentsIfNeeded().forPath("/test/a", "0".getBytes());
+                for ( int i = 1; i <= 5; ++i )
+                {
+                    client.setData().forPath("/test/a", Integer.toString(i).getBytes());
+                }
+                timing.sleepABit();
+                assertNull(subscriber.events.poll());   // nothing requested yet
+
+                subscriber.subscription.request(Long.MAX_VALUE);
+                AsyncPublishers.CacheEvent event = (AsyncPublishers.CacheEvent)timing.takeFromQueue(subscriber.events);
+                assertEquals(event.getPath(), "/test");
+                event = (AsyncPublishers.CacheEvent)timing.takeFromQueue(subscriber.events);
+                assertEquals(event.getPath(), "/test/a");
+                assertEquals(new String(event.getData().getData()), "5");
+                timing.sleepABit();
+                assertNull(subscriber.events.poll());   // the updates were coalesced
+
+                client.delete().forPath("/test/a");
+                event = (AsyncPublishers.CacheEvent)timing.takeFromQueue(subscriber.events);
+                assertEquals(event.getType(), CuratorCacheListener.Type.NODE_DELETED);
+                assertEquals(event.getPath(), "/test/a");
+
+                subscriber.subscription.cancel();
+            }
+        }
+    }
+
+    // capacity is 3 - publishes 5 events before requesting any. Note: errors are sent without demand
+    private List<Object> publishSlowly(OverflowStrategy overflowStrategy)
+    {
+        return publish(overflowStrategy, "a:1", "a:2", "a:3", "b:1", "c:1");
+    }
+
+    private List<Object> publish(OverflowStrategy overflowStrategy, String... items)
+    {
+        List<Consumer<String>> sinks = new CopyOnWriteArrayList<>();
+        QueueSubscriber<String> subscriber = new QueueSubscriber<>();
+        newPublisher(sinks, overflowStrategy).subscribe(subscriber);
+        for ( String item : items )
+        {
+            sinks.forEach(sink -> sink.accept(item));
+        }
+
+        subscriber.subscription.request(Long.MAX_VALUE);
+        List<Object> events = Lists.newArrayList();
+        subscriber.events.drainTo(events);
+        return events;
+    }
+
+    private EventPublisher<String> newPublisher(List<Consumer<String>> sinks, OverflowStrategy overflowStrategy)
+    {
+        return new EventPublisher<>(sink -> {
+            sinks.add(sink);
+            return () -> sinks.remove(sink);
+        }, item -> item.substring(0, item.indexOf(':')), overflowStrategy, 3, Runnable::run);
+    }
+}
@@ -18,17 +18,26 @@
  */
 package org.apache.curator.x.async;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import org.apache.curator.framework.CuratorFramework;
 import org.apache.curator.framework.CuratorFrameworkFactory;
+import org.apache.curator.framework.recipes.cache.ChildData;
 import org.apache.curator.framework.recipes.locks.InterProcessMutex;
 import org.apache.curator.retry.RetryOneTime;
+import org.apache.curator.utils.ZKPaths;
 import org.junit.jupiter.api.Test;
 
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class TestAsyncWrappers extends CompletableBaseClassForTests
 {
@@ -73,4 +82,99 @@ public class TestAsyncWrappers extends CompletableBaseClassForTests
             assertTrue(timing.awaitLatch(latch2));
         }
     }
+
+    @Test
+    public void testChildrenWithDataPublisher() throws Exception
+    {
+        try ( CuratorFramework client = CuratorFrameworkFactory.newClient(server.getConnectString(), new RetryOneTime(1)) )
+        {
+            client.start();
+            AsyncCuratorFramework async = AsyncCuratorFramework.wrap(client);
+            for ( int i = 0; i < 10; ++i )
+            {
+                client.create().creatingParentsIfNeeded().forPath("/parent/child" + i, ("data" + i).getBytes());
+            }
+
+            BlockingQueue<Object> events = new LinkedBlockingQueue<>();
+            AtomicReference<AsyncFlow.Subscription> subscription = new AtomicReference<>();
+            AsyncWrappers.childrenWithDataPublisher(async, "/parent", 2).subscribe(new AsyncFlow.Subscriber<ChildData>()
+            {
+                @Override
+                public void onSubscribe(AsyncFlow.Subscription s)
+                {
+                    subscription.set(s);
+                }
+
+                @Override
+                public void onNext(ChildData item)
+                {
+                    events.add(item);
+                }
+
+                @Override
+                public void onError(Throwable e)
+                {
+                    events.add(e);
+                }
+
+                @Override
+                public void onComplete()
+                {
+                    events.add("complete");
+                }
+            });
+
+            timing.sleepABit();
+            assertNull(events.poll());  // nothing requested yet
+
+            subscription.get().request(3);
+            Set<String> paths = new HashSet<>();
+            for ( int i = 0; i < 3; ++i )
+            {
+                ChildData data = (ChildData)timing.takeFromQueue(events);
+                assertEquals(new String(data.getData()), ZKPaths.getNodeFromPath(data.getPath()).replace("child", "data"));
+                assertNotNull(data.getStat());
+                paths.add(data.getPath());
+            }
+            timing.sleepABit();
+            assertNull(events.poll());  // no more than requested
+
+            subscription.get().request(Long.MAX_VALUE);
+            for ( int i = 0; i < 7; ++i )
+            {
+                paths.add(((ChildData)timing.takeFromQueue(events)).getPath());
+            }
+            assertEquals(timing.takeFromQueue(events), "complete");
+            assertEquals(paths.size(), 10);
+
+            subscription.get().cancel();
+            AsyncWrappers.childrenWithDataPublisher(async, "/nonexistent", 2).subscribe(new AsyncFlow.Subscriber<ChildData>()
+            {
+                @Override
+                public void onSubscribe(AsyncFlow.Subscription s)
+                {
+                    s.request(1);
+                }
+
+                @Override
+                public void onNext(ChildData item)
+                {
+                    events.add(item);
+                }
+
+                @Override
+                public void onError(Throwable e)
+                {
+                    events.add(e);
+                }
+
+                @Override
+                public void onComplete()
+                {
+                    events.add("complete");
+                }
+            });
+            assertEquals(timing.takeFromQueue(events), "complete");
+        }
+    }
 }
@@ -28,8 +28,10 @@ import com.google.common.base.Throwables;
 import org.apache.curator.framework.CuratorFramework;
 import org.apache.curator.framework.CuratorFrameworkFactory;
 import org.apache.curator.framework.api.transaction.CuratorOp;
+import org.apache.curator.framework.recipes.locks.InterProcessSemaphoreMutex;
 import org.apache.curator.retry.RetryOneTime;
 import org.apache.curator.utils.CloseableUtils;
+import org.apache.curator.utils.ZKPaths;
 import org.apache.curator.x.async.AsyncCuratorFramework;
 import org.apache.curator.x.async.AsyncWrappers;
 import org.apache.curator.x.async.CompletableBaseClassForTests;
@@ -358,4 +360,63 @@ public class TestMigrationManager extends CompletableBaseClassForTests
         complete(second);
         assertEquals(manager.debugCount.get(), 1);
     }
+
+    @Test
+    public void testMigrateAllAndDryRun()
+    {
+        Migration m1 = () -> Arrays.asList(v1opA, v1opB);
+        Migration m2 = () -> Collections.singletonList(v2op);
+        MigrationSet set1 = MigrationSet.build("1", Arrays.asList(m1, m2));
+        Migration other = () -> Collections.singletonList(client.transactionOp().create().forPath("/other"));
+        MigrationSet set2 = MigrationSet.build("2", Collections.singletonList(other));
+
+        complete(manager.dryRunAll(Arrays.asList(set1, set2)), (plan, e) -> {
+            assertEquals(plan.get("1"), Arrays.asList(m1, m2));
+            assertEquals(plan.get("2"), Collections.singletonList(other));
+        });
+        assertEquals(manager.debugCount.get(), 0);  // nothing applied
+
+        complete(manager.migrateAll(Arrays.asList(set1, set2)));
+        assertEquals(manager.debugCount.get(), 2);
+
+        ModeledFramework<ModelV2> v2Client = ModeledFramework.wrap(client, v2Spec);
+        complete(v2Client.read(), (m, e) -> assertEquals(m.getAge(), 10));
+        complete(client.checkExists().forPath("/other"), (stat, e) -> assertNotNull(stat));
+
+        complete(manager.dryRunAll(Arrays.asList(set1, set2)), (plan, e) -> {
+            assertTrue(plan.get("1").isEmpty());
+            assertTrue(plan.get("2").isEmpty());
+        });
+    }
+
+    @Test
+    public void testCheckBeforeLocking() throws Exception
+    {
+        Migration m1 = () -> Arrays.asList(v1opA, v1opB);
+        MigrationSet migrationSet = MigrationSet.build("1", Collections.singletonList(m1));
+        MigrationManager checkingManager = new MigrationManager(client, LOCK_PATH, META_DATA_PATH, executor, Duration.ofMillis(timing.forSleepingABit().milliseconds()), true);
+        complete(checkingManager.migrate(migrationSet));
+
+        InterProcessSemaphoreMutex lock = new InterProcessSemaphoreMutex(client.unwrap(), ZKPaths.makePath(LOCK_PATH, "1"));
+        assertTrue(lock.acquire(timing.forWaiting().milliseconds(), TimeUnit.MILLISECONDS));
+        try
+        {
+            complete(checkingManager.migrate(migrationSet));   // up to date - doesn't need the lock
+
+            Migration m2 = () -> Collections.singletonList(v2op);
+            try
+            {
+                complete(checkingManager.migrate(MigrationSet.build("1", Arrays.asList(m1, m2))));
+                fail("Should throw");
+            }
+            catch ( Throwable e )
+            {
+                assertTrue(Throwables.getRootCause(e) instanceof AsyncWrappers.TimeoutException, "Should throw AsyncWrappers.TimeoutException, was: " + Throwables.getStackTraceAsString(Throwables.getRootCause(e)));
+            }
+        }
+        finally
+        {
+            lock.release();
+        }
+    }
 }
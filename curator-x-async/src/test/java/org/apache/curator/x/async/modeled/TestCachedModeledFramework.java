@@ -30,17 +30,20 @@ import org.apache.curator.test.compatibility.CuratorTestBase;
 import org.apache.curator.x.async.modeled.cached.CachedModeledFramework;
 import org.apache.curator.x.async.modeled.cached.ModeledCacheListener;
 import org.apache.curator.x.async.modeled.models.TestModel;
+import org.apache.zookeeper.data.Stat;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
 import java.math.BigInteger;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -180,6 +183,167 @@ public class TestCachedModeledFramework extends TestModeledFrameworkBase
         }
     }
 
+    @Test
+    public void testCurrentChildrenIndex()
+    {
+        TestModel model = new TestModel("a", "b", "c", 20, BigInteger.ONE);
+        try (CachedModeledFramework<TestModel> client = ModeledFramework.wrap(async, modelSpec).cached())
+        {
+            Semaphore semaphore = new Semaphore(0);
+            client.listenable().addListener((t, p, s, m) -> semaphore.release());
+
+            client.start();
+            complete(client.child("p").set(model));
+            complete(client.child("p").child("c1").set(model));
+            complete(client.child("p").child("c1").child("g1").set(model));
+            complete(client.child("p").child("c2").set(model));
+            assertTrue(timing.acquireSemaphore(semaphore, 4));
+
+            ZPath p = modelSpec.path().child("p");
+            assertEquals(client.cache().currentChildren(p).keySet(), Sets.newHashSet(p, p.child("c1"), p.child("c1").child("g1"), p.child("c2")));
+            assertEquals(client.cache().currentChildren(modelSpec.path()).size(), 4);
+            assertTrue(client.cache().currentChildren(ZPath.parse("/foo")).isEmpty());
+
+            // unchanged nodes are not re-created
+            assertTrue(client.cache().currentData(p).get() == client.cache().currentData(p).get());
+
+            complete(client.child("p").child("c1").child("g1").delete());
+            assertTrue(timing.acquireSemaphore(semaphore));
+            assertEquals(client.cache().currentChildren(p.child("c1")).keySet(), Sets.newHashSet(p.child("c1")));
+
+            complete(client.child("p").child("c1").delete());
+            assertTrue(timing.acquireSemaphore(semaphore));
+            assertEquals(client.cache().currentChildren(p).keySet(), Sets.newHashSet(p, p.child("c2")));
+            complete(client.child("p").children(), (v, e) -> assertEquals(v, Arrays.asList(p.child("c2"))));
+        }
+    }
+
+    @Test
+    public void testLazyDeserialization() throws Exception
+    {
+        AtomicInteger deserializeCount = new AtomicInteger();
+        JacksonModelSerializer<TestModel> jacksonSerializer = JacksonModelSerializer.build(TestModel.class);
+        ModelSerializer<TestModel> countingSerializer = new ModelSerializer<TestModel>()
+        {
+            @Override
+            public byte[] serialize(TestModel model)
+            {
+                return jacksonSerializer.serialize(model);
+            }
+
+            @Override
+            public TestModel deserialize(byte[] bytes)
+            {
+                deserializeCount.incrementAndGet();
+                return jacksonSerializer.deserialize(bytes);
+            }
+        };
+        ModelSpec<TestModel> countingSpec = ModelSpec.builder(path, countingSerializer).build();
+
+        TestModel model = new TestModel("a", "b", "c", 20, BigInteger.ONE);
+        ModeledFramework<TestModel> modeled = ModeledFramework.builder(async, countingSpec).withOptions(Collections.singleton(ModeledOptions.lazyCacheDeserialization)).build();
+        try (CachedModeledFramework<TestModel> client = modeled.cached())
+        {
+            client.start();
+            complete(client.child("m").set(model));
+            assertTrue(waitForCachedNode(client, countingSpec.path().child("m")));
+            assertEquals(deserializeCount.get(), 0);    // no listeners and no reads yet
+
+            complete(client.child("m").read(), (v, e) -> assertEquals(v, model));
+            complete(client.child("m").read(), (v, e) -> assertEquals(v, model));
+            assertEquals(deserializeCount.get(), 1);
+
+            // re-writing the same bytes bumps the version (so the cache sees a change) but must re-use the model
+            complete(client.child("m").update(model), (v, e) -> assertEquals(v.getVersion(), 1));
+            assertTrue(waitForCachedVersion(client, countingSpec.path().child("m"), 1));
+            complete(client.child("m").read(), (v, e) -> assertEquals(v, model));
+            assertEquals(deserializeCount.get(), 1);
+        }
+    }
+
+    @Test
+    public void testLazyDeserializationFailure() throws Exception
+    {
+        AtomicInteger deserializeCount = new AtomicInteger();
+        JacksonModelSerializer<TestModel> jacksonSerializer = JacksonModelSerializer.build(TestModel.class);
+        ModelSerializer<TestModel> countingSerializer = new ModelSerializer<TestModel>()
+        {
+            @Override
+            public byte[] serialize(TestModel model)
+            {
+                return jacksonSerializer.serialize(model);
+            }
+
+            @Override
+            public TestModel deserialize(byte[] bytes)
+            {
+                deserializeCount.incrementAndGet();
+                return jacksonSerializer.deserialize(bytes);
+            }
+        };
+        ModelSpec<TestModel> countingSpec = ModelSpec.builder(path, countingSerializer).build();
+
+        AtomicInteger exceptionCount = new AtomicInteger();
+        ModeledFramework<TestModel> modeled = ModeledFramework.builder(async, countingSpec).withOptions(Collections.singleton(ModeledOptions.lazyCacheDeserialization)).build();
+        try (CachedModeledFramework<TestModel> client = modeled.cached())
+        {
+            client.listenable().addListener(new ModeledCacheListener<TestModel>()
+            {
+                @Override
+                public void accept(Type type, ZPath path, Stat stat, TestModel model)
+                {
+                    // NOP
+                }
+
+                @Override
+                public void handleException(Exception e)
+                {
+                    exceptionCount.incrementAndGet();
+                }
+            });
+            client.start();
+            rawClient.create().creatingParentsIfNeeded().forPath(countingSpec.path().child("bad").fullPath(), "not a model".getBytes());
+            assertTrue(waitForCachedNode(client, countingSpec.path().child("bad")));
+            timing.sleepABit();
+
+            // failures complete the stage exceptionally rather than throwing from read()
+            complete(client.child("bad").read(), (v, e) -> assertNotNull(e));
+            complete(client.child("bad").readAsZNode(), (v, e) -> assertNotNull(e));
+            complete(client.list(), (v, e) -> assertNotNull(e));
+            complete(client.childrenAsZNodes(), (v, e) -> assertNotNull(e));
+
+            // the failure is memoized and reported once
+            assertEquals(deserializeCount.get(), 1);
+            assertEquals(exceptionCount.get(), 1);
+        }
+    }
+
+    private boolean waitForCachedVersion(CachedModeledFramework<TestModel> client, ZPath path, int version) throws InterruptedException
+    {
+        for ( int i = 0; i < 10; ++i )
+        {
+            if ( client.cache().currentData(path).map(node -> node.stat().getVersion() == version).orElse(false) )
+            {
+                return true;
+            }
+            timing.sleepABit();
+        }
+        return false;
+    }
+
+    private boolean waitForCachedNode(CachedModeledFramework<TestModel> client, ZPath path) throws InterruptedException
+    {
+        for ( int i = 0; i < 10; ++i )
+        {
+            if ( client.cache().currentData(path).isPresent() )
+            {
+                return true;
+            }
+            timing.sleepABit();
+        }
+        return false;
+    }
+
     private <T, R> Set<R> toSet(Stream<T> stream, Function<? super T, ? extends R> mapper)
     {
          return stream.map(mapper).collect(Collectors.toSet());
@@ -35,6 +35,7 @@ import org.apache.curator.x.async.AsyncCuratorFramework;
 import org.apache.curator.x.async.AsyncStage;
 import org.apache.curator.x.async.modeled.models.TestModel;
 import org.apache.curator.x.async.modeled.models.TestNewerModel;
+import org.apache.curator.x.async.modeled.versioned.UpdatePolicy;
 import org.apache.curator.x.async.modeled.versioned.Versioned;
 import org.apache.curator.x.async.modeled.versioned.VersionedModeledFramework;
 import org.apache.zookeeper.KeeperException;
@@ -47,10 +48,15 @@ import org.junit.jupiter.api.Test;
 
 import java.math.BigInteger;
 import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
 
 public class TestModeledFramework extends TestModeledFrameworkBase
 {
@@ -164,6 +170,45 @@ public class TestModeledFramework extends TestModeledFrameworkBase
         complete(client.delete(stat.getVersion()));
     }
 
+    @Test
+    public void testVersionedUpdate()
+    {
+        final int qty = 50;
+        ModeledFramework<TestModel> client = ModeledFramework.wrap(async, modelSpec);
+        complete(client.set(new TestModel("John", "Galt", "Galt's Gulch", 0, BigInteger.ONE)));
+        VersionedModeledFramework<TestModel> versioned = client.versioned();
+
+        List<CompletableFuture<Versioned<TestModel>>> futures = new ArrayList<>();
+        for ( int i = 0; i < qty; ++i )
+        {
+            futures.add(versioned.update(TestModeledFramework::incrementAge).toCompletableFuture());
+        }
+        complete(CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])));
+        Stat stat = new Stat();
+        complete(client.read(stat), (model, e) -> assertEquals(model.getAge(), qty));
+        int versionBeforeCombining = stat.getVersion();
+
+        UpdatePolicy combining = UpdatePolicy.DEFAULT.withCombineLocalUpdates(true);
+        futures.clear();
+        for ( int i = 0; i < qty; ++i )
+        {
+            futures.add(versioned.update(TestModeledFramework::incrementAge, combining).toCompletableFuture());
+        }
+        complete(CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])));
+        complete(client.read(stat), (model, e) -> assertEquals(model.getAge(), qty * 2));
+        assertTrue((stat.getVersion() - versionBeforeCombining) < qty);  // queued updates are written together
+
+        complete(client.child("missing").versioned().update(TestModeledFramework::incrementAge), (v, e) -> assertTrue(e instanceof KeeperException.NoNodeException));
+        complete(versioned.update(m -> {
+            throw new IllegalStateException();
+        }), (v, e) -> assertTrue(e instanceof IllegalStateException));
+    }
+
+    private static TestModel incrementAge(TestModel model)
+    {
+        return new TestModel(model.getFirstName(), model.getLastName(), model.getAddress(), model.getAge() + 1, model.getSalary());
+    }
+
     @Test
     public void testAcl() throws NoSuchAlgorithmException
     {
@@ -180,4 +225,35 @@ public class TestModeledFramework extends TestModeledFrameworkBase
             complete(authClient.update(new TestModel("John", "Galt", "Galt's Gulch", 42, BigInteger.valueOf(66))), (__, e) -> assertNull(e, "Should've succeeded"));
         }
     }
+
+    @Test
+    public void testSetAll()
+    {
+        ModeledFramework<TestModel> client = ModeledFramework.wrap(async, modelSpec);
+        complete(client.child("child5").set(new TestModel("Old", "Model", "", 1, BigInteger.ONE)));
+
+        Map<ZPath, TestModel> models = new LinkedHashMap<>();
+        for ( int i = 0; i < 100; ++i )
+        {
+            models.put(path.child("child" + i), new TestModel("John" + i, "Galt", "1 Galt's Gulch", i, BigInteger.valueOf(i)));
+        }
+        complete(client.setAll(models, 2000, 3, ForkJoinPool.commonPool()), (results, e) -> {
+            assertNull(e);
+            assertEquals(results.keySet(), models.keySet());
+            results.forEach((childPath, result) -> assertEquals(result.getRawValue(), childPath.fullPath()));
+        });
+        models.forEach((childPath, model) -> complete(client.withPath(childPath).read(), (readModel, e) -> assertEquals(readModel, model)));
+
+        // without setDataIfExists, existing nodes fail individually
+        ModelSpec<TestModel> createOnlySpec = ModelSpec.builder(modelSpec.path(), modelSpec.serializer()).withCreateOptions(Collections.emptySet()).build();
+        ModeledFramework<TestModel> createOnlyClient = ModeledFramework.wrap(async, createOnlySpec);
+        Map<ZPath, TestModel> moreModels = new LinkedHashMap<>();
+        moreModels.put(path.child("child1"), new TestModel());
+        moreModels.put(path.child("new"), new TestModel());
+        complete(createOnlyClient.setAll(moreModels), (results, e) -> {
+            assertNull(e);
+            assertEquals(results.get(path.child("child1")).getCode(), KeeperException.Code.NODEEXISTS);
+            assertEquals(results.get(path.child("new")).getRawValue(), path.child("new").fullPath());
+        });
+    }
 }
@@ -0,0 +1,153 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.curator.x.async.modeled;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import com.google.common.collect.ImmutableList;
+import org.apache.curator.x.async.modeled.models.TestSimpleModel;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+public class TestTaggedModelSerializer
+{
+    private static final TaggedModelSerializer.Codec<TestSimpleModel> simpleCodec = new TaggedModelSerializer.Codec<TestSimpleModel>()
+    {
+        @Override
+        public void write(TestSimpleModel model, TaggedModelSerializer.Writer writer)
+        {
+            writer.writeString(1, model.getName());
+            writer.writeInt(2, model.getAge());
+        }
+
+        @Override
+        public TestSimpleModel read(TaggedModelSerializer.Reader reader)
+        {
+            return new TestSimpleModel(reader.getString(1, ""), reader.getInt(2, 0));
+        }
+    };
+
+    // a later version of the schema: tag 2 (age) was dropped, tags 3-6 were added
+    private static class NewerModel
+    {
+        final String name;
+        final double score;
+        final List<String> tags;
+        final TestSimpleModel manager;
+        final byte[] blob;
+
+        NewerModel(String name, double score, List<String> tags, TestSimpleModel manager, byte[] blob)
+        {
+            this.name = name;
+            this.score = score;
+            this.tags = tags;
+            this.manager = manager;
+            this.blob = blob;
+        }
+    }
+
+    private static final TaggedModelSerializer.Codec<NewerModel> newerCodec = new TaggedModelSerializer.Codec<NewerModel>()
+    {
+        @Override
+        public void write(NewerModel model, TaggedModelSerializer.Writer writer)
+        {
+            writer.writeString(1, model.name);
+            writer.writeDouble(3, model.score);
+            model.tags.forEach(tag -> writer.writeString(4, tag));
+            writer.writeModel(5, model.manager, simpleCodec);
+            writer.writeBytes(6, model.blob);
+        }
+
+        @Override
+        public NewerModel read(TaggedModelSerializer.Reader reader)
+        {
+            ByteBuffer blob = reader.getByteBuffer(6);
+            byte[] blobBytes = null;
+            if ( blob != null )
+            {
+                blobBytes = new byte[blob.remaining()];
+                blob.get(blobBytes);
+            }
+            return new NewerModel(reader.getString(1, ""), reader.getDouble(3, -1), reader.getStringList(4), reader.getModel(5, simpleCodec, null), blobBytes);
+        }
+    };
+
+    @Test
+    public void testRoundTrip()
+    {
+        TaggedModelSerializer<TestSimpleModel> serializer = TaggedModelSerializer.build(simpleCodec);
+        for ( int age : new int[]{0, 1, -1, 63, 64, -64, -65, Integer.MAX_VALUE, Integer.MIN_VALUE} )
+        {
+            TestSimpleModel model = new TestSimpleModel("name\u00e9" + age, age);
+            byte[] bytes = serializer.serialize(model);
+            assertTrue(TaggedModelSerializer.hasHeader(bytes));
+            assertEquals(serializer.deserialize(bytes), model);
+        }
+
+        // small values stay small
+        assertEquals(serializer.serialize(new TestSimpleModel("", -1)).length, TaggedModelSerializer.HEADER.length + 2 + 2);
+    }
+
+    @Test
+    public void testSchemaEvolution()
+    {
+        TaggedModelSerializer<TestSimpleModel> oldSerializer = TaggedModelSerializer.build(simpleCodec);
+        TaggedModelSerializer<NewerModel> newSerializer = TaggedModelSerializer.build(newerCodec);
+
+        // old reader skips the tags it doesn't know
+        NewerModel newer = new NewerModel("joe", 1.5, ImmutableList.of("a", "b"), new TestSimpleModel("boss", 60), new byte[]{1, 2, 3});
+        byte[] newBytes = newSerializer.serialize(newer);
+        assertEquals(oldSerializer.deserialize(newBytes), new TestSimpleModel("joe", 0));
+
+        NewerModel newerCopy = newSerializer.deserialize(newBytes);
+        assertEquals(newerCopy.name, "joe");
+        assertEquals(newerCopy.score, 1.5);
+        assertEquals(newerCopy.tags, ImmutableList.of("a", "b"));
+        assertEquals(newerCopy.manager, new TestSimpleModel("boss", 60));
+        assertArrayEquals(newerCopy.blob, new byte[]{1, 2, 3});
+
+        // new reader gets defaults for the tags old writers don't know
+        NewerModel fromOld = newSerializer.deserialize(oldSerializer.serialize(new TestSimpleModel("sam", 42)));
+        assertEquals(fromOld.name, "sam");
+        assertEquals(fromOld.score, -1.0);
+        assertTrue(fromOld.tags.isEmpty());
+        assertNull(fromOld.manager);
+        assertNull(fromOld.blob);
+    }
+
+    @Test
+    public void testLegacyFallback()
+    {
+        JacksonModelSerializer<TestSimpleModel> jackson = JacksonModelSerializer.build(TestSimpleModel.class);
+        byte[] jsonBytes = jackson.serialize(new TestSimpleModel("json", 7));
+        assertFalse(TaggedModelSerializer.hasHeader(jsonBytes));
+
+        TaggedModelSerializer<TestSimpleModel> serializer = TaggedModelSerializer.build(simpleCodec, jackson);
+        assertEquals(serializer.deserialize(jsonBytes), new TestSimpleModel("json", 7));
+        assertTrue(TaggedModelSerializer.hasHeader(serializer.serialize(new TestSimpleModel("json", 7))));
+
+        assertThrows(RuntimeException.class, () -> TaggedModelSerializer.build(simpleCodec).deserialize(jsonBytes));
+    }
+}
@@ -22,6 +22,7 @@ import static org.apache.curator.x.async.modeled.ZPath.parameter;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.apache.curator.utils.ZKPaths;
@@ -128,4 +129,21 @@ public class TestZPath
         assertTrue(path.isResolved());
         assertEquals(path.toString(), "/one/p1/two/p2");
     }
+
+    @Test
+    public void testInterning()
+    {
+        ZPath path = ZPath.parse("/one/two/three");
+        assertSame(path, ZPath.root.child("one").child("two").child("three"));
+        assertSame(path, ZPath.from("one", "two", "three"));
+        assertSame(path.parent(), ZPath.parse("/one/two"));
+        assertSame(path.fullPath(), path.fullPath());
+
+        ZPath parameterized = ZPath.parseWithIds("/one/two/{id}/four/{id}");
+        ZPath resolved = parameterized.resolved("a", "b");
+        assertSame(resolved, ZPath.parse("/one/two/a/four/b"));
+        assertSame(resolved.parent().parent().parent(), path.parent());   // the unparameterized prefix is shared
+        assertSame(parameterized.resolved("a", "b"), resolved);
+        assertSame(resolved.resolved("c"), resolved);
+    }
 }